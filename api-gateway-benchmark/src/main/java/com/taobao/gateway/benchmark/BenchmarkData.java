@@ -0,0 +1,114 @@
+package com.taobao.gateway.benchmark;
+
+import com.taobao.gateway.loadbalancer.ServiceInstance;
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试数据生成工具
+ * 固定随机种子，保证多次运行及变更前后使用完全相同的数据集
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class BenchmarkData {
+
+    /**
+     * 随机种子
+     */
+    public static final long SEED = 20240101L;
+
+    /**
+     * 前缀路由数量（不随路由总数变化）
+     */
+    public static final int PREFIX_ROUTES = 32;
+
+    /**
+     * 正则路由数量（不随路由总数变化）
+     */
+    public static final int REGEX_ROUTES = 16;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成路由：除固定数量的前缀、正则路由外，其余均为精确路由
+     */
+    public static List<Route> routes(int count) {
+        List<Route> routes = new ArrayList<>(count);
+        int exactCount = Math.max(0, count - PREFIX_ROUTES - REGEX_ROUTES);
+        for (int i = 0; i < exactCount; i++) {
+            routes.add(new Route("exact-" + i, exactPath(i), "http://backend-" + (i % 64)));
+        }
+        for (int i = 0; i < PREFIX_ROUTES; i++) {
+            Route route = new Route("prefix-" + i, "/static/bucket-" + i + "/", "http://static-" + i);
+            route.setType(RouteType.PREFIX);
+            routes.add(route);
+        }
+        for (int i = 0; i < REGEX_ROUTES; i++) {
+            Route route = new Route("regex-" + i, "/item-" + i + "/\\d+/detail", "http://item-" + i);
+            route.setType(RouteType.REGEX);
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * 第i条精确路由的路径
+     */
+    public static String exactPath(int i) {
+        return "/api/service-" + (i % 512) + "/resource-" + i;
+    }
+
+    /**
+     * 生成服务实例，权重在1~10之间分布
+     */
+    public static List<ServiceInstance> instances(String serviceName, int count) {
+        Random random = new Random(SEED);
+        List<ServiceInstance> instances = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ServiceInstance instance = new ServiceInstance("instance-" + i, serviceName,
+                    "10.0." + (i / 256) + "." + (i % 256), 8080);
+            instance.setWeight(1 + random.nextInt(10));
+            instances.add(instance);
+        }
+        return instances;
+    }
+
+    /**
+     * 生成近似Zipf分布（s=1）的键下标序列，模拟热点访问
+     *
+     * @param keySpace 键空间大小
+     * @param length 序列长度（应为2的幂，便于取模）
+     */
+    public static int[] zipfIndexes(int keySpace, int length) {
+        double[] cumulative = new double[keySpace];
+        double sum = 0;
+        for (int i = 0; i < keySpace; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(SEED);
+        int[] indexes = new int[length];
+        for (int i = 0; i < length; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = keySpace - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            indexes[i] = low;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,58 @@
+package com.taobao.gateway.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试启动入口
+ *
+ * 接受标准JMH命令行参数，并在未显式指定时默认：
+ * <ul>
+ *     <li>启用GC分配分析（等同于 -prof gc），输出每次操作的分配字节数</li>
+ *     <li>以JSON格式输出结果到 target/jmh-result.json（等同于 -rf json -rff ...）</li>
+ * </ul>
+ *
+ * 示例：
+ * <pre>
+ * java -jar target/benchmarks.jar                       # 运行全部基准
+ * java -jar target/benchmarks.jar RouteMatcher -p routeCount=10000
+ * java -jar target/benchmarks.jar -rff before.json      # 变更前后分别输出，便于对比
+ * </pre>
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class BenchmarkRunner {
+
+    /**
+     * 默认结果文件
+     */
+    private static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cli);
+
+        if (cli.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (!cli.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cli.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.taobao.gateway.benchmark.cache;
+
+import com.taobao.gateway.benchmark.BenchmarkData;
+import com.taobao.gateway.cache.Cache;
+import com.taobao.gateway.cache.CacheConfig;
+import com.taobao.gateway.cache.impl.CaffeineCache;
+import com.taobao.gateway.cache.impl.EvictionBasedCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地缓存基准：CaffeineCache 与 EvictionBasedCache（LRU）对比
+ * 与 {@link EvictionPolicyBenchmark} 使用相同的容量、键空间和Zipf访问序列
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private static final int KEY_SPACE = MAX_SIZE * 4;
+
+    private static final int MASK = (1 << 16) - 1;
+
+    @Param({"CAFFEINE", "EVICTION_BASED"})
+    private String implementation;
+
+    private Cache<String, String> cache;
+
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CacheConfig config = new CacheConfig("benchmark");
+        config.setL1Enabled(true);
+        config.setL2Enabled(false);
+        config.setL1MaxSize(MAX_SIZE);
+        config.setL1ExpireAfterWrite(Duration.ofHours(1));
+        config.setL1ExpireAfterAccess(Duration.ofHours(1));
+        config.setEvictionPolicy(CacheConfig.CacheEvictionPolicy.LRU);
+        cache = "CAFFEINE".equals(implementation)
+                ? new CaffeineCache<>("benchmark", config)
+                : new EvictionBasedCache<>("benchmark", config);
+
+        int[] indexes = BenchmarkData.zipfIndexes(KEY_SPACE, MASK + 1);
+        keys = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            keys[i] = "key-" + indexes[i];
+        }
+        for (int i = 0; i < MAX_SIZE; i++) {
+            cache.put(keys[i & MASK], "value");
+        }
+    }
+
+    /**
+     * 每线程独立的键游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next() {
+            return index++ & MASK;
+        }
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        return cache.get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        cache.put(keys[cursor.next()], "value");
+    }
+
+    @Benchmark
+    public String mixed(Cursor cursor) {
+        int index = cursor.next();
+        if (index % 5 == 0) {
+            cache.put(keys[index], "value");
+            return null;
+        }
+        return cache.get(keys[index]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String mixedContended(Cursor cursor) {
+        return mixed(cursor);
+    }
+}
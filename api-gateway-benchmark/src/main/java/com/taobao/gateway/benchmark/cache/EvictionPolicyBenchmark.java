@@ -0,0 +1,119 @@
+package com.taobao.gateway.benchmark.cache;
+
+import com.taobao.gateway.benchmark.BenchmarkData;
+import com.taobao.gateway.cache.eviction.EvictionPolicy;
+import com.taobao.gateway.cache.eviction.FIFOEvictionPolicy;
+import com.taobao.gateway.cache.eviction.LFUEvictionPolicy;
+import com.taobao.gateway.cache.eviction.LRUEvictionPolicy;
+import com.taobao.gateway.cache.eviction.RandomEvictionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 驱逐策略基准
+ * 键空间为容量的4倍，访问序列服从Zipf分布；分别测量读、写以及读写8:2混合负载
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvictionPolicyBenchmark {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private static final int KEY_SPACE = MAX_SIZE * 4;
+
+    private static final int MASK = (1 << 16) - 1;
+
+    @Param({"LRU", "LFU", "FIFO", "RANDOM"})
+    private String policy;
+
+    private EvictionPolicy<String, String> evictionPolicy;
+
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        evictionPolicy = create(policy);
+        int[] indexes = BenchmarkData.zipfIndexes(KEY_SPACE, MASK + 1);
+        keys = new String[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            keys[i] = "key-" + indexes[i];
+        }
+        for (int i = 0; i < MAX_SIZE; i++) {
+            evictionPolicy.put(keys[i & MASK], "value");
+        }
+    }
+
+    private static EvictionPolicy<String, String> create(String policy) {
+        switch (policy) {
+            case "LRU":
+                return new LRUEvictionPolicy<>(MAX_SIZE);
+            case "LFU":
+                return new LFUEvictionPolicy<>(MAX_SIZE);
+            case "FIFO":
+                return new FIFOEvictionPolicy<>(MAX_SIZE);
+            case "RANDOM":
+                return new RandomEvictionPolicy<>(MAX_SIZE);
+            default:
+                throw new IllegalArgumentException("Unknown eviction policy: " + policy);
+        }
+    }
+
+    /**
+     * 每线程独立的键游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next() {
+            return index++ & MASK;
+        }
+    }
+
+    @Benchmark
+    public String get(Cursor cursor) {
+        return evictionPolicy.get(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    public void put(Cursor cursor) {
+        evictionPolicy.put(keys[cursor.next()], "value");
+    }
+
+    @Benchmark
+    public String mixed(Cursor cursor) {
+        int index = cursor.next();
+        if (index % 5 == 0) {
+            evictionPolicy.put(keys[index], "value");
+            return null;
+        }
+        return evictionPolicy.get(keys[index]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String mixedContended(Cursor cursor) {
+        return mixed(cursor);
+    }
+}
@@ -0,0 +1,131 @@
+package com.taobao.gateway.benchmark.loadbalancer;
+
+import com.taobao.gateway.benchmark.BenchmarkData;
+import com.taobao.gateway.loadbalancer.LoadBalancer;
+import com.taobao.gateway.loadbalancer.ServiceInstance;
+import com.taobao.gateway.loadbalancer.adaptive.AdaptiveLoadBalanceConfig;
+import com.taobao.gateway.loadbalancer.adaptive.impl.AdaptiveLoadBalancerImpl;
+import com.taobao.gateway.loadbalancer.impl.AdvancedConsistentHashLoadBalancer;
+import com.taobao.gateway.loadbalancer.impl.ConsistentHashLoadBalancer;
+import com.taobao.gateway.loadbalancer.impl.LeastConnectionsLoadBalancer;
+import com.taobao.gateway.loadbalancer.impl.RoundRobinLoadBalancer;
+import com.taobao.gateway.loadbalancer.impl.WeightedRoundRobinLoadBalancer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 负载均衡器选择基准
+ * 覆盖全部 {@link LoadBalancer} 实现，实例数为10/100/1000；请求键按1024个取值轮转，
+ * 使一致性哈希类实现既命中内部缓存又覆盖环查找
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoadBalancerBenchmark {
+
+    private static final String SERVICE_NAME = "benchmark-service";
+
+    private static final int MASK = 1023;
+
+    @Param({"ROUND_ROBIN", "WEIGHTED_ROUND_ROBIN", "LEAST_CONNECTIONS",
+            "CONSISTENT_HASH", "ADVANCED_CONSISTENT_HASH", "ADAPTIVE"})
+    private String type;
+
+    @Param({"10", "100", "1000"})
+    private int instanceCount;
+
+    private LoadBalancer loadBalancer;
+
+    private List<ServiceInstance> instances;
+
+    private String[] requestKeys;
+
+    private ScheduledExecutorService scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        instances = BenchmarkData.instances(SERVICE_NAME, instanceCount);
+        requestKeys = new String[MASK + 1];
+        for (int i = 0; i <= MASK; i++) {
+            requestKeys[i] = "user-" + i;
+        }
+        loadBalancer = create(type);
+    }
+
+    private LoadBalancer create(String type) {
+        switch (type) {
+            case "ROUND_ROBIN":
+                return new RoundRobinLoadBalancer();
+            case "WEIGHTED_ROUND_ROBIN":
+                return new WeightedRoundRobinLoadBalancer();
+            case "LEAST_CONNECTIONS":
+                return new LeastConnectionsLoadBalancer();
+            case "CONSISTENT_HASH":
+                return new ConsistentHashLoadBalancer();
+            case "ADVANCED_CONSISTENT_HASH":
+                return new AdvancedConsistentHashLoadBalancer();
+            case "ADAPTIVE":
+                // 关闭定时调整任务，仅测量选择路径
+                AdaptiveLoadBalanceConfig config = new AdaptiveLoadBalanceConfig();
+                config.setEnabled(false);
+                scheduler = Executors.newSingleThreadScheduledExecutor();
+                return new AdaptiveLoadBalancerImpl("benchmark", config, scheduler);
+            default:
+                throw new IllegalArgumentException("Unknown load balancer type: " + type);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 每线程独立的请求键游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next() {
+            return index++ & MASK;
+        }
+    }
+
+    @Benchmark
+    public ServiceInstance select(Cursor cursor) {
+        return loadBalancer.select(SERVICE_NAME, instances, requestKeys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ServiceInstance selectContended(Cursor cursor) {
+        return loadBalancer.select(SERVICE_NAME, instances, requestKeys[cursor.next()]);
+    }
+}
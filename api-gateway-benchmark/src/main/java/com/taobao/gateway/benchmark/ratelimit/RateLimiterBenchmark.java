@@ -0,0 +1,120 @@
+package com.taobao.gateway.benchmark.ratelimit;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiter;
+import com.taobao.gateway.ratelimit.RateLimiterFactory;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.adaptive.AdaptiveRateLimitConfig;
+import com.taobao.gateway.ratelimit.adaptive.impl.AdaptiveRateLimiterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器获取许可基准
+ * 以单线程、8线程、32线程分别测量无竞争与竞争下的开销；keyCount=1 时所有线程争用同一个键（热点键），
+ * keyCount=1024 时各线程分散在不同键上。saturated=false 时限额足够大，测量覆盖放行路径；
+ * saturated=true 时每个键限额为每秒1000次，大部分请求走拒绝路径，令牌桶的填充与GCRA的CAS在此时竞争最激烈；
+ * 滑动窗口在热点键上以分段计数器分散竞争
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"TOKEN_BUCKET", "GCRA", "SLIDING_WINDOW", "FIXED_WINDOW", "LEAKY_BUCKET", "ADAPTIVE"})
+    private String type;
+
+    @Param({"1", "1024"})
+    private int keyCount;
+
+    @Param({"false", "true"})
+    private boolean saturated;
+
+    private RateLimiter rateLimiter;
+
+    private String[] keys;
+
+    private ScheduledExecutorService scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "client-" + i;
+        }
+        if ("ADAPTIVE".equals(type)) {
+            AdaptiveRateLimitConfig config = new AdaptiveRateLimitConfig();
+            config.setEnabled(false);
+            config.setBaseLimit(saturated ? 1000 : Integer.MAX_VALUE / 2);
+            config.setMaxLimit(saturated ? 1000 : Integer.MAX_VALUE / 2);
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+            rateLimiter = new AdaptiveRateLimiterImpl("benchmark", config, scheduler);
+        } else {
+            int limit = saturated ? 1000 : Integer.MAX_VALUE / 2;
+            RateLimitConfig config = new RateLimitConfig("benchmark", RateLimiterType.valueOf(type), limit);
+            config.setCapacity(limit);
+            config.setRefillRate(limit);
+            rateLimiter = RateLimiterFactory.newRateLimiter(config);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 每线程独立的键游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        String next(String[] keys) {
+            return keys[(index++ & Integer.MAX_VALUE) % keys.length];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean uncontended(Cursor cursor) {
+        return rateLimiter.tryAcquire(cursor.next(keys));
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean contended8(Cursor cursor) {
+        return rateLimiter.tryAcquire(cursor.next(keys));
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean contended32(Cursor cursor) {
+        return rateLimiter.tryAcquire(cursor.next(keys));
+    }
+}
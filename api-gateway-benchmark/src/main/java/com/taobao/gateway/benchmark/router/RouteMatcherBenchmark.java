@@ -0,0 +1,100 @@
+package com.taobao.gateway.benchmark.router;
+
+import com.taobao.gateway.benchmark.BenchmarkData;
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteBatch;
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DefaultRouteMatcher 匹配基准
+ * 分别测量精确命中、前缀命中、正则命中和未命中四种路径
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteMatcherBenchmark {
+
+    private static final int MASK = 1023;
+
+    @Param({"1000", "10000", "100000"})
+    private int routeCount;
+
+    private DefaultRouteMatcher matcher;
+
+    private String[] exactPaths;
+
+    private String[] prefixPaths;
+
+    private String[] regexPaths;
+
+    private String[] missingPaths;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Route> routes = BenchmarkData.routes(routeCount);
+        matcher = new DefaultRouteMatcher();
+        matcher.applyBatch(new RouteBatch().replaceAll(routes));
+
+        Random random = new Random(BenchmarkData.SEED);
+        int exactCount = routeCount - BenchmarkData.PREFIX_ROUTES - BenchmarkData.REGEX_ROUTES;
+        exactPaths = new String[MASK + 1];
+        prefixPaths = new String[MASK + 1];
+        regexPaths = new String[MASK + 1];
+        missingPaths = new String[MASK + 1];
+        for (int i = 0; i <= MASK; i++) {
+            exactPaths[i] = BenchmarkData.exactPath(random.nextInt(exactCount));
+            prefixPaths[i] = "/static/bucket-" + random.nextInt(BenchmarkData.PREFIX_ROUTES) + "/img/" + i + ".png";
+            regexPaths[i] = "/item-" + random.nextInt(BenchmarkData.REGEX_ROUTES) + "/" + random.nextInt(1_000_000) + "/detail";
+            missingPaths[i] = "/unknown/" + i;
+        }
+    }
+
+    private int next() {
+        return cursor++ & MASK;
+    }
+
+    @Benchmark
+    public Route matchExact() {
+        return matcher.match(exactPaths[next()], "GET");
+    }
+
+    @Benchmark
+    public Route matchPrefix() {
+        return matcher.match(prefixPaths[next()], "GET");
+    }
+
+    @Benchmark
+    public Route matchRegex() {
+        return matcher.match(regexPaths[next()], "GET");
+    }
+
+    @Benchmark
+    public Route matchMissing() {
+        return matcher.match(missingPaths[next()], "GET");
+    }
+}
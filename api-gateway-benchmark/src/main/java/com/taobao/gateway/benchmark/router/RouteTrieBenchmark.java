@@ -0,0 +1,103 @@
+package com.taobao.gateway.benchmark.router;
+
+import com.taobao.gateway.benchmark.BenchmarkData;
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteResult;
+import com.taobao.gateway.router.trie.RouteTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RouteTrie 字典树查找基准
+ * 分别测量精确命中、前缀命中、正则命中和未命中四种路径；每次迭代的路径集合固定为1024条，
+ * 因此结果包含RouteTrie内部查找缓存命中后的开销
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteTrieBenchmark {
+
+    private static final int MASK = 1023;
+
+    @Param({"1000", "10000", "100000"})
+    private int routeCount;
+
+    private RouteTrie trie;
+
+    private String[] exactPaths;
+
+    private String[] prefixPaths;
+
+    private String[] regexPaths;
+
+    private String[] missingPaths;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Route> routes = BenchmarkData.routes(routeCount);
+        trie = new RouteTrie();
+        for (Route route : routes) {
+            trie.addRoute(route);
+        }
+
+        Random random = new Random(BenchmarkData.SEED);
+        int exactCount = routeCount - BenchmarkData.PREFIX_ROUTES - BenchmarkData.REGEX_ROUTES;
+        exactPaths = new String[MASK + 1];
+        prefixPaths = new String[MASK + 1];
+        regexPaths = new String[MASK + 1];
+        missingPaths = new String[MASK + 1];
+        for (int i = 0; i <= MASK; i++) {
+            exactPaths[i] = BenchmarkData.exactPath(random.nextInt(exactCount));
+            prefixPaths[i] = "/static/bucket-" + random.nextInt(BenchmarkData.PREFIX_ROUTES) + "/img/" + i + ".png";
+            regexPaths[i] = "/item-" + random.nextInt(BenchmarkData.REGEX_ROUTES) + "/" + random.nextInt(1_000_000) + "/detail";
+            missingPaths[i] = "/unknown/" + i;
+        }
+    }
+
+    private int next() {
+        return cursor++ & MASK;
+    }
+
+    @Benchmark
+    public RouteResult findExact() {
+        return trie.findRoute(exactPaths[next()]);
+    }
+
+    @Benchmark
+    public RouteResult findPrefix() {
+        return trie.findRoute(prefixPaths[next()]);
+    }
+
+    @Benchmark
+    public RouteResult findRegex() {
+        return trie.findRoute(regexPaths[next()]);
+    }
+
+    @Benchmark
+    public RouteResult findMissing() {
+        return trie.findRoute(missingPaths[next()]);
+    }
+}
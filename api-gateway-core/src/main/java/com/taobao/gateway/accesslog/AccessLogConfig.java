@@ -0,0 +1,148 @@
+package com.taobao.gateway.accesslog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 访问日志配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogConfig {
+
+    /**
+     * 是否启用访问日志
+     */
+    private boolean enabled = true;
+
+    /**
+     * 日志目录
+     */
+    private String directory = "logs";
+
+    /**
+     * 当前日志文件名，滚动后的文件依次追加 .1、.2 ... 后缀
+     */
+    private String fileName = "access.log";
+
+    /**
+     * 环形缓冲区容量（记录数），向上取整为2的幂
+     */
+    private int ringSize = 65536;
+
+    /**
+     * 写线程单批最多编码的记录数
+     */
+    private int batchSize = 512;
+
+    /**
+     * 单个日志文件大小（字节），写满后滚动
+     */
+    private long segmentSize = 64L * 1024 * 1024;
+
+    /**
+     * 保留的历史日志文件数
+     */
+    private int maxFiles = 10;
+
+    /**
+     * 缓冲区写满时的处理策略
+     */
+    private AccessLogDropPolicy dropPolicy = AccessLogDropPolicy.DROP;
+
+    /**
+     * BLOCK策略下的最长等待时间（毫秒），超时后丢弃
+     */
+    private long blockTimeoutMillis = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    public void setRingSize(int ringSize) {
+        this.ringSize = ringSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+
+    public AccessLogDropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    public void setDropPolicy(AccessLogDropPolicy dropPolicy) {
+        this.dropPolicy = dropPolicy;
+    }
+
+    public long getBlockTimeoutMillis() {
+        return blockTimeoutMillis;
+    }
+
+    public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AccessLogConfig{" +
+                "enabled=" + enabled +
+                ", directory='" + directory + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", ringSize=" + ringSize +
+                ", batchSize=" + batchSize +
+                ", segmentSize=" + segmentSize +
+                ", maxFiles=" + maxFiles +
+                ", dropPolicy=" + dropPolicy +
+                ", blockTimeoutMillis=" + blockTimeoutMillis +
+                '}';
+    }
+}
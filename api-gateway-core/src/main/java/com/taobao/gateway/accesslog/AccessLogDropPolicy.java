@@ -0,0 +1,21 @@
+package com.taobao.gateway.accesslog;
+
+/**
+ * 访问日志缓冲区写满时的处理策略
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum AccessLogDropPolicy {
+
+    /**
+     * 立即丢弃新记录，请求线程不等待
+     */
+    DROP,
+
+    /**
+     * 等待写线程腾出空间，超过等待时间后丢弃
+     */
+    BLOCK
+}
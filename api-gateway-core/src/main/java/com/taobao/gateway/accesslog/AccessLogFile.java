@@ -0,0 +1,157 @@
+package com.taobao.gateway.accesslog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 内存映射的滚动日志文件，只由写线程访问
+ *
+ * 当前文件按 {@code segmentSize} 整段映射，写满后截断到实际长度并滚动为 {@code .1}，
+ * 已有的历史文件依次后移，超过 {@code maxFiles} 的最旧文件被删除。
+ * 进程异常退出时当前文件尾部残留未写入的零字节，下次打开时按首个零字节定位实际长度后截断并滚动
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+final class AccessLogFile implements Closeable {
+
+    private final Path directory;
+
+    private final String fileName;
+
+    private final Path active;
+
+    private final long segmentSize;
+
+    private final int maxFiles;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer mapped;
+
+    AccessLogFile(Path directory, String fileName, long segmentSize, int maxFiles) {
+        if (segmentSize < AccessLogRecord.MAX_LINE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize: " + segmentSize);
+        }
+        this.directory = directory;
+        this.fileName = fileName;
+        this.active = directory.resolve(fileName);
+        this.segmentSize = segmentSize;
+        this.maxFiles = Math.max(0, maxFiles);
+    }
+
+    /**
+     * 打开当前日志文件，已存在的文件先滚动为历史文件
+     */
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        if (Files.exists(active)) {
+            try (FileChannel existing = FileChannel.open(active, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                existing.truncate(writtenLength(existing));
+            }
+            if (Files.size(active) > 0) {
+                shift();
+            } else {
+                Files.delete(active);
+            }
+        }
+        map();
+    }
+
+    /**
+     * 当前文件剩余可写字节数
+     */
+    int remaining() {
+        return mapped.remaining();
+    }
+
+    /**
+     * 写入一批已编码的文本，调用方保证不超过 {@link #remaining()}
+     */
+    void write(byte[] bytes, int length) {
+        mapped.put(bytes, 0, length);
+    }
+
+    /**
+     * 截断当前文件并滚动，打开新的文件
+     */
+    void rotate() throws IOException {
+        finish();
+        shift();
+        map();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mapped != null) {
+            finish();
+        } else if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void map() throws IOException {
+        channel = FileChannel.open(active, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void finish() throws IOException {
+        int length = mapped.position();
+        mapped.force();
+        channel.truncate(length);
+        channel.close();
+        channel = null;
+        mapped = null;
+    }
+
+    /**
+     * 历史文件依次后移一位，当前文件成为 .1
+     */
+    private void shift() throws IOException {
+        if (maxFiles == 0) {
+            Files.deleteIfExists(active);
+            return;
+        }
+        Files.deleteIfExists(history(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path source = history(i);
+            if (Files.exists(source)) {
+                Files.move(source, history(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(active, history(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path history(int index) {
+        return directory.resolve(fileName + "." + index);
+    }
+
+    /**
+     * 日志为不含零字节的文本，映射区未写入部分全为零，二分查找首个零字节即为实际长度
+     */
+    private static long writtenLength(FileChannel channel) throws IOException {
+        long low = 0;
+        long high = channel.size();
+        ByteBuffer one = ByteBuffer.allocate(1);
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            one.clear();
+            channel.read(one, mid);
+            if (one.get(0) == 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,241 @@
+package com.taobao.gateway.accesslog;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 访问日志记录的二进制格式
+ *
+ * 每条记录固定 {@link #SIZE} 字节，请求线程只做定长拷贝，文本格式化由写线程完成：
+ * <pre>
+ *   0  long   时间戳（毫秒）
+ *   8  long   耗时（纳秒）
+ *  16  long   响应体字节数，未知为-1
+ *  24  short  HTTP状态码
+ *  26  byte   请求方法编号
+ *  27  byte   标志位
+ *  28  short  URI长度
+ *  30  short  User-Agent长度
+ *  32  byte[] URI（最多 {@link #MAX_URI} 字节）
+ * 192  byte[] User-Agent（最多 {@link #MAX_AGENT} 字节）
+ * </pre>
+ * 字符串按ASCII截断存储，非ASCII字符和控制字符替换为'?'
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class AccessLogRecord {
+
+    public static final int SIZE = 256;
+
+    public static final int MAX_URI = 160;
+
+    public static final int MAX_AGENT = 64;
+
+    /**
+     * 一条记录格式化为文本后的最大长度
+     */
+    public static final int MAX_LINE = 384;
+
+    private static final int TIMESTAMP = 0;
+    private static final int DURATION = 8;
+    private static final int RESPONSE_BYTES = 16;
+    private static final int STATUS = 24;
+    private static final int METHOD = 26;
+    private static final int FLAGS = 27;
+    private static final int URI_LENGTH = 28;
+    private static final int AGENT_LENGTH = 30;
+    private static final int URI = 32;
+    private static final int AGENT = URI + MAX_URI;
+
+    private static final int FLAG_URI_TRUNCATED = 1;
+
+    private static final HttpMethod[] METHODS = {
+            HttpMethod.GET, HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.HEAD,
+            HttpMethod.OPTIONS, HttpMethod.PATCH, HttpMethod.TRACE, HttpMethod.CONNECT
+    };
+
+    private static final byte[][] METHOD_NAMES = new byte[METHODS.length][];
+
+    static {
+        for (int i = 0; i < METHODS.length; i++) {
+            METHOD_NAMES[i] = ascii(METHODS[i].name());
+        }
+    }
+
+    private static final byte[] UNKNOWN = {'-'};
+
+    private final ZoneId zone;
+
+    /**
+     * 缓存的 "yyyy-MM-dd HH:mm:ss." 前缀，同一秒内的记录复用
+     */
+    private final byte[] secondPrefix = new byte[20];
+
+    private long cachedSecond = Long.MIN_VALUE;
+
+    /**
+     * 创建写线程使用的格式化器
+     */
+    public AccessLogRecord(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * 将一条访问记录写入槽位
+     */
+    public static void write(ByteBuffer buffer, int offset, long timestamp, HttpMethod method, String uri,
+                             CharSequence userAgent, int status, long durationNanos, long responseBytes) {
+        buffer.putLong(offset + TIMESTAMP, timestamp);
+        buffer.putLong(offset + DURATION, durationNanos);
+        buffer.putLong(offset + RESPONSE_BYTES, responseBytes);
+        buffer.putShort(offset + STATUS, (short) status);
+        buffer.put(offset + METHOD, methodCode(method));
+        int uriLength = putAscii(buffer, offset + URI, uri, MAX_URI);
+        int agentLength = putAscii(buffer, offset + AGENT, userAgent, MAX_AGENT);
+        boolean truncated = uri != null && uri.length() > MAX_URI;
+        buffer.put(offset + FLAGS, (byte) (truncated ? FLAG_URI_TRUNCATED : 0));
+        buffer.putShort(offset + URI_LENGTH, (short) uriLength);
+        buffer.putShort(offset + AGENT_LENGTH, (short) agentLength);
+    }
+
+    /**
+     * 将槽位中的记录格式化为一行文本
+     * <pre>2024-01-01 12:00:00.123 GET /api/items 200 12.345ms 1024 "curl/8.0"</pre>
+     *
+     * @param out 输出缓冲区，剩余空间不少于 {@link #MAX_LINE}
+     * @param pos 写入位置
+     * @return 写入后的位置
+     */
+    public int format(ByteBuffer buffer, int offset, byte[] out, int pos) {
+        long timestamp = buffer.getLong(offset + TIMESTAMP);
+        long second = Math.floorDiv(timestamp, 1000);
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochSecond(second), zone);
+            int p = putDigits(secondPrefix, 0, time.getYear(), 4);
+            secondPrefix[p++] = '-';
+            p = putDigits(secondPrefix, p, time.getMonthValue(), 2);
+            secondPrefix[p++] = '-';
+            p = putDigits(secondPrefix, p, time.getDayOfMonth(), 2);
+            secondPrefix[p++] = ' ';
+            p = putDigits(secondPrefix, p, time.getHour(), 2);
+            secondPrefix[p++] = ':';
+            p = putDigits(secondPrefix, p, time.getMinute(), 2);
+            secondPrefix[p++] = ':';
+            p = putDigits(secondPrefix, p, time.getSecond(), 2);
+            secondPrefix[p] = '.';
+        }
+        System.arraycopy(secondPrefix, 0, out, pos, secondPrefix.length);
+        pos += secondPrefix.length;
+        pos = putDigits(out, pos, (int) Math.floorMod(timestamp, 1000L), 3);
+        out[pos++] = ' ';
+
+        int method = buffer.get(offset + METHOD);
+        byte[] methodName = method >= 0 && method < METHOD_NAMES.length ? METHOD_NAMES[method] : UNKNOWN;
+        System.arraycopy(methodName, 0, out, pos, methodName.length);
+        pos += methodName.length;
+        out[pos++] = ' ';
+
+        int uriLength = buffer.getShort(offset + URI_LENGTH);
+        pos = getBytes(buffer, offset + URI, out, pos, uriLength);
+        if ((buffer.get(offset + FLAGS) & FLAG_URI_TRUNCATED) != 0) {
+            out[pos++] = '.';
+            out[pos++] = '.';
+            out[pos++] = '.';
+        }
+        out[pos++] = ' ';
+
+        pos = putDigits(out, pos, buffer.getShort(offset + STATUS) & 0xFFFF, 3);
+        out[pos++] = ' ';
+
+        long micros = Math.max(0, buffer.getLong(offset + DURATION) / 1000);
+        pos = putLong(out, pos, micros / 1000);
+        out[pos++] = '.';
+        pos = putDigits(out, pos, (int) (micros % 1000), 3);
+        out[pos++] = 'm';
+        out[pos++] = 's';
+        out[pos++] = ' ';
+
+        long responseBytes = buffer.getLong(offset + RESPONSE_BYTES);
+        if (responseBytes < 0) {
+            out[pos++] = '-';
+        } else {
+            pos = putLong(out, pos, responseBytes);
+        }
+        out[pos++] = ' ';
+        out[pos++] = '"';
+        pos = getBytes(buffer, offset + AGENT, out, pos, buffer.getShort(offset + AGENT_LENGTH));
+        out[pos++] = '"';
+        out[pos++] = '\n';
+        return pos;
+    }
+
+    private static byte methodCode(HttpMethod method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return (byte) i;
+            }
+        }
+        return -1;
+    }
+
+    private static int putAscii(ByteBuffer buffer, int offset, CharSequence value, int max) {
+        if (value == null) {
+            return 0;
+        }
+        int length = Math.min(value.length(), max);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer.put(offset + i, c < 0x20 || c >= 0x7F || c == '"' ? (byte) '?' : (byte) c);
+        }
+        return length;
+    }
+
+    private static int getBytes(ByteBuffer buffer, int offset, byte[] out, int pos, int length) {
+        for (int i = 0; i < length; i++) {
+            out[pos + i] = buffer.get(offset + i);
+        }
+        return pos + length;
+    }
+
+    /**
+     * 写入定宽十进制数，不足位补0
+     */
+    private static int putDigits(byte[] out, int pos, int value, int width) {
+        for (int i = width - 1; i >= 0; i--) {
+            out[pos + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static int putLong(byte[] out, int pos, long value) {
+        if (value == 0) {
+            out[pos] = '0';
+            return pos + 1;
+        }
+        int digits = 0;
+        for (long v = value; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            out[pos + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static byte[] ascii(String value) {
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+}
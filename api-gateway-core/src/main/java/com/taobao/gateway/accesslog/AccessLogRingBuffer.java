@@ -0,0 +1,145 @@
+package com.taobao.gateway.accesslog;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 定长记录的多生产者单消费者环形缓冲区
+ *
+ * 记录存放在预分配的堆外内存中，生产者通过CAS推进写序号占用槽位，写完后发布槽位序号；
+ * 消费者按序号顺序读取已发布的槽位，读完后推进读序号释放空间。全程无锁，写满时 {@link #tryClaim()} 返回-1
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class AccessLogRingBuffer {
+
+    /**
+     * 槽位处理器
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+
+        /**
+         * 处理一条记录
+         *
+         * @param buffer 记录所在的缓冲区
+         * @param offset 记录起始偏移
+         */
+        void onRecord(ByteBuffer buffer, int offset);
+    }
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final int recordSize;
+
+    private final ByteBuffer slots;
+
+    /**
+     * 每个槽位已发布的序号，未发布时小于消费者期望的序号
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * 下一个待占用的写序号
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个待读取的序号，只由消费者推进
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    public AccessLogRingBuffer(int capacity, int recordSize) {
+        if (capacity < 2 || recordSize <= 0) {
+            throw new IllegalArgumentException("capacity: " + capacity + ", recordSize: " + recordSize);
+        }
+        this.capacity = capacity > (1 << 30) ? 1 << 30 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.recordSize = recordSize;
+        this.slots = ByteBuffer.allocateDirect(Math.multiplyExact(this.capacity, recordSize));
+        this.published = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * 占用一个槽位
+     *
+     * @return 槽位序号，缓冲区已满时返回-1
+     */
+    public long tryClaim() {
+        for (;;) {
+            long current = tail.get();
+            if (current - head.get() >= capacity) {
+                return -1;
+            }
+            if (tail.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * 槽位在缓冲区中的起始偏移，生产者在 {@link #publish(long)} 之前通过绝对位置写入记录
+     */
+    public int offset(long sequence) {
+        return (int) (sequence & mask) * recordSize;
+    }
+
+    public ByteBuffer buffer() {
+        return slots;
+    }
+
+    /**
+     * 发布已写完的槽位，此前对槽位的写入对消费者可见
+     */
+    public void publish(long sequence) {
+        published.lazySet((int) (sequence & mask), sequence);
+    }
+
+    /**
+     * 按顺序读取已发布的记录，遇到尚未发布的槽位即停止，只能由单个消费者线程调用
+     *
+     * @param handler 记录处理器
+     * @param limit 最多读取的记录数
+     * @return 读取的记录数
+     */
+    public int drain(RecordHandler handler, int limit) {
+        long current = head.get();
+        int count = 0;
+        while (count < limit) {
+            long sequence = current + count;
+            if (published.get((int) (sequence & mask)) != sequence) {
+                break;
+            }
+            handler.onRecord(slots, offset(sequence));
+            count++;
+        }
+        if (count > 0) {
+            head.lazySet(current + count);
+        }
+        return count;
+    }
+
+    /**
+     * 已占用但尚未被消费的槽位数
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int recordSize() {
+        return recordSize;
+    }
+}
@@ -0,0 +1,250 @@
+package com.taobao.gateway.accesslog;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步访问日志
+ *
+ * 请求线程把访问记录以定长二进制格式写入无锁环形缓冲区后立即返回，
+ * 单个写线程批量取出记录、编码为文本并写入内存映射的滚动日志文件。
+ * 缓冲区写满时按 {@link AccessLogDropPolicy} 丢弃或短暂等待，丢弃的记录数通过 {@link #getDroppedCount()} 查看
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class AccessLogger {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogger.class);
+
+    /**
+     * 缓冲区为空时写线程的休眠时间
+     */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * BLOCK策略下请求线程每次等待的时间
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Autowired
+    private AccessLogConfig config;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private volatile AccessLogRingBuffer ring;
+
+    private AccessLogFile file;
+
+    private AccessLogRecord formatter;
+
+    private byte[] batch;
+
+    /**
+     * 当前批次在 {@link #batch} 中的写入位置
+     */
+    private int batchPosition;
+
+    private final AccessLogRingBuffer.RecordHandler encoder = this::encode;
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    public AccessLogger() {
+    }
+
+    public AccessLogger(AccessLogConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!config.isEnabled()) {
+            logger.info("访问日志未启用");
+            return;
+        }
+        open();
+        running = true;
+        writer = new Thread(this::runWriter, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("访问日志已启用: {}", config);
+    }
+
+    /**
+     * 打开日志文件并创建缓冲区，不启动写线程
+     */
+    void open() throws IOException {
+        file = new AccessLogFile(Paths.get(config.getDirectory()), config.getFileName(),
+                config.getSegmentSize(), config.getMaxFiles());
+        file.open();
+        formatter = new AccessLogRecord(ZoneId.systemDefault());
+        int batchSize = Math.max(1, config.getBatchSize());
+        batch = new byte[(int) Math.min((long) batchSize * AccessLogRecord.MAX_LINE, config.getSegmentSize())];
+        ring = new AccessLogRingBuffer(config.getRingSize(), AccessLogRecord.SIZE);
+    }
+
+    /**
+     * 记录一次请求
+     *
+     * @param method 请求方法
+     * @param uri 请求URI
+     * @param userAgent User-Agent，可为null
+     * @param status 响应状态码
+     * @param durationNanos 处理耗时（纳秒）
+     * @param responseBytes 响应体字节数，未知为-1
+     * @return 是否已写入缓冲区，未启用或被丢弃时返回false
+     */
+    public boolean log(HttpMethod method, String uri, CharSequence userAgent, int status,
+                       long durationNanos, long responseBytes) {
+        AccessLogRingBuffer current = ring;
+        if (current == null) {
+            return false;
+        }
+        long sequence = current.tryClaim();
+        if (sequence < 0 && config.getDropPolicy() == AccessLogDropPolicy.BLOCK) {
+            sequence = claimBlocking(current);
+        }
+        if (sequence < 0) {
+            dropped.increment();
+            return false;
+        }
+        AccessLogRecord.write(current.buffer(), current.offset(sequence), System.currentTimeMillis(),
+                method, uri, userAgent, status, durationNanos, responseBytes);
+        current.publish(sequence);
+        return true;
+    }
+
+    private long claimBlocking(AccessLogRingBuffer current) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getBlockTimeoutMillis());
+        long sequence;
+        do {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            sequence = current.tryClaim();
+        } while (sequence < 0 && running && System.nanoTime() < deadline);
+        return sequence;
+    }
+
+    private void runWriter() {
+        try {
+            while (running) {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            while (drain() > 0) {
+                // 关闭前写完剩余记录
+            }
+        } catch (RuntimeException e) {
+            // 文件不可写时停止记录，避免请求线程在满缓冲区上等待
+            ring = null;
+            logger.error("访问日志写线程异常退出，停止记录访问日志", e);
+        }
+    }
+
+    /**
+     * 取出一批记录写入文件，只能由写线程调用
+     *
+     * @return 写入的记录数
+     */
+    int drain() {
+        AccessLogRingBuffer current = ring;
+        if (current == null) {
+            return 0;
+        }
+        batchPosition = 0;
+        int count = current.drain(encoder, Math.max(1, config.getBatchSize()));
+        if (count > 0) {
+            flush(batchPosition);
+            written.add(count);
+        }
+        return count;
+    }
+
+    private void encode(ByteBuffer buffer, int offset) {
+        if (batchPosition + AccessLogRecord.MAX_LINE > Math.min(batch.length, file.remaining())) {
+            flush(batchPosition);
+            batchPosition = 0;
+        }
+        batchPosition = formatter.format(buffer, offset, batch, batchPosition);
+    }
+
+    private void flush(int length) {
+        if (length > 0) {
+            file.write(batch, length);
+        }
+        if (file.remaining() < AccessLogRecord.MAX_LINE) {
+            try {
+                file.rotate();
+            } catch (IOException e) {
+                logger.error("访问日志文件滚动失败", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (ring != null) {
+            while (drain() > 0) {
+                // 未启动写线程时由关闭线程写完剩余记录
+            }
+        }
+        ring = null;
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.error("访问日志文件关闭失败", e);
+            }
+        }
+    }
+
+    /**
+     * 因缓冲区写满被丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 已写入文件的记录数
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 缓冲区中等待写入的记录数
+     */
+    public int getPendingCount() {
+        AccessLogRingBuffer current = ring;
+        return current != null ? current.size() : 0;
+    }
+}
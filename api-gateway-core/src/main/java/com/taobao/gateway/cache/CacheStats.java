@@ -1,10 +1,12 @@
 package com.taobao.gateway.cache;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 缓存统计信息类
  * 
+ * 计数器使用 {@link LongAdder}，缓存命中路径上的并发记录分散到多个单元，不在同一缓存行上竞争
+ * 
  * @author taobao
  * @version 1.0.0
  * @since 2024-01-01
@@ -12,28 +14,28 @@ import java.util.concurrent.atomic.AtomicLong;
 public class CacheStats {
     
     /** 命中次数 */
-    private final AtomicLong hitCount = new AtomicLong(0);
+    private final LongAdder hitCount = new LongAdder();
     
     /** 未命中次数 */
-    private final AtomicLong missCount = new AtomicLong(0);
+    private final LongAdder missCount = new LongAdder();
     
     /** 加载成功次数 */
-    private final AtomicLong loadSuccessCount = new AtomicLong(0);
+    private final LongAdder loadSuccessCount = new LongAdder();
     
     /** 加载失败次数 */
-    private final AtomicLong loadFailureCount = new AtomicLong(0);
+    private final LongAdder loadFailureCount = new LongAdder();
     
     /** 总加载时间（纳秒） */
-    private final AtomicLong totalLoadTime = new AtomicLong(0);
+    private final LongAdder totalLoadTime = new LongAdder();
     
     /** 驱逐次数 */
-    private final AtomicLong evictionCount = new AtomicLong(0);
+    private final LongAdder evictionCount = new LongAdder();
     
     /** 一级缓存命中次数 */
-    private final AtomicLong l1HitCount = new AtomicLong(0);
+    private final LongAdder l1HitCount = new LongAdder();
     
     /** 二级缓存命中次数 */
-    private final AtomicLong l2HitCount = new AtomicLong(0);
+    private final LongAdder l2HitCount = new LongAdder();
     
     /** 缓存大小 */
     private volatile long size = 0;
@@ -42,51 +44,51 @@ public class CacheStats {
      * 记录命中
      */
     public void recordHits(long count) {
-        hitCount.addAndGet(count);
+        hitCount.add(count);
     }
     
     /**
      * 记录未命中
      */
     public void recordMisses(long count) {
-        missCount.addAndGet(count);
+        missCount.add(count);
     }
     
     /**
      * 记录加载成功
      */
     public void recordLoadSuccess(long loadTime) {
-        loadSuccessCount.incrementAndGet();
-        totalLoadTime.addAndGet(loadTime);
+        loadSuccessCount.increment();
+        totalLoadTime.add(loadTime);
     }
     
     /**
      * 记录加载失败
      */
     public void recordLoadFailure(long loadTime) {
-        loadFailureCount.incrementAndGet();
-        totalLoadTime.addAndGet(loadTime);
+        loadFailureCount.increment();
+        totalLoadTime.add(loadTime);
     }
     
     /**
      * 记录驱逐
      */
     public void recordEviction(long count) {
-        evictionCount.addAndGet(count);
+        evictionCount.add(count);
     }
     
     /**
      * 记录一级缓存命中
      */
     public void recordL1Hit() {
-        l1HitCount.incrementAndGet();
+        l1HitCount.increment();
     }
     
     /**
      * 记录二级缓存命中
      */
     public void recordL2Hit() {
-        l2HitCount.incrementAndGet();
+        l2HitCount.increment();
     }
     
     /**
@@ -100,65 +102,65 @@ public class CacheStats {
      * 获取命中率
      */
     public double getHitRate() {
-        long total = hitCount.get() + missCount.get();
-        return total == 0 ? 1.0 : (double) hitCount.get() / total;
+        long total = hitCount.sum() + missCount.sum();
+        return total == 0 ? 1.0 : (double) hitCount.sum() / total;
     }
     
     /**
      * 获取平均加载时间（毫秒）
      */
     public double getAverageLoadTime() {
-        long totalLoads = loadSuccessCount.get() + loadFailureCount.get();
-        return totalLoads == 0 ? 0.0 : (double) totalLoadTime.get() / totalLoads / 1_000_000;
+        long totalLoads = loadSuccessCount.sum() + loadFailureCount.sum();
+        return totalLoads == 0 ? 0.0 : (double) totalLoadTime.sum() / totalLoads / 1_000_000;
     }
     
     /**
      * 获取一级缓存命中率
      */
     public double getL1HitRate() {
-        long total = l1HitCount.get() + l2HitCount.get();
-        return total == 0 ? 0.0 : (double) l1HitCount.get() / total;
+        long total = l1HitCount.sum() + l2HitCount.sum();
+        return total == 0 ? 0.0 : (double) l1HitCount.sum() / total;
     }
     
     /**
      * 获取二级缓存命中率
      */
     public double getL2HitRate() {
-        long total = l1HitCount.get() + l2HitCount.get();
-        return total == 0 ? 0.0 : (double) l2HitCount.get() / total;
+        long total = l1HitCount.sum() + l2HitCount.sum();
+        return total == 0 ? 0.0 : (double) l2HitCount.sum() / total;
     }
     
     // Getter方法
     public long getHitCount() {
-        return hitCount.get();
+        return hitCount.sum();
     }
     
     public long getMissCount() {
-        return missCount.get();
+        return missCount.sum();
     }
     
     public long getLoadSuccessCount() {
-        return loadSuccessCount.get();
+        return loadSuccessCount.sum();
     }
     
     public long getLoadFailureCount() {
-        return loadFailureCount.get();
+        return loadFailureCount.sum();
     }
     
     public long getTotalLoadTime() {
-        return totalLoadTime.get();
+        return totalLoadTime.sum();
     }
     
     public long getEvictionCount() {
-        return evictionCount.get();
+        return evictionCount.sum();
     }
     
     public long getL1HitCount() {
-        return l1HitCount.get();
+        return l1HitCount.sum();
     }
     
     public long getL2HitCount() {
-        return l2HitCount.get();
+        return l2HitCount.sum();
     }
     
     public long getSize() {
@@ -171,7 +173,7 @@ public class CacheStats {
             "CacheStats{hitRate=%.2f%%, l1HitRate=%.2f%%, l2HitRate=%.2f%%, " +
             "avgLoadTime=%.2fms, size=%d, evictions=%d}",
             getHitRate() * 100, getL1HitRate() * 100, getL2HitRate() * 100,
-            getAverageLoadTime(), size, evictionCount.get()
+            getAverageLoadTime(), size, evictionCount.sum()
         );
     }
 } 
\ No newline at end of file
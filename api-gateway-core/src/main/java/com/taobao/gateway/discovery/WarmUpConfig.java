@@ -0,0 +1,66 @@
+package com.taobao.gateway.discovery;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 服务实例预热配置
+ * 
+ * 新注册或恢复健康的实例在预热期内按比例折算权重，避免冷启动的实例一上线就承接满额流量
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.discovery.warmup")
+public class WarmUpConfig {
+    
+    /**
+     * 是否启用实例预热
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 预热时长（毫秒）
+     */
+    private long periodMillis = 60000;
+    
+    /**
+     * 预热开始时的权重比例 (0-1]
+     */
+    private double coldFraction = 0.1;
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+    
+    public void setPeriodMillis(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+    
+    public double getColdFraction() {
+        return coldFraction;
+    }
+    
+    public void setColdFraction(double coldFraction) {
+        this.coldFraction = coldFraction;
+    }
+    
+    @Override
+    public String toString() {
+        return "WarmUpConfig{" +
+                "enabled=" + enabled +
+                ", periodMillis=" + periodMillis +
+                ", coldFraction=" + coldFraction +
+                '}';
+    }
+}
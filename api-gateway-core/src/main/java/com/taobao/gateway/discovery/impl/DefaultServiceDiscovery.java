@@ -1,9 +1,11 @@
 package com.taobao.gateway.discovery.impl;
 
 import com.taobao.gateway.discovery.ServiceDiscovery;
+import com.taobao.gateway.discovery.WarmUpConfig;
 import com.taobao.gateway.loadbalancer.ServiceInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -39,10 +41,17 @@ public class DefaultServiceDiscovery implements ServiceDiscovery {
     /** 是否已启动 */
     private volatile boolean started = false;
     
+    /** 实例预热配置 */
+    @Autowired(required = false)
+    private WarmUpConfig warmUpConfig;
+    
     @Override
     public void register(ServiceInstance instance) {
         logger.info("注册服务实例: {}", instance);
         
+        // 新实例从冷权重开始预热
+        startWarmUp(instance);
+        
         // 添加到实例存储
         instances.put(instance.getId(), instance);
         
@@ -166,6 +175,7 @@ public class DefaultServiceDiscovery implements ServiceDiscovery {
                 boolean healthy = healthCheck(instance.getId());
                 if (healthy && !instance.isHealthy()) {
                     instance.setHealthy(true);
+                    startWarmUp(instance);
                     logger.info("服务实例恢复健康: {}", instance.getId());
                 }
             }
@@ -176,6 +186,19 @@ public class DefaultServiceDiscovery implements ServiceDiscovery {
         }
     }
     
+    /**
+     * 按配置开始实例预热
+     */
+    private void startWarmUp(ServiceInstance instance) {
+        if (warmUpConfig != null && warmUpConfig.isEnabled() && warmUpConfig.getPeriodMillis() > 0) {
+            instance.startWarmUp(warmUpConfig.getPeriodMillis(), warmUpConfig.getColdFraction());
+        }
+    }
+    
+    public void setWarmUpConfig(WarmUpConfig warmUpConfig) {
+        this.warmUpConfig = warmUpConfig;
+    }
+    
     /**
      * 获取服务发现统计信息
      */
@@ -196,6 +219,12 @@ public class DefaultServiceDiscovery implements ServiceDiscovery {
                 .count();
         stats.put("enabledInstances", enabledInstances);
         
+        // 统计预热中实例数
+        long warmingUpInstances = instances.values().stream()
+                .filter(ServiceInstance::isWarmingUp)
+                .count();
+        stats.put("warmingUpInstances", warmingUpInstances);
+        
         return stats;
     }
 } 
\ No newline at end of file
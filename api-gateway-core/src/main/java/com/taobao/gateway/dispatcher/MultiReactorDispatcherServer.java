@@ -1,6 +1,7 @@
 package com.taobao.gateway.dispatcher;
 
 import com.taobao.gateway.dispatcher.impl.DefaultRequestDispatcher;
+import com.taobao.gateway.ipaccess.IpAccessHandler;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
 import io.netty.channel.nio.NioEventLoopGroup;
@@ -40,6 +41,9 @@ public class MultiReactorDispatcherServer {
     @Autowired
     private DefaultRequestDispatcher requestDispatcher;
 
+    @Autowired(required = false)
+    private IpAccessHandler ipAccessHandler;
+
     /**
      * Reactor实例映射
      */
@@ -122,7 +126,12 @@ public class MultiReactorDispatcherServer {
                             // 配置Channel管道
                             ch.pipeline()
                                     // HTTP编解码器
-                                    .addLast(new HttpServerCodec())
+                                    .addLast(new HttpServerCodec());
+                            // IP访问控制，在聚合请求体之前拒绝
+                            if (ipAccessHandler != null && ipAccessHandler.isEnabled()) {
+                                ch.pipeline().addLast(ipAccessHandler);
+                            }
+                            ch.pipeline()
                                     // HTTP消息聚合器
                                     .addLast(new HttpObjectAggregator(config.getPerformance().getMemoryPoolSize() * 1024 * 1024))
                                     // 空闲状态检测
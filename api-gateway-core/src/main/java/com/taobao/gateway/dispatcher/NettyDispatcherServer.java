@@ -1,6 +1,7 @@
 package com.taobao.gateway.dispatcher;
 
 import com.taobao.gateway.dispatcher.impl.DefaultRequestDispatcher;
+import com.taobao.gateway.ipaccess.IpAccessHandler;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.*;
 import io.netty.channel.nio.NioEventLoopGroup;
@@ -36,6 +37,9 @@ public class NettyDispatcherServer {
     @Autowired
     private DefaultRequestDispatcher requestDispatcher;
 
+    @Autowired(required = false)
+    private IpAccessHandler ipAccessHandler;
+
     /**
      * 主Reactor线程组（接收连接的线程）
      */
@@ -84,7 +88,12 @@ public class NettyDispatcherServer {
                             // 配置Channel管道
                             ch.pipeline()
                                     // HTTP编解码器
-                                    .addLast(new HttpServerCodec())
+                                    .addLast(new HttpServerCodec());
+                            // IP访问控制，在聚合请求体之前拒绝
+                            if (ipAccessHandler != null && ipAccessHandler.isEnabled()) {
+                                ch.pipeline().addLast(ipAccessHandler);
+                            }
+                            ch.pipeline()
                                     // HTTP消息聚合器
                                     .addLast(new HttpObjectAggregator(dispatcherConfig.getMaxContentLength()))
                                     // 空闲状态检测
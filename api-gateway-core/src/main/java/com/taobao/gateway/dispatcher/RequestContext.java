@@ -3,6 +3,8 @@ package com.taobao.gateway.dispatcher;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.channel.Channel;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.FastThreadLocal;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -23,6 +25,11 @@ public class RequestContext {
      */
     private static final AtomicLong REQUEST_ID_GENERATOR = new AtomicLong(0);
 
+    /**
+     * 当前线程正在执行过滤器链的请求上下文
+     */
+    private static final FastThreadLocal<RequestContext> CURRENT = new FastThreadLocal<>();
+
     /**
      * 请求ID
      */
@@ -243,6 +250,73 @@ public class RequestContext {
         return attributes.remove(key);
     }
 
+    /**
+     * 设置类型化属性
+     */
+    public <T> void setAttribute(AttributeKey<T> key, T value) {
+        attributes.put(key.name(), value);
+    }
+
+    /**
+     * 获取类型化属性
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(AttributeKey<T> key) {
+        return (T) attributes.get(key.name());
+    }
+
+    /**
+     * 将请求上下文绑定到当前线程，过滤器在同步执行期间可通过 {@link #current()} 访问
+     *
+     * @return 之前绑定的上下文，执行结束后传给 {@link #restore(RequestContext)}
+     */
+    public static RequestContext attach(RequestContext context) {
+        RequestContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return previous;
+    }
+
+    /**
+     * 恢复之前绑定的请求上下文
+     */
+    public static void restore(RequestContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 包装任务，使其在执行线程上绑定指定的请求上下文，用于过滤器链切换线程时传递上下文
+     *
+     * @param context 请求上下文，为null时原样返回任务
+     * @param task 任务
+     * @return 绑定上下文后执行的任务
+     */
+    public static Runnable wrap(RequestContext context, Runnable task) {
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            RequestContext previous = attach(context);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * 获取当前线程绑定的请求上下文
+     *
+     * @return 请求上下文，不在过滤器链执行期间时返回null
+     */
+    public static RequestContext current() {
+        return CURRENT.get();
+    }
+
     /**
      * 获取路由信息
      */
@@ -1,5 +1,6 @@
 package com.taobao.gateway.dispatcher.impl;
 
+import com.taobao.gateway.accesslog.AccessLogger;
 import com.taobao.gateway.cache.Cache;
 import com.taobao.gateway.cache.CacheManager;
 import com.taobao.gateway.circuitbreaker.CircuitBreaker;
@@ -61,6 +62,9 @@ public class DefaultRequestDispatcher implements RequestDispatcher {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired(required = false)
+    private AccessLogger accessLogger;
+
     /**
      * 业务处理线程池
      */
@@ -134,8 +138,12 @@ public class DefaultRequestDispatcher implements RequestDispatcher {
 
                 // 3. 执行过滤器链
                 FullHttpRequest request = context.getRequest();
-                FullHttpResponse response = filterChain.doFilter(request);
-                context.setResponse(response);
+                RequestContext previous = RequestContext.attach(context);
+                try {
+                    context.setResponse(filterChain.doFilter(request));
+                } finally {
+                    RequestContext.restore(previous);
+                }
 
                 return context;
             } catch (Exception e) {
@@ -261,6 +269,9 @@ public class DefaultRequestDispatcher implements RequestDispatcher {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 context.setEndTime(System.currentTimeMillis());
+                FullHttpResponse response = context.getResponse();
+                // 响应写出后内容可能已释放，先取得响应体长度
+                long responseBytes = response != null ? response.content().readableBytes() : -1;
 
                 // 发送响应给客户端
                 if (context.getResponse() != null && context.getClientChannel() != null) {
@@ -268,11 +279,14 @@ public class DefaultRequestDispatcher implements RequestDispatcher {
                             .addListener(ChannelFutureListener.CLOSE);
                 }
 
-                // 记录处理结果
-                if (context.getStatus() == RequestContext.RequestStatus.SUCCESS) {
-                    logger.info("请求处理成功: {}, 耗时: {}ms", 
-                            context.getRequestId(), context.getProcessingTime());
-                } else {
+                // 记录处理结果：写入异步访问日志，失败请求额外输出告警
+                if (accessLogger != null && context.getRequest() != null) {
+                    FullHttpRequest request = context.getRequest();
+                    accessLogger.log(request.method(), request.uri(), request.headers().get(HttpHeaderNames.USER_AGENT),
+                            responseStatus(context), TimeUnit.MILLISECONDS.toNanos(context.getProcessingTime()),
+                            responseBytes);
+                }
+                if (context.getStatus() != RequestContext.RequestStatus.SUCCESS) {
                     logger.warn("请求处理失败: {}, 状态: {}, 耗时: {}ms", 
                             context.getRequestId(), context.getStatus(), context.getProcessingTime());
                 }
@@ -319,6 +333,27 @@ public class DefaultRequestDispatcher implements RequestDispatcher {
         }, businessExecutor);
     }
 
+    /**
+     * 访问日志中的状态码，没有响应时按处理状态推断
+     */
+    private int responseStatus(RequestContext context) {
+        if (context.getResponse() != null) {
+            return context.getResponse().status().code();
+        }
+        switch (context.getStatus()) {
+            case SUCCESS:
+                return HttpResponseStatus.OK.code();
+            case RATE_LIMITED:
+                return HttpResponseStatus.TOO_MANY_REQUESTS.code();
+            case CIRCUIT_OPEN:
+                return HttpResponseStatus.SERVICE_UNAVAILABLE.code();
+            case TIMEOUT:
+                return HttpResponseStatus.GATEWAY_TIMEOUT.code();
+            default:
+                return HttpResponseStatus.INTERNAL_SERVER_ERROR.code();
+        }
+    }
+
     /**
      * 生成请求key
      */
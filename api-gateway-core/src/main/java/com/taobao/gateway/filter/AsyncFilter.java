@@ -0,0 +1,69 @@
+package com.taobao.gateway.filter;
+
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 异步过滤器接口
+ *
+ * 与 {@link Filter} 并列的非阻塞扩展点，适用于需要访问Redis、鉴权服务等外部依赖的过滤器。
+ * 过滤器分为前置和后置两个阶段：前置阶段按顺序执行，任一过滤器返回非空响应即短路后续过滤器和路由转发；
+ * 后置阶段按相反顺序执行，只对前置阶段已执行的过滤器调用。
+ * 两个阶段返回的 {@link CompletionStage} 完成后，过滤器链在请求所属的事件循环上继续执行，
+ * 过滤器实现不得阻塞调用线程
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface AsyncFilter {
+
+    /**
+     * 前置阶段，路由转发之前执行
+     *
+     * @param request HTTP请求
+     * @return 完成值为null时继续执行后续过滤器，非null时作为响应直接返回
+     */
+    default CompletionStage<FullHttpResponse> pre(FullHttpRequest request) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 后置阶段，取得下游响应之后执行
+     *
+     * @param request HTTP请求
+     * @param response 下游响应
+     * @return 返回给上游的响应，可以是原响应或替换后的响应
+     */
+    default CompletionStage<FullHttpResponse> post(FullHttpRequest request, FullHttpResponse response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    /**
+     * 获取过滤器顺序（数字越小优先级越高），与同步过滤器统一排序
+     *
+     * @return 过滤器顺序
+     */
+    int getOrder();
+
+    /**
+     * 获取过滤器名称，路由及路由分组通过名称引用过滤器
+     *
+     * @return 过滤器名称，默认为类名
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * 是否启用该过滤器
+     *
+     * @return 是否启用
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,415 @@
+package com.taobao.gateway.filter;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.profile.FilterLatency;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 预编译异步过滤器链
+ *
+ * 同步过滤器与异步过滤器统一按 {@link Filter#getOrder()} / {@link AsyncFilter#getOrder()} 排序后编译为不可变快照。
+ * 异步过滤器的前置、后置阶段完成后总是回到请求所属的事件循环继续执行；
+ * 同步过滤器被自动适配：提交到卸载线程池执行，其 {@code chain.doFilter} 在卸载线程上等待下游结果，
+ * 紧邻的同步过滤器在同一卸载线程内直接调用，不再重复切换线程。
+ * 过滤器或路由转发抛出的异常转换为500响应交给上游过滤器，返回的Future不会异常完成。
+ * 被采样的请求记录各过滤器耗时：异步过滤器为前置与后置阶段从调用到完成的耗时之和（含等待外部依赖的时间），
+ * 同步过滤器为总耗时减去其下游耗时
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class AsyncFilterChain {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncFilterChain.class);
+
+    /**
+     * 第i个位置为同步过滤器时非空
+     */
+    private final Filter[] syncFilters;
+
+    /**
+     * 第i个位置为异步过滤器时非空
+     */
+    private final AsyncFilter[] asyncFilters;
+
+    private final Executor offloadExecutor;
+
+    private AsyncFilterChain(Filter[] syncFilters, AsyncFilter[] asyncFilters, Executor offloadExecutor) {
+        this.syncFilters = syncFilters;
+        this.asyncFilters = asyncFilters;
+        this.offloadExecutor = offloadExecutor;
+    }
+
+    /**
+     * 编译异步过滤器链，禁用的过滤器被剔除，顺序相同时同步过滤器在前
+     *
+     * @param filters 同步过滤器
+     * @param asyncFilters 异步过滤器
+     * @param offloadExecutor 同步过滤器的卸载线程池
+     * @return 不可变的异步过滤器链
+     */
+    public static AsyncFilterChain compile(Collection<? extends Filter> filters,
+                                           Collection<? extends AsyncFilter> asyncFilters,
+                                           Executor offloadExecutor) {
+        List<Object> entries = new ArrayList<>(filters.size() + asyncFilters.size());
+        for (Filter filter : filters) {
+            if (filter != null && filter.isEnabled()) {
+                entries.add(filter);
+            }
+        }
+        for (AsyncFilter filter : asyncFilters) {
+            if (filter != null && filter.isEnabled()) {
+                entries.add(filter);
+            }
+        }
+        entries.sort(Comparator.comparingInt(AsyncFilterChain::orderOf));
+
+        Filter[] sync = new Filter[entries.size()];
+        AsyncFilter[] async = new AsyncFilter[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Object entry = entries.get(i);
+            if (entry instanceof Filter) {
+                sync[i] = (Filter) entry;
+            } else {
+                async[i] = (AsyncFilter) entry;
+            }
+        }
+        return new AsyncFilterChain(sync, async, offloadExecutor);
+    }
+
+    private static int orderOf(Object entry) {
+        return entry instanceof Filter ? ((Filter) entry).getOrder() : ((AsyncFilter) entry).getOrder();
+    }
+
+    /**
+     * 执行过滤器链
+     *
+     * @param request HTTP请求，调用方需保证在返回的Future完成前请求不被释放
+     * @param eventLoop 请求所属的事件循环，为null时在完成异步阶段的线程上直接继续
+     * @param owner 同步过滤器看到的链（用于增删过滤器等管理操作）
+     * @param terminal 所有前置阶段执行完毕后的终点处理
+     * @return 响应Future，在事件循环上完成
+     */
+    public CompletableFuture<FullHttpResponse> execute(FullHttpRequest request, EventExecutor eventLoop, FilterChain owner,
+                                                       Function<FullHttpRequest, CompletionStage<FullHttpResponse>> terminal) {
+        return execute(request, eventLoop, owner, terminal, null);
+    }
+
+    /**
+     * 执行过滤器链并累计实际执行的过滤器数量（被短路的过滤器不计入）
+     *
+     * @param request HTTP请求，调用方需保证在返回的Future完成前请求不被释放
+     * @param eventLoop 请求所属的事件循环，为null时在完成异步阶段的线程上直接继续
+     * @param owner 同步过滤器看到的链（用于增删过滤器等管理操作）
+     * @param terminal 所有前置阶段执行完毕后的终点处理
+     * @param executed 执行数量累加器，为null时不统计
+     * @return 响应Future，在事件循环上完成
+     */
+    public CompletableFuture<FullHttpResponse> execute(FullHttpRequest request, EventExecutor eventLoop, FilterChain owner,
+                                                       Function<FullHttpRequest, CompletionStage<FullHttpResponse>> terminal,
+                                                       LongAdder executed) {
+        return execute(request, eventLoop, owner, terminal, executed, null);
+    }
+
+    /**
+     * 执行过滤器链，累计执行数量并记录各过滤器耗时
+     *
+     * @param request HTTP请求，调用方需保证在返回的Future完成前请求不被释放
+     * @param eventLoop 请求所属的事件循环，为null时在完成异步阶段的线程上直接继续
+     * @param owner 同步过滤器看到的链（用于增删过滤器等管理操作）
+     * @param terminal 所有前置阶段执行完毕后的终点处理
+     * @param executed 执行数量累加器，为null时不统计
+     * @param timers 与过滤器一一对应的耗时直方图，为null时不计时
+     * @return 响应Future，在事件循环上完成
+     */
+    public CompletableFuture<FullHttpResponse> execute(FullHttpRequest request, EventExecutor eventLoop, FilterChain owner,
+                                                       Function<FullHttpRequest, CompletionStage<FullHttpResponse>> terminal,
+                                                       LongAdder executed, FilterLatency[] timers) {
+        EventExecutor executor = eventLoop != null ? eventLoop : ImmediateEventExecutor.INSTANCE;
+        return new Invocation(executor, owner, terminal, executed, timers).invoke(0, request);
+    }
+
+    /**
+     * 过滤器数量（不含禁用的过滤器）
+     */
+    public int size() {
+        return syncFilters.length;
+    }
+
+    /**
+     * 获取第index个过滤器的名称
+     */
+    public String getName(int index) {
+        return syncFilters[index] != null ? syncFilters[index].getName() : asyncFilters[index].getName();
+    }
+
+    /**
+     * 在事件循环上完成的Future，已在事件循环内完成时不再切换线程
+     */
+    static <T> CompletableFuture<T> resume(CompletionStage<T> stage, EventExecutor eventLoop) {
+        return resume(stage, eventLoop, null);
+    }
+
+    /**
+     * 在事件循环上完成的Future，完成回调（即后续过滤器）执行期间绑定请求上下文
+     *
+     * @param context 请求上下文，为null时不绑定
+     */
+    static <T> CompletableFuture<T> resume(CompletionStage<T> stage, EventExecutor eventLoop, RequestContext context) {
+        CompletableFuture<T> resumed = new CompletableFuture<>();
+        stage.whenComplete((value, error) -> {
+            Runnable completion = RequestContext.wrap(context, () -> complete(resumed, value, error));
+            if (eventLoop.inEventLoop()) {
+                completion.run();
+            } else {
+                eventLoop.execute(completion);
+            }
+        });
+        return resumed;
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, T value, Throwable error) {
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    private static FullHttpResponse errorResponse(Object filter, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        logger.error("过滤器执行异常: {}", filter.getClass().getSimpleName(), cause);
+        return DefaultFilterChain.createErrorResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, "Filter Error");
+    }
+
+    /**
+     * 单次请求的执行过程
+     */
+    private final class Invocation {
+
+        private final EventExecutor eventLoop;
+
+        private final FilterChain owner;
+
+        private final Function<FullHttpRequest, CompletionStage<FullHttpResponse>> terminal;
+
+        private final LongAdder executed;
+
+        private final FilterLatency[] timers;
+
+        /**
+         * 发起执行时绑定的请求上下文，切换线程后重新绑定
+         */
+        private final RequestContext context = RequestContext.current();
+
+        Invocation(EventExecutor eventLoop, FilterChain owner,
+                   Function<FullHttpRequest, CompletionStage<FullHttpResponse>> terminal, LongAdder executed,
+                   FilterLatency[] timers) {
+            this.eventLoop = eventLoop;
+            this.owner = owner;
+            this.terminal = terminal;
+            this.executed = executed;
+            this.timers = timers;
+        }
+
+        /**
+         * 从第index个过滤器开始执行剩余链路
+         */
+        CompletableFuture<FullHttpResponse> invoke(int index, FullHttpRequest request) {
+            if (index >= syncFilters.length) {
+                return resume(callTerminal(request), eventLoop, context)
+                        .exceptionally(error -> errorResponse(terminal, error));
+            }
+            if (syncFilters[index] != null) {
+                return offload(index, request);
+            }
+
+            AsyncFilter filter = asyncFilters[index];
+            if (executed != null) {
+                executed.increment();
+            }
+            CompletableFuture<FullHttpResponse> result = new CompletableFuture<>();
+            long preStart = timers != null ? System.nanoTime() : 0;
+            resume(callPre(filter, request), eventLoop, context).whenComplete((shortCircuit, preError) -> {
+                long preNanos = timers != null ? System.nanoTime() - preStart : 0;
+                if (preError != null) {
+                    record(index, preNanos);
+                    result.complete(errorResponse(filter, preError));
+                    return;
+                }
+                CompletableFuture<FullHttpResponse> downstream = shortCircuit != null
+                        ? CompletableFuture.completedFuture(shortCircuit)
+                        : invoke(index + 1, request);
+                downstream.thenAccept(response -> {
+                    long postStart = timers != null ? System.nanoTime() : 0;
+                    resume(callPost(filter, request, response), eventLoop, context).whenComplete((post, postError) -> {
+                        if (timers != null) {
+                            record(index, preNanos + System.nanoTime() - postStart);
+                        }
+                        result.complete(postError != null ? errorResponse(filter, postError)
+                                : post != null ? post : response);
+                    });
+                });
+            });
+            return result;
+        }
+
+        /**
+         * 将同步过滤器提交到卸载线程池
+         */
+        private CompletableFuture<FullHttpResponse> offload(int index, FullHttpRequest request) {
+            CompletableFuture<FullHttpResponse> offloaded = new CompletableFuture<>();
+            try {
+                offloadExecutor.execute(RequestContext.wrap(context, () -> {
+                    try {
+                        offloaded.complete(runSync(index, request));
+                    } catch (Throwable e) {
+                        offloaded.completeExceptionally(e);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                offloaded.complete(errorResponse(syncFilters[index], e));
+            }
+            return resume(offloaded, eventLoop, context);
+        }
+
+        /**
+         * 在当前（卸载）线程上执行同步过滤器
+         */
+        FullHttpResponse runSync(int index, FullHttpRequest request) {
+            Filter filter = syncFilters[index];
+            if (executed != null) {
+                executed.increment();
+            }
+            Continuation continuation = new Continuation(this, index + 1);
+            long start = timers != null ? System.nanoTime() : 0;
+            try {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("执行过滤器: {}", filter.getClass().getSimpleName());
+                }
+                return filter.doFilter(request, continuation);
+            } catch (Throwable e) {
+                // Error同样转为错误响应，否则结果永远不会完成，请求得不到响应
+                return errorResponse(filter, e);
+            } finally {
+                if (timers != null) {
+                    record(index, System.nanoTime() - start - continuation.downstreamNanos);
+                }
+            }
+        }
+
+        private void record(int index, long nanos) {
+            if (timers != null) {
+                timers[index].record(nanos);
+            }
+        }
+
+        private CompletionStage<FullHttpResponse> callPre(AsyncFilter filter, FullHttpRequest request) {
+            try {
+                CompletionStage<FullHttpResponse> stage = filter.pre(request);
+                return stage != null ? stage : CompletableFuture.completedFuture(null);
+            } catch (Throwable e) {
+                return failed(e);
+            }
+        }
+
+        private CompletionStage<FullHttpResponse> callPost(AsyncFilter filter, FullHttpRequest request,
+                                                           FullHttpResponse response) {
+            try {
+                CompletionStage<FullHttpResponse> stage = filter.post(request, response);
+                return stage != null ? stage : CompletableFuture.completedFuture(response);
+            } catch (Throwable e) {
+                return failed(e);
+            }
+        }
+
+        private CompletionStage<FullHttpResponse> callTerminal(FullHttpRequest request) {
+            try {
+                return terminal.apply(request);
+            } catch (Throwable e) {
+                return failed(e);
+            }
+        }
+
+        private CompletionStage<FullHttpResponse> failed(Throwable error) {
+            CompletableFuture<FullHttpResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(error);
+            return future;
+        }
+    }
+
+    /**
+     * 同步过滤器看到的下游链路
+     * 下一个过滤器仍为同步过滤器时在当前线程直接调用，否则等待异步执行的下游结果
+     */
+    private final class Continuation implements FilterChain {
+
+        private final Invocation invocation;
+
+        private final int next;
+
+        /**
+         * 下游累计耗时（仅在采样时统计）
+         */
+        private long downstreamNanos;
+
+        Continuation(Invocation invocation, int next) {
+            this.invocation = invocation;
+            this.next = next;
+        }
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request) {
+            if (invocation.timers == null) {
+                return proceed(request);
+            }
+            long start = System.nanoTime();
+            try {
+                return proceed(request);
+            } finally {
+                downstreamNanos += System.nanoTime() - start;
+            }
+        }
+
+        private FullHttpResponse proceed(FullHttpRequest request) {
+            if (next < syncFilters.length && syncFilters[next] != null) {
+                return invocation.runSync(next, request);
+            }
+            return invocation.invoke(next, request).join();
+        }
+
+        @Override
+        public void addFilter(Filter filter) {
+            invocation.owner.addFilter(filter);
+        }
+
+        @Override
+        public void removeFilter(Filter filter) {
+            invocation.owner.removeFilter(filter);
+        }
+
+        @Override
+        public void clearFilters() {
+            invocation.owner.clearFilters();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.taobao.gateway.filter;
+
+import com.taobao.gateway.filter.profile.FilterLatency;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 预编译过滤器链
+ *
+ * 过滤器集合变更时构建一次不可变的 {@code Filter[]} 快照：剔除禁用的过滤器并按 {@link Filter#getOrder()} 排序，
+ * 执行期不再判断启用状态和排序。每次执行使用独立的调用游标记录当前位置，
+ * 游标按线程复用并在嵌套执行时保存/恢复现场，执行过程不分配对象，并发请求之间互不干扰。
+ * 游标只在调用线程内有效，过滤器必须在 {@link Filter#doFilter} 返回前同步调用 {@code chain.doFilter}。
+ * 被采样的请求由游标记录每个过滤器的自耗时：过滤器总耗时减去其下游（后续过滤器与路由转发）耗时
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class CompiledFilterChain {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompiledFilterChain.class);
+
+    /**
+     * 空过滤器链
+     */
+    public static final CompiledFilterChain EMPTY = new CompiledFilterChain(new Filter[0]);
+
+    private static final FastThreadLocal<Cursor> CURSORS = new FastThreadLocal<Cursor>() {
+        @Override
+        protected Cursor initialValue() {
+            return new Cursor();
+        }
+    };
+
+    private final Filter[] filters;
+
+    private CompiledFilterChain(Filter[] filters) {
+        this.filters = filters;
+    }
+
+    /**
+     * 编译过滤器链
+     *
+     * @param filters 过滤器集合
+     * @return 不可变的过滤器链
+     */
+    public static CompiledFilterChain compile(Collection<? extends Filter> filters) {
+        List<Filter> enabled = new ArrayList<>(filters.size());
+        for (Filter filter : filters) {
+            if (filter != null && filter.isEnabled()) {
+                enabled.add(filter);
+            }
+        }
+        if (enabled.isEmpty()) {
+            return EMPTY;
+        }
+        // 稳定排序，相同顺序的过滤器保持添加顺序
+        enabled.sort(Comparator.comparingInt(Filter::getOrder));
+        return new CompiledFilterChain(enabled.toArray(new Filter[0]));
+    }
+
+    /**
+     * 执行过滤器链
+     *
+     * @param request HTTP请求
+     * @param owner 过滤器看到的链（用于增删过滤器等管理操作）
+     * @param terminal 所有过滤器执行完毕后的终点处理
+     * @return HTTP响应
+     */
+    public FullHttpResponse execute(FullHttpRequest request, FilterChain owner,
+                                    Function<FullHttpRequest, FullHttpResponse> terminal) {
+        return execute(request, owner, terminal, null);
+    }
+
+    /**
+     * 执行过滤器链并累计实际执行的过滤器数量（被短路的过滤器不计入）
+     *
+     * @param request HTTP请求
+     * @param owner 过滤器看到的链（用于增删过滤器等管理操作）
+     * @param terminal 所有过滤器执行完毕后的终点处理
+     * @param executed 执行数量累加器，为null时不统计
+     * @return HTTP响应
+     */
+    public FullHttpResponse execute(FullHttpRequest request, FilterChain owner,
+                                    Function<FullHttpRequest, FullHttpResponse> terminal, LongAdder executed) {
+        return execute(request, owner, terminal, executed, null);
+    }
+
+    /**
+     * 执行过滤器链，累计执行数量并记录各过滤器的自耗时
+     *
+     * @param request HTTP请求
+     * @param owner 过滤器看到的链（用于增删过滤器等管理操作）
+     * @param terminal 所有过滤器执行完毕后的终点处理
+     * @param executed 执行数量累加器，为null时不统计
+     * @param timers 与过滤器一一对应的耗时直方图，为null时不计时
+     * @return HTTP响应
+     */
+    public FullHttpResponse execute(FullHttpRequest request, FilterChain owner,
+                                    Function<FullHttpRequest, FullHttpResponse> terminal, LongAdder executed,
+                                    FilterLatency[] timers) {
+        Cursor cursor = CURSORS.get();
+        Filter[] previousFilters = cursor.filters;
+        int previousIndex = cursor.index;
+        FilterChain previousOwner = cursor.owner;
+        Function<FullHttpRequest, FullHttpResponse> previousTerminal = cursor.terminal;
+        FilterLatency[] previousTimers = cursor.timers;
+        long previousDownstream = cursor.downstreamNanos;
+
+        cursor.filters = filters;
+        cursor.index = 0;
+        cursor.owner = owner;
+        cursor.terminal = terminal;
+        cursor.timers = timers;
+        cursor.downstreamNanos = 0;
+        try {
+            return cursor.doFilter(request);
+        } finally {
+            if (executed != null) {
+                executed.add(cursor.index);
+            }
+            cursor.filters = previousFilters;
+            cursor.index = previousIndex;
+            cursor.owner = previousOwner;
+            cursor.terminal = previousTerminal;
+            cursor.timers = previousTimers;
+            cursor.downstreamNanos = previousDownstream;
+        }
+    }
+
+    /**
+     * 过滤器数量（不含禁用的过滤器）
+     */
+    public int size() {
+        return filters.length;
+    }
+
+    /**
+     * 获取编译后的过滤器（按执行顺序）
+     */
+    public List<Filter> getFilters() {
+        return Collections.unmodifiableList(Arrays.asList(filters));
+    }
+
+    /**
+     * 单次执行的调用游标
+     * 过滤器通过 {@link #doFilter(FullHttpRequest)} 推进到下一个过滤器
+     */
+    private static final class Cursor implements FilterChain {
+
+        private Filter[] filters;
+
+        private int index;
+
+        private FilterChain owner;
+
+        private Function<FullHttpRequest, FullHttpResponse> terminal;
+
+        /**
+         * 与过滤器一一对应的耗时直方图，本次执行未被采样时为null
+         */
+        private FilterLatency[] timers;
+
+        /**
+         * 当前层级下游（后续过滤器及终点处理）的累计耗时，用于从总耗时中扣除得到自耗时
+         */
+        private long downstreamNanos;
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request) {
+            if (index >= filters.length) {
+                // 所有过滤器执行完毕，进行路由转发
+                if (timers == null) {
+                    return terminal.apply(request);
+                }
+                long start = System.nanoTime();
+                try {
+                    return terminal.apply(request);
+                } finally {
+                    downstreamNanos += System.nanoTime() - start;
+                }
+            }
+
+            int position = index++;
+            Filter filter = filters[position];
+            if (timers == null) {
+                return invoke(filter, request);
+            }
+
+            long parentDownstream = downstreamNanos;
+            downstreamNanos = 0;
+            long start = System.nanoTime();
+            try {
+                return invoke(filter, request);
+            } finally {
+                timers[position].record(System.nanoTime() - start - downstreamNanos);
+                // 记录直方图本身的开销计入下游，不算作外层过滤器的自耗时
+                downstreamNanos = parentDownstream + System.nanoTime() - start;
+            }
+        }
+
+        private FullHttpResponse invoke(Filter filter, FullHttpRequest request) {
+            try {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("执行过滤器: {}", filter.getClass().getSimpleName());
+                }
+                return filter.doFilter(request, this);
+            } catch (Exception e) {
+                logger.error("过滤器执行异常: {}", filter.getClass().getSimpleName(), e);
+                return DefaultFilterChain.createErrorResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, "Filter Error");
+            }
+        }
+
+        @Override
+        public void addFilter(Filter filter) {
+            owner.addFilter(filter);
+        }
+
+        @Override
+        public void removeFilter(Filter filter) {
+            owner.removeFilter(filter);
+        }
+
+        @Override
+        public void clearFilters() {
+            owner.clearFilters();
+        }
+    }
+}
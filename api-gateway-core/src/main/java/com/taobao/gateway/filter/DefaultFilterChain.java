@@ -1,9 +1,14 @@
 package com.taobao.gateway.filter;
 
+import com.taobao.gateway.accesslog.AccessLogger;
+import com.taobao.gateway.filter.profile.FilterProfiler;
+import com.taobao.gateway.router.CompiledRoute;
+import com.taobao.gateway.router.Route;
 import com.taobao.gateway.router.RouteManager;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.*;
 import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.EventExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,12 +16,23 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * 默认过滤器链实现
+ * 过滤器变更时编译为不可变的 {@link CompiledFilterChain} 快照，请求执行只读取快照，可被并发请求安全共享。
+ * 通过 {@link #registerFilter(Filter)} 注册的具名过滤器不对全部请求生效，只在路由或路由分组引用时
+ * 与全局过滤器合并为该路由的 {@link RouteFilterChain}，缓存在路由表快照上
  * 
  * @author taobao
  * @version 1.0.0
@@ -30,45 +46,187 @@ public class DefaultFilterChain implements FilterChain {
     @Autowired
     private RouteManager routeManager;
 
+    @Autowired(required = false)
+    private AccessLogger accessLogger;
+
     private final List<Filter> filters = new CopyOnWriteArrayList<>();
-    private int currentIndex = 0;
+
+    /**
+     * 当前生效的过滤器链快照，过滤器变更时整体替换
+     */
+    private volatile CompiledFilterChain compiled = CompiledFilterChain.EMPTY;
+
+    private final Function<FullHttpRequest, FullHttpResponse> terminal = this::routeRequest;
+
+    private final List<AsyncFilter> asyncFilters = new CopyOnWriteArrayList<>();
+
+    /**
+     * 包含异步过滤器的链路快照，未注册异步过滤器时为null
+     */
+    private volatile AsyncFilterChain asyncChain;
+
+    private final Function<FullHttpRequest, CompletionStage<FullHttpResponse>> asyncTerminal =
+            request -> CompletableFuture.completedFuture(routeRequest(request));
+
+    /**
+     * 同步过滤器的卸载线程池
+     */
+    private volatile Executor offloadExecutor = ForkJoinPool.commonPool();
+
+    /**
+     * 供路由或路由分组按名称引用的同步过滤器
+     */
+    private final Map<String, Filter> namedFilters = new ConcurrentHashMap<>();
+
+    /**
+     * 供路由或路由分组按名称引用的异步过滤器
+     */
+    private final Map<String, AsyncFilter> namedAsyncFilters = new ConcurrentHashMap<>();
+
+    /**
+     * 路由分组 -> 过滤器名称
+     */
+    private final Map<String, List<String>> groupFilters = new ConcurrentHashMap<>();
+
+    /**
+     * 过滤器配置代数，任何过滤器变更都会递增，路由上缓存的链据此失效
+     */
+    private volatile long generation;
+
+    /**
+     * 未匹配到路由（或未配置路由管理器）时使用的全局过滤器链
+     */
+    private volatile RouteFilterChain globalChain;
+
+    /**
+     * 过滤器耗时采样器，为null时不计时
+     */
+    private volatile FilterProfiler profiler;
+
+    public DefaultFilterChain() {
+        refresh();
+    }
 
     @PostConstruct
     public void init() {
         // 添加默认过滤器
-        addFilter(new LogFilter());
+        LogFilter logFilter = new LogFilter();
+        logFilter.setAccessLogger(accessLogger);
+        addFilter(logFilter);
         addFilter(new RouteFilter());
     }
 
+    /**
+     * 设置路由分组过滤器配置
+     */
+    @Autowired(required = false)
+    public void setRouteFilterConfig(RouteFilterConfig config) {
+        config.getGroups().forEach(this::setGroupFilters);
+    }
+
+    /**
+     * 设置过滤器耗时采样器
+     */
+    @Autowired(required = false)
+    public synchronized void setFilterProfiler(FilterProfiler profiler) {
+        this.profiler = profiler;
+        refresh();
+    }
+
     @Override
     public FullHttpResponse doFilter(FullHttpRequest request) {
-        currentIndex = 0;
-        return doFilterInternal(request);
+        return chainFor(request).execute(request);
+    }
+
+    @Override
+    public CompletionStage<FullHttpResponse> doFilterAsync(FullHttpRequest request, EventExecutor eventLoop) {
+        return chainFor(request).executeAsync(request, eventLoop);
+    }
+
+    @Override
+    public CompletionStage<FullHttpResponse> doFilterAsync(FullHttpRequest request, CompiledRoute compiledRoute,
+                                                           EventExecutor eventLoop) {
+        return chainFor(compiledRoute).executeAsync(request, eventLoop);
     }
 
     /**
-     * 内部过滤器执行方法
+     * 按请求匹配的路由选择过滤器链，仅用于调用方未预先匹配路由的入口
      */
-    private FullHttpResponse doFilterInternal(FullHttpRequest request) {
-        if (currentIndex >= filters.size()) {
-            // 所有过滤器执行完毕，进行路由转发
-            return routeRequest(request);
+    private RouteFilterChain chainFor(FullHttpRequest request) {
+        if (routeManager == null) {
+            return globalChain;
         }
+        return chainFor(routeManager.route(request).getCompiledRoute());
+    }
 
-        Filter filter = filters.get(currentIndex++);
-        
-        if (!filter.isEnabled()) {
-            // 跳过禁用的过滤器
-            return doFilterInternal(request);
+    /**
+     * 按已匹配的路由选择过滤器链，未匹配到路由时使用全局链
+     */
+    private RouteFilterChain chainFor(CompiledRoute compiledRoute) {
+        return compiledRoute != null ? getRouteFilterChain(compiledRoute) : globalChain;
+    }
+
+    /**
+     * 获取路由的过滤器链，缓存失效时按当前过滤器配置重新编译
+     *
+     * @param compiledRoute 路由表快照中的已编译路由
+     * @return 路由过滤器链
+     */
+    public RouteFilterChain getRouteFilterChain(CompiledRoute compiledRoute) {
+        RouteFilterChain chain = compiledRoute.getFilterChain();
+        if (chain != null && chain.getGeneration() == generation) {
+            return chain;
         }
+        return compileRouteChain(compiledRoute);
+    }
 
-        try {
-            logger.debug("执行过滤器: {}", filter.getClass().getSimpleName());
-            return filter.doFilter(request, this);
-        } catch (Exception e) {
-            logger.error("过滤器执行异常: {}", filter.getClass().getSimpleName(), e);
-            return createErrorResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, "Filter Error");
+    private synchronized RouteFilterChain compileRouteChain(CompiledRoute compiledRoute) {
+        RouteFilterChain chain = compiledRoute.getFilterChain();
+        if (chain != null && chain.getGeneration() == generation) {
+            return chain;
+        }
+
+        Route route = compiledRoute.getRoute();
+        List<String> names = new ArrayList<>();
+        if (route.getGroup() != null) {
+            names.addAll(groupFilters.getOrDefault(route.getGroup(), Collections.emptyList()));
+        }
+        if (route.getFilters() != null) {
+            names.addAll(route.getFilters());
+        }
+
+        if (names.isEmpty()) {
+            // 没有附加过滤器，共享全局链快照，只单独计数
+            chain = newChain(route.getId(), compiled, asyncChain);
+        } else {
+            List<Filter> sync = new ArrayList<>(filters);
+            List<AsyncFilter> async = new ArrayList<>(asyncFilters);
+            for (String name : names) {
+                Filter filter = namedFilters.get(name);
+                AsyncFilter asyncFilter = namedAsyncFilters.get(name);
+                if (filter != null) {
+                    if (!sync.contains(filter)) {
+                        sync.add(filter);
+                    }
+                } else if (asyncFilter != null) {
+                    if (!async.contains(asyncFilter)) {
+                        async.add(asyncFilter);
+                    }
+                } else {
+                    logger.warn("路由 {} 引用了未注册的过滤器: {}", route.getId(), name);
+                }
+            }
+            chain = newChain(route.getId(), CompiledFilterChain.compile(sync),
+                    async.isEmpty() ? null : AsyncFilterChain.compile(sync, async, offloadExecutor));
         }
+        compiledRoute.setFilterChain(chain);
+        logger.debug("编译路由过滤器链: {}, 过滤器数量: {}", route.getId(), chain.getFilterCount());
+        return chain;
+    }
+
+    private RouteFilterChain newChain(String routeId, CompiledFilterChain syncChain, AsyncFilterChain asyncChain) {
+        return new RouteFilterChain(generation, routeId, syncChain, asyncChain, offloadExecutor, this,
+                terminal, asyncTerminal, profiler);
     }
 
     /**
@@ -97,7 +255,7 @@ public class DefaultFilterChain implements FilterChain {
     /**
      * 创建错误响应
      */
-    private FullHttpResponse createErrorResponse(HttpResponseStatus status, String message) {
+    static FullHttpResponse createErrorResponse(HttpResponseStatus status, String message) {
         FullHttpResponse response = new DefaultFullHttpResponse(
                 HttpVersion.HTTP_1_1,
                 status,
@@ -111,29 +269,149 @@ public class DefaultFilterChain implements FilterChain {
     }
 
     @Override
-    public void addFilter(Filter filter) {
+    public synchronized void addFilter(Filter filter) {
         filters.add(filter);
         // 按顺序排序
         filters.sort(Comparator.comparingInt(Filter::getOrder));
+        refresh();
         logger.info("添加过滤器: {}, 顺序: {}", filter.getClass().getSimpleName(), filter.getOrder());
     }
 
     @Override
-    public void removeFilter(Filter filter) {
+    public synchronized void removeFilter(Filter filter) {
         filters.remove(filter);
+        refresh();
         logger.info("移除过滤器: {}", filter.getClass().getSimpleName());
     }
 
     @Override
-    public void clearFilters() {
+    public synchronized void clearFilters() {
         filters.clear();
+        asyncFilters.clear();
+        refresh();
         logger.info("清空所有过滤器");
     }
 
+    /**
+     * 添加异步过滤器
+     *
+     * @param filter 异步过滤器
+     */
+    public synchronized void addAsyncFilter(AsyncFilter filter) {
+        asyncFilters.add(filter);
+        refresh();
+        logger.info("添加异步过滤器: {}, 顺序: {}", filter.getClass().getSimpleName(), filter.getOrder());
+    }
+
+    /**
+     * 移除异步过滤器
+     *
+     * @param filter 异步过滤器
+     */
+    public synchronized void removeAsyncFilter(AsyncFilter filter) {
+        asyncFilters.remove(filter);
+        refresh();
+        logger.info("移除异步过滤器: {}", filter.getClass().getSimpleName());
+    }
+
+    /**
+     * 注册具名过滤器，只对引用了该名称的路由或路由分组生效
+     *
+     * @param filter 过滤器，以 {@link Filter#getName()} 作为名称
+     */
+    public synchronized void registerFilter(Filter filter) {
+        namedFilters.put(filter.getName(), filter);
+        refresh();
+        logger.info("注册路由过滤器: {}, 顺序: {}", filter.getName(), filter.getOrder());
+    }
+
+    /**
+     * 注册具名异步过滤器，只对引用了该名称的路由或路由分组生效
+     *
+     * @param filter 异步过滤器，以 {@link AsyncFilter#getName()} 作为名称
+     */
+    public synchronized void registerAsyncFilter(AsyncFilter filter) {
+        namedAsyncFilters.put(filter.getName(), filter);
+        refresh();
+        logger.info("注册路由异步过滤器: {}, 顺序: {}", filter.getName(), filter.getOrder());
+    }
+
+    /**
+     * 注销具名过滤器
+     *
+     * @param name 过滤器名称
+     */
+    public synchronized void unregisterFilter(String name) {
+        boolean removed = namedFilters.remove(name) != null;
+        removed |= namedAsyncFilters.remove(name) != null;
+        if (removed) {
+            refresh();
+            logger.info("注销路由过滤器: {}", name);
+        }
+    }
+
+    /**
+     * 设置路由分组的过滤器
+     *
+     * @param group 路由分组
+     * @param names 过滤器名称，为空时移除分组配置
+     */
+    public synchronized void setGroupFilters(String group, List<String> names) {
+        if (names == null || names.isEmpty()) {
+            groupFilters.remove(group);
+        } else {
+            groupFilters.put(group, new ArrayList<>(names));
+        }
+        refresh();
+        logger.info("设置路由分组过滤器: {} -> {}", group, names);
+    }
+
+    /**
+     * 设置同步过滤器的卸载线程池
+     *
+     * @param offloadExecutor 卸载线程池，不能是事件循环
+     */
+    public synchronized void setOffloadExecutor(Executor offloadExecutor) {
+        this.offloadExecutor = offloadExecutor;
+        refresh();
+    }
+
+    /**
+     * 重新编译过滤器链
+     * 过滤器的启用状态或顺序在运行期变化后调用，使变更对后续请求生效
+     */
+    public synchronized void refresh() {
+        generation++;
+        compiled = CompiledFilterChain.compile(filters);
+        asyncChain = asyncFilters.isEmpty() ? null : AsyncFilterChain.compile(filters, asyncFilters, offloadExecutor);
+        globalChain = newChain(null, compiled, asyncChain);
+    }
+
+    /**
+     * 获取当前生效的过滤器链快照
+     */
+    public CompiledFilterChain getCompiledChain() {
+        return compiled;
+    }
+
+    /**
+     * 获取全局过滤器链（含统计计数）
+     */
+    public RouteFilterChain getGlobalChain() {
+        return globalChain;
+    }
+
     /**
      * 获取所有过滤器
      */
     public List<Filter> getFilters() {
         return new ArrayList<>(filters);
     }
+
+    /**
+     * 获取所有异步过滤器
+     */
+    public List<AsyncFilter> getAsyncFilters() {
+        return new ArrayList<>(asyncFilters);
+    }
 } 
\ No newline at end of file
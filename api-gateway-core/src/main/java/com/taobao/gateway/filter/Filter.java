@@ -28,6 +28,15 @@ public interface Filter {
      */
     int getOrder();
 
+    /**
+     * 获取过滤器名称，路由及路由分组通过名称引用过滤器
+     *
+     * @return 过滤器名称，默认为类名
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * 是否启用该过滤器
      * 
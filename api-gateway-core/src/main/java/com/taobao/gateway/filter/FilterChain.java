@@ -1,7 +1,14 @@
 package com.taobao.gateway.filter;
 
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.router.CompiledRoute;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * 过滤器链接口
@@ -20,6 +27,41 @@ public interface FilterChain {
      */
     FullHttpResponse doFilter(FullHttpRequest request);
 
+    /**
+     * 异步执行过滤器链，结果在指定事件循环上完成
+     * 默认实现将同步过滤器链提交到公共线程池执行，执行线程上绑定调用方的请求上下文
+     *
+     * @param request HTTP请求，调用方需保证在结果完成前请求不被释放
+     * @param eventLoop 请求所属的事件循环
+     * @return HTTP响应
+     */
+    default CompletionStage<FullHttpResponse> doFilterAsync(FullHttpRequest request, EventExecutor eventLoop) {
+        RequestContext context = RequestContext.current();
+        CompletableFuture<FullHttpResponse> response = new CompletableFuture<>();
+        ForkJoinPool.commonPool().execute(RequestContext.wrap(context, () -> {
+            try {
+                response.complete(doFilter(request));
+            } catch (Throwable e) {
+                response.completeExceptionally(e);
+            }
+        }));
+        return response.thenApplyAsync(result -> result, eventLoop);
+    }
+
+    /**
+     * 按调用方已匹配的路由异步执行过滤器链，不再重复路由匹配
+     * 默认实现忽略路由，等同于 {@link #doFilterAsync(FullHttpRequest, EventExecutor)}
+     *
+     * @param request HTTP请求，调用方需保证在结果完成前请求不被释放
+     * @param compiledRoute 已匹配的路由，为null表示未匹配到路由
+     * @param eventLoop 请求所属的事件循环
+     * @return HTTP响应
+     */
+    default CompletionStage<FullHttpResponse> doFilterAsync(FullHttpRequest request, CompiledRoute compiledRoute,
+                                                            EventExecutor eventLoop) {
+        return doFilterAsync(request, eventLoop);
+    }
+
     /**
      * 添加过滤器
      * 
@@ -1,13 +1,16 @@
 package com.taobao.gateway.filter;
 
+import com.taobao.gateway.accesslog.AccessLogger;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * 日志过滤器
+ * 请求完成后写入异步访问日志，未配置访问日志时以debug级别输出
  * 
  * @author taobao
  * @version 1.0.0
@@ -18,28 +21,35 @@ public class LogFilter implements Filter {
 
     private static final Logger logger = LoggerFactory.getLogger(LogFilter.class);
 
+    @Autowired(required = false)
+    private AccessLogger accessLogger;
+
     @Override
     public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
-        long startTime = System.currentTimeMillis();
-        
-        // 记录请求日志
-        logger.info("收到请求: {} {} - 客户端: {}", 
-                request.method(), request.uri(), request.headers().get("User-Agent", "Unknown"));
+        long startTime = System.nanoTime();
 
         // 执行下一个过滤器
         FullHttpResponse response = chain.doFilter(request);
         
         // 计算处理时间
-        long endTime = System.currentTimeMillis();
-        long duration = endTime - startTime;
+        long duration = System.nanoTime() - startTime;
         
-        // 记录响应日志
-        logger.info("请求处理完成: {} {} - 状态: {} - 耗时: {}ms", 
-                request.method(), request.uri(), response.status(), duration);
+        // 记录访问日志，请求线程只拷贝定长记录，格式化和落盘由写线程完成
+        if (accessLogger != null) {
+            accessLogger.log(request.method(), request.uri(), request.headers().get("User-Agent"),
+                    response.status().code(), duration, response.content().readableBytes());
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("请求处理完成: {} {} - 状态: {} - 耗时: {}ms",
+                    request.method(), request.uri(), response.status(), duration / 1_000_000);
+        }
         
         return response;
     }
 
+    public void setAccessLogger(AccessLogger accessLogger) {
+        this.accessLogger = accessLogger;
+    }
+
     @Override
     public int getOrder() {
         return 100; // 日志过滤器优先级较高
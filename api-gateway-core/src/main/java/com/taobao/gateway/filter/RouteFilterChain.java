@@ -0,0 +1,195 @@
+package com.taobao.gateway.filter;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.profile.FilterLatency;
+import com.taobao.gateway.filter.profile.FilterProfiler;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 路由过滤器链
+ *
+ * 全局过滤器、路由分组过滤器和路由级过滤器合并后的预编译链，缓存在路由表快照的 {@code CompiledRoute} 上。
+ * 没有分组或路由级过滤器的路由直接共享全局链快照，只单独持有统计计数。
+ * 编译时记录过滤器配置的代数，过滤器变更后首次请求按新配置重新编译。
+ * 配置了 {@link FilterProfiler} 时，被采样的请求按（过滤器, 路由）记录各过滤器的自耗时
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class RouteFilterChain {
+
+    /**
+     * 编译时的过滤器配置代数
+     */
+    private final long generation;
+
+    private final CompiledFilterChain syncChain;
+
+    /**
+     * 含异步过滤器时非空，此时优先使用
+     */
+    private final AsyncFilterChain asyncChain;
+
+    /**
+     * 请求数
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * 实际执行的过滤器总数
+     */
+    private final LongAdder executedFilters = new LongAdder();
+
+    private final Executor offloadExecutor;
+
+    private final FilterChain owner;
+
+    private final Function<FullHttpRequest, FullHttpResponse> terminal;
+
+    private final Function<FullHttpRequest, CompletionStage<FullHttpResponse>> asyncTerminal;
+
+    /**
+     * 路由ID，全局链为 {@link FilterProfiler#GLOBAL_ROUTE}
+     */
+    private final String routeId;
+
+    /**
+     * 过滤器耗时采样器，为null时不计时
+     */
+    private final FilterProfiler profiler;
+
+    /**
+     * 与链上过滤器一一对应的耗时直方图，首次采样时创建
+     */
+    private volatile FilterLatency[] timers;
+
+    RouteFilterChain(long generation, String routeId, CompiledFilterChain syncChain, AsyncFilterChain asyncChain,
+                     Executor offloadExecutor, FilterChain owner,
+                     Function<FullHttpRequest, FullHttpResponse> terminal,
+                     Function<FullHttpRequest, CompletionStage<FullHttpResponse>> asyncTerminal,
+                     FilterProfiler profiler) {
+        this.generation = generation;
+        this.routeId = routeId != null ? routeId : FilterProfiler.GLOBAL_ROUTE;
+        this.profiler = profiler;
+        this.syncChain = syncChain;
+        this.asyncChain = asyncChain;
+        this.offloadExecutor = offloadExecutor;
+        this.owner = owner;
+        this.terminal = terminal;
+        this.asyncTerminal = asyncTerminal;
+    }
+
+    /**
+     * 同步执行过滤器链
+     */
+    FullHttpResponse execute(FullHttpRequest request) {
+        requests.increment();
+        FilterLatency[] sampled = sampleTimers();
+        if (asyncChain == null) {
+            return syncChain.execute(request, owner, terminal, executedFilters, sampled);
+        }
+        return asyncChain.execute(request, null, owner, asyncTerminal, executedFilters, sampled).join();
+    }
+
+    /**
+     * 异步执行过滤器链，结果在事件循环上完成
+     */
+    CompletableFuture<FullHttpResponse> executeAsync(FullHttpRequest request, EventExecutor eventLoop) {
+        requests.increment();
+        FilterLatency[] sampled = sampleTimers();
+        if (asyncChain != null) {
+            return asyncChain.execute(request, eventLoop, owner, asyncTerminal, executedFilters, sampled);
+        }
+        // 只有同步过滤器时整条链一次性卸载，避免逐个过滤器切换线程，卸载线程上重新绑定请求上下文
+        RequestContext context = RequestContext.current();
+        CompletableFuture<FullHttpResponse> offloaded = new CompletableFuture<>();
+        try {
+            offloadExecutor.execute(RequestContext.wrap(context, () -> {
+                try {
+                    offloaded.complete(syncChain.execute(request, owner, terminal, executedFilters, sampled));
+                } catch (Throwable e) {
+                    offloaded.completeExceptionally(e);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            offloaded.completeExceptionally(e);
+        }
+        return eventLoop != null ? AsyncFilterChain.resume(offloaded, eventLoop, context) : offloaded;
+    }
+
+    /**
+     * 本次请求被采样时返回耗时直方图，否则返回null
+     */
+    private FilterLatency[] sampleTimers() {
+        if (profiler == null || !profiler.sample()) {
+            return null;
+        }
+        FilterLatency[] current = timers;
+        if (current == null) {
+            int count = getFilterCount();
+            current = new FilterLatency[count];
+            for (int i = 0; i < count; i++) {
+                String name = asyncChain != null ? asyncChain.getName(i) : syncChain.getFilters().get(i).getName();
+                current[i] = profiler.latency(name, routeId);
+            }
+            timers = current;
+        }
+        return current;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    /**
+     * 链上过滤器数量（不含禁用的过滤器）
+     */
+    public int getFilterCount() {
+        return asyncChain != null ? asyncChain.size() : syncChain.size();
+    }
+
+    /**
+     * 经过该链的请求数
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 实际执行的过滤器总数（被短路的过滤器不计入）
+     */
+    public long getExecutedFilterCount() {
+        return executedFilters.sum();
+    }
+
+    /**
+     * 每个请求平均执行的过滤器数量
+     */
+    public double getAverageExecutedFilters() {
+        long count = requests.sum();
+        return count == 0 ? 0 : (double) executedFilters.sum() / count;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteFilterChain{" +
+                "filters=" + getFilterCount() +
+                ", requests=" + getRequestCount() +
+                ", executedFilters=" + getExecutedFilterCount() +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.taobao.gateway.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路由过滤器配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.routing.filter")
+public class RouteFilterConfig {
+
+    /**
+     * 路由分组 -> 过滤器名称，分组内的路由在全局过滤器之外额外执行这些过滤器
+     */
+    private Map<String, List<String>> groups = new LinkedHashMap<>();
+
+    public Map<String, List<String>> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, List<String>> groups) {
+        this.groups = groups;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteFilterConfig{" +
+                "groups=" + groups +
+                '}';
+    }
+}
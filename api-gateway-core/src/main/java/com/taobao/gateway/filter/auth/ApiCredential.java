@@ -0,0 +1,108 @@
+package com.taobao.gateway.filter.auth;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 应用凭证
+ *
+ * 配置绑定时通过setter填充，加入 {@link ApiKeyStore} 后不再修改；签名密钥在首次使用时构建并缓存
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class ApiCredential {
+
+    /**
+     * API密钥（X-API-Key）
+     */
+    private String apiKey;
+
+    /**
+     * 应用ID（X-App-Id）
+     */
+    private String appId;
+
+    /**
+     * 签名密钥，为空时只校验API密钥
+     */
+    private String secret;
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = true;
+
+    private volatile SecretKeySpec signingKey;
+
+    public ApiCredential() {
+    }
+
+    public ApiCredential(String apiKey, String appId, String secret) {
+        this.apiKey = apiKey;
+        this.appId = appId;
+        this.secret = secret;
+    }
+
+    /**
+     * HMAC-SHA256签名密钥，同一凭证始终返回同一实例，便于按线程复用已初始化的 {@code Mac}
+     *
+     * @return 签名密钥，未配置密钥时返回null
+     */
+    SecretKeySpec getSigningKey() {
+        SecretKeySpec key = signingKey;
+        if (key == null && secret != null && !secret.isEmpty()) {
+            synchronized (this) {
+                key = signingKey;
+                if (key == null) {
+                    key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+                    signingKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public void setAppId(String appId) {
+        this.appId = appId;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+        this.signingKey = null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String toString() {
+        return "ApiCredential{" +
+                "apiKey='" + (apiKey != null && apiKey.length() > 4 ? apiKey.substring(0, 4) + "***" : "***") + '\'' +
+                ", appId='" + appId + '\'' +
+                ", enabled=" + enabled +
+                '}';
+    }
+}
@@ -0,0 +1,123 @@
+package com.taobao.gateway.filter.auth;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * API密钥鉴权配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.auth.api-key")
+public class ApiKeyConfig {
+
+    /**
+     * 是否启用API密钥鉴权
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否对全部请求生效，为false时只对引用了 api-key-auth 过滤器的路由或路由分组生效
+     */
+    private boolean global = false;
+
+    /**
+     * 配置了签名密钥的应用是否必须携带签名
+     */
+    private boolean requireSignature = true;
+
+    /**
+     * 签名时间戳允许的最大偏差（秒）
+     */
+    private long maxClockSkewSeconds = 300;
+
+    /**
+     * 布隆过滤器误判率
+     */
+    private double bloomFalsePositiveRate = 0.001;
+
+    /**
+     * 不需要鉴权的路径前缀，按规范化后的路径逐段匹配，见 {@link PathPrefixMatcher}
+     */
+    private List<String> excludePaths = new ArrayList<>();
+
+    /**
+     * 启动时加载的应用凭证
+     */
+    private List<ApiCredential> credentials = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public boolean isRequireSignature() {
+        return requireSignature;
+    }
+
+    public void setRequireSignature(boolean requireSignature) {
+        this.requireSignature = requireSignature;
+    }
+
+    public long getMaxClockSkewSeconds() {
+        return maxClockSkewSeconds;
+    }
+
+    public void setMaxClockSkewSeconds(long maxClockSkewSeconds) {
+        this.maxClockSkewSeconds = maxClockSkewSeconds;
+    }
+
+    public double getBloomFalsePositiveRate() {
+        return bloomFalsePositiveRate;
+    }
+
+    public void setBloomFalsePositiveRate(double bloomFalsePositiveRate) {
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+    }
+
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+
+    public void setExcludePaths(List<String> excludePaths) {
+        this.excludePaths = excludePaths;
+    }
+
+    public List<ApiCredential> getCredentials() {
+        return credentials;
+    }
+
+    public void setCredentials(List<ApiCredential> credentials) {
+        this.credentials = credentials;
+    }
+
+    @Override
+    public String toString() {
+        return "ApiKeyConfig{" +
+                "enabled=" + enabled +
+                ", global=" + global +
+                ", requireSignature=" + requireSignature +
+                ", maxClockSkewSeconds=" + maxClockSkewSeconds +
+                ", bloomFalsePositiveRate=" + bloomFalsePositiveRate +
+                ", excludePaths=" + excludePaths +
+                ", credentials=" + credentials.size() +
+                '}';
+    }
+}
@@ -0,0 +1,123 @@
+package com.taobao.gateway.filter.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 应用凭证存储
+ *
+ * 凭证集合与对应的布隆过滤器组成不可变快照，更新时整体构建后原子替换，请求线程读取快照无需加锁。
+ * 查询时先经布隆过滤器，不存在的密钥在访问哈希表之前即被拒绝
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class ApiKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiKeyStore.class);
+
+    @Autowired(required = false)
+    private ApiKeyConfig config;
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyMap(), 0.001);
+
+    /**
+     * 被布隆过滤器拒绝的查询数
+     */
+    private final LongAdder bloomRejected = new LongAdder();
+
+    /**
+     * 通过布隆过滤器但不存在的查询数（误判）
+     */
+    private final LongAdder falsePositives = new LongAdder();
+
+    public ApiKeyStore() {
+    }
+
+    public ApiKeyStore(ApiKeyConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (config != null && !config.getCredentials().isEmpty()) {
+            update(config.getCredentials());
+        }
+    }
+
+    /**
+     * 以给定凭证替换全部凭证
+     *
+     * @param credentials 凭证集合，停用的凭证不加入
+     * @return 生效的凭证数
+     */
+    public int update(Collection<ApiCredential> credentials) {
+        Map<String, ApiCredential> byKey = new HashMap<>(credentials.size() * 2);
+        for (ApiCredential credential : credentials) {
+            if (credential.isEnabled() && credential.getApiKey() != null && !credential.getApiKey().isEmpty()) {
+                byKey.put(credential.getApiKey(), credential);
+            }
+        }
+        double falsePositiveRate = config != null ? config.getBloomFalsePositiveRate() : 0.001;
+        snapshot = new Snapshot(Collections.unmodifiableMap(byKey), falsePositiveRate);
+        logger.info("应用凭证已更新, 生效数: {}", byKey.size());
+        return byKey.size();
+    }
+
+    /**
+     * 按API密钥查找凭证
+     *
+     * @return 凭证，不存在时返回null
+     */
+    public ApiCredential lookup(CharSequence apiKey) {
+        Snapshot current = snapshot;
+        if (!current.bloom.mightContain(apiKey)) {
+            bloomRejected.increment();
+            return null;
+        }
+        ApiCredential credential = current.byKey.get(apiKey.toString());
+        if (credential == null) {
+            falsePositives.increment();
+        }
+        return credential;
+    }
+
+    public int size() {
+        return snapshot.byKey.size();
+    }
+
+    public long getBloomRejectedCount() {
+        return bloomRejected.sum();
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * 凭证快照
+     */
+    private static final class Snapshot {
+
+        private final Map<String, ApiCredential> byKey;
+
+        private final BloomFilter bloom;
+
+        Snapshot(Map<String, ApiCredential> byKey, double falsePositiveRate) {
+            this.byKey = byKey;
+            this.bloom = new BloomFilter(byKey.size(), falsePositiveRate);
+            byKey.keySet().forEach(bloom::put);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.taobao.gateway.filter.auth;
+
+/**
+ * 字符串布隆过滤器
+ *
+ * 构建后只读，可被并发查询。哈希直接遍历字符计算，查询过程不分配对象；
+ * 由一个64位哈希拆出两个32位哈希，按 h1 + i * h2 生成各个位置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预计元素数量
+     * @param falsePositiveRate 期望误判率
+     */
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate: " + falsePositiveRate);
+        }
+        int n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, Integer.MAX_VALUE));
+        this.bits = new long[(int) ((m + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(CharSequence value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @return false表示一定不存在，true表示可能存在
+     */
+    boolean mightContain(CharSequence value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int getHashCount() {
+        return hashCount;
+    }
+
+    long getBitCount() {
+        return bitCount;
+    }
+
+    private static long hash(CharSequence value) {
+        long h = 0x9E3779B97F4A7C15L ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        // murmur3 fmix64
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,193 @@
+package com.taobao.gateway.filter.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JWKS公钥存储
+ *
+ * 公钥从本地JWKS文件加载或由管理端推送，解析后以不可变快照整体替换，请求线程读取快照无需加锁。
+ * 替换公钥集合不影响已缓存的验证结果，需要立即吊销时调用 {@link JwtVerifier#invalidateAll()}
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class JwksKeyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyStore.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Autowired(required = false)
+    private JwtAuthConfig config;
+
+    private volatile Map<String, Jwk> keys = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        if (config == null || !config.isEnabled() || config.getJwksPath() == null || config.getJwksPath().isEmpty()) {
+            return;
+        }
+        try {
+            load(Paths.get(config.getJwksPath()));
+        } catch (IOException | JwtException e) {
+            // 文件不可用时等待管理端推送，期间所有令牌校验失败
+            logger.error("加载JWKS失败: {}", config.getJwksPath(), e);
+        }
+    }
+
+    /**
+     * 从JWKS文件加载公钥
+     */
+    public void load(Path path) throws IOException {
+        update(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+        logger.info("已加载JWKS: {}, 公钥数: {}", path, keys.size());
+    }
+
+    /**
+     * 以JWKS文档替换全部公钥
+     *
+     * @param jwks JWKS JSON，形如 {"keys": [...]}
+     * @return 公钥数量
+     * @throws JwtException 文档格式错误或公钥无效
+     */
+    public int update(String jwks) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(jwks);
+        } catch (IOException e) {
+            throw new JwtException("JWKS格式错误", e);
+        }
+        JsonNode array = root != null ? root.get("keys") : null;
+        if (array == null || !array.isArray()) {
+            throw new JwtException("JWKS缺少keys数组");
+        }
+        Map<String, Jwk> parsed = new HashMap<>();
+        for (JsonNode node : array) {
+            if (node.has("use") && !"sig".equals(node.get("use").asText())) {
+                continue;
+            }
+            if (node.has("alg") && JwtAlgorithm.of(node.get("alg").asText()) == null) {
+                logger.warn("忽略不支持的签名算法: {}, kid: {}", node.get("alg").asText(), node.get("kid"));
+                continue;
+            }
+            Jwk jwk = parse(node);
+            parsed.put(jwk.getKid(), jwk);
+        }
+        keys = Collections.unmodifiableMap(parsed);
+        return parsed.size();
+    }
+
+    /**
+     * 按 kid 查找公钥，令牌未携带 kid 且只有一个公钥时返回该公钥
+     *
+     * @return 公钥，不存在时返回null
+     */
+    public Jwk get(String kid) {
+        Map<String, Jwk> current = keys;
+        if (kid == null) {
+            return current.size() == 1 ? current.values().iterator().next() : null;
+        }
+        return current.get(kid);
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static Jwk parse(JsonNode node) {
+        String kty = text(node, "kty");
+        String kid = node.has("kid") ? node.get("kid").asText() : "";
+        JwtAlgorithm algorithm = node.has("alg") ? JwtAlgorithm.of(node.get("alg").asText()) : null;
+        try {
+            if ("RSA".equals(kty)) {
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(unsigned(text(node, "n")), unsigned(text(node, "e")));
+                return new Jwk(kid, algorithm != null ? algorithm : JwtAlgorithm.RS256,
+                        KeyFactory.getInstance("RSA").generatePublic(spec));
+            }
+            if ("EC".equals(kty)) {
+                if (!"P-256".equals(text(node, "crv"))) {
+                    throw new JwtException("不支持的椭圆曲线: " + node.get("crv").asText() + ", kid: " + kid);
+                }
+                AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+                parameters.init(new ECGenParameterSpec("secp256r1"));
+                ECPoint point = new ECPoint(unsigned(text(node, "x")), unsigned(text(node, "y")));
+                ECPublicKeySpec spec = new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class));
+                return new Jwk(kid, algorithm != null ? algorithm : JwtAlgorithm.ES256,
+                        KeyFactory.getInstance("EC").generatePublic(spec));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new JwtException("无效的公钥: " + kid, e);
+        }
+        throw new JwtException("不支持的密钥类型: " + kty + ", kid: " + kid);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new JwtException("JWK缺少字段: " + field);
+        }
+        return value.asText();
+    }
+
+    private static BigInteger unsigned(String base64Url) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(base64Url));
+    }
+
+    /**
+     * 单个公钥
+     */
+    public static final class Jwk {
+
+        private final String kid;
+
+        private final JwtAlgorithm algorithm;
+
+        private final PublicKey key;
+
+        Jwk(String kid, JwtAlgorithm algorithm, PublicKey key) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.key = key;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public JwtAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public PublicKey getKey() {
+            return key;
+        }
+    }
+}
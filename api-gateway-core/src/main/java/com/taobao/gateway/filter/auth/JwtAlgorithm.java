@@ -0,0 +1,130 @@
+package com.taobao.gateway.filter.auth;
+
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Arrays;
+
+/**
+ * 支持的JWT签名算法
+ *
+ * 只接受非对称算法，{@code none} 和 HMAC 类算法一律拒绝，避免以公钥作为HMAC密钥的算法混淆攻击。
+ * {@link Signature} 实例非线程安全，按线程缓存复用
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum JwtAlgorithm {
+
+    RS256("SHA256withRSA", "RSA", 0),
+
+    ES256("SHA256withECDSA", "EC", 32);
+
+    private final String jcaName;
+
+    private final String keyType;
+
+    /**
+     * ECDSA签名中r、s各自的字节数，RSA为0
+     */
+    private final int componentLength;
+
+    private final ThreadLocal<Signature> signatures;
+
+    JwtAlgorithm(String jcaName, String keyType, int componentLength) {
+        this.jcaName = jcaName;
+        this.keyType = keyType;
+        this.componentLength = componentLength;
+        this.signatures = ThreadLocal.withInitial(() -> {
+            try {
+                return Signature.getInstance(jcaName);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("不支持的签名算法: " + jcaName, e);
+            }
+        });
+    }
+
+    /**
+     * 按JWS头部的 alg 查找算法
+     *
+     * @return 算法，不支持时返回null
+     */
+    public static JwtAlgorithm of(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (JwtAlgorithm algorithm : values()) {
+            if (algorithm.name().equals(name)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * JWK中对应的密钥类型（kty）
+     */
+    public String getKeyType() {
+        return keyType;
+    }
+
+    /**
+     * 校验签名
+     *
+     * @param key 公钥
+     * @param signingInput 签名原文（header.payload 的ASCII字节）
+     * @param signature JWS签名字节，ES256为 r||s 拼接格式
+     * @return 签名是否有效
+     */
+    public boolean verify(PublicKey key, byte[] signingInput, byte[] signature) {
+        byte[] encoded = signature;
+        if (componentLength > 0) {
+            if (signature.length != componentLength * 2) {
+                return false;
+            }
+            encoded = toDer(signature, componentLength);
+        }
+        Signature verifier = signatures.get();
+        try {
+            verifier.initVerify(key);
+            verifier.update(signingInput);
+            return verifier.verify(encoded);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 将JWS的 r||s 定长格式转换为JCA要求的DER编码 SEQUENCE { INTEGER r, INTEGER s }
+     */
+    static byte[] toDer(byte[] raw, int componentLength) {
+        byte[] r = integer(Arrays.copyOfRange(raw, 0, componentLength));
+        byte[] s = integer(Arrays.copyOfRange(raw, componentLength, componentLength * 2));
+        int length = 2 + r.length + 2 + s.length;
+        byte[] der = new byte[2 + length];
+        der[0] = 0x30;
+        der[1] = (byte) length;
+        der[2] = 0x02;
+        der[3] = (byte) r.length;
+        System.arraycopy(r, 0, der, 4, r.length);
+        der[4 + r.length] = 0x02;
+        der[5 + r.length] = (byte) s.length;
+        System.arraycopy(s, 0, der, 6 + r.length, s.length);
+        return der;
+    }
+
+    /**
+     * 无符号大端整数转换为DER INTEGER内容：去掉多余的前导零，最高位为1时补一个零字节
+     */
+    private static byte[] integer(byte[] value) {
+        int start = 0;
+        while (start < value.length - 1 && value[start] == 0) {
+            start++;
+        }
+        boolean pad = (value[start] & 0x80) != 0;
+        byte[] result = new byte[value.length - start + (pad ? 1 : 0)];
+        System.arraycopy(value, start, result, pad ? 1 : 0, value.length - start);
+        return result;
+    }
+}
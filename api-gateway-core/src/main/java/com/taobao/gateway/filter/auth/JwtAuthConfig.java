@@ -0,0 +1,151 @@
+package com.taobao.gateway.filter.auth;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JWT鉴权配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.auth.jwt")
+public class JwtAuthConfig {
+
+    /**
+     * 是否启用JWT鉴权
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否对全部请求生效，为false时只对引用了 jwt-auth 过滤器的路由或路由分组生效
+     */
+    private boolean global = false;
+
+    /**
+     * 本地JWKS文件路径，为空时等待管理端推送
+     */
+    private String jwksPath;
+
+    /**
+     * 期望的签发者（iss），为空时不校验
+     */
+    private String issuer;
+
+    /**
+     * 期望的受众（aud），为空时不校验
+     */
+    private String audience;
+
+    /**
+     * 允许的时钟偏差（秒）
+     */
+    private long clockSkewSeconds = 30;
+
+    /**
+     * 已验证令牌缓存的最大条目数
+     */
+    private long cacheMaxSize = 100_000;
+
+    /**
+     * 已验证令牌的最长缓存时间（秒），不超过令牌的过期时间
+     */
+    private long cacheMaxTtlSeconds = 3600;
+
+    /**
+     * 不需要鉴权的路径前缀，按规范化后的路径逐段匹配，见 {@link PathPrefixMatcher}
+     */
+    private List<String> excludePaths = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public String getJwksPath() {
+        return jwksPath;
+    }
+
+    public void setJwksPath(String jwksPath) {
+        this.jwksPath = jwksPath;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public void setIssuer(String issuer) {
+        this.issuer = issuer;
+    }
+
+    public String getAudience() {
+        return audience;
+    }
+
+    public void setAudience(String audience) {
+        this.audience = audience;
+    }
+
+    public long getClockSkewSeconds() {
+        return clockSkewSeconds;
+    }
+
+    public void setClockSkewSeconds(long clockSkewSeconds) {
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    public long getCacheMaxTtlSeconds() {
+        return cacheMaxTtlSeconds;
+    }
+
+    public void setCacheMaxTtlSeconds(long cacheMaxTtlSeconds) {
+        this.cacheMaxTtlSeconds = cacheMaxTtlSeconds;
+    }
+
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+
+    public void setExcludePaths(List<String> excludePaths) {
+        this.excludePaths = excludePaths;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtAuthConfig{" +
+                "enabled=" + enabled +
+                ", global=" + global +
+                ", jwksPath='" + jwksPath + '\'' +
+                ", issuer='" + issuer + '\'' +
+                ", audience='" + audience + '\'' +
+                ", clockSkewSeconds=" + clockSkewSeconds +
+                ", cacheMaxSize=" + cacheMaxSize +
+                ", cacheMaxTtlSeconds=" + cacheMaxTtlSeconds +
+                ", excludePaths=" + excludePaths +
+                '}';
+    }
+}
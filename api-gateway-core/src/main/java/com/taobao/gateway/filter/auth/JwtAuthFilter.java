@@ -0,0 +1,115 @@
+package com.taobao.gateway.filter.auth;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * JWT鉴权过滤器
+ *
+ * 从 Authorization: Bearer 头取出令牌交给 {@link JwtVerifier} 校验，失败时返回401。
+ * 校验通过后声明以 {@link JwtClaims#ATTRIBUTE} 存入当前请求上下文，
+ * 并以 {@value #SUBJECT_HEADER} 头向上游传递主体（客户端自带的同名头会被移除）。
+ * 启用后按配置注册为全局过滤器，或注册为名为 {@value #NAME} 的路由过滤器
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class JwtAuthFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
+
+    public static final String NAME = "jwt-auth";
+
+    public static final String SUBJECT_HEADER = "X-Auth-Subject";
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtAuthConfig config;
+
+    private final JwtVerifier verifier;
+
+    @Autowired(required = false)
+    private DefaultFilterChain filterChain;
+
+    public JwtAuthFilter(JwtAuthConfig config, JwtVerifier verifier) {
+        this.config = config;
+        this.verifier = verifier;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled() || filterChain == null) {
+            return;
+        }
+        if (config.isGlobal()) {
+            filterChain.addFilter(this);
+        } else {
+            filterChain.registerFilter(this);
+        }
+        logger.info("JWT鉴权已启用: {}", config);
+    }
+
+    @Override
+    public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+        request.headers().remove(SUBJECT_HEADER);
+        if (PathPrefixMatcher.matches(request.uri(), config.getExcludePaths())) {
+            return chain.doFilter(request);
+        }
+        String authorization = request.headers().get(HttpHeaderNames.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return unauthorized("Bearer realm=\"api-gateway\"");
+        }
+        JwtClaims claims;
+        try {
+            claims = verifier.verify(authorization.substring(BEARER.length()).trim());
+        } catch (JwtException e) {
+            logger.debug("JWT校验失败: {} - {}", request.uri(), e.getMessage());
+            return unauthorized("Bearer realm=\"api-gateway\", error=\"invalid_token\"");
+        }
+        RequestContext context = RequestContext.current();
+        if (context != null) {
+            context.setAttribute(JwtClaims.ATTRIBUTE, claims);
+        }
+        if (claims.getSubject() != null) {
+            request.headers().set(SUBJECT_HEADER, claims.getSubject());
+        }
+        return chain.doFilter(request);
+    }
+
+    private static FullHttpResponse unauthorized(String challenge) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.UNAUTHORIZED, Unpooled.copiedBuffer("Unauthorized", CharsetUtil.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        response.headers().set(HttpHeaderNames.WWW_AUTHENTICATE, challenge);
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return 150; // 在日志过滤器之后执行，被拒绝的请求同样记录访问日志
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,115 @@
+package com.taobao.gateway.filter.auth;
+
+import io.netty.util.AttributeKey;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 已验证JWT的声明
+ *
+ * 通过 {@link #ATTRIBUTE} 存入请求上下文，供后续过滤器和分发层读取
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class JwtClaims {
+
+    /**
+     * 请求上下文中的属性键
+     */
+    public static final AttributeKey<JwtClaims> ATTRIBUTE = AttributeKey.valueOf("gateway.auth.jwt.claims");
+
+    private final String subject;
+
+    private final String issuer;
+
+    private final List<String> audience;
+
+    private final List<String> scopes;
+
+    private final String tokenId;
+
+    /**
+     * 过期时间（秒）
+     */
+    private final long expiresAt;
+
+    /**
+     * 签发时间（秒），未携带时为0
+     */
+    private final long issuedAt;
+
+    private final Map<String, Object> claims;
+
+    JwtClaims(String subject, String issuer, List<String> audience, List<String> scopes, String tokenId,
+              long expiresAt, long issuedAt, Map<String, Object> claims) {
+        this.subject = subject;
+        this.issuer = issuer;
+        this.audience = Collections.unmodifiableList(audience);
+        this.scopes = Collections.unmodifiableList(scopes);
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.issuedAt = issuedAt;
+        this.claims = Collections.unmodifiableMap(claims);
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public String getIssuer() {
+        return issuer;
+    }
+
+    public List<String> getAudience() {
+        return audience;
+    }
+
+    /**
+     * 授权范围，取自 scope（空格分隔）或 scp（数组）
+     */
+    public List<String> getScopes() {
+        return scopes;
+    }
+
+    public boolean hasScope(String scope) {
+        return scopes.contains(scope);
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    /**
+     * 获取原始声明
+     */
+    public Object getClaim(String name) {
+        return claims.get(name);
+    }
+
+    public Map<String, Object> getClaims() {
+        return claims;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtClaims{" +
+                "subject='" + subject + '\'' +
+                ", issuer='" + issuer + '\'' +
+                ", audience=" + audience +
+                ", scopes=" + scopes +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,21 @@
+package com.taobao.gateway.filter.auth;
+
+/**
+ * JWT校验失败异常
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class JwtException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public JwtException(String message) {
+        super(message);
+    }
+
+    public JwtException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,198 @@
+package com.taobao.gateway.filter.auth;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 鉴权排除路径匹配器
+ *
+ * 先把请求URI规范化为路径：去掉查询串和片段，百分号解码，反斜杠视为分隔符，去掉分段中的路径参数（;之后），
+ * 解析 . 与 .. 分段并合并空分段。再按完整分段匹配前缀：路径等于前缀或以 前缀 + "/" 开头才算命中，
+ * 因此 /public/../admin 不会被 /public 排除，/healthzX 也不会被 /healthz 排除。
+ * URI无法规范化（如非法的百分号编码）时不排除，请求照常鉴权
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+final class PathPrefixMatcher {
+
+    private PathPrefixMatcher() {
+    }
+
+    /**
+     * 请求URI是否落在任一排除前缀下
+     *
+     * @param uri 请求URI
+     * @param prefixes 排除的路径前缀，空串被忽略，"/" 排除全部路径
+     */
+    static boolean matches(String uri, List<String> prefixes) {
+        if (prefixes == null || prefixes.isEmpty()) {
+            return false;
+        }
+        String path = normalize(uri);
+        if (path == null) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (prefix != null && matchesPrefix(path, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按完整分段匹配，前缀末尾的 / 不影响结果
+     */
+    static boolean matchesPrefix(String path, String prefix) {
+        if (prefix.isEmpty()) {
+            return false;
+        }
+        int length = prefix.length();
+        while (length > 0 && prefix.charAt(length - 1) == '/') {
+            length--;
+        }
+        if (!path.regionMatches(0, prefix, 0, length)) {
+            return false;
+        }
+        return path.length() == length || path.charAt(length) == '/';
+    }
+
+    /**
+     * 把请求URI规范化为以 / 开头、不含 . 与 .. 分段的路径
+     *
+     * @return 规范化后的路径，无法解析时返回null
+     */
+    static String normalize(String uri) {
+        if (uri == null) {
+            return null;
+        }
+        int end = uri.length();
+        int query = uri.indexOf('?');
+        if (query >= 0) {
+            end = query;
+        }
+        int fragment = uri.indexOf('#');
+        if (fragment >= 0 && fragment < end) {
+            end = fragment;
+        }
+        int start = 0;
+        if (!uri.startsWith("/")) {
+            // 绝对形式的请求目标：scheme://authority/path
+            int scheme = uri.indexOf("://");
+            if (scheme < 0 || scheme >= end) {
+                return null;
+            }
+            start = uri.indexOf('/', scheme + 3);
+            if (start < 0 || start >= end) {
+                return "/";
+            }
+        }
+        String path = uri.substring(start, end);
+        if (isCanonical(path)) {
+            return path;
+        }
+        if (path.indexOf('%') >= 0) {
+            path = decode(path);
+            if (path == null) {
+                return null;
+            }
+        }
+        return resolve(path.replace('\\', '/'));
+    }
+
+    /**
+     * 不含需要解码或解析的字符时可以直接匹配，常见请求不必逐段重建
+     */
+    private static boolean isCanonical(String path) {
+        char previous = 0;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '%' || c == '\\' || c == ';' || c == '.' && previous == '/' || c == '/' && previous == '/') {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
+    /**
+     * 逐段解析 . 与 ..，.. 不会越过根路径
+     */
+    private static String resolve(String path) {
+        List<String> segments = new ArrayList<>();
+        int i = 0;
+        int length = path.length();
+        while (i <= length) {
+            int next = path.indexOf('/', i);
+            if (next < 0) {
+                next = length;
+            }
+            String segment = path.substring(i, next);
+            int parameters = segment.indexOf(';');
+            if (parameters >= 0) {
+                segment = segment.substring(0, parameters);
+            }
+            if ("..".equals(segment)) {
+                if (!segments.isEmpty()) {
+                    segments.remove(segments.size() - 1);
+                }
+            } else if (!segment.isEmpty() && !".".equals(segment)) {
+                segments.add(segment);
+            }
+            i = next + 1;
+        }
+        if (segments.isEmpty()) {
+            return "/";
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (String segment : segments) {
+            builder.append('/').append(segment);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 百分号解码为UTF-8字符串，+ 保持原样
+     *
+     * @return 解码结果，编码非法或含非ASCII字符时返回null
+     */
+    private static String decode(String path) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(path.length());
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= path.length()) {
+                    return null;
+                }
+                int high = Character.digit(path.charAt(i + 1), 16);
+                int low = Character.digit(path.charAt(i + 2), 16);
+                if (high < 0 || low < 0) {
+                    return null;
+                }
+                bytes.write(high << 4 | low);
+                i += 2;
+            } else if (c < 0x80) {
+                bytes.write(c);
+            } else {
+                // 合法的请求URI只含ASCII字符
+                return null;
+            }
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes.toByteArray()))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.taobao.gateway.filter.profile;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 单个过滤器在单条路由上的自耗时直方图
+ *
+ * 每个线程写入各自的 {@link SingleWriterRecorder}，记录过程无锁且不与其他线程竞争；
+ * 读取时逐个取出各线程的区间直方图并合并到累计直方图。直方图为紧凑存储、按需扩容，
+ * 内存只与实际出现的取值范围有关
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class FilterLatency {
+
+    private final String filterName;
+
+    private final String routeId;
+
+    private final int significantDigits;
+
+    private final List<ThreadRecorder> recorders = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<SingleWriterRecorder> local = ThreadLocal.withInitial(this::register);
+
+    /**
+     * 累计直方图，只在持有本对象锁时访问
+     */
+    private final Histogram accumulated;
+
+    FilterLatency(String filterName, String routeId, int significantDigits) {
+        this.filterName = filterName;
+        this.routeId = routeId;
+        this.significantDigits = significantDigits;
+        this.accumulated = new PackedHistogram(significantDigits);
+    }
+
+    private SingleWriterRecorder register() {
+        SingleWriterRecorder recorder = new SingleWriterRecorder(significantDigits, true);
+        recorders.add(new ThreadRecorder(recorder));
+        return recorder;
+    }
+
+    /**
+     * 记录一次自耗时
+     *
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        local.get().recordValue(Math.max(nanos, 0));
+    }
+
+    /**
+     * 合并各线程的记录并生成统计快照
+     */
+    public synchronized FilterLatencySnapshot snapshot() {
+        drain(true);
+        return new FilterLatencySnapshot(filterName, routeId, accumulated);
+    }
+
+    /**
+     * 清空已记录的数据
+     */
+    public synchronized void reset() {
+        drain(false);
+        accumulated.reset();
+    }
+
+    private void drain(boolean merge) {
+        for (ThreadRecorder recorder : recorders) {
+            recorder.interval = recorder.recorder.getIntervalHistogram(recorder.interval);
+            if (merge) {
+                accumulated.add(recorder.interval);
+            }
+        }
+    }
+
+    public String getFilterName() {
+        return filterName;
+    }
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    /**
+     * 单个线程的记录器及其可复用的区间直方图
+     */
+    private static final class ThreadRecorder {
+
+        private final SingleWriterRecorder recorder;
+
+        private Histogram interval;
+
+        ThreadRecorder(SingleWriterRecorder recorder) {
+            this.recorder = recorder;
+        }
+    }
+}
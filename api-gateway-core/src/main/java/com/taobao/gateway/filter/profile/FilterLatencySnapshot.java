@@ -0,0 +1,97 @@
+package com.taobao.gateway.filter.profile;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * 过滤器自耗时统计快照，耗时单位为微秒
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class FilterLatencySnapshot {
+
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final String filter;
+
+    private final String route;
+
+    private final long count;
+
+    private final double mean;
+
+    private final double p50;
+
+    private final double p99;
+
+    private final double p999;
+
+    private final double max;
+
+    FilterLatencySnapshot(String filter, String route, Histogram histogram) {
+        this.filter = filter;
+        this.route = route;
+        this.count = histogram.getTotalCount();
+        this.mean = histogram.getMean() / NANOS_PER_MICRO;
+        this.p50 = histogram.getValueAtPercentile(50.0) / NANOS_PER_MICRO;
+        this.p99 = histogram.getValueAtPercentile(99.0) / NANOS_PER_MICRO;
+        this.p999 = histogram.getValueAtPercentile(99.9) / NANOS_PER_MICRO;
+        this.max = histogram.getMaxValue() / NANOS_PER_MICRO;
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    /**
+     * 采样次数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public double getP999() {
+        return p999;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * 采样请求的累计自耗时（毫秒），用于排序找出最耗时的过滤器
+     */
+    public double getTotalMillis() {
+        return count * mean / 1000.0;
+    }
+
+    @Override
+    public String toString() {
+        return "FilterLatencySnapshot{" +
+                "filter='" + filter + '\'' +
+                ", route='" + route + '\'' +
+                ", count=" + count +
+                ", p50=" + p50 +
+                ", p99=" + p99 +
+                ", p999=" + p999 +
+                ", max=" + max +
+                '}';
+    }
+}
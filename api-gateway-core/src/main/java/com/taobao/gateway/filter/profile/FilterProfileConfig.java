@@ -0,0 +1,64 @@
+package com.taobao.gateway.filter.profile;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 过滤器耗时采样配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.routing.filter.profile")
+public class FilterProfileConfig {
+
+    /**
+     * 是否启用过滤器耗时采样
+     */
+    private boolean enabled = false;
+
+    /**
+     * 采样比例（0~1），1表示每个请求都记录
+     */
+    private double sampleRate = 0.01;
+
+    /**
+     * 直方图有效数字位数（1~5），位数越多精度越高、内存占用越大
+     */
+    private int significantDigits = 2;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    public void setSignificantDigits(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+
+    @Override
+    public String toString() {
+        return "FilterProfileConfig{" +
+                "enabled=" + enabled +
+                ", sampleRate=" + sampleRate +
+                ", significantDigits=" + significantDigits +
+                '}';
+    }
+}
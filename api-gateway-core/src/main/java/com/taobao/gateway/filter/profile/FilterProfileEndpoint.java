@@ -0,0 +1,61 @@
+package com.taobao.gateway.filter.profile;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 过滤器耗时端点
+ *
+ * GET    /actuator/filterprofile  查看各过滤器在各路由上的自耗时分位数（微秒），按累计耗时降序
+ * POST   /actuator/filterprofile  开关采样或调整采样比例，如 {"enabled": true, "sampleRate": 0.05}
+ * DELETE /actuator/filterprofile  清空统计
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@Endpoint(id = "filterprofile")
+public class FilterProfileEndpoint {
+
+    private final FilterProfiler profiler;
+
+    public FilterProfileEndpoint(FilterProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> profile() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", profiler.isEnabled());
+        result.put("sampleRate", profiler.getSampleRate());
+        result.put("filters", profiler.snapshot());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> configure(@Nullable Boolean enabled, @Nullable Double sampleRate) {
+        if (sampleRate != null) {
+            profiler.setSampleRate(sampleRate);
+        }
+        if (enabled != null) {
+            profiler.setEnabled(enabled);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", profiler.isEnabled());
+        result.put("sampleRate", profiler.getSampleRate());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
@@ -1,7 +1,11 @@
 package com.taobao.gateway.handler;
 
+import com.taobao.gateway.dispatcher.RequestContext;
 import com.taobao.gateway.filter.FilterChain;
+import com.taobao.gateway.ratelimit.adaptive.RequestMetrics;
+import com.taobao.gateway.router.CompiledRoute;
 import com.taobao.gateway.router.RouteManager;
+import com.taobao.gateway.router.RouteResult;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
@@ -15,7 +19,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * HTTP请求处理器
@@ -35,30 +39,55 @@ public class HttpRequestHandler extends SimpleChannelInboundHandler<FullHttpRequ
     @Autowired
     private RouteManager routeManager;
 
+    @Autowired(required = false)
+    private RequestMetrics requestMetrics;
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest request) throws Exception {
         logger.debug("收到HTTP请求: {} {}", request.method(), request.uri());
 
-        // 异步处理请求
-        CompletableFuture<FullHttpResponse> future = CompletableFuture.supplyAsync(() -> {
-            try {
-                // 执行过滤器链
-                return filterChain.doFilter(request);
-            } catch (Exception e) {
-                logger.error("处理请求时发生错误", e);
-                return createErrorResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
+        // 异步执行过滤器链，SimpleChannelInboundHandler在返回后会释放请求，需保留到过滤器链完成
+        request.retain();
+        long start = requestMetrics != null ? requestMetrics.start() : 0;
+        CompletionStage<FullHttpResponse> future;
+        // 过滤器通过 RequestContext.current() 读写请求级属性（如鉴权结果），过滤器链切换线程时随之传递
+        RequestContext context = new RequestContext(request, ctx.channel());
+        RequestContext previous = RequestContext.attach(context);
+        try {
+            // 只匹配一次路由，过滤器链直接使用匹配结果选择路由级过滤器链
+            CompiledRoute compiledRoute = null;
+            if (routeManager != null) {
+                RouteResult routeResult = routeManager.route(request);
+                compiledRoute = routeResult.getCompiledRoute();
+                if (routeResult.isMatched()) {
+                    // 灰度分流选中的目标经由请求上下文交给下游过滤器和转发
+                    context.setRouteInfo(new RequestContext.RouteInfo(request.uri(), routeResult.getTargetName(),
+                            routeResult.getTarget(), routeResult.getRoute().getTimeout()));
+                }
             }
-        });
-        
-        future.thenAccept(response -> {
-            // 发送响应
-            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
-        }).exceptionally(throwable -> {
-            logger.error("异步处理请求时发生错误", throwable);
-            FullHttpResponse errorResponse = createErrorResponse(
-                    HttpResponseStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
-            ctx.writeAndFlush(errorResponse).addListener(ChannelFutureListener.CLOSE);
-            return null;
+            future = filterChain.doFilterAsync(request, compiledRoute, ctx.executor());
+        } catch (Exception e) {
+            request.release();
+            if (requestMetrics != null) {
+                requestMetrics.end(start, true);
+            }
+            throw e;
+        } finally {
+            RequestContext.restore(previous);
+        }
+
+        // 过滤器链在事件循环上完成，直接写回响应
+        future.whenComplete((response, throwable) -> {
+            request.release();
+            FullHttpResponse result = response;
+            if (throwable != null) {
+                logger.error("异步处理请求时发生错误", throwable);
+                result = createErrorResponse(HttpResponseStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
+            }
+            if (requestMetrics != null) {
+                requestMetrics.end(start, result == null || result.status().code() >= 500);
+            }
+            ctx.writeAndFlush(result).addListener(ChannelFutureListener.CLOSE);
         });
     }
 
@@ -0,0 +1,21 @@
+package com.taobao.gateway.ipaccess;
+
+/**
+ * IP访问控制动作
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum IpAccessAction {
+
+    /**
+     * 放行
+     */
+    ALLOW,
+
+    /**
+     * 拒绝
+     */
+    DENY
+}
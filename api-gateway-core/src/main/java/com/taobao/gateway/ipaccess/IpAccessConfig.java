@@ -0,0 +1,109 @@
+package com.taobao.gateway.ipaccess;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * IP访问控制配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.ip-access")
+public class IpAccessConfig {
+
+    /**
+     * 是否启用IP访问控制
+     */
+    private boolean enabled = false;
+
+    /**
+     * 未命中任何规则时的动作
+     */
+    private IpAccessAction defaultAction = IpAccessAction.ALLOW;
+
+    /**
+     * 放行的网段（CIDR），比拒绝网段更精确时优先生效
+     */
+    private List<String> allow = new ArrayList<>();
+
+    /**
+     * 拒绝的网段（CIDR）
+     */
+    private List<String> deny = new ArrayList<>();
+
+    /**
+     * 黑名单文件路径，每行一个IP或CIDR，#开头为注释
+     */
+    private String blacklistPath;
+
+    /**
+     * 可信代理网段，来自这些地址的连接按 X-Forwarded-For 识别真实客户端
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public IpAccessAction getDefaultAction() {
+        return defaultAction;
+    }
+
+    public void setDefaultAction(IpAccessAction defaultAction) {
+        this.defaultAction = defaultAction;
+    }
+
+    public List<String> getAllow() {
+        return allow;
+    }
+
+    public void setAllow(List<String> allow) {
+        this.allow = allow;
+    }
+
+    public List<String> getDeny() {
+        return deny;
+    }
+
+    public void setDeny(List<String> deny) {
+        this.deny = deny;
+    }
+
+    public String getBlacklistPath() {
+        return blacklistPath;
+    }
+
+    public void setBlacklistPath(String blacklistPath) {
+        this.blacklistPath = blacklistPath;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    public String toString() {
+        return "IpAccessConfig{" +
+                "enabled=" + enabled +
+                ", defaultAction=" + defaultAction +
+                ", allow=" + allow.size() +
+                ", deny=" + deny.size() +
+                ", blacklistPath='" + blacklistPath + '\'' +
+                ", trustedProxies=" + trustedProxies +
+                '}';
+    }
+}
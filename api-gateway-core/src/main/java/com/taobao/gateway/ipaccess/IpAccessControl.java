@@ -0,0 +1,239 @@
+package com.taobao.gateway.ipaccess;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * IP访问控制规则
+ *
+ * 放行、拒绝网段和黑名单文件合并为一棵 {@link IpRadixTree}，与可信代理网段一起组成不可变快照，
+ * 重新加载时整体构建后原子替换，查询线程读取快照无需加锁
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class IpAccessControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(IpAccessControl.class);
+
+    /**
+     * 每个线程复用的地址解析缓冲区：高64位、低64位、前缀长度
+     */
+    private static final FastThreadLocal<long[]> KEYS = new FastThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[3];
+        }
+    };
+
+    private final IpAccessConfig config;
+
+    private volatile Snapshot snapshot;
+
+    private final LongAdder connectionsDenied = new LongAdder();
+
+    private final LongAdder requestsDenied = new LongAdder();
+
+    public IpAccessControl(IpAccessConfig config) {
+        this.config = config;
+        this.snapshot = new Snapshot(new IpRadixTree(), new IpRadixTree(), config.getDefaultAction());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IOException e) {
+            // 黑名单文件不可用时只使用配置中的规则
+            logger.error("加载IP黑名单失败: {}", config.getBlacklistPath(), e);
+            update(config.getAllow(), config.getDeny());
+        }
+    }
+
+    /**
+     * 按配置重新加载全部规则，黑名单文件中的网段按拒绝处理
+     *
+     * @return 生效的规则数
+     */
+    public int reload() throws IOException {
+        IpRadixTree rules = new IpRadixTree();
+        addAll(rules, config.getDeny(), IpAccessAction.DENY);
+        if (config.getBlacklistPath() != null && !config.getBlacklistPath().isEmpty()) {
+            Path path = Paths.get(config.getBlacklistPath());
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                long[] key = new long[3];
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.isEmpty() || line.charAt(0) == '#') {
+                        continue;
+                    }
+                    add(rules, line, IpAccessAction.DENY, key);
+                }
+            }
+        }
+        // 放行规则后加入，同一网段同时出现时以放行为准
+        addAll(rules, config.getAllow(), IpAccessAction.ALLOW);
+        return swap(rules);
+    }
+
+    /**
+     * 以给定网段替换全部规则
+     *
+     * @return 生效的规则数
+     */
+    public int update(Collection<String> allow, Collection<String> deny) {
+        IpRadixTree rules = new IpRadixTree();
+        addAll(rules, deny, IpAccessAction.DENY);
+        addAll(rules, allow, IpAccessAction.ALLOW);
+        return swap(rules);
+    }
+
+    private int swap(IpRadixTree rules) {
+        IpRadixTree trusted = new IpRadixTree();
+        addAll(trusted, config.getTrustedProxies(), IpAccessAction.ALLOW);
+        snapshot = new Snapshot(rules, trusted, config.getDefaultAction());
+        logger.info("IP访问控制规则已更新, 规则数: {}, 可信代理: {}", rules.size(), trusted.size());
+        return rules.size();
+    }
+
+    private static void addAll(IpRadixTree tree, Collection<String> cidrs, IpAccessAction action) {
+        long[] key = new long[3];
+        for (String cidr : cidrs != null ? cidrs : Collections.<String>emptyList()) {
+            add(tree, cidr.trim(), action, key);
+        }
+    }
+
+    private static void add(IpRadixTree tree, String cidr, IpAccessAction action, long[] key) {
+        if (IpAddresses.parseCidr(cidr, key)) {
+            tree.put(key[0], key[1], (int) key[2], action);
+        } else {
+            logger.warn("忽略格式错误的网段: {}", cidr);
+        }
+    }
+
+    /**
+     * 判断地址是否放行
+     */
+    public boolean isAllowed(long hi, long lo) {
+        Snapshot current = snapshot;
+        IpAccessAction action = current.rules.lookup(hi, lo);
+        return (action != null ? action : current.defaultAction) == IpAccessAction.ALLOW;
+    }
+
+    /**
+     * 判断连接的对端地址是否放行
+     */
+    public boolean isAllowed(InetAddress address) {
+        long[] key = KEYS.get();
+        IpAddresses.toKey(address, key);
+        return isAllowed(key[0], key[1]);
+    }
+
+    /**
+     * 判断地址是否属于可信代理
+     */
+    public boolean isTrustedProxy(InetAddress address) {
+        Snapshot current = snapshot;
+        if (current.trusted.size() == 0) {
+            return false;
+        }
+        long[] key = KEYS.get();
+        IpAddresses.toKey(address, key);
+        return current.trusted.lookup(key[0], key[1]) != null;
+    }
+
+    /**
+     * 按 X-Forwarded-For 判断真实客户端是否放行
+     *
+     * 从右向左跳过可信代理，第一个不可信的地址即为客户端；全部可信时取最左侧地址。
+     * 只应在对端为可信代理时调用，否则客户端可伪造该请求头
+     *
+     * @param forwardedFor X-Forwarded-For 请求头
+     * @return 客户端地址放行，或请求头中没有可解析的地址时返回true
+     */
+    public boolean isForwardedAllowed(CharSequence forwardedFor) {
+        Snapshot current = snapshot;
+        long[] key = KEYS.get();
+        int end = forwardedFor.length();
+        boolean found = false;
+        long clientHi = 0;
+        long clientLo = 0;
+        while (end > 0) {
+            int start = end - 1;
+            while (start >= 0 && forwardedFor.charAt(start) != ',') {
+                start--;
+            }
+            if (IpAddresses.parse(forwardedFor, start + 1, end, key)) {
+                found = true;
+                clientHi = key[0];
+                clientLo = key[1];
+                if (current.trusted.lookup(clientHi, clientLo) == null) {
+                    break;
+                }
+            } else {
+                // 无法解析的条目之前的地址不可信
+                break;
+            }
+            end = start;
+        }
+        return !found || isAllowed(clientHi, clientLo);
+    }
+
+    void recordConnectionDenied() {
+        connectionsDenied.increment();
+    }
+
+    void recordRequestDenied() {
+        requestsDenied.increment();
+    }
+
+    public int size() {
+        return snapshot.rules.size();
+    }
+
+    public long getConnectionsDenied() {
+        return connectionsDenied.sum();
+    }
+
+    public long getRequestsDenied() {
+        return requestsDenied.sum();
+    }
+
+    /**
+     * 规则快照
+     */
+    private static final class Snapshot {
+
+        private final IpRadixTree rules;
+
+        private final IpRadixTree trusted;
+
+        private final IpAccessAction defaultAction;
+
+        Snapshot(IpRadixTree rules, IpRadixTree trusted, IpAccessAction defaultAction) {
+            this.rules = rules;
+            this.trusted = trusted;
+            this.defaultAction = defaultAction;
+        }
+    }
+}
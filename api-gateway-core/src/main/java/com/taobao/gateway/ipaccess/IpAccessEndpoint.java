@@ -0,0 +1,47 @@
+package com.taobao.gateway.ipaccess;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * IP访问控制端点
+ *
+ * GET  /actuator/ipaccess  查看规则数和拒绝次数
+ * POST /actuator/ipaccess  按配置和黑名单文件重新加载全部规则
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@Endpoint(id = "ipaccess")
+public class IpAccessEndpoint {
+
+    private final IpAccessControl accessControl;
+
+    public IpAccessEndpoint(IpAccessControl accessControl) {
+        this.accessControl = accessControl;
+    }
+
+    @ReadOperation
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rules", accessControl.size());
+        result.put("connectionsDenied", accessControl.getConnectionsDenied());
+        result.put("requestsDenied", accessControl.getRequestsDenied());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rules", accessControl.reload());
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package com.taobao.gateway.ipaccess;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * IP访问控制处理器
+ *
+ * 放在 HttpServerCodec 之后、HttpObjectAggregator 之前：
+ * 对端地址在 channelActive 时校验，被拒绝的连接直接关闭，不解析任何数据；
+ * 对端为可信代理时，再按每个请求头中的 X-Forwarded-For 校验真实客户端，拒绝时返回403，不再聚合请求体
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ChannelHandler.Sharable
+public class IpAccessHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IpAccessHandler.class);
+
+    /**
+     * 对端为可信代理的连接
+     */
+    private static final AttributeKey<Boolean> TRUSTED_PROXY = AttributeKey.valueOf("gateway.ipAccess.trustedProxy");
+
+    /**
+     * 已被拒绝、等待关闭的连接
+     */
+    private static final AttributeKey<Boolean> DENIED = AttributeKey.valueOf("gateway.ipAccess.denied");
+
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private final IpAccessConfig config;
+
+    private final IpAccessControl accessControl;
+
+    public IpAccessHandler(IpAccessConfig config, IpAccessControl accessControl) {
+        this.config = config;
+        this.accessControl = accessControl;
+    }
+
+    /**
+     * 是否需要加入管道
+     */
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    @Override
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+        SocketAddress remote = ctx.channel().remoteAddress();
+        if (remote instanceof InetSocketAddress && ((InetSocketAddress) remote).getAddress() != null) {
+            InetSocketAddress address = (InetSocketAddress) remote;
+            if (!accessControl.isAllowed(address.getAddress())) {
+                accessControl.recordConnectionDenied();
+                ctx.channel().attr(DENIED).set(Boolean.TRUE);
+                ctx.close();
+                logger.debug("拒绝连接: {}", address);
+                return;
+            }
+            if (accessControl.isTrustedProxy(address.getAddress())) {
+                ctx.channel().attr(TRUSTED_PROXY).set(Boolean.TRUE);
+            }
+        }
+        super.channelActive(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (ctx.channel().hasAttr(DENIED)) {
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        if (msg instanceof HttpRequest && ctx.channel().hasAttr(TRUSTED_PROXY)) {
+            String forwardedFor = ((HttpRequest) msg).headers().get(X_FORWARDED_FOR);
+            if (forwardedFor != null && !accessControl.isForwardedAllowed(forwardedFor)) {
+                accessControl.recordRequestDenied();
+                ReferenceCountUtil.release(msg);
+                ctx.channel().attr(DENIED).set(Boolean.TRUE);
+                logger.debug("拒绝请求: {}, X-Forwarded-For: {}", ctx.channel().remoteAddress(), forwardedFor);
+                FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.FORBIDDEN);
+                response.headers().set(HttpHeaderNames.CONTENT_LENGTH, 0);
+                response.headers().set(HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE);
+                ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+                return;
+            }
+        }
+        ctx.fireChannelRead(msg);
+    }
+}
@@ -0,0 +1,274 @@
+package com.taobao.gateway.ipaccess;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+
+/**
+ * IP地址与128位键之间的转换
+ *
+ * IPv6地址按网络字节序拆为高、低两个64位整数；IPv4地址映射为 ::ffff:a.b.c.d，
+ * 因此IPv4网段 a.b.c.d/n 对应的前缀长度为 96 + n。解析直接遍历字符，不分配对象
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class IpAddresses {
+
+    /**
+     * IPv4映射地址的低64位前缀（::ffff:0:0/96）
+     */
+    static final long IPV4_MAPPED = 0xFFFF_0000_0000L;
+
+    private IpAddresses() {
+    }
+
+    /**
+     * IPv4地址对应的低64位，高64位恒为0
+     */
+    static long ipv4(int address) {
+        return IPV4_MAPPED | (address & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * 将地址转换为128位键
+     *
+     * @param address IP地址
+     * @param out 输出，out[0]为高64位，out[1]为低64位
+     */
+    public static void toKey(InetAddress address, long[] out) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address的hashCode即为地址本身，无需拷贝字节数组
+            out[0] = 0;
+            out[1] = ipv4(address.hashCode());
+        } else if (address instanceof Inet6Address) {
+            byte[] bytes = address.getAddress();
+            long hi = 0;
+            long lo = 0;
+            for (int i = 0; i < 8; i++) {
+                hi = (hi << 8) | (bytes[i] & 0xFF);
+                lo = (lo << 8) | (bytes[i + 8] & 0xFF);
+            }
+            out[0] = hi;
+            out[1] = lo;
+        } else {
+            throw new IllegalArgumentException("不支持的地址类型: " + address);
+        }
+    }
+
+    /**
+     * 解析CIDR，如 10.0.0.0/8、2001:db8::/32，省略前缀长度时为单个地址
+     *
+     * @param out 输出，out[0]、out[1]为地址，out[2]为128位键下的前缀长度
+     * @return 格式错误时返回false
+     */
+    public static boolean parseCidr(CharSequence cidr, long[] out) {
+        int end = cidr.length();
+        int slash = -1;
+        for (int i = 0; i < end; i++) {
+            if (cidr.charAt(i) == '/') {
+                slash = i;
+                break;
+            }
+        }
+        int addressEnd = slash < 0 ? end : slash;
+        if (!parse(cidr, 0, addressEnd, out)) {
+            return false;
+        }
+        boolean ipv4 = isIpv4(cidr, 0, addressEnd);
+        int maxLength = ipv4 ? 32 : 128;
+        int length = maxLength;
+        if (slash >= 0) {
+            if (slash + 1 == end || end - slash > 4) {
+                return false;
+            }
+            length = 0;
+            for (int i = slash + 1; i < end; i++) {
+                char c = cidr.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+                length = length * 10 + (c - '0');
+            }
+            if (length > maxLength) {
+                return false;
+            }
+        }
+        out[2] = ipv4 ? 96 + length : length;
+        return true;
+    }
+
+    /**
+     * 解析IP地址，允许首尾空白、IPv6的方括号以及IPv4后的端口
+     *
+     * @param out 输出，out[0]为高64位，out[1]为低64位
+     * @return 格式错误时返回false
+     */
+    public static boolean parse(CharSequence s, int start, int end, long[] out) {
+        while (start < end && s.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        if (s.charAt(start) == '[') {
+            int close = indexOf(s, ']', start, end);
+            if (close < 0) {
+                return false;
+            }
+            return parseIpv6(s, start + 1, close, out);
+        }
+        int colon = indexOf(s, ':', start, end);
+        if (colon < 0 || (isIpv4(s, start, colon) && indexOf(s, ':', colon + 1, end) < 0)) {
+            int ipv4End = colon < 0 ? end : colon;
+            long address = parseIpv4(s, start, ipv4End);
+            if (address < 0) {
+                return false;
+            }
+            out[0] = 0;
+            out[1] = ipv4((int) address);
+            return true;
+        }
+        return parseIpv6(s, start, end, out);
+    }
+
+    private static boolean isIpv4(CharSequence s, int start, int end) {
+        return indexOf(s, '.', start, end) >= 0 && indexOf(s, ':', start, end) < 0;
+    }
+
+    /**
+     * @return 32位地址，格式错误时返回-1
+     */
+    private static long parseIpv4(CharSequence s, int start, int end) {
+        long address = 0;
+        int octets = 0;
+        int i = start;
+        while (i <= end) {
+            int value = 0;
+            int digits = 0;
+            while (i < end && s.charAt(i) != '.') {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9' || ++digits > 3) {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+                i++;
+            }
+            if (digits == 0 || value > 255 || ++octets > 4) {
+                return -1;
+            }
+            address = (address << 8) | value;
+            i++;
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    private static boolean parseIpv6(CharSequence s, int start, int end, long[] out) {
+        // "::" 之前的分组累加到head，之后的分组累加到tail
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headCount = 0;
+        int tailCount = 0;
+        boolean compressed = false;
+        int i = start;
+        if (end - start >= 2 && s.charAt(start) == ':' && s.charAt(start + 1) == ':') {
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int groupEnd = indexOf(s, ':', i, end);
+            if (groupEnd < 0) {
+                groupEnd = end;
+            }
+            int groups;
+            long value;
+            if (indexOf(s, '.', i, groupEnd) >= 0) {
+                // 末尾内嵌的IPv4地址，占两个分组
+                if (groupEnd != end) {
+                    return false;
+                }
+                value = parseIpv4(s, i, end);
+                if (value < 0) {
+                    return false;
+                }
+                groups = 2;
+            } else {
+                if (groupEnd == i || groupEnd - i > 4) {
+                    return false;
+                }
+                value = 0;
+                for (int j = i; j < groupEnd; j++) {
+                    int digit = Character.digit(s.charAt(j), 16);
+                    if (digit < 0) {
+                        return false;
+                    }
+                    value = (value << 4) | digit;
+                }
+                groups = 1;
+            }
+            int shift = groups * 16;
+            if (compressed) {
+                tailHi = (tailHi << shift) | (tailLo >>> (64 - shift));
+                tailLo = (tailLo << shift) | value;
+                tailCount += groups;
+            } else {
+                headHi = (headHi << shift) | (headLo >>> (64 - shift));
+                headLo = (headLo << shift) | value;
+                headCount += groups;
+            }
+            if (headCount + tailCount > 8) {
+                return false;
+            }
+            i = groupEnd;
+            if (i == end) {
+                break;
+            }
+            i++;
+            if (i == end) {
+                // 以单个冒号结尾
+                return false;
+            }
+            if (s.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+        int total = headCount + tailCount;
+        if (compressed ? total > 7 : total != 8) {
+            return false;
+        }
+        // head左移到高位，与tail拼接
+        int shift = (8 - headCount) * 16;
+        if (shift >= 128) {
+            headHi = 0;
+            headLo = 0;
+        } else if (shift >= 64) {
+            headHi = headLo << (shift - 64);
+            headLo = 0;
+        } else if (shift > 0) {
+            headHi = (headHi << shift) | (headLo >>> (64 - shift));
+            headLo <<= shift;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+
+    private static int indexOf(CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
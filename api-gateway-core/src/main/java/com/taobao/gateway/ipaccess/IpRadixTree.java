@@ -0,0 +1,166 @@
+package com.taobao.gateway.ipaccess;
+
+/**
+ * 128位键的压缩二叉基数树（Patricia树）
+ *
+ * 每个节点保存一段完整前缀，只在前缀分叉处建立分支，节点数不超过规则数的两倍。
+ * 查询按最长前缀匹配，沿树下降时逐个比较节点前缀，最多经过128层，不分配对象。
+ * 构建阶段非线程安全；构建完成后通过volatile引用发布，即可被并发查询
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class IpRadixTree {
+
+    private static final IpAccessAction[] ACTIONS = IpAccessAction.values();
+
+    private Node root;
+
+    private int size;
+
+    /**
+     * 插入或覆盖一条规则
+     *
+     * @param hi 地址高64位
+     * @param lo 地址低64位
+     * @param prefixLength 前缀长度，0-128
+     * @param action 命中时的动作
+     */
+    public void put(long hi, long lo, int prefixLength, IpAccessAction action) {
+        if (prefixLength < 0 || prefixLength > 128) {
+            throw new IllegalArgumentException("prefixLength: " + prefixLength);
+        }
+        root = insert(root, maskHi(hi, prefixLength), maskLo(lo, prefixLength), prefixLength, (byte) action.ordinal());
+    }
+
+    /**
+     * 按最长前缀匹配查找
+     *
+     * @return 命中的动作，未命中时返回null
+     */
+    public IpAccessAction lookup(long hi, long lo) {
+        Node node = root;
+        int best = -1;
+        while (node != null) {
+            int length = node.prefixLength;
+            if (!matches(node.hi, node.lo, hi, lo, length)) {
+                break;
+            }
+            if (node.action >= 0) {
+                best = node.action;
+            }
+            if (length == 128) {
+                break;
+            }
+            node = bit(hi, lo, length) == 0 ? node.left : node.right;
+        }
+        return best < 0 ? null : ACTIONS[best];
+    }
+
+    /**
+     * 规则数
+     */
+    public int size() {
+        return size;
+    }
+
+    private Node insert(Node node, long hi, long lo, int length, byte action) {
+        if (node == null) {
+            size++;
+            return new Node(hi, lo, length, action);
+        }
+        int common = Math.min(commonPrefix(node.hi, node.lo, hi, lo), Math.min(node.prefixLength, length));
+        if (common == node.prefixLength) {
+            if (length == node.prefixLength) {
+                if (node.action < 0) {
+                    size++;
+                }
+                node.action = action;
+            } else if (bit(hi, lo, common) == 0) {
+                node.left = insert(node.left, hi, lo, length, action);
+            } else {
+                node.right = insert(node.right, hi, lo, length, action);
+            }
+            return node;
+        }
+        // 新前缀与节点前缀在common处分叉，或是节点前缀的祖先
+        Node parent;
+        if (common == length) {
+            size++;
+            parent = new Node(hi, lo, length, action);
+        } else {
+            parent = new Node(maskHi(hi, common), maskLo(lo, common), common, (byte) -1);
+            Node leaf = new Node(hi, lo, length, action);
+            size++;
+            if (bit(hi, lo, common) == 0) {
+                parent.left = leaf;
+            } else {
+                parent.right = leaf;
+            }
+        }
+        if (bit(node.hi, node.lo, common) == 0) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        return parent;
+    }
+
+    private static boolean matches(long prefixHi, long prefixLo, long hi, long lo, int length) {
+        if (length <= 64) {
+            return length == 0 || ((prefixHi ^ hi) & (-1L << (64 - length))) == 0;
+        }
+        return prefixHi == hi && ((prefixLo ^ lo) & (-1L << (128 - length))) == 0;
+    }
+
+    private static int commonPrefix(long hi1, long lo1, long hi2, long lo2) {
+        if (hi1 != hi2) {
+            return Long.numberOfLeadingZeros(hi1 ^ hi2);
+        }
+        return 64 + Long.numberOfLeadingZeros(lo1 ^ lo2);
+    }
+
+    private static int bit(long hi, long lo, int index) {
+        return index < 64 ? (int) (hi >>> (63 - index)) & 1 : (int) (lo >>> (127 - index)) & 1;
+    }
+
+    private static long maskHi(long hi, int length) {
+        if (length >= 64) {
+            return hi;
+        }
+        return length == 0 ? 0 : hi & (-1L << (64 - length));
+    }
+
+    private static long maskLo(long lo, int length) {
+        if (length <= 64) {
+            return 0;
+        }
+        return length == 128 ? lo : lo & (-1L << (128 - length));
+    }
+
+    /**
+     * 树节点，action为-1表示仅用于分叉的中间节点
+     */
+    private static final class Node {
+
+        private final long hi;
+
+        private final long lo;
+
+        private final int prefixLength;
+
+        private byte action;
+
+        private Node left;
+
+        private Node right;
+
+        Node(long hi, long lo, int prefixLength, byte action) {
+            this.hi = hi;
+            this.lo = lo;
+            this.prefixLength = prefixLength;
+            this.action = action;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.taobao.gateway.loadbalancer;
 
+import com.taobao.gateway.metrics.Ewma;
+import com.taobao.gateway.ratelimit.WarmUp;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 服务实例类
@@ -14,6 +17,11 @@ import java.util.concurrent.atomic.AtomicLong;
  */
 public class ServiceInstance {
     
+    /**
+     * 响应时间移动平均的时间常数（毫秒）
+     */
+    private static final long RESPONSE_TIME_TAU_MILLIS = 10_000;
+    
     /**
      * 实例ID
      */
@@ -57,22 +65,22 @@ public class ServiceInstance {
     /**
      * 总请求数
      */
-    private final AtomicLong totalRequests = new AtomicLong(0);
+    private final LongAdder totalRequests = new LongAdder();
     
     /**
      * 成功请求数
      */
-    private final AtomicLong successRequests = new AtomicLong(0);
+    private final LongAdder successRequests = new LongAdder();
     
     /**
      * 失败请求数
      */
-    private final AtomicLong failedRequests = new AtomicLong(0);
+    private final LongAdder failedRequests = new LongAdder();
     
     /**
-     * 平均响应时间（毫秒）
+     * 最近的平均响应时间（毫秒），按时间衰减的移动平均
      */
-    private final AtomicLong averageResponseTime = new AtomicLong(0);
+    private final Ewma averageResponseTime = new Ewma(RESPONSE_TIME_TAU_MILLIS);
     
     /**
      * 最后活跃时间
@@ -84,6 +92,21 @@ public class ServiceInstance {
      */
     private Map<String, String> metadata = new ConcurrentHashMap<>();
     
+    /**
+     * 预热开始时间
+     */
+    private volatile long warmupStartTime;
+    
+    /**
+     * 预热时长（毫秒），0表示不预热
+     */
+    private volatile long warmupPeriod;
+    
+    /**
+     * 预热开始时的权重比例
+     */
+    private volatile double warmupColdFraction = 1.0;
+    
     public ServiceInstance() {
     }
     
@@ -120,9 +143,9 @@ public class ServiceInstance {
      * 记录请求成功
      */
     public void recordSuccess(long responseTime) {
-        totalRequests.incrementAndGet();
-        successRequests.incrementAndGet();
-        updateAverageResponseTime(responseTime);
+        totalRequests.increment();
+        successRequests.increment();
+        averageResponseTime.update(responseTime);
         lastActiveTime = System.currentTimeMillis();
     }
     
@@ -130,30 +153,58 @@ public class ServiceInstance {
      * 记录请求失败
      */
     public void recordFailure() {
-        totalRequests.incrementAndGet();
-        failedRequests.incrementAndGet();
+        totalRequests.increment();
+        failedRequests.increment();
         lastActiveTime = System.currentTimeMillis();
     }
     
     /**
-     * 更新平均响应时间
+     * 获取成功率
+     */
+    public double getSuccessRate() {
+        long total = totalRequests.sum();
+        if (total == 0) {
+            return 1.0;
+        }
+        return (double) successRequests.sum() / total;
+    }
+    
+    /**
+     * 开始预热：有效权重从 weight * coldFraction 在 periodMillis 内线性升至 weight
      */
-    private void updateAverageResponseTime(long responseTime) {
-        long currentAvg = averageResponseTime.get();
-        long total = totalRequests.get();
-        long newAvg = (currentAvg * (total - 1) + responseTime) / total;
-        averageResponseTime.set(newAvg);
+    public void startWarmUp(long periodMillis, double coldFraction) {
+        this.warmupColdFraction = coldFraction;
+        this.warmupStartTime = System.currentTimeMillis();
+        this.warmupPeriod = Math.max(0, periodMillis);
     }
     
     /**
-     * 获取成功率
+     * 当前预热比例，未预热或预热完成时为1
      */
-    public double getSuccessRate() {
-        long total = totalRequests.get();
-        if (total == 0) {
+    public double getWarmupFraction() {
+        long period = warmupPeriod;
+        if (period <= 0) {
             return 1.0;
         }
-        return (double) successRequests.get() / total;
+        return WarmUp.fraction(System.currentTimeMillis() - warmupStartTime, period, warmupColdFraction);
+    }
+    
+    /**
+     * 是否处于预热期
+     */
+    public boolean isWarmingUp() {
+        return getWarmupFraction() < 1.0;
+    }
+    
+    /**
+     * 按预热比例折算后的权重，权重大于0时不小于1
+     */
+    public int getEffectiveWeight() {
+        double fraction = getWarmupFraction();
+        if (fraction >= 1.0 || weight <= 0) {
+            return weight;
+        }
+        return Math.max(1, (int) Math.round(weight * fraction));
     }
     
     // Getter和Setter方法
@@ -218,19 +269,19 @@ public class ServiceInstance {
     }
     
     public long getTotalRequests() {
-        return totalRequests.get();
+        return totalRequests.sum();
     }
     
     public long getSuccessRequests() {
-        return successRequests.get();
+        return successRequests.sum();
     }
     
     public long getFailedRequests() {
-        return failedRequests.get();
+        return failedRequests.sum();
     }
     
     public long getAverageResponseTime() {
-        return averageResponseTime.get();
+        return Math.round(averageResponseTime.get());
     }
     
     public long getLastActiveTime() {
@@ -253,6 +304,7 @@ public class ServiceInstance {
                 ", host='" + host + '\'' +
                 ", port=" + port +
                 ", weight=" + weight +
+                ", warmupFraction=" + getWarmupFraction() +
                 ", healthy=" + healthy +
                 ", enabled=" + enabled +
                 ", currentConnections=" + currentConnections.get() +
@@ -1,8 +1,11 @@
 package com.taobao.gateway.loadbalancer.adaptive;
 
+import com.taobao.gateway.metrics.Ewma;
+import com.taobao.gateway.metrics.WindowedCounter;
+
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 自适应负载均衡统计类
@@ -13,25 +16,45 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class AdaptiveLoadBalanceStats {
     
+    /**
+     * 响应时间移动平均的时间常数（毫秒）
+     */
+    static final long RESPONSE_TIME_TAU_MILLIS = 10_000;
+    
+    /**
+     * QPS统计窗口（毫秒）
+     */
+    private static final long QPS_WINDOW_MILLIS = 10_000;
+    
     /**
      * 总请求数
      */
-    private final AtomicLong totalRequests = new AtomicLong(0);
+    private final LongAdder totalRequests = new LongAdder();
     
     /**
      * 成功请求数
      */
-    private final AtomicLong successfulRequests = new AtomicLong(0);
+    private final LongAdder successfulRequests = new LongAdder();
     
     /**
      * 失败请求数
      */
-    private final AtomicLong failedRequests = new AtomicLong(0);
+    private final LongAdder failedRequests = new LongAdder();
     
     /**
-     * 平均响应时间
+     * 总响应时间
      */
-    private final AtomicLong totalResponseTime = new AtomicLong(0);
+    private final LongAdder totalResponseTime = new LongAdder();
+    
+    /**
+     * 响应时间的移动平均
+     */
+    private final Ewma responseTime = new Ewma(RESPONSE_TIME_TAU_MILLIS);
+    
+    /**
+     * 最近窗口内的请求数，用于计算QPS
+     */
+    private final WindowedCounter recentRequests = new WindowedCounter(QPS_WINDOW_MILLIS, 10);
     
     /**
      * 实例选择统计
@@ -41,17 +64,17 @@ public class AdaptiveLoadBalanceStats {
     /**
      * 权重调整次数
      */
-    private final AtomicLong weightAdjustmentCount = new AtomicLong(0);
+    private final LongAdder weightAdjustmentCount = new LongAdder();
     
     /**
      * 健康检查次数
      */
-    private final AtomicLong healthCheckCount = new AtomicLong(0);
+    private final LongAdder healthCheckCount = new LongAdder();
     
     /**
      * 故障转移次数
      */
-    private final AtomicLong failoverCount = new AtomicLong(0);
+    private final LongAdder failoverCount = new LongAdder();
     
     /**
      * 最后更新时间
@@ -66,26 +89,32 @@ public class AdaptiveLoadBalanceStats {
     }
     
     // Getter和Setter方法
-    public long getTotalRequests() { return totalRequests.get(); }
-    public void incrementTotalRequests() { totalRequests.incrementAndGet(); }
+    public long getTotalRequests() { return totalRequests.sum(); }
+    public void incrementTotalRequests() {
+        totalRequests.increment();
+        recentRequests.increment();
+    }
     
-    public long getSuccessfulRequests() { return successfulRequests.get(); }
-    public void incrementSuccessfulRequests() { successfulRequests.incrementAndGet(); }
+    public long getSuccessfulRequests() { return successfulRequests.sum(); }
+    public void incrementSuccessfulRequests() { successfulRequests.increment(); }
     
-    public long getFailedRequests() { return failedRequests.get(); }
-    public void incrementFailedRequests() { failedRequests.incrementAndGet(); }
+    public long getFailedRequests() { return failedRequests.sum(); }
+    public void incrementFailedRequests() { failedRequests.increment(); }
     
-    public long getTotalResponseTime() { return totalResponseTime.get(); }
-    public void addResponseTime(long responseTime) { totalResponseTime.addAndGet(responseTime); }
+    public long getTotalResponseTime() { return totalResponseTime.sum(); }
+    public void addResponseTime(long responseTime) {
+        totalResponseTime.add(responseTime);
+        this.responseTime.update(responseTime);
+    }
     
-    public long getWeightAdjustmentCount() { return weightAdjustmentCount.get(); }
-    public void incrementWeightAdjustmentCount() { weightAdjustmentCount.incrementAndGet(); }
+    public long getWeightAdjustmentCount() { return weightAdjustmentCount.sum(); }
+    public void incrementWeightAdjustmentCount() { weightAdjustmentCount.increment(); }
     
-    public long getHealthCheckCount() { return healthCheckCount.get(); }
-    public void incrementHealthCheckCount() { healthCheckCount.incrementAndGet(); }
+    public long getHealthCheckCount() { return healthCheckCount.sum(); }
+    public void incrementHealthCheckCount() { healthCheckCount.increment(); }
     
-    public long getFailoverCount() { return failoverCount.get(); }
-    public void incrementFailoverCount() { failoverCount.incrementAndGet(); }
+    public long getFailoverCount() { return failoverCount.sum(); }
+    public void incrementFailoverCount() { failoverCount.increment(); }
     
     public long getLastUpdateTime() { return lastUpdateTime.get(); }
     public void setLastUpdateTime(long lastUpdateTime) { this.lastUpdateTime.set(lastUpdateTime); }
@@ -98,52 +127,48 @@ public class AdaptiveLoadBalanceStats {
     }
     
     /**
-     * 计算平均响应时间
+     * 计算最近的平均响应时间（按时间衰减的移动平均）
      */
     public double getAverageResponseTime() {
-        long total = totalRequests.get();
-        return total > 0 ? (double) totalResponseTime.get() / total : 0.0;
+        return responseTime.get();
     }
     
     /**
      * 计算成功率
      */
     public double getSuccessRate() {
-        long total = totalRequests.get();
-        return total > 0 ? (double) successfulRequests.get() / total : 0.0;
+        long total = totalRequests.sum();
+        return total > 0 ? (double) successfulRequests.sum() / total : 0.0;
     }
     
     /**
      * 计算失败率
      */
     public double getFailureRate() {
-        long total = totalRequests.get();
-        return total > 0 ? (double) failedRequests.get() / total : 0.0;
+        long total = totalRequests.sum();
+        return total > 0 ? (double) failedRequests.sum() / total : 0.0;
     }
     
     /**
-     * 计算QPS
+     * 计算最近窗口内的QPS
      */
     public double getQps() {
-        long total = totalRequests.get();
-        long lastUpdate = lastUpdateTime.get();
-        long currentTime = System.currentTimeMillis();
-        long timeWindow = currentTime - lastUpdate;
-        
-        return timeWindow > 0 ? (double) total / (timeWindow / 1000.0) : 0.0;
+        return recentRequests.rate();
     }
     
     /**
      * 重置统计信息
      */
     public void reset() {
-        totalRequests.set(0);
-        successfulRequests.set(0);
-        failedRequests.set(0);
-        totalResponseTime.set(0);
-        weightAdjustmentCount.set(0);
-        healthCheckCount.set(0);
-        failoverCount.set(0);
+        totalRequests.reset();
+        successfulRequests.reset();
+        failedRequests.reset();
+        totalResponseTime.reset();
+        responseTime.reset();
+        recentRequests.reset();
+        weightAdjustmentCount.reset();
+        healthCheckCount.reset();
+        failoverCount.reset();
         lastUpdateTime.set(System.currentTimeMillis());
         instanceStats.clear();
     }
@@ -153,10 +178,11 @@ public class AdaptiveLoadBalanceStats {
      */
     public static class InstanceStats {
         private final String instanceId;
-        private final AtomicLong requestCount = new AtomicLong(0);
-        private final AtomicLong successCount = new AtomicLong(0);
-        private final AtomicLong failureCount = new AtomicLong(0);
-        private final AtomicLong totalResponseTime = new AtomicLong(0);
+        private final LongAdder requestCount = new LongAdder();
+        private final LongAdder successCount = new LongAdder();
+        private final LongAdder failureCount = new LongAdder();
+        private final LongAdder totalResponseTime = new LongAdder();
+        private final Ewma responseTime = new Ewma(RESPONSE_TIME_TAU_MILLIS);
         private final AtomicLong lastRequestTime = new AtomicLong(0);
         
         public InstanceStats(String instanceId) {
@@ -165,50 +191,52 @@ public class AdaptiveLoadBalanceStats {
         
         public String getInstanceId() { return instanceId; }
         
-        public long getRequestCount() { return requestCount.get(); }
-        public void incrementRequestCount() { requestCount.incrementAndGet(); }
+        public long getRequestCount() { return requestCount.sum(); }
+        public void incrementRequestCount() { requestCount.increment(); }
         
-        public long getSuccessCount() { return successCount.get(); }
-        public void incrementSuccessCount() { successCount.incrementAndGet(); }
+        public long getSuccessCount() { return successCount.sum(); }
+        public void incrementSuccessCount() { successCount.increment(); }
         
-        public long getFailureCount() { return failureCount.get(); }
-        public void incrementFailureCount() { failureCount.incrementAndGet(); }
+        public long getFailureCount() { return failureCount.sum(); }
+        public void incrementFailureCount() { failureCount.increment(); }
         
-        public long getTotalResponseTime() { return totalResponseTime.get(); }
-        public void addResponseTime(long responseTime) { totalResponseTime.addAndGet(responseTime); }
+        public long getTotalResponseTime() { return totalResponseTime.sum(); }
+        public void addResponseTime(long responseTime) {
+            totalResponseTime.add(responseTime);
+            this.responseTime.update(responseTime);
+        }
         
         public long getLastRequestTime() { return lastRequestTime.get(); }
         public void setLastRequestTime(long lastRequestTime) { this.lastRequestTime.set(lastRequestTime); }
         
         public double getAverageResponseTime() {
-            long count = requestCount.get();
-            return count > 0 ? (double) totalResponseTime.get() / count : 0.0;
+            return responseTime.get();
         }
         
         public double getSuccessRate() {
-            long count = requestCount.get();
-            return count > 0 ? (double) successCount.get() / count : 0.0;
+            long count = requestCount.sum();
+            return count > 0 ? (double) successCount.sum() / count : 0.0;
         }
         
         public double getFailureRate() {
-            long count = requestCount.get();
-            return count > 0 ? (double) failureCount.get() / count : 0.0;
+            long count = requestCount.sum();
+            return count > 0 ? (double) failureCount.sum() / count : 0.0;
         }
     }
     
     @Override
     public String toString() {
         return "AdaptiveLoadBalanceStats{" +
-                "totalRequests=" + totalRequests.get() +
-                ", successfulRequests=" + successfulRequests.get() +
-                ", failedRequests=" + failedRequests.get() +
+                "totalRequests=" + totalRequests.sum() +
+                ", successfulRequests=" + successfulRequests.sum() +
+                ", failedRequests=" + failedRequests.sum() +
                 ", averageResponseTime=" + getAverageResponseTime() +
                 ", successRate=" + getSuccessRate() +
                 ", failureRate=" + getFailureRate() +
                 ", qps=" + getQps() +
-                ", weightAdjustmentCount=" + weightAdjustmentCount.get() +
-                ", healthCheckCount=" + healthCheckCount.get() +
-                ", failoverCount=" + failoverCount.get() +
+                ", weightAdjustmentCount=" + weightAdjustmentCount.sum() +
+                ", healthCheckCount=" + healthCheckCount.sum() +
+                ", failoverCount=" + failoverCount.sum() +
                 ", instanceStatsCount=" + instanceStats.size() +
                 '}';
     }
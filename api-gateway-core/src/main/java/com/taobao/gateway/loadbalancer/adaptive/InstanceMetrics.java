@@ -1,6 +1,8 @@
  
 package com.taobao.gateway.loadbalancer.adaptive;
 
+import com.taobao.gateway.metrics.DoubleGauge;
+
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -21,12 +23,12 @@ public class InstanceMetrics {
     /**
      * 响应时间 (毫秒)
      */
-    private final AtomicReference<Double> responseTime = new AtomicReference<>(0.0);
+    private final DoubleGauge responseTime = new DoubleGauge();
     
     /**
      * 错误率 (0-1)
      */
-    private final AtomicReference<Double> errorRate = new AtomicReference<>(0.0);
+    private final DoubleGauge errorRate = new DoubleGauge();
     
     /**
      * 活跃连接数
@@ -41,17 +43,17 @@ public class InstanceMetrics {
     /**
      * QPS (每秒查询数)
      */
-    private final AtomicReference<Double> qps = new AtomicReference<>(0.0);
+    private final DoubleGauge qps = new DoubleGauge();
     
     /**
      * CPU使用率 (0-100)
      */
-    private final AtomicReference<Double> cpuUsage = new AtomicReference<>(0.0);
+    private final DoubleGauge cpuUsage = new DoubleGauge();
     
     /**
      * 内存使用率 (0-100)
      */
-    private final AtomicReference<Double> memoryUsage = new AtomicReference<>(0.0);
+    private final DoubleGauge memoryUsage = new DoubleGauge();
     
     /**
      * 健康状态
@@ -66,7 +68,7 @@ public class InstanceMetrics {
     /**
      * 权重
      */
-    private final AtomicReference<Double> weight = new AtomicReference<>(1.0);
+    private final DoubleGauge weight = new DoubleGauge(1.0);
     
     public InstanceMetrics(String instanceId) {
         this.instanceId = instanceId;
@@ -44,9 +44,9 @@ public class WeightedRoundRobinLoadBalancer implements LoadBalancer {
             return null;
         }
         
-        // 计算总权重
+        // 计算总权重，预热中的实例按有效权重计算
         int totalWeight = healthyInstances.stream()
-                .mapToInt(ServiceInstance::getWeight)
+                .mapToInt(ServiceInstance::getEffectiveWeight)
                 .sum();
         
         if (totalWeight <= 0) {
@@ -59,7 +59,7 @@ public class WeightedRoundRobinLoadBalancer implements LoadBalancer {
         int weightSum = 0;
         
         for (ServiceInstance instance : healthyInstances) {
-            weightSum += instance.getWeight();
+            weightSum += instance.getEffectiveWeight();
             if (currentWeight < weightSum) {
                 logger.debug("权重轮询选择服务实例: {} -> {}", serviceName, instance);
                 return instance;
@@ -0,0 +1,80 @@
+package com.taobao.gateway.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按时间衰减的指数加权移动平均
+ *
+ * 样本权重取决于与上一个样本的时间间隔：value += (1 - e^(-Δt/τ)) * (sample - value)，
+ * 约 τ 之前的样本影响衰减到 1/e，取值反映最近一段时间而不是全部历史。
+ * 每次更新以 getAndSet 领取自上一个样本以来的时间间隔，并发更新各自领取不相交的间隔，
+ * 再以CAS写入结果，无锁、不分配对象。首个样本直接作为当前值
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class Ewma {
+
+    /** 尚无样本时的时间戳 */
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final double tauNanos;
+
+    private final AtomicLong bits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+
+    private final AtomicLong stamp = new AtomicLong(NONE);
+
+    /**
+     * @param tauMillis 时间常数（毫秒）
+     */
+    public Ewma(long tauMillis) {
+        if (tauMillis <= 0) {
+            throw new IllegalArgumentException("tauMillis必须大于0: " + tauMillis);
+        }
+        this.tauNanos = TimeUnit.MILLISECONDS.toNanos(tauMillis);
+    }
+
+    public void update(double sample) {
+        update(sample, System.nanoTime());
+    }
+
+    /**
+     * @param now 当前时间（纳秒）
+     */
+    public void update(double sample, long now) {
+        long last = stamp.getAndSet(now);
+        double weight = last == NONE ? 1.0 : -Math.expm1(-Math.max(0, now - last) / tauNanos);
+        for (;;) {
+            long current = bits.get();
+            double value = Double.longBitsToDouble(current);
+            double next = Double.isNaN(value) ? sample : value + weight * (sample - value);
+            if (bits.compareAndSet(current, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 当前平均值，尚无样本时为0
+     */
+    public double get() {
+        double value = Double.longBitsToDouble(bits.get());
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+
+    public boolean isEmpty() {
+        return Double.isNaN(Double.longBitsToDouble(bits.get()));
+    }
+
+    public void reset() {
+        stamp.set(NONE);
+        bits.set(Double.doubleToRawLongBits(Double.NaN));
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(get());
+    }
+}
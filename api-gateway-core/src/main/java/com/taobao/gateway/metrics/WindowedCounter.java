@@ -0,0 +1,109 @@
+package com.taobao.gateway.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口计数器
+ *
+ * 窗口分为若干个时间槽，每个槽记录所属的时间段编号和计数，组成环形数组。
+ * 写入时发现槽属于旧时间段，由CAS成功的线程清零后复用；读取时只累加仍在窗口内的槽。
+ * 无锁、不分配对象，槽切换瞬间并发写入的个别计数可能丢失，适合统计速率而非精确计数
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class WindowedCounter {
+
+    /** 尚未使用的槽的时间段编号 */
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final long slotNanos;
+
+    private final int slots;
+
+    private final AtomicLongArray epochs;
+
+    private final AtomicLongArray counts;
+
+    /**
+     * @param windowMillis 窗口长度（毫秒）
+     * @param slots 时间槽个数，越多窗口滑动越平滑
+     */
+    public WindowedCounter(long windowMillis, int slots) {
+        if (windowMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("窗口配置错误: windowMillis=" + windowMillis + ", slots=" + slots);
+        }
+        this.slots = slots;
+        this.slotNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMillis) / slots);
+        this.epochs = new AtomicLongArray(slots);
+        this.counts = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            epochs.set(i, UNUSED);
+        }
+    }
+
+    public void increment() {
+        add(1, System.nanoTime());
+    }
+
+    public void add(long delta) {
+        add(delta, System.nanoTime());
+    }
+
+    /**
+     * @param now 当前时间（纳秒）
+     */
+    public void add(long delta, long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        int index = (int) Math.floorMod(epoch, (long) slots);
+        long current = epochs.get(index);
+        if (current < epoch && epochs.compareAndSet(index, current, epoch)) {
+            counts.set(index, delta);
+            return;
+        }
+        counts.addAndGet(index, delta);
+    }
+
+    public long sum() {
+        return sum(System.nanoTime());
+    }
+
+    /**
+     * 窗口内的计数之和
+     */
+    public long sum(long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        long sum = 0;
+        for (int i = 0; i < slots; i++) {
+            long slotEpoch = epochs.get(i);
+            if (slotEpoch > epoch - slots && slotEpoch <= epoch) {
+                sum += counts.get(i);
+            }
+        }
+        return sum;
+    }
+
+    public double rate() {
+        return rate(System.nanoTime());
+    }
+
+    /**
+     * 窗口内的每秒平均计数，当前时间槽尚未结束，结果最多偏低一个槽
+     */
+    public double rate(long now) {
+        return sum(now) * 1e9 / (slotNanos * slots);
+    }
+
+    public long getWindowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slotNanos * slots);
+    }
+
+    public void reset() {
+        for (int i = 0; i < slots; i++) {
+            epochs.set(i, UNUSED);
+            counts.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.taobao.gateway.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滑动窗口直方图，用于估计最近一段时间内的分位数
+ *
+ * 按对数线性分桶：小于16的值各占一个桶，更大的值每个2的幂区间分为8个桶，相对误差不超过12.5%，
+ * 覆盖全部非负long。时间槽的组织方式与 {@link WindowedCounter} 相同，
+ * 每个槽一组桶计数，记录时只做一次原子加，不分配对象；查询时合并窗口内的槽
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class WindowedHistogram {
+
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    /** 每个2的幂区间的子桶数的位数 */
+    private static final int SUB_BITS = 3;
+
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    /** 小于此值的值各占一个桶 */
+    private static final int LINEAR = SUB_COUNT * 2;
+
+    private static final int LINEAR_EXPONENT = Integer.numberOfTrailingZeros(LINEAR);
+
+    static final int BUCKETS = LINEAR + (63 - LINEAR_EXPONENT) * SUB_COUNT;
+
+    private final long slotNanos;
+
+    private final int slots;
+
+    private final AtomicLongArray epochs;
+
+    /** 第 slot 个时间槽的第 bucket 个桶位于 slot * BUCKETS + bucket */
+    private final AtomicLongArray counts;
+
+    /**
+     * @param windowMillis 窗口长度（毫秒）
+     * @param slots 时间槽个数
+     */
+    public WindowedHistogram(long windowMillis, int slots) {
+        if (windowMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("窗口配置错误: windowMillis=" + windowMillis + ", slots=" + slots);
+        }
+        this.slots = slots;
+        this.slotNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMillis) / slots);
+        this.epochs = new AtomicLongArray(slots);
+        this.counts = new AtomicLongArray(slots * BUCKETS);
+        for (int i = 0; i < slots; i++) {
+            epochs.set(i, UNUSED);
+        }
+    }
+
+    public void record(long value) {
+        record(value, System.nanoTime());
+    }
+
+    /**
+     * @param value 非负样本值，负数按0计
+     * @param now 当前时间（纳秒）
+     */
+    public void record(long value, long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        int slot = (int) Math.floorMod(epoch, (long) slots);
+        long current = epochs.get(slot);
+        if (current < epoch && epochs.compareAndSet(slot, current, epoch)) {
+            int base = slot * BUCKETS;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(base + i, 0);
+            }
+        }
+        counts.incrementAndGet(slot * BUCKETS + bucket(value));
+    }
+
+    public double percentile(double quantile) {
+        return percentile(quantile, System.nanoTime());
+    }
+
+    /**
+     * 估计窗口内样本的分位数
+     *
+     * @param quantile 分位 (0-1]，如0.99
+     * @return 分位数所在桶的中点，窗口内没有样本时为0
+     */
+    public double percentile(double quantile, long now) {
+        long[] merged = new long[BUCKETS];
+        long total = merge(merged, now);
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                long lower = lowerBound(i);
+                long upper = i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                return lower + (upper - lower) / 2.0;
+            }
+        }
+        return lowerBound(BUCKETS - 1);
+    }
+
+    /**
+     * 窗口内的样本数
+     */
+    public long count(long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        long count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (inWindow(epochs.get(slot), epoch)) {
+                int base = slot * BUCKETS;
+                for (int i = 0; i < BUCKETS; i++) {
+                    count += counts.get(base + i);
+                }
+            }
+        }
+        return count;
+    }
+
+    public void reset() {
+        for (int i = 0; i < slots; i++) {
+            epochs.set(i, UNUSED);
+        }
+    }
+
+    private long merge(long[] merged, long now) {
+        long epoch = Math.floorDiv(now, slotNanos);
+        long total = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (inWindow(epochs.get(slot), epoch)) {
+                int base = slot * BUCKETS;
+                for (int i = 0; i < BUCKETS; i++) {
+                    long count = counts.get(base + i);
+                    merged[i] += count;
+                    total += count;
+                }
+            }
+        }
+        return total;
+    }
+
+    private boolean inWindow(long slotEpoch, long epoch) {
+        return slotEpoch > epoch - slots && slotEpoch <= epoch;
+    }
+
+    static int bucket(long value) {
+        if (value < LINEAR) {
+            return value <= 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return LINEAR + (exponent - LINEAR_EXPONENT) * SUB_COUNT + sub;
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_COUNT + LINEAR_EXPONENT;
+        int sub = (bucket - LINEAR) % SUB_COUNT;
+        return (long) (SUB_COUNT + sub) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,116 @@
+package com.taobao.gateway.ratelimit;
+
+/**
+ * 分布式限流配置类
+ * 集群总配额仍由 {@link RateLimitConfig} 的 capacity 和 refillRate 描述，这里只描述租约和故障处理
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class DistributedRateLimitConfig {
+
+    /**
+     * Redis键前缀
+     */
+    private String keyPrefix = "gateway:ratelimit:";
+
+    /**
+     * Redis不可用时是否放行
+     */
+    private boolean failOpen = true;
+
+    /**
+     * 单次租约的最少许可数
+     */
+    private int minLease = 1;
+
+    /**
+     * 单次租约的最多许可数
+     */
+    private int maxLease = 1000;
+
+    /**
+     * 租约按本节点观测速率覆盖的时长（毫秒）
+     */
+    private long leaseWindowMillis = 100;
+
+    /**
+     * 租约有效期（毫秒），过期未用完的许可作废
+     */
+    private long leaseTtlMillis = 1000;
+
+    /**
+     * Redis调用失败后暂停访问的时长（毫秒）
+     */
+    private long retryIntervalMillis = 1000;
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public boolean isFailOpen() {
+        return failOpen;
+    }
+
+    public void setFailOpen(boolean failOpen) {
+        this.failOpen = failOpen;
+    }
+
+    public int getMinLease() {
+        return minLease;
+    }
+
+    public void setMinLease(int minLease) {
+        this.minLease = minLease;
+    }
+
+    public int getMaxLease() {
+        return maxLease;
+    }
+
+    public void setMaxLease(int maxLease) {
+        this.maxLease = maxLease;
+    }
+
+    public long getLeaseWindowMillis() {
+        return leaseWindowMillis;
+    }
+
+    public void setLeaseWindowMillis(long leaseWindowMillis) {
+        this.leaseWindowMillis = leaseWindowMillis;
+    }
+
+    public long getLeaseTtlMillis() {
+        return leaseTtlMillis;
+    }
+
+    public void setLeaseTtlMillis(long leaseTtlMillis) {
+        this.leaseTtlMillis = leaseTtlMillis;
+    }
+
+    public long getRetryIntervalMillis() {
+        return retryIntervalMillis;
+    }
+
+    public void setRetryIntervalMillis(long retryIntervalMillis) {
+        this.retryIntervalMillis = retryIntervalMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DistributedRateLimitConfig{" +
+                "keyPrefix='" + keyPrefix + '\'' +
+                ", failOpen=" + failOpen +
+                ", minLease=" + minLease +
+                ", maxLease=" + maxLease +
+                ", leaseWindowMillis=" + leaseWindowMillis +
+                ", leaseTtlMillis=" + leaseTtlMillis +
+                ", retryIntervalMillis=" + retryIntervalMillis +
+                '}';
+    }
+}
@@ -0,0 +1,147 @@
+package com.taobao.gateway.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gossip集群限流配置类
+ * 集群总配额仍由 {@link RateLimitConfig} 的 limit 和 window 描述，这里只描述节点间的传播方式
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class GossipRateLimitConfig {
+
+    /**
+     * 节点ID，为空时随机生成
+     */
+    private String nodeId;
+
+    /**
+     * 监听地址，默认只监听回环地址；监听其他地址时必须配置 {@link #secret}
+     */
+    private String bindHost = "127.0.0.1";
+
+    /**
+     * 节点间共享密钥，配置后每个报文附带HMAC-SHA256，校验失败的报文被丢弃
+     */
+    private String secret;
+
+    /**
+     * 最多保存计数的键数，超过后对端报文中的新键被忽略，避免伪造的报文撑满内存
+     */
+    private int maxKeys = 100_000;
+
+    /**
+     * 监听的UDP端口，0表示随机端口
+     */
+    private int port = 0;
+
+    /**
+     * 对端节点，格式为 host:port
+     */
+    private List<String> peers = new ArrayList<>();
+
+    /**
+     * 广播间隔（毫秒）
+     */
+    private long intervalMillis = 50;
+
+    /**
+     * 每隔多少轮广播一次全部计数，弥补丢失的报文
+     */
+    private int fullSyncRounds = 10;
+
+    /**
+     * 单个报文的最大字节数
+     */
+    private int maxPacketSize = 1400;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getBindHost() {
+        return bindHost;
+    }
+
+    public void setBindHost(String bindHost) {
+        this.bindHost = bindHost;
+    }
+
+    public String getSecret() {
+        return secret;
+    }
+
+    public void setSecret(String secret) {
+        this.secret = secret;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    public void setPeers(List<String> peers) {
+        this.peers = peers;
+    }
+
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+    }
+
+    public int getFullSyncRounds() {
+        return fullSyncRounds;
+    }
+
+    public void setFullSyncRounds(int fullSyncRounds) {
+        this.fullSyncRounds = fullSyncRounds;
+    }
+
+    public int getMaxPacketSize() {
+        return maxPacketSize;
+    }
+
+    public void setMaxPacketSize(int maxPacketSize) {
+        this.maxPacketSize = maxPacketSize;
+    }
+
+    @Override
+    public String toString() {
+        return "GossipRateLimitConfig{" +
+                "nodeId='" + nodeId + '\'' +
+                ", bindHost='" + bindHost + '\'' +
+                ", secret=" + (secret != null ? "******" : null) +
+                ", maxKeys=" + maxKeys +
+                ", port=" + port +
+                ", peers=" + peers +
+                ", intervalMillis=" + intervalMillis +
+                ", fullSyncRounds=" + fullSyncRounds +
+                ", maxPacketSize=" + maxPacketSize +
+                '}';
+    }
+}
@@ -44,6 +44,36 @@ public class RateLimitConfig {
      */
     private int refillRate = 100;
     
+    /**
+     * 滑动窗口的子窗口数，越大越平滑
+     */
+    private int subWindows = 10;
+    
+    /**
+     * 漏桶排队的最长等待时间（毫秒），0表示不排队，超出立即拒绝
+     */
+    private long maxWaitMillis = 0;
+    
+    /**
+     * 单个限流器最多保存状态的键数，超出后复用空闲键或淘汰最久不活跃的键
+     */
+    private int maxKeys = 1_000_000;
+    
+    /**
+     * 键状态表是否放在堆外
+     */
+    private boolean offHeap = false;
+    
+    /**
+     * 预热时长（毫秒），0表示不预热；仅令牌桶和GCRA限流器支持
+     */
+    private long warmupPeriodMillis = 0;
+    
+    /**
+     * 预热开始时的速率占满速的比例
+     */
+    private double coldFraction = 0.1;
+    
     /**
      * 是否启用
      */
@@ -120,6 +150,54 @@ public class RateLimitConfig {
         this.refillRate = refillRate;
     }
     
+    public int getSubWindows() {
+        return subWindows;
+    }
+    
+    public void setSubWindows(int subWindows) {
+        this.subWindows = subWindows;
+    }
+    
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+    
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+    
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+    
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+    
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+    
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+    
+    public long getWarmupPeriodMillis() {
+        return warmupPeriodMillis;
+    }
+    
+    public void setWarmupPeriodMillis(long warmupPeriodMillis) {
+        this.warmupPeriodMillis = warmupPeriodMillis;
+    }
+    
+    public double getColdFraction() {
+        return coldFraction;
+    }
+    
+    public void setColdFraction(double coldFraction) {
+        this.coldFraction = coldFraction;
+    }
+    
     public boolean isEnabled() {
         return enabled;
     }
@@ -138,6 +216,12 @@ public class RateLimitConfig {
                 ", window=" + window +
                 ", capacity=" + capacity +
                 ", refillRate=" + refillRate +
+                ", subWindows=" + subWindows +
+                ", maxWaitMillis=" + maxWaitMillis +
+                ", maxKeys=" + maxKeys +
+                ", offHeap=" + offHeap +
+                ", warmupPeriodMillis=" + warmupPeriodMillis +
+                ", coldFraction=" + coldFraction +
                 ", enabled=" + enabled +
                 '}';
     }
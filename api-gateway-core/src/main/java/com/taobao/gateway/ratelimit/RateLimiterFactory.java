@@ -0,0 +1,114 @@
+package com.taobao.gateway.ratelimit;
+
+import com.taobao.gateway.ratelimit.impl.FixedWindowRateLimiter;
+import com.taobao.gateway.ratelimit.impl.GcraRateLimiter;
+import com.taobao.gateway.ratelimit.impl.LeakyBucketRateLimiter;
+import com.taobao.gateway.ratelimit.impl.SlidingWindowRateLimiter;
+import com.taobao.gateway.ratelimit.impl.TokenBucketRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 限流器工厂
+ * 根据限流配置中的类型创建限流器，并按限流键缓存实例
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class RateLimiterFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiterFactory.class);
+
+    /**
+     * 限流器实例缓存
+     */
+    private final Map<String, RateLimiter> rateLimiterCache = new ConcurrentHashMap<>();
+
+    /**
+     * 创建限流器，同一限流键只创建一次
+     *
+     * @param config 限流配置，未设置限流键时以类型名作为缓存键
+     * @return 限流器实例
+     */
+    public RateLimiter createRateLimiter(RateLimitConfig config) {
+        String key = config.getKey() != null ? config.getKey() : config.getType().name();
+
+        return rateLimiterCache.computeIfAbsent(key, k -> {
+            RateLimiter rateLimiter = newRateLimiter(config);
+            logger.info("创建限流器: {} - {}", config.getType(), key);
+            return rateLimiter;
+        });
+    }
+
+    /**
+     * 创建不缓存的限流器实例
+     *
+     * @param config 限流配置
+     * @return 限流器实例
+     * @throws IllegalArgumentException 配置的参数不合法
+     */
+    public static RateLimiter newRateLimiter(RateLimitConfig config) {
+        switch (config.getType()) {
+            case TOKEN_BUCKET:
+                return new TokenBucketRateLimiter(config);
+            case SLIDING_WINDOW:
+                return new SlidingWindowRateLimiter(config);
+            case FIXED_WINDOW:
+                return new FixedWindowRateLimiter(config);
+            case LEAKY_BUCKET:
+                return new LeakyBucketRateLimiter(config);
+            case GCRA:
+                return new GcraRateLimiter(config);
+            default:
+                logger.warn("未知的限流器类型: {}, 使用令牌桶算法", config.getType());
+                return new TokenBucketRateLimiter(config);
+        }
+    }
+
+    /**
+     * 获取限流器
+     *
+     * @param key 限流键
+     * @return 限流器实例，如果不存在则返回null
+     */
+    public RateLimiter getRateLimiter(String key) {
+        return rateLimiterCache.get(key);
+    }
+
+    /**
+     * 移除限流器
+     *
+     * @param key 限流键
+     * @return 被移除的限流器实例
+     */
+    public RateLimiter removeRateLimiter(String key) {
+        RateLimiter removed = rateLimiterCache.remove(key);
+        if (removed != null) {
+            logger.info("移除限流器: {}", key);
+        }
+        return removed;
+    }
+
+    /**
+     * 清空所有限流器
+     */
+    public void clear() {
+        rateLimiterCache.clear();
+        logger.info("清空所有限流器");
+    }
+
+    /**
+     * 获取限流器数量
+     *
+     * @return 限流器数量
+     */
+    public int size() {
+        return rateLimiterCache.size();
+    }
+}
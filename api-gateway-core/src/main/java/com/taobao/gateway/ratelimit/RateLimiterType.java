@@ -27,7 +27,12 @@ public enum RateLimiterType {
     /**
      * 漏桶算法
      */
-    LEAKY_BUCKET("leaky_bucket", "漏桶算法");
+    LEAKY_BUCKET("leaky_bucket", "漏桶算法"),
+    
+    /**
+     * 通用信元速率算法（无锁，单个CAS推进理论到达时间）
+     */
+    GCRA("gcra", "通用信元速率算法");
     
     private final String code;
     private final String description;
@@ -0,0 +1,86 @@
+package com.taobao.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预热爬坡
+ *
+ * 预热开始后，放行速率在 period 内从满速的 coldFraction 线性升至满速。
+ * 与Guava SmoothWarmingUp的目的相同，但按时间而非存量许可爬坡：
+ * 冷启动的后端不论刚开始是否有流量，都在固定时长内逐步承接满速。
+ * 预热在限流器创建时开始，提高限额后调用 {@link #restart()} 重新预热
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class WarmUp {
+
+    private final long periodNanos;
+
+    private final double coldFraction;
+
+    /** 预热开始时刻（纳秒） */
+    private volatile long startedAt;
+
+    /**
+     * @param periodMillis 预热时长（毫秒）
+     * @param coldFraction 预热开始时的速率占满速的比例 (0-1]
+     */
+    public WarmUp(long periodMillis, double coldFraction) {
+        if (periodMillis <= 0 || !(coldFraction > 0 && coldFraction <= 1)) {
+            throw new IllegalArgumentException("预热配置错误: periodMillis=" + periodMillis + ", coldFraction=" + coldFraction);
+        }
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        this.coldFraction = coldFraction;
+        this.startedAt = System.nanoTime();
+    }
+
+    /**
+     * 按限流配置创建，未配置预热时返回null
+     */
+    public static WarmUp of(RateLimitConfig config) {
+        return config.getWarmupPeriodMillis() > 0 ? new WarmUp(config.getWarmupPeriodMillis(), config.getColdFraction()) : null;
+    }
+
+    /**
+     * 当前速率占满速的比例
+     *
+     * @param now 当前时间（纳秒）
+     */
+    public double fraction(long now) {
+        return fraction(now - startedAt, periodNanos, coldFraction);
+    }
+
+    /**
+     * @param elapsed 预热已进行的时长，与 period 同单位
+     */
+    public static double fraction(long elapsed, long period, double coldFraction) {
+        if (elapsed >= period) {
+            return 1.0;
+        }
+        if (elapsed <= 0) {
+            return coldFraction;
+        }
+        return coldFraction + (1 - coldFraction) * elapsed / period;
+    }
+
+    public boolean isWarm(long now) {
+        return now - startedAt >= periodNanos;
+    }
+
+    /**
+     * 从冷速率重新开始预热
+     */
+    public void restart() {
+        startedAt = System.nanoTime();
+    }
+
+    public double getColdFraction() {
+        return coldFraction;
+    }
+
+    public long getPeriodMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(periodNanos);
+    }
+}
@@ -1,8 +1,11 @@
 package com.taobao.gateway.ratelimit.adaptive;
 
+import com.taobao.gateway.metrics.DoubleGauge;
+import com.taobao.gateway.metrics.WindowedCounter;
+
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 自适应限流统计类
@@ -13,20 +16,30 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class AdaptiveRateLimitStats {
     
+    /**
+     * QPS统计窗口（毫秒）
+     */
+    private static final long QPS_WINDOW_MILLIS = 10_000;
+    
     /**
      * 总请求数
      */
-    private final AtomicLong totalRequests = new AtomicLong(0);
+    private final LongAdder totalRequests = new LongAdder();
     
     /**
      * 通过请求数
      */
-    private final AtomicLong passedRequests = new AtomicLong(0);
+    private final LongAdder passedRequests = new LongAdder();
     
     /**
      * 被限流请求数
      */
-    private final AtomicLong blockedRequests = new AtomicLong(0);
+    private final LongAdder blockedRequests = new LongAdder();
+    
+    /**
+     * 最近窗口内的请求数，用于计算QPS
+     */
+    private final WindowedCounter recentRequests = new WindowedCounter(QPS_WINDOW_MILLIS, 10);
     
     /**
      * 当前限流阈值
@@ -51,17 +64,17 @@ public class AdaptiveRateLimitStats {
     /**
      * 当前系统负载分数
      */
-    private final AtomicReference<Double> currentLoadScore = new AtomicReference<>(0.0);
+    private final DoubleGauge currentLoadScore = new DoubleGauge();
     
     /**
      * 平均响应时间
      */
-    private final AtomicReference<Double> avgResponseTime = new AtomicReference<>(0.0);
+    private final DoubleGauge avgResponseTime = new DoubleGauge();
     
     /**
      * 错误率
      */
-    private final AtomicReference<Double> errorRate = new AtomicReference<>(0.0);
+    private final DoubleGauge errorRate = new DoubleGauge();
     
     /**
      * 构造函数
@@ -71,14 +84,17 @@ public class AdaptiveRateLimitStats {
     }
     
     // Getter和Setter方法
-    public long getTotalRequests() { return totalRequests.get(); }
-    public void incrementTotalRequests() { totalRequests.incrementAndGet(); }
+    public long getTotalRequests() { return totalRequests.sum(); }
+    public void incrementTotalRequests() {
+        totalRequests.increment();
+        recentRequests.increment();
+    }
     
-    public long getPassedRequests() { return passedRequests.get(); }
-    public void incrementPassedRequests() { passedRequests.incrementAndGet(); }
+    public long getPassedRequests() { return passedRequests.sum(); }
+    public void incrementPassedRequests() { passedRequests.increment(); }
     
-    public long getBlockedRequests() { return blockedRequests.get(); }
-    public void incrementBlockedRequests() { blockedRequests.incrementAndGet(); }
+    public long getBlockedRequests() { return blockedRequests.sum(); }
+    public void incrementBlockedRequests() { blockedRequests.increment(); }
     
     public int getCurrentLimit() { return currentLimit.get(); }
     public void setCurrentLimit(int currentLimit) { 
@@ -107,28 +123,23 @@ public class AdaptiveRateLimitStats {
      * 计算通过率
      */
     public double getPassRate() {
-        long total = totalRequests.get();
-        return total > 0 ? (double) passedRequests.get() / total : 0.0;
+        long total = totalRequests.sum();
+        return total > 0 ? (double) passedRequests.sum() / total : 0.0;
     }
     
     /**
      * 计算限流率
      */
     public double getBlockRate() {
-        long total = totalRequests.get();
-        return total > 0 ? (double) blockedRequests.get() / total : 0.0;
+        long total = totalRequests.sum();
+        return total > 0 ? (double) blockedRequests.sum() / total : 0.0;
     }
     
     /**
-     * 计算QPS
+     * 计算最近窗口内的QPS
      */
     public double getQps() {
-        long total = totalRequests.get();
-        long lastAdjustment = lastAdjustmentTime.get();
-        long currentTime = System.currentTimeMillis();
-        long timeWindow = currentTime - lastAdjustment;
-        
-        return timeWindow > 0 ? (double) total / (timeWindow / 1000.0) : 0.0;
+        return recentRequests.rate();
     }
     
     /**
@@ -144,9 +155,10 @@ public class AdaptiveRateLimitStats {
      * 重置统计信息
      */
     public void reset() {
-        totalRequests.set(0);
-        passedRequests.set(0);
-        blockedRequests.set(0);
+        totalRequests.reset();
+        passedRequests.reset();
+        blockedRequests.reset();
+        recentRequests.reset();
         adjustmentCount.set(0);
         lastAdjustmentTime.set(System.currentTimeMillis());
     }
@@ -154,9 +166,9 @@ public class AdaptiveRateLimitStats {
     @Override
     public String toString() {
         return "AdaptiveRateLimitStats{" +
-                "totalRequests=" + totalRequests.get() +
-                ", passedRequests=" + passedRequests.get() +
-                ", blockedRequests=" + blockedRequests.get() +
+                "totalRequests=" + totalRequests.sum() +
+                ", passedRequests=" + passedRequests.sum() +
+                ", blockedRequests=" + blockedRequests.sum() +
                 ", currentLimit=" + currentLimit.get() +
                 ", previousLimit=" + previousLimit.get() +
                 ", adjustmentCount=" + adjustmentCount.get() +
@@ -0,0 +1,119 @@
+package com.taobao.gateway.ratelimit.adaptive;
+
+import com.taobao.gateway.metrics.WindowedHistogram;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求指标记录器
+ * 由请求处理器在请求开始和结束时调用，记录处理中的请求数以及一个采集周期内的请求数、错误数和总耗时，
+ * 另以滑动窗口直方图记录最近 {@value #LATENCY_WINDOW_MILLIS} 毫秒内的响应时间分布
+ * 
+ * @author taobao
+ * @version 2.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class RequestMetrics {
+    
+    /** 响应时间分布的统计窗口（毫秒） */
+    static final long LATENCY_WINDOW_MILLIS = 10_000;
+    
+    private final LongAdder inFlight = new LongAdder();
+    
+    private final LongAdder requests = new LongAdder();
+    
+    private final LongAdder errors = new LongAdder();
+    
+    private final LongAdder latencyNanos = new LongAdder();
+    
+    /** 响应时间分布（微秒） */
+    private final WindowedHistogram latencyMicros = new WindowedHistogram(LATENCY_WINDOW_MILLIS, 10);
+    
+    /**
+     * 请求开始
+     * 
+     * @return 开始时刻（纳秒），结束时传回
+     */
+    public long start() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+    
+    /**
+     * 请求结束
+     * 
+     * @param startNanos {@link #start()} 的返回值
+     * @param error 是否失败
+     */
+    public void end(long startNanos, boolean error) {
+        inFlight.decrement();
+        requests.increment();
+        long now = System.nanoTime();
+        latencyNanos.add(now - startNanos);
+        latencyMicros.record((now - startNanos) / 1000, now);
+        if (error) {
+            errors.increment();
+        }
+    }
+    
+    /**
+     * 处理中的请求数
+     */
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+    
+    /**
+     * 最近窗口内响应时间的分位数（毫秒）
+     * 
+     * @param quantile 分位 (0-1]，如0.99
+     */
+    public double getLatencyPercentileMillis(double quantile) {
+        return latencyMicros.percentile(quantile) / 1000;
+    }
+    
+    /**
+     * 取出上次调用以来的请求数、错误数和总耗时并清零
+     */
+    public Window drain() {
+        return new Window(requests.sumThenReset(), errors.sumThenReset(), latencyNanos.sumThenReset());
+    }
+    
+    /**
+     * 一个采集周期内的请求统计
+     */
+    public static final class Window {
+        
+        private final long requests;
+        
+        private final long errors;
+        
+        private final long latencyNanos;
+        
+        Window(long requests, long errors, long latencyNanos) {
+            this.requests = requests;
+            this.errors = errors;
+            this.latencyNanos = latencyNanos;
+        }
+        
+        public long getRequests() { return requests; }
+        
+        public long getErrors() { return errors; }
+        
+        /**
+         * 平均响应时间（毫秒）
+         */
+        public double getAvgLatencyMillis() {
+            return requests == 0 ? 0 : latencyNanos / 1e6 / requests;
+        }
+        
+        /**
+         * 错误率 (0-1)
+         */
+        public double getErrorRate() {
+            return requests == 0 ? 0 : (double) Math.min(errors, requests) / requests;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.taobao.gateway.ratelimit.adaptive;
 
+import com.taobao.gateway.metrics.DoubleGauge;
+
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 系统指标类
@@ -16,22 +17,27 @@ public class SystemMetrics {
     /**
      * CPU使用率 (0-100)
      */
-    private final AtomicReference<Double> cpuUsage = new AtomicReference<>(0.0);
+    private final DoubleGauge cpuUsage = new DoubleGauge();
     
     /**
      * 内存使用率 (0-100)
      */
-    private final AtomicReference<Double> memoryUsage = new AtomicReference<>(0.0);
+    private final DoubleGauge memoryUsage = new DoubleGauge();
     
     /**
      * 平均响应时间 (毫秒)
      */
-    private final AtomicReference<Double> avgResponseTime = new AtomicReference<>(0.0);
+    private final DoubleGauge avgResponseTime = new DoubleGauge();
+    
+    /**
+     * 最近窗口内的P99响应时间 (毫秒)
+     */
+    private final DoubleGauge p99ResponseTime = new DoubleGauge();
     
     /**
      * 错误率 (0-1)
      */
-    private final AtomicReference<Double> errorRate = new AtomicReference<>(0.0);
+    private final DoubleGauge errorRate = new DoubleGauge();
     
     /**
      * 当前并发连接数
@@ -46,13 +52,33 @@ public class SystemMetrics {
     /**
      * QPS (每秒查询数)
      */
-    private final AtomicReference<Double> qps = new AtomicReference<>(0.0);
+    private final DoubleGauge qps = new DoubleGauge();
     
     /**
      * 队列长度
      */
     private final AtomicLong queueLength = new AtomicLong(0);
     
+    /**
+     * 堆内存使用率 (0-100)
+     */
+    private final DoubleGauge heapUsage = new DoubleGauge();
+    
+    /**
+     * 直接内存使用率 (0-100)
+     */
+    private final DoubleGauge directMemoryUsage = new DoubleGauge();
+    
+    /**
+     * 采样周期内的GC停顿时间 (毫秒)
+     */
+    private final DoubleGauge gcPauseTime = new DoubleGauge();
+    
+    /**
+     * 事件循环延迟 (毫秒)
+     */
+    private final DoubleGauge eventLoopLag = new DoubleGauge();
+    
     /**
      * 时间戳
      */
@@ -72,6 +98,9 @@ public class SystemMetrics {
     public double getAvgResponseTime() { return avgResponseTime.get(); }
     public void setAvgResponseTime(double avgResponseTime) { this.avgResponseTime.set(avgResponseTime); }
     
+    public double getP99ResponseTime() { return p99ResponseTime.get(); }
+    public void setP99ResponseTime(double p99ResponseTime) { this.p99ResponseTime.set(p99ResponseTime); }
+    
     public double getErrorRate() { return errorRate.get(); }
     public void setErrorRate(double errorRate) { this.errorRate.set(errorRate); }
     
@@ -87,6 +116,18 @@ public class SystemMetrics {
     public long getQueueLength() { return queueLength.get(); }
     public void setQueueLength(long queueLength) { this.queueLength.set(queueLength); }
     
+    public double getHeapUsage() { return heapUsage.get(); }
+    public void setHeapUsage(double heapUsage) { this.heapUsage.set(heapUsage); }
+    
+    public double getDirectMemoryUsage() { return directMemoryUsage.get(); }
+    public void setDirectMemoryUsage(double directMemoryUsage) { this.directMemoryUsage.set(directMemoryUsage); }
+    
+    public double getGcPauseTime() { return gcPauseTime.get(); }
+    public void setGcPauseTime(double gcPauseTime) { this.gcPauseTime.set(gcPauseTime); }
+    
+    public double getEventLoopLag() { return eventLoopLag.get(); }
+    public void setEventLoopLag(double eventLoopLag) { this.eventLoopLag.set(eventLoopLag); }
+    
     public long getTimestamp() { return timestamp; }
     
     /**
@@ -112,7 +153,8 @@ public class SystemMetrics {
     public boolean isOverloaded() {
         return calculateLoadScore() > 80 || 
                errorRate.get() > 0.1 || 
-               avgResponseTime.get() > 1000;
+               avgResponseTime.get() > 1000 ||
+               eventLoopLag.get() > 100;
     }
     
     /**
@@ -121,7 +163,8 @@ public class SystemMetrics {
     public boolean isHealthy() {
         return calculateLoadScore() < 60 && 
                errorRate.get() < 0.05 && 
-               avgResponseTime.get() < 500;
+               avgResponseTime.get() < 500 &&
+               eventLoopLag.get() < 20;
     }
     
     @Override
@@ -130,11 +173,16 @@ public class SystemMetrics {
                 "cpuUsage=" + cpuUsage.get() +
                 ", memoryUsage=" + memoryUsage.get() +
                 ", avgResponseTime=" + avgResponseTime.get() +
+                ", p99ResponseTime=" + p99ResponseTime.get() +
                 ", errorRate=" + errorRate.get() +
                 ", currentConnections=" + currentConnections.get() +
                 ", maxConnections=" + maxConnections.get() +
                 ", qps=" + qps.get() +
                 ", queueLength=" + queueLength.get() +
+                ", heapUsage=" + heapUsage.get() +
+                ", directMemoryUsage=" + directMemoryUsage.get() +
+                ", gcPauseTime=" + gcPauseTime.get() +
+                ", eventLoopLag=" + eventLoopLag.get() +
                 ", loadScore=" + calculateLoadScore() +
                 ", timestamp=" + timestamp +
                 '}';
@@ -0,0 +1,280 @@
+package com.taobao.gateway.ratelimit.adaptive;
+
+import com.taobao.gateway.server.NettyServer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统指标采集器
+ * 
+ * 定期采集进程CPU、堆内存和直接内存、GC停顿、事件循环延迟和任务队列长度、处理中请求数，
+ * 以及 {@link RequestMetrics} 记录的周期内平均响应时间和错误率，组装成 {@link SystemMetrics}
+ * 推送给所有自适应限流器。采集间隔默认取各限流器 adjustmentInterval 的最小值。
+ * 事件循环延迟由投递到每个事件循环的探测任务测量，取上一周期探测的最大值，
+ * 探测任务仍未执行时按已等待的时间计
+ * 
+ * @author taobao
+ * @version 2.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class SystemMetricsCollector {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SystemMetricsCollector.class);
+    
+    private static final long DEFAULT_INTERVAL_MILLIS = 5000;
+    
+    private final SystemMetricsConfig config;
+    
+    private final RequestMetrics requestMetrics;
+    
+    @Autowired(required = false)
+    private List<AdaptiveRateLimiter> rateLimiters = Collections.emptyList();
+    
+    @Autowired(required = false)
+    private NettyServer nettyServer;
+    
+    /** 显式指定的事件循环组，未指定时使用Netty服务器的工作线程组 */
+    private volatile EventLoopGroup eventLoopGroup;
+    
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    
+    private final List<GarbageCollectorMXBean> garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+    
+    private final BufferPoolMXBean directBufferPool = directBufferPool();
+    
+    /** 事件循环 -> 延迟探测任务，由对象锁保护 */
+    private final Map<EventExecutor, LagProbe> probes = new IdentityHashMap<>();
+    
+    /** 上次采集时的GC累计时间（毫秒），由对象锁保护 */
+    private long lastGcTime = -1;
+    
+    /** 上次采集时刻（纳秒），由对象锁保护 */
+    private long lastCollectAt;
+    
+    private volatile SystemMetrics latestMetrics;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @Autowired
+    public SystemMetricsCollector(SystemMetricsConfig config, RequestMetrics requestMetrics) {
+        this.config = config;
+        this.requestMetrics = requestMetrics;
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long interval = getIntervalMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "system-metrics-collector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 启动时先采集一次，作为计算周期增量的基准
+        collect();
+        scheduler.scheduleAtFixedRate(this::publish, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("系统指标采集已启动，间隔: {}ms，自适应限流器: {}个", interval, rateLimiters.size());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    /**
+     * 采集一次并推送给所有自适应限流器
+     */
+    public void publish() {
+        try {
+            SystemMetrics metrics = collect();
+            for (AdaptiveRateLimiter rateLimiter : rateLimiters) {
+                rateLimiter.updateMetrics(metrics);
+            }
+            logger.debug("推送系统指标: {}", metrics);
+        } catch (RuntimeException e) {
+            // 异常会终止周期任务，这里只记录
+            logger.error("系统指标采集异常", e);
+        }
+    }
+    
+    /**
+     * 采集一次系统指标，周期类指标按距上次采集的时间计算
+     */
+    public synchronized SystemMetrics collect() {
+        long now = System.nanoTime();
+        long elapsedNanos = lastCollectAt == 0 ? TimeUnit.MILLISECONDS.toNanos(getIntervalMillis()) : now - lastCollectAt;
+        lastCollectAt = now;
+        
+        SystemMetrics metrics = new SystemMetrics();
+        metrics.setCpuUsage(processCpuUsage());
+        
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long heapMax = heap.getMax() > 0 ? heap.getMax() : heap.getCommitted();
+        double heapUsage = percent(heap.getUsed(), heapMax);
+        double directUsage = percent(usedDirectMemory(), PlatformDependent.maxDirectMemory());
+        metrics.setHeapUsage(heapUsage);
+        metrics.setDirectMemoryUsage(directUsage);
+        metrics.setMemoryUsage(Math.max(heapUsage, directUsage));
+        
+        long gcTime = 0;
+        for (GarbageCollectorMXBean collector : garbageCollectors) {
+            gcTime += Math.max(0, collector.getCollectionTime());
+        }
+        metrics.setGcPauseTime(lastGcTime < 0 ? 0 : gcTime - lastGcTime);
+        lastGcTime = gcTime;
+        
+        sampleEventLoops(metrics, now);
+        
+        RequestMetrics.Window window = requestMetrics.drain();
+        metrics.setAvgResponseTime(window.getAvgLatencyMillis());
+        metrics.setP99ResponseTime(requestMetrics.getLatencyPercentileMillis(0.99));
+        metrics.setErrorRate(window.getErrorRate());
+        metrics.setQps(elapsedNanos > 0 ? window.getRequests() * 1e9 / elapsedNanos : 0);
+        metrics.setCurrentConnections(requestMetrics.getInFlight());
+        metrics.setMaxConnections(config.getMaxInFlight());
+        
+        latestMetrics = metrics;
+        return metrics;
+    }
+    
+    private void sampleEventLoops(SystemMetrics metrics, long now) {
+        EventLoopGroup group = eventLoopGroup;
+        if (group == null && nettyServer != null) {
+            group = nettyServer.getWorkerGroup();
+        }
+        if (group == null || group.isShuttingDown()) {
+            return;
+        }
+        long maxLag = 0;
+        long queueLength = 0;
+        for (EventExecutor executor : group) {
+            LagProbe probe = probes.computeIfAbsent(executor, e -> new LagProbe());
+            maxLag = Math.max(maxLag, probe.pending ? now - probe.submittedAt : probe.lagNanos);
+            if (!probe.pending) {
+                probe.submittedAt = now;
+                probe.pending = true;
+                try {
+                    executor.execute(probe);
+                } catch (RejectedExecutionException e) {
+                    probe.pending = false;
+                }
+            }
+            if (executor instanceof SingleThreadEventExecutor) {
+                queueLength += ((SingleThreadEventExecutor) executor).pendingTasks();
+            }
+        }
+        metrics.setEventLoopLag(maxLag / 1e6);
+        metrics.setQueueLength(queueLength);
+    }
+    
+    private double processCpuUsage() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            double load = ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+            if (load >= 0) {
+                return load * 100;
+            }
+        }
+        // 不支持进程CPU时以系统平均负载近似
+        double loadAverage = operatingSystem.getSystemLoadAverage();
+        return loadAverage < 0 ? 0 : Math.min(100, loadAverage / operatingSystem.getAvailableProcessors() * 100);
+    }
+    
+    private long usedDirectMemory() {
+        // Netty未统计直接内存时读取JVM的direct缓冲池
+        long used = PlatformDependent.usedDirectMemory();
+        if (used < 0 && directBufferPool != null) {
+            used = directBufferPool.getMemoryUsed();
+        }
+        return used;
+    }
+    
+    private static BufferPoolMXBean directBufferPool() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool;
+            }
+        }
+        return null;
+    }
+    
+    private static double percent(long used, long max) {
+        return used < 0 || max <= 0 ? 0 : Math.min(100, used * 100.0 / max);
+    }
+    
+    /**
+     * 采集间隔（毫秒）
+     */
+    public long getIntervalMillis() {
+        if (config.getIntervalMillis() > 0) {
+            return config.getIntervalMillis();
+        }
+        long interval = Long.MAX_VALUE;
+        for (AdaptiveRateLimiter rateLimiter : rateLimiters) {
+            long adjustmentInterval = rateLimiter.getAdaptiveConfig().getAdjustmentInterval();
+            if (adjustmentInterval > 0) {
+                interval = Math.min(interval, adjustmentInterval);
+            }
+        }
+        return interval == Long.MAX_VALUE ? DEFAULT_INTERVAL_MILLIS : interval;
+    }
+    
+    /**
+     * 最近一次采集的指标，尚未采集时为null
+     */
+    public SystemMetrics getLatestMetrics() {
+        return latestMetrics;
+    }
+    
+    public void setEventLoopGroup(EventLoopGroup eventLoopGroup) {
+        this.eventLoopGroup = eventLoopGroup;
+    }
+    
+    public void setRateLimiters(List<AdaptiveRateLimiter> rateLimiters) {
+        this.rateLimiters = rateLimiters;
+    }
+    
+    /**
+     * 事件循环延迟探测任务，执行时记录从投递到执行的等待时间
+     */
+    private static final class LagProbe implements Runnable {
+        
+        private volatile long submittedAt;
+        
+        private volatile long lagNanos;
+        
+        private volatile boolean pending;
+        
+        @Override
+        public void run() {
+            lagNanos = System.nanoTime() - submittedAt;
+            pending = false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.taobao.gateway.ratelimit.adaptive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 系统指标采集配置类
+ * 
+ * @author taobao
+ * @version 2.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.adaptive.metrics")
+public class SystemMetricsConfig {
+    
+    /**
+     * 是否启用系统指标采集
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 采集间隔（毫秒），0表示取各自适应限流器 adjustmentInterval 的最小值
+     */
+    private long intervalMillis = 0;
+    
+    /**
+     * 处理中请求数的上限，用于计算负载分数
+     */
+    private long maxInFlight = 10000;
+    
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    
+    public long getIntervalMillis() { return intervalMillis; }
+    public void setIntervalMillis(long intervalMillis) { this.intervalMillis = intervalMillis; }
+    
+    public long getMaxInFlight() { return maxInFlight; }
+    public void setMaxInFlight(long maxInFlight) { this.maxInFlight = maxInFlight; }
+    
+    @Override
+    public String toString() {
+        return "SystemMetricsConfig{" +
+                "enabled=" + enabled +
+                ", intervalMillis=" + intervalMillis +
+                ", maxInFlight=" + maxInFlight +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import com.taobao.gateway.ratelimit.store.LongStateStore;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch
+ *
+ * depth 行 width 列的计数矩阵，每个键在每行落到一个计数器上，估计值取各行的最小值，只会高估。
+ * 各行下标由键哈希和它的一次再混合按双重哈希派生，每次更新只计算一次混合。
+ * 内存固定为 depth * width * 8 字节，定期减半计数使估计值偏向近期流量
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+
+    private final int width;
+
+    private final int mask;
+
+    private final AtomicLongArray counts;
+
+    /**
+     * @param width 每行计数器数，向上取整到2的幂
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0 || width > 1 << 24) {
+            throw new IllegalArgumentException("depth和width配置错误: depth=" + depth + ", width=" + width);
+        }
+        int rounded = 1;
+        while (rounded < width) {
+            rounded <<= 1;
+        }
+        this.depth = depth;
+        this.width = rounded;
+        this.mask = rounded - 1;
+        this.counts = new AtomicLongArray(depth * rounded);
+    }
+
+    /**
+     * 累加计数
+     *
+     * @return 累加后的估计值
+     */
+    public long add(long hash, long count) {
+        long h2 = LongStateStore.mix(hash) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0, base = 0; row < depth; row++, base += width) {
+            long value = counts.addAndGet(base + (int) ((hash + row * h2) & mask), count);
+            if (value < estimate) {
+                estimate = value;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * 估计值
+     */
+    public long estimate(long hash) {
+        long h2 = LongStateStore.mix(hash) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0, base = 0; row < depth; row++, base += width) {
+            long value = counts.get(base + (int) ((hash + row * h2) & mask));
+            if (value < estimate) {
+                estimate = value;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * 所有计数减半
+     */
+    public void decay() {
+        for (int i = 0, length = counts.length(); i < length; i++) {
+            long value;
+            do {
+                value = counts.get(i);
+            } while (value != 0 && !counts.compareAndSet(i, value, value >> 1));
+        }
+    }
+
+    public void clear() {
+        for (int i = 0, length = counts.length(); i < length; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public long memoryBytes() {
+        return (long) counts.length() * Long.BYTES;
+    }
+}
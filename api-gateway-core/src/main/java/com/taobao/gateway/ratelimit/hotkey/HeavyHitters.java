@@ -0,0 +1,149 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import com.taobao.gateway.ratelimit.quota.QuotaKey;
+import io.netty.handler.codec.http.FullHttpRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Space-Saving 方式的Top-K表
+ *
+ * 固定监视 capacity 个键，表满后新键的估计值超过表中最小者时替换它。计数不在表内维护，
+ * 而是读取 {@link CountMinSketch} 的估计值，表里只有键哈希和键原文，监视中的键不需要加锁更新。
+ * threshold 是表中最小的估计值，估计值不超过它的键不必尝试进入表，这是绝大多数请求的路径；
+ * 只有换入新键时才取出键原文
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+final class HeavyHitters {
+
+    private final CountMinSketch sketch;
+
+    /** 监视中的键哈希，0表示空位；无锁读取，替换在锁内进行 */
+    private final long[] hashes;
+
+    private final String[] keys;
+
+    private int size;
+
+    /** 表满时为表中最小的估计值，未满时为0 */
+    private volatile long threshold;
+
+    HeavyHitters(CountMinSketch sketch, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Top-K容量必须大于0: " + capacity);
+        }
+        this.sketch = sketch;
+        this.hashes = new long[capacity];
+        this.keys = new String[capacity];
+    }
+
+    long threshold() {
+        return threshold;
+    }
+
+    boolean contains(long hash) {
+        long[] hashes = this.hashes;
+        for (long h : hashes) {
+            if (h == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 尝试让键进入表
+     *
+     * @return 键是否在表中
+     */
+    synchronized boolean offer(long hash, long estimate, QuotaKey key, FullHttpRequest request) {
+        if (contains(hash)) {
+            return true;
+        }
+        int index;
+        if (size < hashes.length) {
+            index = size;
+        } else {
+            index = minIndex();
+            long min = sketch.estimate(hashes[index]);
+            if (estimate <= min) {
+                threshold = min;
+                return false;
+            }
+        }
+        String name = key.value(request);
+        if (name == null) {
+            return false;
+        }
+        keys[index] = name;
+        hashes[index] = hash;
+        if (index == size) {
+            size++;
+        }
+        refresh();
+        return true;
+    }
+
+    /**
+     * 按当前估计值重算阈值
+     */
+    synchronized void refresh() {
+        threshold = size < hashes.length ? 0 : sketch.estimate(hashes[minIndex()]);
+    }
+
+    private int minIndex() {
+        int index = 0;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            long estimate = sketch.estimate(hashes[i]);
+            if (estimate < min) {
+                min = estimate;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    synchronized String keyOf(long hash) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash) {
+                return keys[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param total     全部请求数，用于计算占比
+     * @param throttled 判断键哈希是否正被限流
+     * @return 按估计值降序的热点键
+     */
+    synchronized List<HotKey> snapshot(long total, LongPredicate throttled) {
+        List<HotKey> hotKeys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long count = sketch.estimate(hashes[i]);
+            hotKeys.add(new HotKey(keys[i], count, total > 0 ? Math.min(1.0, (double) count / total) : 0,
+                    throttled.test(hashes[i])));
+        }
+        hotKeys.sort(Comparator.comparingLong(HotKey::getCount).reversed());
+        return hotKeys;
+    }
+
+    synchronized void clear() {
+        Arrays.fill(hashes, 0);
+        Arrays.fill(keys, null);
+        size = 0;
+        threshold = 0;
+    }
+
+    int size() {
+        return size;
+    }
+}
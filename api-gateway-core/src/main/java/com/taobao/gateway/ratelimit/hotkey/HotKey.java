@@ -0,0 +1,61 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+/**
+ * 热点键快照
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class HotKey {
+
+    private final String key;
+
+    private final long count;
+
+    private final double share;
+
+    private final boolean throttled;
+
+    public HotKey(String key, long count, double share, boolean throttled) {
+        this.key = key;
+        this.count = count;
+        this.share = share;
+        this.throttled = throttled;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * 衰减后的估计请求数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 占全部请求的比例
+     */
+    public double getShare() {
+        return share;
+    }
+
+    /**
+     * 是否正被临时限流
+     */
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    @Override
+    public String toString() {
+        return "HotKey{" +
+                "key='" + key + '\'' +
+                ", count=" + count +
+                ", share=" + share +
+                ", throttled=" + throttled +
+                '}';
+    }
+}
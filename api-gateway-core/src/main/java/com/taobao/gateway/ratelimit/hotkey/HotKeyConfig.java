@@ -0,0 +1,221 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 热点键检测配置
+ *
+ * 键来源写作 header:名称、query:参数名 或 ip，与多级配额相同。热点键检测在鉴权之前执行，
+ * 不支持取自鉴权结果的 app、subject
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.hot-key")
+public class HotKeyConfig {
+
+    /**
+     * 是否启用热点键检测
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否对全部请求生效，为false时只对引用了 hot-key 过滤器的路由或路由分组生效
+     */
+    private boolean global = true;
+
+    /**
+     * 键来源
+     */
+    private String key = "ip";
+
+    /**
+     * Count-Min Sketch 行数
+     */
+    private int depth = 4;
+
+    /**
+     * Count-Min Sketch 每行计数器数
+     */
+    private int width = 4096;
+
+    /**
+     * Top-K表监视的键数
+     */
+    private int topK = 32;
+
+    /**
+     * 采样比例的倒数，每 sampleRate 个请求记录一次
+     */
+    private int sampleRate = 1;
+
+    /**
+     * 计数减半的间隔（毫秒）
+     */
+    private long decayIntervalMillis = 10000;
+
+    /**
+     * 是否自动限流热点键
+     */
+    private boolean autoThrottle = true;
+
+    /**
+     * 单个键占全部请求的比例超过此值时视为热点
+     */
+    private double shareThreshold = 0.1;
+
+    /**
+     * 全部请求数达到此值后才判定热点
+     */
+    private long minRequests = 1000;
+
+    /**
+     * 热点键每秒放行的请求数
+     */
+    private int throttleRate = 10;
+
+    /**
+     * 热点键的突发上限
+     */
+    private int throttleBurst = 20;
+
+    /**
+     * 临时限流的持续时间（毫秒），到期后仍为热点会重新限流
+     */
+    private long throttleMillis = 60000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public long getDecayIntervalMillis() {
+        return decayIntervalMillis;
+    }
+
+    public void setDecayIntervalMillis(long decayIntervalMillis) {
+        this.decayIntervalMillis = decayIntervalMillis;
+    }
+
+    public boolean isAutoThrottle() {
+        return autoThrottle;
+    }
+
+    public void setAutoThrottle(boolean autoThrottle) {
+        this.autoThrottle = autoThrottle;
+    }
+
+    public double getShareThreshold() {
+        return shareThreshold;
+    }
+
+    public void setShareThreshold(double shareThreshold) {
+        this.shareThreshold = shareThreshold;
+    }
+
+    public long getMinRequests() {
+        return minRequests;
+    }
+
+    public void setMinRequests(long minRequests) {
+        this.minRequests = minRequests;
+    }
+
+    public int getThrottleRate() {
+        return throttleRate;
+    }
+
+    public void setThrottleRate(int throttleRate) {
+        this.throttleRate = throttleRate;
+    }
+
+    public int getThrottleBurst() {
+        return throttleBurst;
+    }
+
+    public void setThrottleBurst(int throttleBurst) {
+        this.throttleBurst = throttleBurst;
+    }
+
+    public long getThrottleMillis() {
+        return throttleMillis;
+    }
+
+    public void setThrottleMillis(long throttleMillis) {
+        this.throttleMillis = throttleMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "HotKeyConfig{" +
+                "enabled=" + enabled +
+                ", global=" + global +
+                ", key='" + key + '\'' +
+                ", depth=" + depth +
+                ", width=" + width +
+                ", topK=" + topK +
+                ", sampleRate=" + sampleRate +
+                ", decayIntervalMillis=" + decayIntervalMillis +
+                ", autoThrottle=" + autoThrottle +
+                ", shareThreshold=" + shareThreshold +
+                ", minRequests=" + minRequests +
+                ", throttleRate=" + throttleRate +
+                ", throttleBurst=" + throttleBurst +
+                ", throttleMillis=" + throttleMillis +
+                '}';
+    }
+}
@@ -0,0 +1,294 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.impl.GcraRateLimiter;
+import com.taobao.gateway.ratelimit.quota.QuotaKey;
+import io.netty.handler.codec.http.FullHttpRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点键检测器
+ *
+ * 以 {@link CountMinSketch} 估计每个键的请求数，以 {@link HeavyHitters} 维护Top-K，内存固定。
+ * 估计值占全部请求的比例超过 shareThreshold 时，为该键安装 throttleMillis 的临时限流，
+ * 限流期间该键按 throttleRate 放行。计数每 decayIntervalMillis 减半，热度反映近期流量。
+ * 每个请求的开销是一次键哈希、depth 次计数器累加和一次限流表扫描，不分配对象；
+ * 只有键进入Top-K表或安装限流时才取出键原文
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class HotKeyDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyDetector.class);
+
+    private final HotKeyConfig config;
+
+    private final QuotaKey key;
+
+    private final CountMinSketch sketch;
+
+    private final HeavyHitters hitters;
+
+    /** 被限流的键共用的限流器，以键哈希寻址 */
+    private final GcraRateLimiter throttleLimiter;
+
+    private final long decayIntervalNanos;
+
+    private final long throttleNanos;
+
+    /** 全部请求数，与计数同步衰减 */
+    private final LongAdder total = new LongAdder();
+
+    private final LongAdder throttledRequests = new LongAdder();
+
+    private volatile Throttles throttles = Throttles.EMPTY;
+
+    private volatile long nextDecay;
+
+    /** 安装临时限流的次数，由对象锁保护 */
+    private long throttleInstalls;
+
+    /**
+     * @throws IllegalArgumentException 配置错误
+     */
+    public HotKeyDetector(HotKeyConfig config) {
+        if (config.getSampleRate() <= 0 || config.getDecayIntervalMillis() <= 0 || config.getThrottleRate() <= 0
+                || config.getShareThreshold() <= 0 || config.getShareThreshold() > 1) {
+            throw new IllegalArgumentException("热点键检测配置错误: " + config);
+        }
+        this.config = config;
+        this.key = QuotaKey.parse(config.getKey());
+        this.sketch = new CountMinSketch(config.getDepth(), config.getWidth());
+        this.hitters = new HeavyHitters(sketch, config.getTopK());
+
+        RateLimitConfig limiterConfig = new RateLimitConfig("hot-key", RateLimiterType.GCRA, config.getThrottleRate());
+        limiterConfig.setRefillRate(config.getThrottleRate());
+        limiterConfig.setCapacity(config.getThrottleBurst() > 0 ? config.getThrottleBurst() : config.getThrottleRate());
+        limiterConfig.setMaxKeys(config.getTopK());
+        this.throttleLimiter = new GcraRateLimiter(limiterConfig);
+
+        this.decayIntervalNanos = TimeUnit.MILLISECONDS.toNanos(config.getDecayIntervalMillis());
+        this.throttleNanos = TimeUnit.MILLISECONDS.toNanos(config.getThrottleMillis());
+        this.nextDecay = System.nanoTime() + decayIntervalNanos;
+    }
+
+    /**
+     * 记录一次请求并判定是否放行
+     *
+     * @return 0表示放行，否则为被限流的键还需等待的纳秒数
+     */
+    public long acquire(FullHttpRequest request) {
+        long hash = key.hash(request);
+        // 匿名键汇集了全部未鉴权的请求，按热点限流会波及所有客户端
+        if (hash == 0 || QuotaKey.isAnonymous(hash)) {
+            return 0;
+        }
+        return acquire(hash, request, System.nanoTime());
+    }
+
+    long acquire(long hash, FullHttpRequest request, long now) {
+        long wait = 0;
+        if (throttles.isThrottled(hash, now)) {
+            long ahead = throttleLimiter.reserve(hash, 1, now);
+            if (ahead < 0) {
+                wait = -ahead;
+                throttledRequests.increment();
+            }
+        }
+        if (now - nextDecay >= 0) {
+            decay(now);
+        }
+        // 被拒绝的请求同样计数，持续的热点在限流到期后会被重新限流
+        int sampleRate = config.getSampleRate();
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            record(hash, sampleRate, request, now);
+        }
+        return wait;
+    }
+
+    private void record(long hash, int weight, FullHttpRequest request, long now) {
+        total.add(weight);
+        long estimate = sketch.add(hash, weight);
+        if (estimate <= hitters.threshold()) {
+            return;
+        }
+        if (!hitters.contains(hash) && !hitters.offer(hash, estimate, key, request)) {
+            return;
+        }
+        if (!config.isAutoThrottle() || throttles.isThrottled(hash, now)) {
+            return;
+        }
+        long sum = total.sum();
+        if (sum >= config.getMinRequests() && estimate >= config.getShareThreshold() * sum) {
+            throttle(hash, estimate, sum, now);
+        }
+    }
+
+    private synchronized void throttle(long hash, long estimate, long sum, long now) {
+        if (throttles.isThrottled(hash, now)) {
+            return;
+        }
+        String name = hitters.keyOf(hash);
+        throttles = throttles.with(hash, name, now + throttleNanos, now);
+        throttleInstalls++;
+        logger.warn("热点键临时限流: key={}, 估计请求数={}, 占比={}, 持续{}ms", name, estimate,
+                String.format("%.3f", (double) estimate / sum), config.getThrottleMillis());
+    }
+
+    private synchronized void decay(long now) {
+        if (now - nextDecay < 0) {
+            return;
+        }
+        nextDecay = now + decayIntervalNanos;
+        sketch.decay();
+        long sum = total.sumThenReset();
+        total.add(sum >> 1);
+        hitters.refresh();
+        throttles = throttles.without(0, now);
+    }
+
+    /**
+     * 当前最热的键
+     *
+     * @param limit 最多返回的个数
+     */
+    public List<HotKey> getTopKeys(int limit) {
+        long now = System.nanoTime();
+        Throttles current = throttles;
+        List<HotKey> hotKeys = hitters.snapshot(total.sum(), hash -> current.isThrottled(hash, now));
+        return hotKeys.size() > limit ? new ArrayList<>(hotKeys.subList(0, limit)) : hotKeys;
+    }
+
+    /**
+     * 正被临时限流的键
+     */
+    public List<String> getThrottledKeys() {
+        return throttles.keys(System.nanoTime());
+    }
+
+    /**
+     * 解除所有临时限流
+     */
+    public synchronized void clearThrottles() {
+        throttles = Throttles.EMPTY;
+    }
+
+    /**
+     * 清空计数和临时限流
+     */
+    public synchronized void reset() {
+        sketch.clear();
+        hitters.clear();
+        total.reset();
+        throttles = Throttles.EMPTY;
+    }
+
+    public HotKeyConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalRequests", total.sum());
+        stats.put("trackedKeys", hitters.size());
+        stats.put("threshold", hitters.threshold());
+        stats.put("throttledKeys", getThrottledKeys().size());
+        stats.put("throttledRequests", throttledRequests.sum());
+        synchronized (this) {
+            stats.put("throttleInstalls", throttleInstalls);
+        }
+        stats.put("sketchMemoryBytes", sketch.memoryBytes());
+        return stats;
+    }
+
+    /**
+     * 临时限流表，写时复制，只有少数几个键
+     */
+    private static final class Throttles {
+
+        static final Throttles EMPTY = new Throttles(new long[0], new long[0], new String[0]);
+
+        private final long[] hashes;
+
+        /** 到期时刻（纳秒） */
+        private final long[] until;
+
+        private final String[] keys;
+
+        Throttles(long[] hashes, long[] until, String[] keys) {
+            this.hashes = hashes;
+            this.until = until;
+            this.keys = keys;
+        }
+
+        boolean isThrottled(long hash, long now) {
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] == hash) {
+                    return now - until[i] < 0;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 去掉 hash 和已到期的条目
+         */
+        Throttles without(long hash, long now) {
+            int count = 0;
+            long[] newHashes = new long[hashes.length];
+            long[] newUntil = new long[hashes.length];
+            String[] newKeys = new String[hashes.length];
+            for (int i = 0; i < hashes.length; i++) {
+                if (hashes[i] != hash && now - until[i] < 0) {
+                    newHashes[count] = hashes[i];
+                    newUntil[count] = until[i];
+                    newKeys[count] = keys[i];
+                    count++;
+                }
+            }
+            if (count == hashes.length) {
+                return this;
+            }
+            return count == 0 ? EMPTY : new Throttles(Arrays.copyOf(newHashes, count),
+                    Arrays.copyOf(newUntil, count), Arrays.copyOf(newKeys, count));
+        }
+
+        Throttles with(long hash, String key, long deadline, long now) {
+            Throttles rest = without(hash, now);
+            int length = rest.hashes.length;
+            long[] newHashes = Arrays.copyOf(rest.hashes, length + 1);
+            long[] newUntil = Arrays.copyOf(rest.until, length + 1);
+            String[] newKeys = Arrays.copyOf(rest.keys, length + 1);
+            newHashes[length] = hash;
+            newUntil[length] = deadline;
+            newKeys[length] = key;
+            return new Throttles(newHashes, newUntil, newKeys);
+        }
+
+        List<String> keys(long now) {
+            List<String> result = new ArrayList<>(keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                if (now - until[i] < 0) {
+                    result.add(keys[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
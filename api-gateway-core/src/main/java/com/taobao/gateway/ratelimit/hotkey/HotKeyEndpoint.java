@@ -0,0 +1,46 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热点键端点
+ *
+ * GET    /actuator/hotkeys?limit=10  查看当前最热的键、占比和是否被限流
+ * DELETE /actuator/hotkeys           解除所有临时限流
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyDetector detector;
+
+    public HotKeyEndpoint(HotKeyFilter filter) {
+        this.detector = filter.getDetector();
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotKeys(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", detector.getConfig().isEnabled());
+        result.put("topKeys", detector.getTopKeys(limit != null ? limit : 10));
+        result.put("throttledKeys", detector.getThrottledKeys());
+        result.put("stats", detector.getStats());
+        return result;
+    }
+
+    @DeleteOperation
+    public void clearThrottles() {
+        detector.clearThrottles();
+    }
+}
@@ -0,0 +1,107 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import com.taobao.gateway.ratelimit.quota.QuotaKey;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 热点键过滤器
+ *
+ * 每个请求交给 {@link HotKeyDetector} 计数，被临时限流的键超出速率时返回429
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class HotKeyFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotKeyFilter.class);
+
+    public static final String NAME = "hot-key";
+
+    private final HotKeyConfig config;
+
+    private final HotKeyDetector detector;
+
+    @Autowired(required = false)
+    private DefaultFilterChain filterChain;
+
+    /**
+     * @throws IllegalArgumentException 配置错误，或键来源取自鉴权结果
+     */
+    @Autowired
+    public HotKeyFilter(HotKeyConfig config) {
+        if (QuotaKey.parse(config.getKey()).isIdentity()) {
+            // 过滤器在鉴权之前执行，此时取不到鉴权身份，所有请求都会落到同一个匿名键上
+            throw new IllegalArgumentException("热点键检测在鉴权之前执行，键来源不能为 app 或 subject: " + config.getKey());
+        }
+        this.config = config;
+        this.detector = new HotKeyDetector(config);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled() || filterChain == null) {
+            return;
+        }
+        if (config.isGlobal()) {
+            filterChain.addFilter(this);
+        } else {
+            filterChain.registerFilter(this);
+        }
+        logger.info("热点键检测已启用: {}", config);
+    }
+
+    @Override
+    public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+        long wait = detector.acquire(request);
+        if (wait == 0) {
+            return chain.doFilter(request);
+        }
+        logger.debug("热点键限流: {}", request.uri());
+        RequestContext context = RequestContext.current();
+        if (context != null) {
+            context.setStatus(RequestContext.RequestStatus.RATE_LIMITED);
+            context.setRateLimitInfo(new RequestContext.RateLimitInfo(true, NAME, 0, config.getThrottleRate()));
+        }
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.TOO_MANY_REQUESTS, Unpooled.copiedBuffer("Too Many Requests", CharsetUtil.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        // 向上取整到秒
+        response.headers().set(HttpHeaderNames.RETRY_AFTER, (wait + 999_999_999L) / 1_000_000_000L);
+        return response;
+    }
+
+    public HotKeyDetector getDetector() {
+        return detector;
+    }
+
+    @Override
+    public int getOrder() {
+        // 在鉴权之前执行，滥用的键不消耗鉴权开销
+        return 130;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
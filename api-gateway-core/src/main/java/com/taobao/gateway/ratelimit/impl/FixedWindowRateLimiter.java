@@ -0,0 +1,150 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiter;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 固定窗口限流器实现
+ *
+ * 每 window 秒一个窗口，窗口内最多放行 limit 个许可。计数以CAS递增，不超限才提交，放行数量精确；
+ * 进入新窗口时整体替换窗口对象，不需要清零。窗口边界两侧可能各放行一次 limit，需要平滑时使用滑动窗口
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class FixedWindowRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FixedWindowRateLimiter.class);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** 窗口存储：key -> 当前窗口 */
+    private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    /** 限流配置 */
+    private final RateLimitConfig config;
+
+    /** 窗口时长（纳秒） */
+    private final long windowNanos;
+
+    public FixedWindowRateLimiter() {
+        this(new RateLimitConfig());
+    }
+
+    public FixedWindowRateLimiter(RateLimitConfig config) {
+        if (config.getLimit() <= 0 || config.getWindow() <= 0) {
+            throw new IllegalArgumentException("limit和window必须大于0: " + config);
+        }
+        this.config = config;
+        this.windowNanos = config.getWindow() * NANOS_PER_SECOND;
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        long index = Math.floorDiv(System.nanoTime(), windowNanos);
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            ref = windows.computeIfAbsent(key, k -> new AtomicReference<>(new Window(index)));
+        }
+        boolean acquired = tryAcquire(ref, permits, index);
+
+        if (!acquired) {
+            logger.debug("限流触发: key={}, permits={}", key, permits);
+        }
+
+        return acquired;
+    }
+
+    /**
+     * @param index 当前窗口序号
+     */
+    boolean tryAcquire(AtomicReference<Window> ref, int permits, long index) {
+        int limit = config.getLimit();
+        if (permits > limit) {
+            return false;
+        }
+        Window window = ref.get();
+        while (index - window.index > 0) {
+            // 只有一个线程能换上新窗口，其余线程使用它换上的窗口
+            Window next = new Window(index);
+            window = ref.compareAndSet(window, next) ? next : ref.get();
+        }
+        AtomicLong count = window.count;
+        for (;;) {
+            long current = count.get();
+            if (current + permits > limit) {
+                return false;
+            }
+            if (count.compareAndSet(current, current + permits)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前窗口内已放行的许可数
+     */
+    public long getCount(String key) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            return 0;
+        }
+        Window window = ref.get();
+        return window.index == Math.floorDiv(System.nanoTime(), windowNanos) ? window.count.get() : 0;
+    }
+
+    @Override
+    public RateLimiterType getType() {
+        return RateLimiterType.FIXED_WINDOW;
+    }
+
+    @Override
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new ConcurrentHashMap<>();
+        stats.put("totalWindows", windows.size());
+        stats.put("config", config);
+        stats.put("windowNanos", windowNanos);
+        return stats;
+    }
+
+    /**
+     * 单个窗口
+     */
+    static final class Window {
+
+        /** 窗口序号 */
+        final long index;
+
+        /** 已放行的许可数 */
+        final AtomicLong count = new AtomicLong();
+
+        Window(long index) {
+            this.index = index;
+        }
+    }
+}
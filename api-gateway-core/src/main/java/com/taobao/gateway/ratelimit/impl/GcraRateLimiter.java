@@ -0,0 +1,219 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiter;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.WarmUp;
+import com.taobao.gateway.ratelimit.store.LongStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GCRA（通用信元速率算法）限流器实现
+ *
+ * 每个键只保存一个理论到达时间（TAT，纳秒），获取许可时把TAT推后 permits * 发射间隔，
+ * 推后的TAT超出当前时间的部分不超过突发容忍度即放行。与令牌桶语义相同：
+ * 速率为 refillRate 每秒、突发上限为 capacity，但没有单独的填充步骤，并发下不会丢失或重复补充，
+ * 放行数量精确，获取路径不分配对象。
+ * TAT存放在 {@link LongStateStore} 中，每个键16字节，键数以 maxKeys 为上限；
+ * TAT不晚于当前时间的键与新键等价，其槽位可直接复用，回收空闲键不影响限流结果。
+ * 配置了预热时，发射间隔按 {@link WarmUp} 的当前比例放大，速率和突发上限一同从冷速率爬升到满速
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class GcraRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GcraRateLimiter.class);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** 拒绝时 {@link #advance} 的返回值 */
+    private static final long REJECTED = Long.MIN_VALUE;
+
+    /** 理论到达时间存储：key哈希 -> TAT */
+    private final LongStateStore cells;
+
+    /** 限流配置 */
+    private final RateLimitConfig config;
+
+    /** 发射间隔：每个许可占用的纳秒数 */
+    private final long emissionInterval;
+
+    /** 突发容忍度：TAT最多领先当前时间的纳秒数 */
+    private final long burstTolerance;
+
+    /** 预热爬坡，未配置预热时为null */
+    private final WarmUp warmUp;
+
+    /** 推进TAT，拒绝时保持原状态；已存在的键由存储以一次CAS写入，冲突时重算 */
+    private final LongStateStore.StateFunction advanceFunction = (tat, now, increment) -> {
+        long next = advance(tat, increment, now);
+        return next == REJECTED ? tat : next;
+    };
+
+    /** 退回TAT，不存在的键不创建 */
+    private final LongStateStore.StateFunction refundFunction = (tat, now, increment) ->
+            tat == LongStateStore.ABSENT ? LongStateStore.ABSENT : tat - increment;
+
+    public GcraRateLimiter() {
+        this(new RateLimitConfig());
+    }
+
+    public GcraRateLimiter(RateLimitConfig config) {
+        if (config.getRefillRate() <= 0 || config.getCapacity() <= 0) {
+            throw new IllegalArgumentException("refillRate和capacity必须大于0: " + config);
+        }
+        this.config = config;
+        this.emissionInterval = NANOS_PER_SECOND / config.getRefillRate();
+        this.burstTolerance = config.getCapacity() * NANOS_PER_SECOND / config.getRefillRate();
+        this.warmUp = WarmUp.of(config);
+        this.cells = new LongStateStore(config.getMaxKeys(), 0, config.isOffHeap());
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        long increment = increment(permits);
+        boolean acquired = increment <= burstTolerance;
+        if (acquired) {
+            long now = System.nanoTime();
+            increment = applyWarmUp(increment, now);
+            long previous = cells.getAndUpdate(LongStateStore.hash(key), now, increment, advanceFunction);
+            acquired = advance(previous, increment, now) != REJECTED;
+        }
+
+        if (!acquired) {
+            logger.debug("限流触发: key={}, permits={}", key, permits);
+        }
+
+        return acquired;
+    }
+
+    /**
+     * 按键哈希获取许可，供自行计算键哈希、需要剩余额度的调用方使用
+     *
+     * @param keyHash 键哈希，见 {@link LongStateStore#hash(CharSequence)}
+     * @param now 当前时间（纳秒）
+     * @return 放行时返回放行后TAT领先当前时间的纳秒数（不小于0）；
+     *         拒绝时返回负数，其绝对值为还需等待的纳秒数，请求量超过突发上限时为 -Long.MAX_VALUE
+     */
+    public long reserve(long keyHash, int permits, long now) {
+        long increment = increment(permits);
+        if (increment > burstTolerance) {
+            return -Long.MAX_VALUE;
+        }
+        increment = applyWarmUp(increment, now);
+        long previous = cells.getAndUpdate(keyHash, now, increment, advanceFunction);
+        long next = advance(previous, increment, now);
+        if (next != REJECTED) {
+            return next - now;
+        }
+        return -(previous + increment - now - tolerance(increment));
+    }
+
+    /**
+     * 退回 {@link #reserve} 已获取的许可，用于多级限流中后续级别拒绝时回滚
+     */
+    public void release(long keyHash, int permits, long now) {
+        cells.getAndUpdate(keyHash, now, applyWarmUp(increment(permits), now), refundFunction);
+    }
+
+    /**
+     * 由TAT领先当前时间的纳秒数换算剩余可立即获取的许可数
+     */
+    public long remainingPermits(long ahead) {
+        if (emissionInterval == 0) {
+            return config.getCapacity();
+        }
+        return Math.max(0, Math.min(config.getCapacity(), (burstTolerance - ahead) / emissionInterval));
+    }
+
+    private long increment(int permits) {
+        return permits == 1 ? emissionInterval : permits * NANOS_PER_SECOND / config.getRefillRate();
+    }
+
+    /**
+     * 预热期间按当前速率比例放大发射间隔
+     */
+    private long applyWarmUp(long increment, long now) {
+        if (warmUp == null) {
+            return increment;
+        }
+        double fraction = warmUp.fraction(now);
+        return fraction >= 1 ? increment : (long) (increment / fraction);
+    }
+
+    /**
+     * 预热期间放大后的发射间隔可能超过突发容忍度，空闲的键仍至少放行一次
+     */
+    private long tolerance(long increment) {
+        return increment > burstTolerance ? increment : burstTolerance;
+    }
+
+    /**
+     * 从冷速率重新预热，提高限额后调用；未配置预热时无效果
+     */
+    public void restartWarmUp() {
+        if (warmUp != null) {
+            warmUp.restart();
+        }
+    }
+
+    /**
+     * @param tat 当前TAT，键不存在时为 {@link LongStateStore#ABSENT}
+     * @return 放行后的TAT，超出突发容忍度时返回 {@link #REJECTED}
+     */
+    private long advance(long tat, long increment, long now) {
+        // TAT落后于当前时间说明已空闲，从当前时间开始计算
+        long next = (tat == LongStateStore.ABSENT || tat - now < 0 ? now : tat) + increment;
+        return next - now > tolerance(increment) ? REJECTED : next;
+    }
+
+    /**
+     * 当前可立即获取的许可数
+     */
+    public long getAvailablePermits(String key) {
+        long now = System.nanoTime();
+        long tat = cells.get(LongStateStore.hash(key), now);
+        if (tat == LongStateStore.ABSENT) {
+            return config.getCapacity();
+        }
+        return remainingPermits(Math.max(0, tat - now));
+    }
+
+    @Override
+    public RateLimiterType getType() {
+        return RateLimiterType.GCRA;
+    }
+
+    @Override
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new ConcurrentHashMap<>();
+        stats.put("totalCells", cells.size());
+        stats.put("store", cells.getStats());
+        stats.put("config", config);
+        stats.put("emissionIntervalNanos", emissionInterval);
+        stats.put("burstToleranceNanos", burstTolerance);
+        return stats;
+    }
+}
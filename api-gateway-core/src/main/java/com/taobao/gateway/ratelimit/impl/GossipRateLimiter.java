@@ -0,0 +1,546 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.GossipRateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiter;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于Gossip的集群限流器实现
+ *
+ * 每个键每 window 秒一个固定窗口，窗口内的集群放行数是一个G-Counter：各节点只递增自己的分量，
+ * 其他节点的分量按最大值合并，合并与顺序、重复无关。节点每 intervalMillis 通过UDP
+ * 把本轮有变化的本节点分量发给所有对端，每 fullSyncRounds 轮发送全部分量以弥补丢包，
+ * 请求路径上没有网络访问。判定时以 本节点分量 + 已知的其他节点分量 对比 limit，
+ * 各节点最多各自多放行一个传播周期内的流量，适合粗粒度的租户配额。
+ * 窗口按系统时钟划分，各节点需要同步时钟，早于当前窗口或晚于下一个窗口的计数被丢弃。
+ * 配置共享密钥后报文附带HMAC-SHA256，伪造的报文被丢弃；重放的报文按最大值合并，不会重复计数
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class GossipRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(GossipRateLimiter.class);
+
+    /** 报文魔数 "GSP1" */
+    private static final int MAGIC = 0x47535031;
+
+    /** 每个条目除键外的字节数：键长度、窗口序号、计数 */
+    private static final int ENTRY_OVERHEAD = 2 + 8 + 8;
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    /** HMAC-SHA256 的字节数 */
+    private static final int MAC_LENGTH = 32;
+
+    /** 窗口存储：key -> 当前窗口 */
+    private final Map<String, AtomicReference<Window>> windows = new ConcurrentHashMap<>();
+
+    /** 限流配置 */
+    private final RateLimitConfig config;
+
+    /** Gossip配置 */
+    private final GossipRateLimitConfig gossipConfig;
+
+    private final String nodeId;
+
+    private final byte[] nodeIdBytes;
+
+    /** 窗口时长（毫秒） */
+    private final long windowMillis;
+
+    /** 报文签名密钥，未配置共享密钥时为null */
+    private final SecretKeySpec macKey;
+
+    /** 报文末尾的签名字节数 */
+    private final int macLength;
+
+    /** 广播线程使用的签名器 */
+    private Mac senderMac;
+
+    /** 接收线程使用的签名器 */
+    private Mac receiverMac;
+
+    private final List<InetSocketAddress> peers = new CopyOnWriteArrayList<>();
+
+    private volatile DatagramChannel channel;
+
+    private ScheduledExecutorService scheduler;
+
+    /** 已广播的轮数，只由广播线程访问 */
+    private long rounds;
+
+    private final LongAdder sentPackets = new LongAdder();
+
+    private final LongAdder receivedPackets = new LongAdder();
+
+    private final LongAdder droppedPackets = new LongAdder();
+
+    private final LongAdder droppedEntries = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    public GossipRateLimiter(RateLimitConfig config, GossipRateLimitConfig gossipConfig) {
+        if (config.getLimit() <= 0 || config.getWindow() <= 0) {
+            throw new IllegalArgumentException("limit和window必须大于0: " + config);
+        }
+        if (gossipConfig.getIntervalMillis() <= 0 || gossipConfig.getMaxPacketSize() < 64
+                || gossipConfig.getMaxKeys() <= 0) {
+            throw new IllegalArgumentException("Gossip配置错误: " + gossipConfig);
+        }
+        String secret = gossipConfig.getSecret();
+        if ((secret == null || secret.isEmpty()) && !isLoopback(gossipConfig.getBindHost())) {
+            throw new IllegalArgumentException("监听非回环地址时必须配置共享密钥: " + gossipConfig.getBindHost());
+        }
+        this.config = config;
+        this.gossipConfig = gossipConfig;
+        this.macKey = secret == null || secret.isEmpty()
+                ? null : new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+        this.macLength = macKey != null ? MAC_LENGTH : 0;
+        this.nodeId = gossipConfig.getNodeId() != null ? gossipConfig.getNodeId() : UUID.randomUUID().toString();
+        this.nodeIdBytes = nodeId.getBytes(StandardCharsets.UTF_8);
+        if (nodeIdBytes.length > Short.MAX_VALUE
+                || 4 + 2 + nodeIdBytes.length + 2 + macLength > gossipConfig.getMaxPacketSize()) {
+            throw new IllegalArgumentException("节点ID过长: " + nodeId);
+        }
+        this.windowMillis = config.getWindow() * 1000L;
+        for (String peer : gossipConfig.getPeers()) {
+            int colon = peer.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("对端地址格式错误: " + peer);
+            }
+            peers.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+        }
+    }
+
+    private static boolean isLoopback(String host) {
+        try {
+            return InetAddress.getByName(host).isLoopbackAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("监听地址无法解析: " + host, e);
+        }
+    }
+
+    private Mac newMac() {
+        if (macKey == null) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(macKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法创建报文签名器", e);
+        }
+    }
+
+    /**
+     * 绑定端口并开始收发
+     */
+    public synchronized void start() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        senderMac = newMac();
+        receiverMac = newMac();
+        DatagramChannel opened = DatagramChannel.open();
+        opened.bind(new InetSocketAddress(gossipConfig.getBindHost(), gossipConfig.getPort()));
+        channel = opened;
+
+        Thread receiver = new Thread(() -> receive(opened), "gossip-ratelimit-receiver-" + nodeId);
+        receiver.setDaemon(true);
+        receiver.start();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "gossip-ratelimit-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = gossipConfig.getIntervalMillis();
+        scheduler.scheduleWithFixedDelay(this::broadcast, interval, interval, TimeUnit.MILLISECONDS);
+        logger.info("Gossip限流节点已启动: nodeId={}, address={}, peers={}", nodeId, opened.getLocalAddress(), peers);
+    }
+
+    /**
+     * 停止收发，已有计数保留
+     */
+    public synchronized void stop() {
+        if (channel == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("关闭Gossip通道失败: {}", e.getMessage());
+        }
+        channel = null;
+        logger.info("Gossip限流节点已停止: nodeId={}", nodeId);
+    }
+
+    /**
+     * 实际绑定的地址，未启动时为null
+     */
+    public InetSocketAddress getLocalAddress() throws IOException {
+        DatagramChannel current = channel;
+        return current == null ? null : (InetSocketAddress) current.getLocalAddress();
+    }
+
+    public void addPeer(InetSocketAddress peer) {
+        peers.add(peer);
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        long index = currentIndex();
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            ref = windows.computeIfAbsent(key, k -> new AtomicReference<>(new Window(index)));
+        }
+        boolean acquired = advance(ref, index).tryAcquire(permits, config.getLimit());
+
+        if (!acquired) {
+            rejections.increment();
+            logger.debug("限流触发: key={}, permits={}", key, permits);
+        }
+
+        return acquired;
+    }
+
+    private long currentIndex() {
+        return Math.floorDiv(System.currentTimeMillis(), windowMillis);
+    }
+
+    /**
+     * 换上不早于 index 的窗口
+     */
+    private static Window advance(AtomicReference<Window> ref, long index) {
+        Window window = ref.get();
+        while (index - window.index > 0) {
+            // 只有一个线程能换上新窗口，其余线程使用它换上的窗口
+            Window next = new Window(index);
+            window = ref.compareAndSet(window, next) ? next : ref.get();
+        }
+        return window;
+    }
+
+    /**
+     * 当前窗口内集群已放行的许可数（本节点所知）
+     */
+    public long getGlobalCount(String key) {
+        AtomicReference<Window> ref = windows.get(key);
+        if (ref == null) {
+            return 0;
+        }
+        Window window = ref.get();
+        return window.index == currentIndex() ? window.local.get() + window.remoteTotal.get() : 0;
+    }
+
+    // ---- 广播 ----
+
+    private void broadcast() {
+        try {
+            broadcast(currentIndex());
+        } catch (RuntimeException e) {
+            // 异常会终止周期任务，这里只记录
+            logger.warn("Gossip广播失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void broadcast(long index) {
+        int fullSyncRounds = gossipConfig.getFullSyncRounds();
+        boolean full = fullSyncRounds > 0 && ++rounds % fullSyncRounds == 0;
+        ByteBuffer buffer = ByteBuffer.allocate(gossipConfig.getMaxPacketSize());
+        int entries = 0;
+        begin(buffer);
+        for (Map.Entry<String, AtomicReference<Window>> entry : windows.entrySet()) {
+            Window window = entry.getValue().get();
+            if (index - window.index > 1) {
+                // 上一个窗口之前的计数不再需要
+                windows.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            long count = window.local.get();
+            if (count == 0 || (!full && count == window.sent)) {
+                continue;
+            }
+            byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (key.length > Short.MAX_VALUE || ENTRY_OVERHEAD + key.length > buffer.limit() - headerSize()) {
+                logger.debug("键过长，不参与Gossip: {}", entry.getKey());
+                continue;
+            }
+            if (buffer.remaining() < ENTRY_OVERHEAD + key.length) {
+                send(buffer, entries);
+                begin(buffer);
+                entries = 0;
+            }
+            buffer.putShort((short) key.length).put(key).putLong(window.index).putLong(count);
+            window.sent = count;
+            entries++;
+        }
+        if (entries > 0) {
+            send(buffer, entries);
+        }
+    }
+
+    private int headerSize() {
+        return 4 + 2 + nodeIdBytes.length + 2;
+    }
+
+    private void begin(ByteBuffer buffer) {
+        buffer.clear();
+        // 末尾预留签名
+        buffer.limit(buffer.capacity() - macLength);
+        buffer.putInt(MAGIC).putShort((short) nodeIdBytes.length).put(nodeIdBytes).putShort((short) 0);
+    }
+
+    private void send(ByteBuffer buffer, int entries) {
+        DatagramChannel current = channel;
+        if (current == null) {
+            return;
+        }
+        buffer.putShort(headerSize() - 2, (short) entries);
+        if (senderMac != null) {
+            buffer.limit(buffer.capacity());
+            senderMac.update(buffer.array(), 0, buffer.position());
+            buffer.put(senderMac.doFinal());
+        }
+        buffer.flip();
+        for (InetSocketAddress peer : peers) {
+            buffer.rewind();
+            try {
+                current.send(buffer, peer);
+                sentPackets.increment();
+            } catch (IOException e) {
+                logger.debug("Gossip报文发送失败: peer={}, error={}", peer, e.getMessage());
+            }
+        }
+    }
+
+    // ---- 接收 ----
+
+    private void receive(DatagramChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocate(65535);
+        while (channel.isOpen()) {
+            buffer.clear();
+            try {
+                channel.receive(buffer);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Gossip报文接收失败: {}", e.getMessage());
+                continue;
+            }
+            buffer.flip();
+            if (receiverMac != null && !verify(buffer)) {
+                droppedPackets.increment();
+                continue;
+            }
+            try {
+                handle(buffer);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                droppedPackets.increment();
+            }
+        }
+    }
+
+    /**
+     * 校验报文末尾的签名，通过后把签名从可读范围中去掉
+     */
+    private boolean verify(ByteBuffer buffer) {
+        int length = buffer.limit() - MAC_LENGTH;
+        if (length < 0) {
+            return false;
+        }
+        receiverMac.update(buffer.array(), 0, length);
+        byte[] expected = receiverMac.doFinal();
+        byte[] actual = new byte[MAC_LENGTH];
+        System.arraycopy(buffer.array(), length, actual, 0, MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return false;
+        }
+        buffer.limit(length);
+        return true;
+    }
+
+    private void handle(ByteBuffer buffer) {
+        if (buffer.getInt() != MAGIC) {
+            droppedPackets.increment();
+            return;
+        }
+        String node = readString(buffer);
+        if (nodeId.equals(node)) {
+            return;
+        }
+        receivedPackets.increment();
+        long index = currentIndex();
+        int entries = buffer.getShort();
+        for (int i = 0; i < entries; i++) {
+            String key = readString(buffer);
+            long windowIndex = buffer.getLong();
+            long count = buffer.getLong();
+            if (index - windowIndex > 0) {
+                // 已过去的窗口
+                continue;
+            }
+            if (windowIndex - index > 1) {
+                // 只容忍一个窗口的时钟偏差，更远的未来窗口会让该键在此之前一直无法计数
+                droppedEntries.increment();
+                continue;
+            }
+            AtomicReference<Window> ref = windows.get(key);
+            if (ref == null) {
+                if (windows.size() >= gossipConfig.getMaxKeys()) {
+                    droppedEntries.increment();
+                    continue;
+                }
+                ref = windows.computeIfAbsent(key, k -> new AtomicReference<>(new Window(windowIndex)));
+            }
+            Window window = advance(ref, windowIndex);
+            if (window.index == windowIndex) {
+                window.merge(node, count);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("字符串长度错误: " + length);
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    @Override
+    public RateLimiterType getType() {
+        return RateLimiterType.FIXED_WINDOW;
+    }
+
+    @Override
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+
+    public GossipRateLimitConfig getGossipConfig() {
+        return gossipConfig;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new ConcurrentHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("totalWindows", windows.size());
+        stats.put("config", config);
+        stats.put("gossipConfig", gossipConfig);
+        stats.put("peers", peers.size());
+        stats.put("sentPackets", sentPackets.sum());
+        stats.put("receivedPackets", receivedPackets.sum());
+        stats.put("droppedPackets", droppedPackets.sum());
+        stats.put("droppedEntries", droppedEntries.sum());
+        stats.put("rejections", rejections.sum());
+        return stats;
+    }
+
+    /**
+     * 单个窗口的G-Counter
+     */
+    static final class Window {
+
+        /** 窗口序号 */
+        final long index;
+
+        /** 本节点分量 */
+        final AtomicLong local = new AtomicLong();
+
+        /** 其他节点分量：nodeId -> 计数 */
+        final Map<String, AtomicLong> remote = new ConcurrentHashMap<>();
+
+        /** 其他节点分量之和 */
+        final AtomicLong remoteTotal = new AtomicLong();
+
+        /** 上次广播的本节点分量，只由广播线程访问 */
+        volatile long sent;
+
+        Window(long index) {
+            this.index = index;
+        }
+
+        boolean tryAcquire(int permits, int limit) {
+            for (;;) {
+                long current = local.get();
+                if (current + remoteTotal.get() + permits > limit) {
+                    return false;
+                }
+                if (local.compareAndSet(current, current + permits)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 按最大值合并其他节点的分量
+         */
+        void merge(String node, long count) {
+            AtomicLong component = remote.get(node);
+            if (component == null) {
+                component = remote.computeIfAbsent(node, k -> new AtomicLong());
+            }
+            for (;;) {
+                long current = component.get();
+                if (count <= current) {
+                    return;
+                }
+                if (component.compareAndSet(current, count)) {
+                    remoteTotal.addAndGet(count - current);
+                    return;
+                }
+            }
+        }
+    }
+}
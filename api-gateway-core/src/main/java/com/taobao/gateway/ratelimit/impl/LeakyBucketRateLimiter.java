@@ -0,0 +1,180 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiter;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.store.LongStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 漏桶限流器实现
+ *
+ * 桶以 limit / window 每秒的恒定速率漏出，最多容纳 capacity 个许可。每个键只保存下一个空闲出水时刻，
+ * 存放在 {@link LongStateStore} 中，键数以 maxKeys 为上限，已漏空的桶与新桶等价、槽位可直接复用。
+ * 获取许可时原子地占下一段出水时间，桶满则拒绝。
+ * maxWaitMillis 为0时不排队，未满即立即放行；大于0时为排队模式，请求等到自己的出水时刻才放行，
+ * 输出严格匀速，需要等待超过 maxWaitMillis 的请求直接拒绝。
+ * 排队模式的 {@link #tryAcquire(String, int)} 会阻塞调用线程，只应在业务线程上调用；
+ * 事件循环上应使用 {@link #reserve(String, int)} 取得等待时长后自行调度
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class LeakyBucketRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeakyBucketRateLimiter.class);
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** 拒绝时 {@link #schedule} 的返回值 */
+    private static final long REJECTED = Long.MIN_VALUE;
+
+    /** 桶存储：key哈希 -> 下一个空闲出水时刻（纳秒） */
+    private final LongStateStore buckets;
+
+    /** 限流配置 */
+    private final RateLimitConfig config;
+
+    /** 每个许可的出水间隔（纳秒） */
+    private final long interval;
+
+    /** 桶满时排在最后的许可距现在的纳秒数 */
+    private final long depthNanos;
+
+    /** 排队最长等待（纳秒），0表示不排队 */
+    private final long maxWaitNanos;
+
+    /** 占用出水时间，拒绝时保持原状态；已存在的键由存储以一次CAS写入，冲突时重算 */
+    private final LongStateStore.StateFunction scheduleFunction = (next, now, cost) -> {
+        long end = schedule(next, cost, now);
+        return end == REJECTED ? next : end;
+    };
+
+    public LeakyBucketRateLimiter() {
+        this(new RateLimitConfig());
+    }
+
+    public LeakyBucketRateLimiter(RateLimitConfig config) {
+        if (config.getLimit() <= 0 || config.getWindow() <= 0 || config.getCapacity() <= 0
+                || config.getMaxWaitMillis() < 0) {
+            throw new IllegalArgumentException("limit、window和capacity必须大于0, maxWaitMillis不能为负: " + config);
+        }
+        this.config = config;
+        this.interval = config.getWindow() * NANOS_PER_SECOND / config.getLimit();
+        this.depthNanos = config.getCapacity() * interval;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.getMaxWaitMillis());
+        this.buckets = new LongStateStore(config.getMaxKeys(), 0, config.isOffHeap());
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        long wait = reserve(key, permits);
+        if (wait > 0) {
+            park(wait);
+        }
+        return wait >= 0;
+    }
+
+    /**
+     * 预占出水时间而不等待
+     *
+     * @return 放行前需要等待的纳秒数，非排队模式恒为0；被拒绝时返回-1
+     */
+    public long reserve(String key, int permits) {
+        if (!config.isEnabled()) {
+            return 0;
+        }
+
+        long cost = permits * interval;
+        long now = System.nanoTime();
+        long previous = buckets.getAndUpdate(LongStateStore.hash(key), now, cost, scheduleFunction);
+        long wait = schedule(previous, cost, now) == REJECTED ? -1 : waitNanos(previous, now);
+
+        if (wait < 0) {
+            logger.debug("限流触发: key={}, permits={}", key, permits);
+        }
+
+        return wait;
+    }
+
+    /**
+     * @param next 下一个空闲出水时刻，键不存在时为 {@link LongStateStore#ABSENT}
+     * @return 占用 cost 纳秒出水时间后新的空闲出水时刻，桶满或等待过久时返回 {@link #REJECTED}
+     */
+    private long schedule(long next, long cost, long now) {
+        // 桶已漏空时从当前时间开始出水
+        long start = next == LongStateStore.ABSENT || next - now < 0 ? now : next;
+        long wait = start - now;
+        if (wait + cost > depthNanos || (maxWaitNanos > 0 && wait > maxWaitNanos)) {
+            return REJECTED;
+        }
+        return start + cost;
+    }
+
+    /**
+     * 排队模式下放行前需要等待的纳秒数
+     */
+    private long waitNanos(long next, long now) {
+        return maxWaitNanos == 0 || next == LongStateStore.ABSENT || next - now < 0 ? 0 : next - now;
+    }
+
+    /**
+     * 等到出水时刻，被中断时保留中断标记并立即放行，已占用的出水时间不退回
+     */
+    private static void park(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * 桶中等待出水的许可数
+     */
+    public long getQueuedPermits(String key) {
+        long now = System.nanoTime();
+        long next = buckets.get(LongStateStore.hash(key), now);
+        if (next == LongStateStore.ABSENT) {
+            return 0;
+        }
+        long ahead = next - now;
+        return ahead <= 0 ? 0 : (ahead + interval - 1) / interval;
+    }
+
+    @Override
+    public RateLimiterType getType() {
+        return RateLimiterType.LEAKY_BUCKET;
+    }
+
+    @Override
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new ConcurrentHashMap<>();
+        stats.put("totalBuckets", buckets.size());
+        stats.put("store", buckets.getStats());
+        stats.put("config", config);
+        stats.put("intervalNanos", interval);
+        stats.put("queueing", maxWaitNanos > 0);
+        return stats;
+    }
+}
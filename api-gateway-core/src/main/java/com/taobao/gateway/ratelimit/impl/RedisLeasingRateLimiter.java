@@ -0,0 +1,304 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.cache.impl.RedisConnectionFactory;
+import com.taobao.gateway.ratelimit.DistributedRateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiter;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.exceptions.JedisNoScriptException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于Redis的分布式限流器实现
+ *
+ * 集群共享的令牌桶保存在Redis中（速率 refillRate、容量 capacity），由Lua脚本原子地补充和扣减。
+ * 各节点不逐个请求访问Redis，而是一次租用一批许可在本地消耗，用完或租约过期才再次租用，
+ * Redis的往返次数约为请求数除以租约大小。租约大小按本节点对该键的观测速率调整，
+ * 覆盖 leaseWindowMillis 的流量，限制在 [minLease, maxLease] 内且不超过容量。
+ * 各节点手中未用完的租约是集群放行数量的误差上界。
+ * Redis不可用时按 failOpen 放行或拒绝，并在 retryIntervalMillis 内不再访问Redis。
+ * 租用期间会阻塞调用线程，只应在业务线程上调用
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RedisLeasingRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLeasingRateLimiter.class);
+
+    /**
+     * 租用脚本：KEYS[1] 令牌桶键；ARGV 依次为 速率（每秒）、容量、期望租用数、最少租用数、键过期时间（毫秒）。
+     * 桶中令牌不少于最少租用数时租出 min(期望租用数, 令牌数)，否则租出0
+     */
+    static final String LEASE_SCRIPT =
+            "redis.replicate_commands()\n" +
+            "local rate = tonumber(ARGV[1])\n" +
+            "local capacity = tonumber(ARGV[2])\n" +
+            "local requested = tonumber(ARGV[3])\n" +
+            "local minimum = tonumber(ARGV[4])\n" +
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')\n" +
+            "local tokens = tonumber(state[1])\n" +
+            "local ts = tonumber(state[2])\n" +
+            "if tokens == nil then\n" +
+            "  tokens = capacity\n" +
+            "  ts = now\n" +
+            "end\n" +
+            "if now > ts then\n" +
+            "  tokens = math.min(capacity, tokens + (now - ts) * rate / 1000)\n" +
+            "  ts = now\n" +
+            "end\n" +
+            "local granted = 0\n" +
+            "if tokens >= minimum then\n" +
+            "  granted = math.min(requested, math.floor(tokens))\n" +
+            "  tokens = tokens - granted\n" +
+            "end\n" +
+            "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(ts))\n" +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[5])\n" +
+            "return granted\n";
+
+    static final String LEASE_SCRIPT_SHA = sha1(LEASE_SCRIPT);
+
+    /** 本地租约：key -> 租约 */
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    /** 限流配置 */
+    private final RateLimitConfig config;
+
+    /** 分布式配置 */
+    private final DistributedRateLimitConfig distributedConfig;
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final long leaseTtlNanos;
+
+    /** 令牌桶键的过期时间：从空桶补满所需时间再加一秒 */
+    private final String keyTtlMillis;
+
+    /** 在此之前不访问Redis（纳秒） */
+    private volatile long unavailableUntil;
+
+    private final LongAdder redisCalls = new LongAdder();
+
+    private final LongAdder localAcquires = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    public RedisLeasingRateLimiter(RateLimitConfig config, DistributedRateLimitConfig distributedConfig,
+                                   RedisConnectionFactory connectionFactory) {
+        if (config.getRefillRate() <= 0 || config.getCapacity() <= 0) {
+            throw new IllegalArgumentException("refillRate和capacity必须大于0: " + config);
+        }
+        if (distributedConfig.getMinLease() <= 0 || distributedConfig.getMaxLease() < distributedConfig.getMinLease()) {
+            throw new IllegalArgumentException("租约大小配置错误: " + distributedConfig);
+        }
+        this.config = config;
+        this.distributedConfig = distributedConfig;
+        this.connectionFactory = connectionFactory;
+        this.leaseTtlNanos = TimeUnit.MILLISECONDS.toNanos(distributedConfig.getLeaseTtlMillis());
+        this.keyTtlMillis = String.valueOf(config.getCapacity() * 1000L / config.getRefillRate() + 1000);
+    }
+
+    @Override
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, int permits) {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        Lease lease = leases.get(key);
+        if (lease == null) {
+            lease = leases.computeIfAbsent(key, k -> new Lease());
+        }
+        long now = System.nanoTime();
+        if (lease.consume(permits, now)) {
+            localAcquires.increment();
+            return true;
+        }
+
+        boolean acquired;
+        synchronized (lease) {
+            // 等待期间其他线程可能已续租
+            if (lease.consume(permits, now)) {
+                localAcquires.increment();
+                return true;
+            }
+            acquired = renew(key, lease, permits, now);
+        }
+
+        if (!acquired) {
+            logger.debug("限流触发: key={}, permits={}", key, permits);
+        }
+
+        return acquired;
+    }
+
+    /**
+     * 向Redis租用一批许可，从中扣除本次所需
+     */
+    private boolean renew(String key, Lease lease, int permits, long now) {
+        if (now - unavailableUntil < 0) {
+            return unavailable();
+        }
+        if (now - lease.expiresAt >= 0) {
+            lease.permits.set(0);
+        }
+        int size = lease.nextSize(permits, now, distributedConfig, config.getCapacity());
+        long granted;
+        try (Jedis jedis = connectionFactory.getConnection()) {
+            redisCalls.increment();
+            granted = lease(jedis, distributedConfig.getKeyPrefix() + key, size, permits);
+        } catch (JedisException e) {
+            unavailableUntil = now + TimeUnit.MILLISECONDS.toNanos(distributedConfig.getRetryIntervalMillis());
+            failures.increment();
+            logger.warn("Redis限流不可用, {}ms内按{}处理: {}", distributedConfig.getRetryIntervalMillis(),
+                    distributedConfig.isFailOpen() ? "放行" : "拒绝", e.getMessage());
+            return unavailable();
+        }
+        if (granted < permits) {
+            rejections.increment();
+            return false;
+        }
+        lease.permits.addAndGet(granted - permits);
+        lease.acquired.add(permits);
+        lease.expiresAt = now + leaseTtlNanos;
+        return true;
+    }
+
+    private long lease(Jedis jedis, String redisKey, int size, int minimum) {
+        String[] keysAndArgs = {redisKey, String.valueOf(config.getRefillRate()), String.valueOf(config.getCapacity()),
+                String.valueOf(size), String.valueOf(minimum), keyTtlMillis};
+        Object result;
+        try {
+            result = jedis.evalsha(LEASE_SCRIPT_SHA, 1, keysAndArgs);
+        } catch (JedisNoScriptException e) {
+            // 脚本尚未缓存，EVAL 会同时缓存脚本
+            result = jedis.eval(LEASE_SCRIPT, 1, keysAndArgs);
+        }
+        return result instanceof Long ? (Long) result : 0;
+    }
+
+    private boolean unavailable() {
+        if (distributedConfig.isFailOpen()) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    private static String sha1(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public RateLimiterType getType() {
+        // Redis中的状态是一个集群共享的令牌桶
+        return RateLimiterType.TOKEN_BUCKET;
+    }
+
+    @Override
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+
+    public DistributedRateLimitConfig getDistributedConfig() {
+        return distributedConfig;
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new ConcurrentHashMap<>();
+        stats.put("totalLeases", leases.size());
+        stats.put("config", config);
+        stats.put("distributedConfig", distributedConfig);
+        stats.put("redisCalls", redisCalls.sum());
+        stats.put("localAcquires", localAcquires.sum());
+        stats.put("rejections", rejections.sum());
+        stats.put("failures", failures.sum());
+        stats.put("redisAvailable", System.nanoTime() - unavailableUntil >= 0);
+        return stats;
+    }
+
+    /**
+     * 本节点持有的租约
+     */
+    private static final class Lease {
+
+        /** 剩余的本地许可 */
+        private final AtomicLong permits = new AtomicLong();
+
+        /** 上次续租以来获取的许可数 */
+        private final LongAdder acquired = new LongAdder();
+
+        /** 租约过期时刻（纳秒） */
+        private volatile long expiresAt;
+
+        /** 上次续租时刻（纳秒），由租约锁保护 */
+        private long renewedAt;
+
+        /** 观测到的每秒许可数，由租约锁保护 */
+        private double rate;
+
+        boolean consume(int count, long now) {
+            if (now - expiresAt >= 0) {
+                return false;
+            }
+            for (;;) {
+                long current = permits.get();
+                if (current < count) {
+                    return false;
+                }
+                if (permits.compareAndSet(current, current - count)) {
+                    acquired.add(count);
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 按观测速率计算下一次租约大小
+         */
+        int nextSize(int permits, long now, DistributedRateLimitConfig config, int capacity) {
+            if (renewedAt != 0 && now - renewedAt > 0) {
+                double sample = acquired.sumThenReset() * 1e9 / (now - renewedAt);
+                rate = rate == 0 ? sample : (rate + sample) / 2;
+            }
+            renewedAt = now;
+            long size = (long) Math.ceil(rate * config.getLeaseWindowMillis() / 1000);
+            size = Math.max(config.getMinLease(), Math.min(config.getMaxLease(), size));
+            size = Math.min(capacity, size);
+            return (int) Math.max(permits, size);
+        }
+    }
+}
@@ -3,17 +3,24 @@ package com.taobao.gateway.ratelimit.impl;
 import com.taobao.gateway.ratelimit.RateLimitConfig;
 import com.taobao.gateway.ratelimit.RateLimiter;
 import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.WarmUp;
+import com.taobao.gateway.ratelimit.store.LongStateStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 令牌桶限流器实现
  * 
+ * 每个键只保存桶恰好为空的时刻 emptyAt：当前令牌数为 min(capacity, (now - emptyAt) / interval)，
+ * 获取许可即把 emptyAt 后移 permits 个填充间隔。状态存放在 {@link LongStateStore} 中，键数以 maxKeys 为上限，
+ * 已填满的桶与新桶等价，槽位可直接复用，高基数的键不会让内存无限增长。
+ * 配置了预热时按 {@link WarmUp} 爬坡：容量和填充速率都从满值的 coldFraction 开始，在预热时长内线性升至满值；
+ * 预热随限流器创建开始，提高限额后调用 {@link #restartWarmUp()} 重新预热
+ * 
  * @author taobao
  * @version 1.0.0
  * @since 2024-01-01
@@ -23,18 +30,39 @@ public class TokenBucketRateLimiter implements RateLimiter {
     
     private static final Logger logger = LoggerFactory.getLogger(TokenBucketRateLimiter.class);
     
-    /** 令牌桶存储：key -> 令牌桶状态 */
-    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    /** 令牌桶存储：key哈希 -> 桶为空的时刻（纳秒） */
+    private final LongStateStore buckets;
     
     /** 限流配置 */
     private final RateLimitConfig config;
     
+    /** 满速时填充一个令牌的纳秒数 */
+    private final long interval;
+    
+    /** 预热爬坡，未配置预热时为null */
+    private final WarmUp warmUp;
+    
+    /** 取出令牌，令牌不足时保持原状态 */
+    private final LongStateStore.StateFunction takeFunction = (emptyAt, now, cost) -> {
+        long next = take(emptyAt, cost, fullNanos(now), now);
+        return next - now > 0 ? emptyAt : next;
+    };
+    
     public TokenBucketRateLimiter() {
-        this.config = new RateLimitConfig();
+        this(new RateLimitConfig());
     }
     
     public TokenBucketRateLimiter(RateLimitConfig config) {
+        if (config.getRefillRate() <= 0 || config.getCapacity() <= 0) {
+            throw new IllegalArgumentException("refillRate和capacity必须大于0: " + config);
+        }
         this.config = config;
+        this.interval = NANOS_PER_SECOND / config.getRefillRate();
+        this.warmUp = WarmUp.of(config);
+        // 桶从空到满的时长与预热比例无关：容量与速率按同一比例缩放
+        this.buckets = new LongStateStore(config.getMaxKeys(), config.getCapacity() * interval, config.isOffHeap());
     }
     
     @Override
@@ -48,8 +76,10 @@ public class TokenBucketRateLimiter implements RateLimiter {
             return true;
         }
         
-        TokenBucket bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(config));
-        boolean acquired = bucket.tryAcquire(permits);
+        long now = System.nanoTime();
+        long cost = permits * fillInterval(now);
+        long previous = buckets.getAndUpdate(LongStateStore.hash(key), now, cost, takeFunction);
+        boolean acquired = take(previous, cost, fullNanos(now), now) - now <= 0;
         
         if (!acquired) {
             logger.debug("限流触发: key={}, permits={}", key, permits);
@@ -58,88 +88,88 @@ public class TokenBucketRateLimiter implements RateLimiter {
         return acquired;
     }
     
-    @Override
-    public RateLimiterType getType() {
-        return RateLimiterType.TOKEN_BUCKET;
+    /**
+     * @param emptyAt 桶为空的时刻，键不存在时为 {@link LongStateStore#ABSENT}
+     * @param fullNanos 桶从空到满的纳秒数
+     * @return 取出 cost 纳秒对应的令牌后桶为空的时刻，晚于当前时间表示令牌不足
+     */
+    private static long take(long emptyAt, long cost, long fullNanos, long now) {
+        // 令牌数不超过容量：桶为空的时刻最早为 now - fullNanos
+        long start = emptyAt == LongStateStore.ABSENT || now - emptyAt > fullNanos ? now - fullNanos : emptyAt;
+        return start + cost;
     }
     
-    @Override
-    public RateLimitConfig getConfig() {
-        return config;
+    /**
+     * 当前容量下桶从空到满的纳秒数
+     */
+    private long fullNanos(long now) {
+        return capacity(now) * fillInterval(now);
     }
     
     /**
-     * 令牌桶内部类
+     * 当前填充一个令牌的纳秒数，预热期间按比例放大
      */
-    private static class TokenBucket {
-        
-        /** 当前令牌数 */
-        private final AtomicLong tokens;
-        
-        /** 令牌桶容量 */
-        private final int capacity;
-        
-        /** 令牌填充速率（每秒） */
-        private final long refillRate;
-        
-        /** 上次填充时间 */
-        private volatile long lastRefillTime;
-        
-        public TokenBucket(RateLimitConfig config) {
-            this.capacity = config.getCapacity();
-            this.refillRate = config.getRefillRate();
-            this.tokens = new AtomicLong(capacity);
-            this.lastRefillTime = System.currentTimeMillis();
+    private long fillInterval(long now) {
+        if (warmUp == null) {
+            return interval;
         }
-        
-        public boolean tryAcquire(int permits) {
-            refillTokens();
-            
-            long currentTokens = tokens.get();
-            if (currentTokens >= permits) {
-                return tokens.addAndGet(-permits) >= 0;
-            }
-            
-            return false;
+        double fraction = warmUp.fraction(now);
+        return fraction >= 1 ? interval : (long) (interval / fraction);
+    }
+    
+    /**
+     * 当前容量，预热期间按比例缩小，至少为1
+     */
+    private long capacity(long now) {
+        if (warmUp == null) {
+            return config.getCapacity();
         }
-        
-        private void refillTokens() {
-            long now = System.currentTimeMillis();
-            long elapsed = now - lastRefillTime;
-            
-            if (elapsed > 0) {
-                // 计算需要填充的令牌数
-                long tokensToAdd = (elapsed * refillRate) / 1000;
-                
-                if (tokensToAdd > 0) {
-                    long currentTokens = tokens.get();
-                    long newTokens = Math.min(capacity, currentTokens + tokensToAdd);
-                    tokens.set(newTokens);
-                    lastRefillTime = now;
-                }
-            }
+        double fraction = warmUp.fraction(now);
+        return fraction >= 1 ? config.getCapacity() : Math.max(1, (long) (config.getCapacity() * fraction));
+    }
+    
+    /**
+     * 当前可立即获取的令牌数
+     */
+    public long getAvailablePermits(String key) {
+        long now = System.nanoTime();
+        long capacity = capacity(now);
+        long emptyAt = buckets.get(LongStateStore.hash(key), now);
+        long fill = fillInterval(now);
+        if (emptyAt == LongStateStore.ABSENT || fill == 0) {
+            return capacity;
         }
-        
-        public long getCurrentTokens() {
-            refillTokens();
-            return tokens.get();
+        return Math.max(0, Math.min(capacity, (now - emptyAt) / fill));
+    }
+    
+    /**
+     * 所有令牌桶从冷速率重新预热，提高限额后调用；未配置预热时无效果
+     */
+    public void restartWarmUp() {
+        if (warmUp != null) {
+            warmUp.restart();
         }
     }
     
+    @Override
+    public RateLimiterType getType() {
+        return RateLimiterType.TOKEN_BUCKET;
+    }
+    
+    @Override
+    public RateLimitConfig getConfig() {
+        return config;
+    }
+    
     /**
      * 获取令牌桶统计信息
      */
     public Map<String, Object> getStats() {
         Map<String, Object> stats = new ConcurrentHashMap<>();
         stats.put("totalBuckets", buckets.size());
+        stats.put("store", buckets.getStats());
         stats.put("config", config);
-        
-        // 统计当前令牌数
-        long totalTokens = buckets.values().stream()
-                .mapToLong(TokenBucket::getCurrentTokens)
-                .sum();
-        stats.put("totalTokens", totalTokens);
-        
+        stats.put("intervalNanos", interval);
         return stats;
     }
-} 
\ No newline at end of file
+}
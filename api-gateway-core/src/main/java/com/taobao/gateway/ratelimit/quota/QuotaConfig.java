@@ -0,0 +1,290 @@
+package com.taobao.gateway.ratelimit.quota;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多级配额配置
+ *
+ * 键来源写作 header:名称、query:参数名、ip、app（API密钥鉴权的应用ID）或 subject（JWT主体）。
+ * app、subject 来源下未鉴权的请求共用一个匿名键，其余来源取不到键的请求跳过该级别。
+ * rate 为每秒许可数，0表示该级别不限流；burst 为突发上限，0表示与 rate 相同
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.quota")
+public class QuotaConfig {
+
+    /**
+     * 是否启用多级配额
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否对全部请求生效，为false时只对引用了 quota 过滤器的路由或路由分组生效
+     */
+    private boolean global = false;
+
+    /**
+     * 每个级别最多保存状态的键数
+     */
+    private int maxKeys = 1_000_000;
+
+    /**
+     * 键状态表是否放在堆外
+     */
+    private boolean offHeap = false;
+
+    /**
+     * 全局配额
+     */
+    private Limit globalLimit = new Limit();
+
+    /**
+     * 租户配额，默认按鉴权得到的应用ID区分，不信任客户端自报的请求头
+     */
+    private Limit tenant = new Limit("app");
+
+    /**
+     * 用户配额，默认按JWT主体区分，未匹配路由规则或规则未单独配置时使用
+     */
+    private Limit user = new Limit("subject");
+
+    /**
+     * 路由配额，按路径前缀匹配，前缀最长的规则生效
+     */
+    private List<Route> routes = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public Limit getGlobalLimit() {
+        return globalLimit;
+    }
+
+    public void setGlobalLimit(Limit globalLimit) {
+        this.globalLimit = globalLimit;
+    }
+
+    public Limit getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(Limit tenant) {
+        this.tenant = tenant;
+    }
+
+    public Limit getUser() {
+        return user;
+    }
+
+    public void setUser(Limit user) {
+        this.user = user;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    @Override
+    public String toString() {
+        return "QuotaConfig{" +
+                "enabled=" + enabled +
+                ", global=" + global +
+                ", maxKeys=" + maxKeys +
+                ", offHeap=" + offHeap +
+                ", globalLimit=" + globalLimit +
+                ", tenant=" + tenant +
+                ", user=" + user +
+                ", routes=" + routes +
+                '}';
+    }
+
+    /**
+     * 单个级别的配额
+     */
+    public static class Limit {
+
+        /**
+         * 每秒许可数，0表示不限流
+         */
+        private int rate;
+
+        /**
+         * 突发上限，0表示与 rate 相同
+         */
+        private int burst;
+
+        /**
+         * 键来源
+         */
+        private String key;
+
+        public Limit() {
+        }
+
+        public Limit(String key) {
+            this.key = key;
+        }
+
+        public Limit(int rate, int burst, String key) {
+            this.rate = rate;
+            this.burst = burst;
+            this.key = key;
+        }
+
+        public int getRate() {
+            return rate;
+        }
+
+        public void setRate(int rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String toString() {
+            return "Limit{" +
+                    "rate=" + rate +
+                    ", burst=" + burst +
+                    ", key='" + key + '\'' +
+                    '}';
+        }
+    }
+
+    /**
+     * 路由配额规则
+     */
+    public static class Route {
+
+        /**
+         * 请求路径前缀
+         */
+        private String path;
+
+        /**
+         * 请求方法，为空时匹配所有方法
+         */
+        private String method;
+
+        /**
+         * 该路由的总配额
+         */
+        private int rate;
+
+        /**
+         * 该路由的突发上限，0表示与 rate 相同
+         */
+        private int burst;
+
+        /**
+         * 该路由上每个用户的配额，为空时使用默认用户配额；未配置键来源时沿用默认用户配额的键来源
+         */
+        private Limit user;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public int getRate() {
+            return rate;
+        }
+
+        public void setRate(int rate) {
+            this.rate = rate;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public Limit getUser() {
+            return user;
+        }
+
+        public void setUser(Limit user) {
+            this.user = user;
+        }
+
+        @Override
+        public String toString() {
+            return "Route{" +
+                    "path='" + path + '\'' +
+                    ", method='" + method + '\'' +
+                    ", rate=" + rate +
+                    ", burst=" + burst +
+                    ", user=" + user +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.taobao.gateway.ratelimit.quota;
+
+/**
+ * 一次配额判定的结果
+ *
+ * 放行时记录剩余额度最少的级别，拒绝时记录拒绝的级别。实例可按线程复用，判定前会被重置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class QuotaDecision {
+
+    private boolean allowed;
+
+    private QuotaLevel level;
+
+    private long limit;
+
+    private long remaining;
+
+    private long resetNanos;
+
+    private long retryAfterNanos;
+
+    /** 已获取许可的各级别键哈希，用于回滚 */
+    final long[] acquired = new long[QuotaLevel.values().length];
+
+    void reset() {
+        allowed = true;
+        level = null;
+        limit = 0;
+        remaining = Long.MAX_VALUE;
+        resetNanos = 0;
+        retryAfterNanos = 0;
+    }
+
+    void track(QuotaLevel level, long limit, long remaining, long resetNanos) {
+        if (remaining < this.remaining) {
+            this.level = level;
+            this.limit = limit;
+            this.remaining = remaining;
+            this.resetNanos = resetNanos;
+        }
+    }
+
+    void reject(QuotaLevel level, long limit, long retryAfterNanos) {
+        this.allowed = false;
+        this.level = level;
+        this.limit = limit;
+        this.remaining = 0;
+        this.resetNanos = retryAfterNanos;
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    /**
+     * @return 拒绝的级别，放行时为剩余额度最少的级别，没有任何级别生效时为null
+     */
+    public QuotaLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * 该级别的突发上限
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getRemaining() {
+        return level == null ? 0 : remaining;
+    }
+
+    /**
+     * 该级别额度完全恢复还需的纳秒数
+     */
+    public long getResetNanos() {
+        return resetNanos;
+    }
+
+    /**
+     * 被拒绝时还需等待的纳秒数
+     */
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "QuotaDecision{" +
+                "allowed=" + allowed +
+                ", level=" + level +
+                ", limit=" + limit +
+                ", remaining=" + getRemaining() +
+                ", resetNanos=" + resetNanos +
+                ", retryAfterNanos=" + retryAfterNanos +
+                '}';
+    }
+}
@@ -0,0 +1,213 @@
+package com.taobao.gateway.ratelimit.quota;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.impl.GcraRateLimiter;
+import io.netty.handler.codec.http.FullHttpRequest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多级配额判定器
+ *
+ * 按 全局 → 租户 → 路由 → 用户 的顺序一次判定全部级别，每级是一个以键哈希寻址的 {@link GcraRateLimiter}。
+ * 某一级拒绝时退回前面各级已获取的许可，被拒绝的请求不消耗任何级别的额度。
+ * 各级依次获取而非同时加锁，并发请求可能短暂看到前一级已扣减、后一级尚未回滚的额度，只会偏向拒绝。
+ * 路由规则和键提取器在构造时编译，判定过程不分配对象
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class QuotaEvaluator {
+
+    private static final Stage[] NO_STAGES = new Stage[0];
+
+    private final QuotaConfig config;
+
+    /** 未匹配路由规则时的判定级别 */
+    private final Stage[] defaultStages;
+
+    /** 按路径前缀长度降序排列的路由规则 */
+    private final CompiledRoute[] routes;
+
+    private final LongAdder[] rejections = new LongAdder[QuotaLevel.values().length];
+
+    /**
+     * @throws IllegalArgumentException 配置错误
+     */
+    public QuotaEvaluator(QuotaConfig config) {
+        this.config = config;
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+        Stage global = stage(QuotaLevel.GLOBAL, config.getGlobalLimit(), QuotaKey.constant("global"));
+        Stage tenant = stage(QuotaLevel.TENANT, config.getTenant(), null);
+        Stage user = stage(QuotaLevel.USER, config.getUser(), null);
+        this.defaultStages = stages(global, tenant, null, user);
+
+        List<CompiledRoute> compiled = new ArrayList<>(config.getRoutes().size());
+        for (QuotaConfig.Route route : config.getRoutes()) {
+            if (route.getPath() == null) {
+                throw new IllegalArgumentException("配额规则缺少路径: " + route);
+            }
+            Stage routeStage = stage(QuotaLevel.ROUTE,
+                    new QuotaConfig.Limit(route.getRate(), route.getBurst(), null), QuotaKey.constant(route.getPath()));
+            Stage routeUser = user;
+            if (route.getUser() != null) {
+                QuotaConfig.Limit limit = route.getUser();
+                if (limit.getKey() == null) {
+                    limit = new QuotaConfig.Limit(limit.getRate(), limit.getBurst(), config.getUser().getKey());
+                }
+                routeUser = stage(QuotaLevel.USER, limit, null);
+            }
+            compiled.add(new CompiledRoute(route.getPath(), route.getMethod(), stages(global, tenant, routeStage, routeUser)));
+        }
+        compiled.sort(Comparator.comparingInt((CompiledRoute route) -> route.path.length()).reversed());
+        this.routes = compiled.toArray(new CompiledRoute[0]);
+    }
+
+    private Stage stage(QuotaLevel level, QuotaConfig.Limit limit, QuotaKey key) {
+        if (limit == null || limit.getRate() <= 0) {
+            return null;
+        }
+        RateLimitConfig limiterConfig = new RateLimitConfig(level.getCode(), RateLimiterType.GCRA, limit.getRate());
+        limiterConfig.setRefillRate(limit.getRate());
+        limiterConfig.setCapacity(limit.getBurst() > 0 ? limit.getBurst() : limit.getRate());
+        limiterConfig.setMaxKeys(key != null ? 1 : config.getMaxKeys());
+        limiterConfig.setOffHeap(config.isOffHeap());
+        return new Stage(level, new GcraRateLimiter(limiterConfig), key != null ? key : QuotaKey.parse(limit.getKey()),
+                limiterConfig.getCapacity());
+    }
+
+    private static Stage[] stages(Stage... candidates) {
+        List<Stage> stages = new ArrayList<>(candidates.length);
+        for (Stage stage : candidates) {
+            if (stage != null) {
+                stages.add(stage);
+            }
+        }
+        return stages.isEmpty() ? NO_STAGES : stages.toArray(new Stage[0]);
+    }
+
+    /**
+     * 判定请求能否放行，放行时已从各级扣减一个许可
+     *
+     * @param decision 判定结果，会被重置后填充
+     * @return 是否放行
+     */
+    public boolean evaluate(FullHttpRequest request, QuotaDecision decision) {
+        decision.reset();
+        Stage[] stages = match(request);
+        if (stages.length == 0) {
+            return true;
+        }
+        long[] acquired = decision.acquired;
+        long now = System.nanoTime();
+        for (int i = 0; i < stages.length; i++) {
+            Stage stage = stages[i];
+            long keyHash = stage.key.hash(request);
+            acquired[i] = keyHash;
+            if (keyHash == 0) {
+                continue;
+            }
+            long ahead = stage.limiter.reserve(keyHash, 1, now);
+            if (ahead < 0) {
+                rollback(stages, acquired, i, now);
+                decision.reject(stage.level, stage.burst, -ahead);
+                rejections[stage.level.ordinal()].increment();
+                return false;
+            }
+            decision.track(stage.level, stage.burst, stage.limiter.remainingPermits(ahead), ahead);
+        }
+        return true;
+    }
+
+    private static void rollback(Stage[] stages, long[] acquired, int count, long now) {
+        for (int i = 0; i < count; i++) {
+            if (acquired[i] != 0) {
+                stages[i].limiter.release(acquired[i], 1, now);
+            }
+        }
+    }
+
+    private Stage[] match(FullHttpRequest request) {
+        String uri = request.uri();
+        for (CompiledRoute route : routes) {
+            if (uri.startsWith(route.path) && (route.method == null || route.method.equalsIgnoreCase(request.method().name()))) {
+                return route.stages;
+            }
+        }
+        return defaultStages;
+    }
+
+    /**
+     * 各级别被拒绝的次数
+     */
+    public long getRejectedCount(QuotaLevel level) {
+        return rejections[level.ordinal()].sum();
+    }
+
+    /**
+     * 获取统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (QuotaLevel level : QuotaLevel.values()) {
+            stats.put(level.getCode() + "Rejected", getRejectedCount(level));
+        }
+        stats.put("routes", routes.length);
+        for (Stage stage : defaultStages) {
+            stats.put(stage.level.getCode() + "Store", stage.limiter.getStats().get("store"));
+        }
+        return stats;
+    }
+
+    public QuotaConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * 一个判定级别
+     */
+    private static final class Stage {
+
+        private final QuotaLevel level;
+
+        private final GcraRateLimiter limiter;
+
+        private final QuotaKey key;
+
+        private final long burst;
+
+        Stage(QuotaLevel level, GcraRateLimiter limiter, QuotaKey key, long burst) {
+            this.level = level;
+            this.limiter = limiter;
+            this.key = key;
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * 编译后的路由配额规则
+     */
+    private static final class CompiledRoute {
+
+        private final String path;
+
+        private final String method;
+
+        private final Stage[] stages;
+
+        CompiledRoute(String path, String method, Stage[] stages) {
+            this.path = path;
+            this.method = method == null || method.isEmpty() ? null : method;
+            this.stages = stages;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.taobao.gateway.ratelimit.quota;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AsciiString;
+import io.netty.util.CharsetUtil;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多级配额过滤器
+ *
+ * 以 {@link QuotaEvaluator} 判定请求，拒绝时返回429并注明拒绝的级别；
+ * 放行的响应带上剩余额度最少的级别的 X-RateLimit-* 响应头
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class QuotaFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuotaFilter.class);
+
+    public static final String NAME = "quota";
+
+    public static final AsciiString X_RATE_LIMIT_LIMIT = AsciiString.cached("X-RateLimit-Limit");
+
+    public static final AsciiString X_RATE_LIMIT_REMAINING = AsciiString.cached("X-RateLimit-Remaining");
+
+    public static final AsciiString X_RATE_LIMIT_RESET = AsciiString.cached("X-RateLimit-Reset");
+
+    public static final AsciiString X_RATE_LIMIT_SCOPE = AsciiString.cached("X-RateLimit-Scope");
+
+    private static final FastThreadLocal<QuotaDecision> DECISIONS = new FastThreadLocal<QuotaDecision>() {
+        @Override
+        protected QuotaDecision initialValue() {
+            return new QuotaDecision();
+        }
+    };
+
+    private final QuotaConfig config;
+
+    private final QuotaEvaluator evaluator;
+
+    @Autowired(required = false)
+    private DefaultFilterChain filterChain;
+
+    @Autowired
+    public QuotaFilter(QuotaConfig config) {
+        this.config = config;
+        this.evaluator = new QuotaEvaluator(config);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled() || filterChain == null) {
+            return;
+        }
+        if (config.isGlobal()) {
+            filterChain.addFilter(this);
+        } else {
+            filterChain.registerFilter(this);
+        }
+        logger.info("多级配额已启用: {}", config);
+    }
+
+    @Override
+    public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+        QuotaDecision decision = DECISIONS.get();
+        if (!evaluator.evaluate(request, decision)) {
+            logger.debug("配额不足: {} - {}", request.uri(), decision);
+            RequestContext context = RequestContext.current();
+            if (context != null) {
+                context.setStatus(RequestContext.RequestStatus.RATE_LIMITED);
+                context.setRateLimitInfo(new RequestContext.RateLimitInfo(true, decision.getLevel().getCode(),
+                        0, (int) Math.min(Integer.MAX_VALUE, decision.getLimit())));
+            }
+            return tooManyRequests(decision);
+        }
+        if (decision.getLevel() == null) {
+            return chain.doFilter(request);
+        }
+        // 后续过滤器可能在同一线程上复用判定结果，先取出需要的值
+        QuotaLevel level = decision.getLevel();
+        long limit = decision.getLimit();
+        long remaining = decision.getRemaining();
+        long resetNanos = decision.getResetNanos();
+
+        FullHttpResponse response = chain.doFilter(request);
+        if (response != null) {
+            setHeaders(response.headers(), level, limit, remaining, resetNanos);
+        }
+        return response;
+    }
+
+    private static FullHttpResponse tooManyRequests(QuotaDecision decision) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.TOO_MANY_REQUESTS, Unpooled.copiedBuffer("Too Many Requests", CharsetUtil.UTF_8));
+        HttpHeaders headers = response.headers();
+        headers.set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        headers.set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        setHeaders(headers, decision.getLevel(), decision.getLimit(), 0, decision.getRetryAfterNanos());
+        headers.set(HttpHeaderNames.RETRY_AFTER, seconds(decision.getRetryAfterNanos()));
+        return response;
+    }
+
+    private static void setHeaders(HttpHeaders headers, QuotaLevel level, long limit, long remaining, long resetNanos) {
+        headers.set(X_RATE_LIMIT_LIMIT, limit);
+        headers.set(X_RATE_LIMIT_REMAINING, remaining);
+        headers.set(X_RATE_LIMIT_RESET, seconds(resetNanos));
+        headers.set(X_RATE_LIMIT_SCOPE, level.getCode());
+    }
+
+    /**
+     * 向上取整到秒
+     */
+    private static long seconds(long nanos) {
+        return nanos >= Long.MAX_VALUE - 999_999_999L ? TimeUnit.NANOSECONDS.toSeconds(nanos)
+                : (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    public QuotaEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    @Override
+    public int getOrder() {
+        // 在鉴权之后执行，未通过鉴权的请求不消耗租户配额
+        return 160;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
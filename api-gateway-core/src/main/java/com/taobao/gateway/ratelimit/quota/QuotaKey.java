@@ -0,0 +1,238 @@
+package com.taobao.gateway.ratelimit.quota;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.auth.ApiKeyAuthFilter;
+import com.taobao.gateway.filter.auth.JwtClaims;
+import com.taobao.gateway.ratelimit.store.LongStateStore;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.util.AsciiString;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * 配额键提取器
+ *
+ * 由 header:名称、query:参数名、ip、app、subject 等声明编译而成，直接在请求头、URI、连接地址
+ * 或鉴权结果上计算键哈希，不创建键字符串。app 取API密钥鉴权得到的应用ID，subject 取JWT主体，
+ * 都读自请求上下文，客户端无法伪造；未通过鉴权的请求共用一个匿名键。其余来源取不到键时返回0，
+ * 调用方跳过该级别。热点键检测也以同样的声明提取键，但它在鉴权之前执行，不接受 app、subject
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class QuotaKey {
+
+    private enum Source {
+        CONSTANT, HEADER, QUERY, IP, APP, SUBJECT
+    }
+
+    /**
+     * 没有鉴权身份时展示的键
+     */
+    public static final String ANONYMOUS = "anonymous";
+
+    /**
+     * 没有鉴权身份的请求共用的键哈希，取空串的哈希，不会与任何非空身份相同
+     */
+    private static final long ANONYMOUS_HASH = nonZero(LongStateStore.hash(""));
+
+    private final Source source;
+
+    private final AsciiString header;
+
+    private final String parameter;
+
+    private final long constant;
+
+    private QuotaKey(Source source, AsciiString header, String parameter, long constant) {
+        this.source = source;
+        this.header = header;
+        this.parameter = parameter;
+        this.constant = constant;
+    }
+
+    /**
+     * 所有请求共用一个键
+     */
+    static QuotaKey constant(String key) {
+        return new QuotaKey(Source.CONSTANT, null, null, nonZero(LongStateStore.hash(key)));
+    }
+
+    /**
+     * 解析键来源声明
+     *
+     * @throws IllegalArgumentException 声明格式错误
+     */
+    public static QuotaKey parse(String spec) {
+        if (spec == null || spec.isEmpty()) {
+            throw new IllegalArgumentException("配额键来源为空");
+        }
+        if ("ip".equalsIgnoreCase(spec)) {
+            return new QuotaKey(Source.IP, null, null, 0);
+        }
+        if ("app".equalsIgnoreCase(spec)) {
+            return new QuotaKey(Source.APP, null, null, 0);
+        }
+        if ("subject".equalsIgnoreCase(spec)) {
+            return new QuotaKey(Source.SUBJECT, null, null, 0);
+        }
+        int colon = spec.indexOf(':');
+        String name = colon < 0 ? "" : spec.substring(colon + 1).trim();
+        if (!name.isEmpty()) {
+            String type = spec.substring(0, colon).trim();
+            if ("header".equalsIgnoreCase(type)) {
+                return new QuotaKey(Source.HEADER, AsciiString.cached(name), null, 0);
+            }
+            if ("query".equalsIgnoreCase(type)) {
+                return new QuotaKey(Source.QUERY, null, name, 0);
+            }
+        }
+        throw new IllegalArgumentException("无法识别的配额键来源: " + spec + ", 应为 header:名称、query:参数名、ip、app 或 subject");
+    }
+
+    /**
+     * 键是否取自鉴权结果（app、subject），只能在鉴权过滤器之后使用
+     */
+    public boolean isIdentity() {
+        return source == Source.APP || source == Source.SUBJECT;
+    }
+
+    /**
+     * 键哈希是否为未鉴权请求共用的匿名键
+     */
+    public static boolean isAnonymous(long hash) {
+        return hash == ANONYMOUS_HASH;
+    }
+
+    /**
+     * @return 键哈希，取不到键时返回0（app、subject 来源返回匿名键）
+     */
+    public long hash(FullHttpRequest request) {
+        switch (source) {
+            case CONSTANT:
+                return constant;
+            case HEADER:
+                String value = request.headers().get(header);
+                return value == null || value.isEmpty() ? 0 : nonZero(LongStateStore.hash(value));
+            case QUERY:
+                return queryHash(request.uri());
+            case IP:
+                return ipHash();
+            case APP:
+                return identityHash(appId());
+            case SUBJECT:
+                return identityHash(subject());
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * 取出键的原文，用于展示，取不到键时返回null
+     */
+    public String value(FullHttpRequest request) {
+        switch (source) {
+            case HEADER:
+                String value = request.headers().get(header);
+                return value == null || value.isEmpty() ? null : value;
+            case QUERY:
+                String uri = request.uri();
+                int start = queryValueStart(uri);
+                int end = start < 0 ? start : queryValueEnd(uri, start);
+                return start == end ? null : uri.substring(start, end);
+            case IP:
+                InetAddress inet = clientAddress();
+                return inet == null ? null : inet.getHostAddress();
+            case APP:
+                return identityValue(appId());
+            case SUBJECT:
+                return identityValue(subject());
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 在URI上定位参数值并计算哈希，值按原文（未解码）计算
+     */
+    private long queryHash(String uri) {
+        int start = queryValueStart(uri);
+        if (start < 0) {
+            return 0;
+        }
+        int end = queryValueEnd(uri, start);
+        return start == end ? 0 : nonZero(LongStateStore.hash(uri, start, end));
+    }
+
+    /**
+     * @return 参数值的起始下标，没有该参数时返回-1
+     */
+    private int queryValueStart(String uri) {
+        int i = uri.indexOf('?') + 1;
+        if (i == 0) {
+            return -1;
+        }
+        int length = uri.length();
+        int nameLength = parameter.length();
+        while (i < length) {
+            int end = queryValueEnd(uri, i);
+            int valueStart = i + nameLength;
+            if (valueStart < end && uri.charAt(valueStart) == '=' && uri.startsWith(parameter, i)) {
+                return valueStart + 1;
+            }
+            i = end + 1;
+        }
+        return -1;
+    }
+
+    private static int queryValueEnd(String uri, int start) {
+        int end = uri.indexOf('&', start);
+        return end < 0 ? uri.length() : end;
+    }
+
+    private static long ipHash() {
+        InetAddress inet = clientAddress();
+        // 按完整的地址字节计算，IPv6地址不会被折叠为32位
+        return inet == null ? 0 : nonZero(LongStateStore.hash(inet.getAddress()));
+    }
+
+    private static long identityHash(String identity) {
+        return identity == null || identity.isEmpty() ? ANONYMOUS_HASH : nonZero(LongStateStore.hash(identity));
+    }
+
+    private static String identityValue(String identity) {
+        return identity == null || identity.isEmpty() ? ANONYMOUS : identity;
+    }
+
+    /**
+     * API密钥鉴权得到的应用ID
+     */
+    private static String appId() {
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getAttribute(ApiKeyAuthFilter.APP_ID) : null;
+    }
+
+    /**
+     * JWT鉴权得到的主体
+     */
+    private static String subject() {
+        RequestContext context = RequestContext.current();
+        JwtClaims claims = context != null ? context.getAttribute(JwtClaims.ATTRIBUTE) : null;
+        return claims != null ? claims.getSubject() : null;
+    }
+
+    private static InetAddress clientAddress() {
+        RequestContext context = RequestContext.current();
+        Channel channel = context != null ? context.getClientChannel() : null;
+        SocketAddress address = channel != null ? channel.remoteAddress() : null;
+        return address instanceof InetSocketAddress ? ((InetSocketAddress) address).getAddress() : null;
+    }
+
+    private static long nonZero(long hash) {
+        return hash == 0 ? 1 : hash;
+    }
+}
@@ -0,0 +1,41 @@
+package com.taobao.gateway.ratelimit.quota;
+
+/**
+ * 配额级别，按声明顺序由外到内依次判定
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum QuotaLevel {
+
+    /**
+     * 网关全局
+     */
+    GLOBAL("global"),
+
+    /**
+     * 租户（应用）
+     */
+    TENANT("tenant"),
+
+    /**
+     * 路由
+     */
+    ROUTE("route"),
+
+    /**
+     * 用户
+     */
+    USER("user");
+
+    private final String code;
+
+    QuotaLevel(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
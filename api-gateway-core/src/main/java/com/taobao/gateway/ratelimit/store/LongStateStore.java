@@ -0,0 +1,447 @@
+package com.taobao.gateway.ratelimit.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 按键存放单个long状态的紧凑存储
+ *
+ * 面向按IP、按用户等海量键的限流：每个键只占16字节（64位键哈希 + 64位状态），
+ * 存放在按哈希分段的开放寻址表中，不为每个键创建对象，可选放在堆外。
+ * 状态必须是纳秒时间戳式的值（如GCRA的理论到达时间、漏桶的下一个出水时刻），
+ * 满足 now - state >= idleNanos 时视为空闲，与不存在等价，其槽位可直接复用。
+ *
+ * 槽位从不删除，键总能在起始位置之后 {@link #MAX_PROBE} 个槽位内找到，查找不会退化。
+ * 分段填充超过3/4或探测范围已满时扩容一倍，直到 maxKeys 决定的上限；到达上限后新键优先复用探测范围内的空闲槽位，
+ * 没有空闲槽位时淘汰其中状态最小（最久不活跃）的键，被淘汰的键相当于重新开始计数。
+ * 因此内存占用有确定的上界，与实际出现过多少个键无关。
+ * 不同的键恰好哈希相同时共享同一状态，在千万级键下概率可以忽略。
+ *
+ * 已存在的键的读取和更新不加锁：找到槽位后以一次CAS替换状态，冲突时重新计算。
+ * 新建键、复用或淘汰槽位以及扩容在分段锁内进行；槽位改派给其他键或随扩容迁移前先把状态冻结，
+ * 并发的无锁更新遇到冻结的状态时转入加锁路径，因此不会写到已改派或已废弃的槽位上
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class LongStateStore {
+
+    /** 键不存在时传给状态函数、由查询返回的状态 */
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    /** 单个键最多探测的槽位数 */
+    static final int MAX_PROBE = 16;
+
+    private static final long EMPTY = 0;
+
+    /**
+     * 槽位被冻结时的状态，与 {@link #ABSENT} 相同，不会作为合法状态写入
+     */
+    private static final long FROZEN = ABSENT;
+
+    /** 以本机字节序按long访问表，支持volatile读写与CAS，堆内外的表通用 */
+    private static final VarHandle SLOTS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int SLOT_BYTES = 16;
+
+    private static final int INITIAL_SLOTS = 64;
+
+    private static final int MIN_SEGMENTS = 16;
+
+    private static final int MAX_SEGMENTS = 256;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+    private final long idleNanos;
+
+    private final boolean offHeap;
+
+    private final long maxKeys;
+
+    /**
+     * 状态更新函数，只应依赖参数计算新状态：并发更新同一个键时可能被重复调用，以最后一次成功写入的结果为准
+     */
+    @FunctionalInterface
+    public interface StateFunction {
+
+        /**
+         * @param state 当前状态，键不存在或已空闲时为 {@link #ABSENT}
+         * @param now 当前时间（纳秒）
+         * @param arg 调用方参数
+         * @return 新状态，返回 {@link #ABSENT} 表示不创建该键
+         */
+        long apply(long state, long now, long arg);
+    }
+
+    /**
+     * @param maxKeys 最多保存的键数，决定内存上限
+     * @param idleNanos 状态落后当前时间超过该值即视为空闲
+     * @param offHeap 是否把表放在堆外
+     */
+    public LongStateStore(long maxKeys, long idleNanos, boolean offHeap) {
+        if (maxKeys <= 0 || idleNanos < 0) {
+            throw new IllegalArgumentException("maxKeys必须大于0, idleNanos不能为负: " + maxKeys + ", " + idleNanos);
+        }
+        int segmentCount = (int) Math.min(MAX_SEGMENTS, Math.max(MIN_SEGMENTS, powerOfTwo(maxKeys / 4096)));
+        // 负载因子3/4，每段至少容纳一个完整的探测范围
+        long slotsPerSegment = Math.max(MAX_PROBE, powerOfTwo((maxKeys * 4 / 3 + segmentCount - 1) / segmentCount));
+        if (slotsPerSegment * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxKeys过大: " + maxKeys);
+        }
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment((int) Math.min(INITIAL_SLOTS, slotsPerSegment), (int) slotsPerSegment, offHeap);
+        }
+        this.segmentMask = segmentCount - 1;
+        this.idleNanos = idleNanos;
+        this.offHeap = offHeap;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 计算键的64位哈希，不分配对象
+     */
+    public static long hash(CharSequence key) {
+        return hash(key, 0, key.length());
+    }
+
+    /**
+     * 计算键中 [start, end) 部分的64位哈希，与把该部分取为子串后的哈希相同
+     */
+    public static long hash(CharSequence key, int start, int end) {
+        long h = 0x9E3779B97F4A7C15L ^ (end - start);
+        for (int i = start; i < end; i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * 计算字节序列的64位哈希，与字符键使用同一哈希函数
+     */
+    public static long hash(byte[] key) {
+        long h = 0x9E3779B97F4A7C15L ^ key.length;
+        for (byte b : key) {
+            h = (h ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * 把任意long打散为64位哈希
+     */
+    public static long mix(long h) {
+        // MurmurHash3 fmix64
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 读取状态
+     *
+     * @return 当前状态，不存在或已空闲时返回 {@link #ABSENT}
+     */
+    public long get(long keyHash, long now) {
+        long h = keyHash == EMPTY ? 1 : keyHash;
+        return segment(h).get(h, now, idleNanos);
+    }
+
+    /**
+     * 原子地以状态函数更新键的状态
+     *
+     * @return 更新前的状态，不存在或已空闲时返回 {@link #ABSENT}
+     */
+    public long getAndUpdate(long keyHash, long now, long arg, StateFunction function) {
+        long h = keyHash == EMPTY ? 1 : keyHash;
+        return segment(h).getAndUpdate(h, now, arg, function, idleNanos);
+    }
+
+    private Segment segment(long h) {
+        // 分段取高位，段内位置取低位，两者互不相关
+        return segments[(int) (h >>> 40) & segmentMask];
+    }
+
+    /**
+     * 已占用的槽位数，包含尚未被复用的空闲键
+     */
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * 当前分配的表占用的字节数
+     */
+    public long memoryBytes() {
+        long slots = 0;
+        for (Segment segment : segments) {
+            slots += segment.slots();
+        }
+        return slots * SLOT_BYTES;
+    }
+
+    /**
+     * 获取统计信息，只汇总各分段的计数，不遍历槽位
+     */
+    public Map<String, Object> getStats() {
+        long size = 0;
+        long slots = 0;
+        long maxSlots = 0;
+        long reclaimed = 0;
+        long evictions = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+            slots += segment.slots();
+            maxSlots += segment.maxSlots;
+            reclaimed += segment.reclaimed;
+            evictions += segment.evictions;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxKeys", maxKeys);
+        stats.put("segments", segments.length);
+        stats.put("memoryBytes", slots * SLOT_BYTES);
+        stats.put("maxMemoryBytes", maxSlots * SLOT_BYTES);
+        stats.put("offHeap", offHeap);
+        stats.put("reclaimed", reclaimed);
+        stats.put("evictions", evictions);
+        return stats;
+    }
+
+    private static long powerOfTwo(long n) {
+        return n <= 1 ? 1 : Long.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * 分段：线性探测的开放寻址表，槽位 i 占用第 16i 字节起的键哈希和第 16i+8 字节起的状态。
+     * 键只在分段锁内写入；状态在锁外以CAS更新，在锁内冻结后改写
+     */
+    private static final class Segment {
+
+        private final int maxSlots;
+
+        private final boolean offHeap;
+
+        /** 当前的表，扩容时整体替换，旧表的槽位全部冻结 */
+        private volatile ByteBuffer table;
+
+        private volatile int size;
+
+        /** 复用空闲键槽位的次数 */
+        private volatile long reclaimed;
+
+        /** 淘汰活跃键的次数 */
+        private volatile long evictions;
+
+        Segment(int slots, int maxSlots, boolean offHeap) {
+            this.maxSlots = maxSlots;
+            this.offHeap = offHeap;
+            this.table = allocate(slots, offHeap);
+        }
+
+        int slots() {
+            return table.capacity() / SLOT_BYTES;
+        }
+
+        long get(long h, long now, long idleNanos) {
+            ByteBuffer t = table;
+            int mask = t.capacity() / SLOT_BYTES - 1;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int offset = ((int) (h + i) & mask) * SLOT_BYTES;
+                long key = (long) SLOTS.getVolatile(t, offset);
+                if (key == h) {
+                    long state = (long) SLOTS.getVolatile(t, offset + 8);
+                    if (state == FROZEN || (long) SLOTS.getVolatile(t, offset) != h) {
+                        synchronized (this) {
+                            return get(h, now, idleNanos);
+                        }
+                    }
+                    return now - state >= idleNanos ? ABSENT : state;
+                }
+                if (key == EMPTY) {
+                    break;
+                }
+            }
+            return ABSENT;
+        }
+
+        /**
+         * 键已在当前表中时以CAS更新，否则进入加锁路径
+         */
+        long getAndUpdate(long h, long now, long arg, StateFunction function, long idleNanos) {
+            ByteBuffer t = table;
+            int mask = t.capacity() / SLOT_BYTES - 1;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int offset = ((int) (h + i) & mask) * SLOT_BYTES;
+                long key = (long) SLOTS.getVolatile(t, offset);
+                if (key == h) {
+                    for (;;) {
+                        long stored = (long) SLOTS.getVolatile(t, offset + 8);
+                        // 读到状态后键仍未改派，状态才属于该键
+                        if (stored == FROZEN || (long) SLOTS.getVolatile(t, offset) != h) {
+                            break;
+                        }
+                        long state = now - stored >= idleNanos ? ABSENT : stored;
+                        long next = function.apply(state, now, arg);
+                        if (next == state || next == ABSENT
+                                || SLOTS.compareAndSet(t, offset + 8, stored, next)) {
+                            return state;
+                        }
+                    }
+                    break;
+                }
+                if (key == EMPTY) {
+                    break;
+                }
+            }
+            synchronized (this) {
+                return lockedGetAndUpdate(h, now, arg, function, idleNanos);
+            }
+        }
+
+        private long lockedGetAndUpdate(long h, long now, long arg, StateFunction function, long idleNanos) {
+            ByteBuffer t = table;
+            int mask = t.capacity() / SLOT_BYTES - 1;
+            int reuse = -1;
+            int victim = -1;
+            long victimState = Long.MAX_VALUE;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int index = (int) (h + i) & mask;
+                int offset = index * SLOT_BYTES;
+                long key = (long) SLOTS.get(t, offset);
+                if (key == h) {
+                    // 锁内不会改派该槽位，但仍可能与无锁更新竞争
+                    for (;;) {
+                        long stored = (long) SLOTS.getVolatile(t, offset + 8);
+                        long state = now - stored >= idleNanos ? ABSENT : stored;
+                        long next = function.apply(state, now, arg);
+                        if (next == state || next == ABSENT
+                                || SLOTS.compareAndSet(t, offset + 8, stored, next)) {
+                            return state;
+                        }
+                    }
+                }
+                if (key == EMPTY) {
+                    if (reuse < 0) {
+                        reuse = index;
+                    }
+                    break;
+                }
+                long state = (long) SLOTS.getVolatile(t, offset + 8);
+                if (reuse < 0 && now - state >= idleNanos) {
+                    reuse = index;
+                }
+                if (victim < 0 || state < victimState) {
+                    victim = index;
+                    victimState = state;
+                }
+            }
+
+            long next = function.apply(ABSENT, now, arg);
+            if (next == ABSENT) {
+                return ABSENT;
+            }
+            // 探测范围已满或填充超过3/4时优先扩容，到达上限后才淘汰
+            if (mask + 1 < maxSlots
+                    && (reuse < 0 || isEmpty(t, reuse) && size >= (mask + 1) / 4 * 3)) {
+                resize(now, idleNanos);
+                insert(table, h, next);
+                return ABSENT;
+            }
+            if (reuse < 0) {
+                reuse = victim;
+                evictions++;
+            } else if (isEmpty(t, reuse)) {
+                size++;
+            } else {
+                reclaimed++;
+            }
+            assign(t, reuse, h, next);
+            return ABSENT;
+        }
+
+        /**
+         * 放入一个确定不存在的键，探测范围内没有可用槽位时淘汰最久不活跃的键
+         */
+        private void insert(ByteBuffer t, long h, long state) {
+            int mask = t.capacity() / SLOT_BYTES - 1;
+            int victim = -1;
+            long victimState = Long.MAX_VALUE;
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int index = (int) (h + i) & mask;
+                if (isEmpty(t, index)) {
+                    assign(t, index, h, state);
+                    size++;
+                    return;
+                }
+                long current = (long) SLOTS.getVolatile(t, index * SLOT_BYTES + 8);
+                if (victim < 0 || current < victimState) {
+                    victim = index;
+                    victimState = current;
+                }
+            }
+            assign(t, victim, h, state);
+            evictions++;
+        }
+
+        /**
+         * 把槽位交给键h：空槽位先写状态再发布键；改派时先冻结状态使原键的无锁更新失败，
+         * 再写键、最后写状态，读到新状态的线程必然读到新键
+         */
+        private static void assign(ByteBuffer t, int index, long h, long state) {
+            int offset = index * SLOT_BYTES;
+            if (isEmpty(t, index)) {
+                SLOTS.setVolatile(t, offset + 8, state);
+                SLOTS.setVolatile(t, offset, h);
+                return;
+            }
+            SLOTS.setVolatile(t, offset + 8, FROZEN);
+            SLOTS.setVolatile(t, offset, h);
+            SLOTS.setVolatile(t, offset + 8, state);
+        }
+
+        private static boolean isEmpty(ByteBuffer t, int index) {
+            return (long) SLOTS.getVolatile(t, index * SLOT_BYTES) == EMPTY;
+        }
+
+        /**
+         * 扩容一倍，只迁移未空闲的键；旧表的状态逐个冻结后读取，冻结后旧表上的无锁更新全部转入加锁路径
+         */
+        private void resize(long now, long idleNanos) {
+            ByteBuffer old = table;
+            int oldSlots = old.capacity() / SLOT_BYTES;
+            ByteBuffer next = allocate(oldSlots << 1, offHeap);
+            size = 0;
+            for (int i = 0; i < oldSlots; i++) {
+                int offset = i * SLOT_BYTES;
+                long key = (long) SLOTS.get(old, offset);
+                if (key == EMPTY) {
+                    continue;
+                }
+                long state = (long) SLOTS.getAndSet(old, offset + 8, FROZEN);
+                if (now - state < idleNanos) {
+                    insert(next, key, state);
+                }
+            }
+            table = next;
+        }
+
+        private static ByteBuffer allocate(int slots, boolean offHeap) {
+            return offHeap ? ByteBuffer.allocateDirect(slots * SLOT_BYTES) : ByteBuffer.allocate(slots * SLOT_BYTES);
+        }
+    }
+}
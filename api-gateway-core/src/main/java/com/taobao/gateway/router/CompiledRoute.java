@@ -0,0 +1,101 @@
+package com.taobao.gateway.router;
+
+import com.taobao.gateway.filter.RouteFilterChain;
+import com.taobao.gateway.router.predicate.RequestPredicate;
+import com.taobao.gateway.router.predicate.RouteRequest;
+import com.taobao.gateway.router.split.TrafficSplitter;
+
+/**
+ * 已编译路由
+ * 路由表构建时生成，持有路由定义及其编译后的断言和加权流量分配器；路由一经提交即视为不可变，
+ * 下一版本路由表对同一路由实例直接复用编译结果。路由的过滤器链在首次请求时编译并缓存在此
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class CompiledRoute {
+
+    private final Route route;
+
+    private final RequestPredicate predicate;
+
+    /**
+     * 加权流量分配器，路由未配置加权目标时为null
+     */
+    private final TrafficSplitter splitter;
+
+    /**
+     * 路由过滤器链缓存，由过滤器链在首次请求或过滤器变更后写入
+     */
+    private volatile RouteFilterChain filterChain;
+
+    CompiledRoute(Route route, RequestPredicate predicate, TrafficSplitter splitter) {
+        this.route = route;
+        this.predicate = predicate;
+        this.splitter = splitter;
+    }
+
+    /**
+     * 判断请求是否满足路由断言
+     */
+    public boolean test(RouteRequest request) {
+        return predicate == RequestPredicate.ALWAYS || predicate.test(request);
+    }
+
+    /**
+     * 为请求选择目标下标，未配置加权目标时返回-1
+     */
+    public int selectTarget(RouteRequest request) {
+        return splitter != null ? splitter.select(request) : -1;
+    }
+
+    /**
+     * 获取目标地址，下标为-1时返回路由的默认目标
+     */
+    public String getTarget(int index) {
+        return index < 0 ? route.getTarget() : splitter.getTarget(index);
+    }
+
+    /**
+     * 获取目标名称，下标为-1时返回null
+     */
+    public String getTargetName(int index) {
+        return index < 0 ? null : splitter.getName(index);
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public TrafficSplitter getSplitter() {
+        return splitter;
+    }
+
+    public RouteFilterChain getFilterChain() {
+        return filterChain;
+    }
+
+    public void setFilterChain(RouteFilterChain filterChain) {
+        this.filterChain = filterChain;
+    }
+
+    public RequestPredicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * 是否配置了断言
+     */
+    public boolean hasPredicate() {
+        return predicate != RequestPredicate.ALWAYS;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledRoute{" +
+                "route=" + route.getId() +
+                ", predicate=" + hasPredicate() +
+                '}';
+    }
+}
@@ -1,12 +1,15 @@
 package com.taobao.gateway.router;
 
 import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import com.taobao.gateway.router.predicate.RouteRequest;
 import io.netty.handler.codec.http.FullHttpRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,16 +34,18 @@ public class DefaultRouteManager implements RouteManager {
 
     @Override
     public RouteResult route(FullHttpRequest request) {
-        String path = request.uri();
-        String method = request.method().name();
+        RouteRequest routeRequest = RouteRequest.from(request);
+        String path = routeRequest.getPath();
+        String method = routeRequest.getMethod();
         logger.debug("路由请求: {} {}", method, path);
 
-        // 使用路由匹配器查找匹配的路由规则
-        Route matchedRoute = routeMatcher.match(path, method);
+        // 在当前路由表快照中查找匹配的路由规则（含断言求值），并按权重选择目标
+        CompiledRoute matched = routeMatcher.getRouteTable().find(routeRequest);
         
-        if (matchedRoute != null) {
-            logger.debug("找到匹配的路由: {}", matchedRoute);
-            return RouteResult.success(matchedRoute);
+        if (matched != null) {
+            int index = matched.selectTarget(routeRequest);
+            logger.debug("找到匹配的路由: {}, 目标: {}", matched.getRoute(), matched.getTarget(index));
+            return RouteResult.success(matched, index);
         } else {
             logger.warn("未找到匹配的路由: {} {}", method, path);
             return RouteResult.failure("No route found for path: " + path);
@@ -55,11 +60,17 @@ public class DefaultRouteManager implements RouteManager {
         }
     }
 
+    @Override
+    public long addRoutes(Collection<Route> routes) {
+        long version = routeMatcher.addRoutes(routes);
+        logger.info("批量添加路由规则: {}条, 版本: {}", routes.size(), version);
+        return version;
+    }
+
     @Override
     public void removeRoute(String path) {
         // 通过路径查找路由ID，然后移除
-        List<Route> allRoutes = routeMatcher.getAllRoutes();
-        for (Route route : allRoutes) {
+        for (Route route : routeMatcher.getRouteTable().getRoutes()) {
             if (route.getPath().equals(path)) {
                 routeMatcher.removeRoute(route.getId());
                 logger.info("移除路由规则: {}", route);
@@ -76,11 +87,22 @@ public class DefaultRouteManager implements RouteManager {
         }
     }
 
+    @Override
+    public long applyBatch(RouteBatch batch) {
+        return routeMatcher.applyBatch(batch);
+    }
+
+    /**
+     * 获取当前路由表版本号
+     */
+    public long getVersion() {
+        return routeMatcher.getVersion();
+    }
+
     @Override
     public Route getRoute(String path) {
         // 通过路径查找路由
-        List<Route> allRoutes = routeMatcher.getAllRoutes();
-        for (Route route : allRoutes) {
+        for (Route route : routeMatcher.getRouteTable().getRoutes()) {
             if (route.getPath().equals(path)) {
                 return route;
             }
@@ -99,11 +121,7 @@ public class DefaultRouteManager implements RouteManager {
      * 清空所有路由规则
      */
     public void clearRoutes() {
-        // 获取所有路由并逐个移除
-        List<Route> allRoutes = routeMatcher.getAllRoutes();
-        for (Route route : allRoutes) {
-            routeMatcher.removeRoute(route.getId());
-        }
-        logger.info("清空所有路由规则");
+        long version = routeMatcher.applyBatch(new RouteBatch().replaceAll(Collections.emptyList()));
+        logger.info("清空所有路由规则，版本: {}", version);
     }
 } 
\ No newline at end of file
@@ -1,5 +1,11 @@
 package com.taobao.gateway.router;
 
+import com.taobao.gateway.router.predicate.PredicateDefinition;
+import com.taobao.gateway.router.split.StickyKey;
+import com.taobao.gateway.router.split.WeightedTarget;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -57,6 +63,31 @@ public class Route {
      */
     private Map<String, String> parameters = new ConcurrentHashMap<>();
 
+    /**
+     * 路由断言（请求头、Cookie、查询参数），全部满足时路由才匹配
+     */
+    private List<PredicateDefinition> predicates = new ArrayList<>();
+
+    /**
+     * 加权目标（灰度发布），配置后按权重在各目标间分配流量，否则使用target
+     */
+    private List<WeightedTarget> targets = new ArrayList<>();
+
+    /**
+     * 粘性分流键，为null时按权重随机分配
+     */
+    private StickyKey sticky;
+
+    /**
+     * 路由分组，分组上配置的过滤器对组内所有路由生效
+     */
+    private String group;
+
+    /**
+     * 路由级过滤器名称，与全局过滤器、分组过滤器合并为该路由的过滤器链
+     */
+    private List<String> filters = new ArrayList<>();
+
     public Route() {
     }
 
@@ -146,6 +177,46 @@ public class Route {
         this.parameters = parameters;
     }
 
+    public List<PredicateDefinition> getPredicates() {
+        return predicates;
+    }
+
+    public void setPredicates(List<PredicateDefinition> predicates) {
+        this.predicates = predicates;
+    }
+
+    public List<WeightedTarget> getTargets() {
+        return targets;
+    }
+
+    public void setTargets(List<WeightedTarget> targets) {
+        this.targets = targets;
+    }
+
+    public StickyKey getSticky() {
+        return sticky;
+    }
+
+    public void setSticky(StickyKey sticky) {
+        this.sticky = sticky;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    public void setFilters(List<String> filters) {
+        this.filters = filters;
+    }
+
     @Override
     public String toString() {
         return "Route{" +
@@ -157,6 +228,11 @@ public class Route {
                 ", timeout=" + timeout +
                 ", enabled=" + enabled +
                 ", type=" + type +
+                ", predicates=" + predicates +
+                ", targets=" + targets +
+                ", sticky=" + sticky +
+                ", group='" + group + '\'' +
+                ", filters=" + filters +
                 '}';
     }
 } 
\ No newline at end of file
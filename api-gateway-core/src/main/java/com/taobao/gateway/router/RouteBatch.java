@@ -0,0 +1,133 @@
+package com.taobao.gateway.router;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 路由批量变更
+ * 将一组新增、更新、删除操作作为一个事务提交，提交后路由表整体切换到新版本
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RouteBatch {
+
+    /**
+     * 变更操作列表（按添加顺序执行）
+     */
+    private final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * 是否先清空现有路由（全量推送）
+     */
+    private boolean replaceAll;
+
+    /**
+     * 新增路由，路由ID已存在时覆盖
+     */
+    public RouteBatch add(Route route) {
+        checkRoute(route);
+        operations.add(new Operation(OperationType.ADD, route, route.getId()));
+        return this;
+    }
+
+    /**
+     * 批量新增路由
+     */
+    public RouteBatch addAll(Collection<Route> routes) {
+        for (Route route : routes) {
+            add(route);
+        }
+        return this;
+    }
+
+    /**
+     * 更新路由，路由ID不存在时按新增处理
+     */
+    public RouteBatch update(Route route) {
+        checkRoute(route);
+        operations.add(new Operation(OperationType.UPDATE, route, route.getId()));
+        return this;
+    }
+
+    /**
+     * 删除路由
+     */
+    public RouteBatch remove(String routeId) {
+        if (routeId == null) {
+            throw new IllegalArgumentException("Route id must not be null");
+        }
+        operations.add(new Operation(OperationType.REMOVE, null, routeId));
+        return this;
+    }
+
+    /**
+     * 全量替换：提交时丢弃现有路由，仅保留本批次中的路由
+     */
+    public RouteBatch replaceAll(Collection<Route> routes) {
+        this.replaceAll = true;
+        this.operations.clear();
+        return addAll(routes);
+    }
+
+    private void checkRoute(Route route) {
+        if (route == null || route.getId() == null || route.getPath() == null) {
+            throw new IllegalArgumentException("Route id and path must not be null: " + route);
+        }
+    }
+
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public boolean isReplaceAll() {
+        return replaceAll;
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty() && !replaceAll;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteBatch{" +
+                "operations=" + operations.size() +
+                ", replaceAll=" + replaceAll +
+                '}';
+    }
+
+    /**
+     * 变更操作类型
+     */
+    public enum OperationType {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+
+    /**
+     * 单个变更操作
+     */
+    public static class Operation {
+        private final OperationType type;
+        private final Route route;
+        private final String routeId;
+
+        Operation(OperationType type, Route route, String routeId) {
+            this.type = type;
+            this.route = route;
+            this.routeId = routeId;
+        }
+
+        public OperationType getType() { return type; }
+        public Route getRoute() { return route; }
+        public String getRouteId() { return routeId; }
+    }
+}
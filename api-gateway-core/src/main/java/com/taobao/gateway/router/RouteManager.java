@@ -2,6 +2,8 @@ package com.taobao.gateway.router;
 
 import io.netty.handler.codec.http.FullHttpRequest;
 
+import java.util.Collection;
+
 /**
  * 路由管理器接口
  * 
@@ -26,6 +28,14 @@ public interface RouteManager {
      */
     void addRoute(Route route);
 
+    /**
+     * 批量添加路由规则，作为一个批次提交
+     * 
+     * @param routes 路由规则（按优先顺序）
+     * @return 提交后的路由表版本号
+     */
+    long addRoutes(Collection<Route> routes);
+
     /**
      * 移除路由规则
      * 
@@ -40,6 +50,14 @@ public interface RouteManager {
      */
     void updateRoute(Route route);
 
+    /**
+     * 以事务方式批量提交路由变更（新增、更新、删除或全量替换）
+     * 
+     * @param batch 路由变更批次
+     * @return 提交后的路由表版本号
+     */
+    long applyBatch(RouteBatch batch);
+
     /**
      * 获取路由规则
      * 
@@ -1,6 +1,9 @@
 package com.taobao.gateway.router;
 
 import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.predicate.RouteRequest;
+
+import java.util.Collection;
 
 /**
  * 路由匹配器接口
@@ -20,6 +23,14 @@ public interface RouteMatcher {
      */
     Route match(String path, String method);
     
+    /**
+     * 匹配路由，并对候选路由的请求头、Cookie、查询参数断言求值
+     * 
+     * @param request 路由匹配请求
+     * @return 匹配的路由，如果没有匹配则返回null
+     */
+    Route match(RouteRequest request);
+    
     /**
      * 添加路由
      * 
@@ -27,6 +38,15 @@ public interface RouteMatcher {
      */
     void addRoute(Route route);
     
+    /**
+     * 批量添加路由，作为一个批次提交，只构建一次路由表
+     * 启动时加载大量路由应使用此方法而非逐条 {@link #addRoute}
+     * 
+     * @param routes 路由配置（按优先顺序）
+     * @return 提交后的路由表版本号
+     */
+    long addRoutes(Collection<Route> routes);
+    
     /**
      * 移除路由
      * 
@@ -41,6 +61,29 @@ public interface RouteMatcher {
      */
     void updateRoute(Route route);
     
+    /**
+     * 以事务方式批量提交路由变更
+     * 新路由表在热路径之外构建完成后原子替换，匹配线程不会观察到中间状态
+     * 
+     * @param batch 路由变更批次
+     * @return 提交后的路由表版本号
+     */
+    long applyBatch(RouteBatch batch);
+    
+    /**
+     * 获取当前路由表版本号
+     * 
+     * @return 版本号
+     */
+    long getVersion();
+    
+    /**
+     * 获取当前路由表快照
+     * 
+     * @return 路由表快照
+     */
+    RouteTable getRouteTable();
+    
     /**
      * 获取所有路由
      * 
@@ -29,6 +29,21 @@ public class RouteResult {
      */
     private String[] pathParameters;
 
+    /**
+     * 选中的目标服务地址（灰度分流后）
+     */
+    private String target;
+
+    /**
+     * 选中的目标名称（如stable、canary），未配置加权目标时为null
+     */
+    private String targetName;
+
+    /**
+     * 匹配到的已编译路由（路由表快照中的条目），用于获取路由过滤器链等编译结果
+     */
+    private CompiledRoute compiledRoute;
+
     public RouteResult() {
     }
 
@@ -49,6 +64,29 @@ public class RouteResult {
         return new RouteResult(true, route);
     }
 
+    /**
+     * 创建成功结果并记录选中的目标
+     */
+    public static RouteResult success(Route route, String target, String targetName) {
+        RouteResult result = new RouteResult(true, route);
+        result.target = target;
+        result.targetName = targetName;
+        return result;
+    }
+
+    /**
+     * 根据已编译路由创建成功结果
+     *
+     * @param compiledRoute 已编译路由
+     * @param index 选中的目标下标，-1表示使用路由默认目标
+     */
+    public static RouteResult success(CompiledRoute compiledRoute, int index) {
+        RouteResult result = success(compiledRoute.getRoute(), compiledRoute.getTarget(index),
+                compiledRoute.getTargetName(index));
+        result.compiledRoute = compiledRoute;
+        return result;
+    }
+
     /**
      * 创建失败结果
      */
@@ -89,11 +127,39 @@ public class RouteResult {
         this.pathParameters = pathParameters;
     }
 
+    /**
+     * 获取目标服务地址，未经分流时返回路由的默认目标
+     */
+    public String getTarget() {
+        if (target == null && route != null) {
+            return route.getTarget();
+        }
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    public void setTargetName(String targetName) {
+        this.targetName = targetName;
+    }
+
+    public CompiledRoute getCompiledRoute() {
+        return compiledRoute;
+    }
+
     @Override
     public String toString() {
         return "RouteResult{" +
                 "matched=" + matched +
                 ", route=" + route +
+                ", target='" + getTarget() + '\'' +
+                ", targetName='" + targetName + '\'' +
                 ", errorMessage='" + errorMessage + '\'' +
                 '}';
     }
@@ -0,0 +1,458 @@
+package com.taobao.gateway.router;
+
+import com.taobao.gateway.router.predicate.PredicateCompiler;
+import com.taobao.gateway.router.predicate.RouteRequest;
+import com.taobao.gateway.router.split.TrafficSplitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * 路由表快照
+ * 不可变结构：由写线程在热路径之外完整构建，再整体原子替换；读线程无锁访问
+ * 路由断言在构建时编译，匹配时按候选顺序对请求求值。
+ * 单条路由变更走 {@link #with}/{@link #without} 的写时复制路径：只编译变更的路由，其余已编译路由、正则和
+ * 其他HTTP方法下的索引与上一版本共享；ID映射仍整体复制、受影响HTTP方法下的索引整体重建，
+ * 每次变更的开销与路由总数成正比，省下的是断言、正则和加权目标的重新编译
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class RouteTable {
+
+    private static final CompiledRoute[] NO_ROUTES = new CompiledRoute[0];
+
+    private static final RegexRoute[] NO_REGEX_ROUTES = new RegexRoute[0];
+
+    /**
+     * 空路由表（版本0）
+     */
+    private static final RouteTable EMPTY = build(0, Collections.emptyList(), null);
+
+    /**
+     * 构建时使用的断言编译器
+     */
+    private final PredicateCompiler compiler;
+
+    /**
+     * 路由表版本号，每次提交单调递增
+     */
+    private final long version;
+
+    /**
+     * 路由ID -> 路由（保持提交顺序）
+     */
+    private final Map<String, Route> routesById;
+
+    /**
+     * 路由ID -> 已编译路由
+     */
+    private final Map<String, CompiledRoute> compiledById;
+
+    /**
+     * 精确匹配索引：HTTP方法 -> 路径 -> 候选路由
+     */
+    private final Map<String, Map<String, CompiledRoute[]>> exactRoutes;
+
+    /**
+     * 前缀匹配索引：HTTP方法 -> 路由（保持提交顺序）
+     */
+    private final Map<String, CompiledRoute[]> prefixRoutes;
+
+    /**
+     * 正则匹配索引：HTTP方法 -> 预编译路由（保持提交顺序）
+     */
+    private final Map<String, RegexRoute[]> regexRoutes;
+
+    /**
+     * 正则表达式 -> 已编译Pattern
+     */
+    private final Map<String, Pattern> patterns;
+
+    private RouteTable(long version,
+                       PredicateCompiler compiler,
+                       Map<String, Route> routesById,
+                       Map<String, CompiledRoute> compiledById,
+                       Map<String, Map<String, CompiledRoute[]>> exactRoutes,
+                       Map<String, CompiledRoute[]> prefixRoutes,
+                       Map<String, RegexRoute[]> regexRoutes,
+                       Map<String, Pattern> patterns) {
+        this.version = version;
+        this.compiler = compiler;
+        this.routesById = routesById;
+        this.compiledById = compiledById;
+        this.exactRoutes = exactRoutes;
+        this.prefixRoutes = prefixRoutes;
+        this.regexRoutes = regexRoutes;
+        this.patterns = patterns;
+    }
+
+    /**
+     * 获取空路由表
+     */
+    public static RouteTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建路由表
+     *
+     * @param version 版本号
+     * @param routes 路由集合（按优先顺序）
+     * @param previous 上一版本路由表，用于复用已编译的正则表达式，可为null
+     * @return 新路由表
+     */
+    public static RouteTable build(long version, Collection<Route> routes, RouteTable previous) {
+        return build(version, routes, previous, previous != null ? previous.compiler : PredicateCompiler.defaultCompiler());
+    }
+
+    /**
+     * 使用指定的断言编译器构建路由表
+     *
+     * @param version 版本号
+     * @param routes 路由集合（按优先顺序）
+     * @param previous 上一版本路由表，用于复用已编译的正则表达式和断言，可为null
+     * @param compiler 断言编译器
+     * @return 新路由表
+     * @throws IllegalArgumentException 路由断言或加权目标不合法
+     */
+    public static RouteTable build(long version, Collection<Route> routes, RouteTable previous,
+                                   PredicateCompiler compiler) {
+        return build(version, routes, previous, compiler, Collections.emptySet());
+    }
+
+    /**
+     * 使用指定的断言编译器构建路由表，changed 中的路由总是重新编译
+     * 调用方可能原地修改路由实例后再次提交，实例相同并不代表断言和加权目标未变
+     *
+     * @param version 版本号
+     * @param routes 路由集合（按优先顺序）
+     * @param previous 上一版本路由表，用于复用未变更路由的已编译断言和正则表达式，可为null
+     * @param compiler 断言编译器
+     * @param changed 本次变更的路由ID
+     * @return 新路由表
+     * @throws IllegalArgumentException 路由断言或加权目标不合法
+     */
+    public static RouteTable build(long version, Collection<Route> routes, RouteTable previous,
+                                   PredicateCompiler compiler, Set<String> changed) {
+        Map<String, Route> byId = new LinkedHashMap<>(Math.max(16, routes.size() * 4 / 3 + 1));
+        for (Route route : routes) {
+            byId.put(route.getId(), route);
+        }
+
+        Map<String, CompiledRoute> compiledById = new HashMap<>(Math.max(16, byId.size() * 4 / 3 + 1));
+        List<CompiledRoute> compiledRoutes = new ArrayList<>(byId.size());
+        for (Route route : byId.values()) {
+            CompiledRoute compiled = compileRoute(route, changed.contains(route.getId()) ? null : previous, compiler);
+            compiledById.put(route.getId(), compiled);
+            compiledRoutes.add(compiled);
+        }
+
+        Map<String, Pattern> patterns = new HashMap<>();
+        Map<String, Map<String, CompiledRoute[]>> exactIndex = new HashMap<>();
+        Map<String, CompiledRoute[]> prefixIndex = new HashMap<>();
+        Map<String, RegexRoute[]> regexIndex = new HashMap<>();
+        index(compiledRoutes, regex -> patterns.computeIfAbsent(regex, p -> compilePattern(p, previous)),
+                exactIndex, prefixIndex, regexIndex);
+
+        return new RouteTable(version, compiler, Collections.unmodifiableMap(byId), compiledById,
+                exactIndex, prefixIndex, regexIndex, patterns);
+    }
+
+    /**
+     * 写时复制地新增或替换一条路由，替换时保持原有顺序
+     * 只编译该路由；复制ID映射并重建其新旧HTTP方法下的索引，开销与路由总数成正比，
+     * 其余已编译路由和其他HTTP方法下的索引与本版本共享
+     *
+     * @param version 新版本号
+     * @param route 路由
+     * @return 新路由表
+     * @throws IllegalArgumentException 路由断言或加权目标不合法
+     */
+    public RouteTable with(long version, Route route) {
+        CompiledRoute compiled = new CompiledRoute(route, compiler.compile(route.getPredicates()), TrafficSplitter.of(route));
+        Route previous = routesById.get(route.getId());
+
+        Map<String, Route> byId = new LinkedHashMap<>(routesById);
+        byId.put(route.getId(), route);
+        Map<String, CompiledRoute> compiledRoutes = new HashMap<>(compiledById);
+        compiledRoutes.put(route.getId(), compiled);
+
+        Map<String, Pattern> nextPatterns = patterns;
+        if (route.getType() == RouteType.REGEX && !patterns.containsKey(route.getPath())) {
+            nextPatterns = new HashMap<>(patterns);
+            nextPatterns.put(route.getPath(), Pattern.compile(route.getPath()));
+        }
+
+        Set<String> methods = new HashSet<>(2);
+        methods.add(route.getMethod());
+        if (previous != null) {
+            methods.add(previous.getMethod());
+        }
+        return reindex(version, byId, compiledRoutes, nextPatterns, methods);
+    }
+
+    /**
+     * 写时复制地删除一条路由，复制ID映射并重建其HTTP方法下的索引，开销与路由总数成正比
+     * 被删除路由的Pattern保留到下一次全量构建
+     *
+     * @param version 新版本号
+     * @param routeId 路由ID
+     * @return 新路由表，路由不存在时仅版本号变化
+     */
+    public RouteTable without(long version, String routeId) {
+        Route previous = routesById.get(routeId);
+        if (previous == null) {
+            return new RouteTable(version, compiler, routesById, compiledById,
+                    exactRoutes, prefixRoutes, regexRoutes, patterns);
+        }
+        Map<String, Route> byId = new LinkedHashMap<>(routesById);
+        byId.remove(routeId);
+        Map<String, CompiledRoute> compiledRoutes = new HashMap<>(compiledById);
+        compiledRoutes.remove(routeId);
+        return reindex(version, byId, compiledRoutes, patterns, Collections.singleton(previous.getMethod()));
+    }
+
+    /**
+     * 复制本版本的索引，重建指定HTTP方法下的部分
+     */
+    private RouteTable reindex(long version, Map<String, Route> byId, Map<String, CompiledRoute> compiledRoutes,
+                               Map<String, Pattern> nextPatterns, Set<String> methods) {
+        Map<String, Map<String, CompiledRoute[]>> exactIndex = new HashMap<>(exactRoutes);
+        Map<String, CompiledRoute[]> prefixIndex = new HashMap<>(prefixRoutes);
+        Map<String, RegexRoute[]> regexIndex = new HashMap<>(regexRoutes);
+        List<CompiledRoute> affected = new ArrayList<>();
+        for (String method : methods) {
+            exactIndex.remove(method);
+            prefixIndex.remove(method);
+            regexIndex.remove(method);
+        }
+        for (Route route : byId.values()) {
+            if (methods.contains(route.getMethod())) {
+                affected.add(compiledRoutes.get(route.getId()));
+            }
+        }
+        index(affected, nextPatterns::get, exactIndex, prefixIndex, regexIndex);
+        return new RouteTable(version, compiler, Collections.unmodifiableMap(byId), compiledRoutes,
+                exactIndex, prefixIndex, regexIndex, nextPatterns);
+    }
+
+    /**
+     * 按HTTP方法和路由类型把已编译路由加入索引，同级候选保持给定顺序
+     */
+    private static void index(List<CompiledRoute> compiledRoutes, Function<String, Pattern> patternOf,
+                              Map<String, Map<String, CompiledRoute[]>> exactIndex,
+                              Map<String, CompiledRoute[]> prefixIndex,
+                              Map<String, RegexRoute[]> regexIndex) {
+        Map<String, Map<String, List<CompiledRoute>>> exact = new HashMap<>();
+        Map<String, List<CompiledRoute>> prefix = new HashMap<>();
+        Map<String, List<RegexRoute>> regex = new HashMap<>();
+        for (CompiledRoute compiled : compiledRoutes) {
+            Route route = compiled.getRoute();
+            String method = route.getMethod();
+            RouteType type = route.getType() != null ? route.getType() : RouteType.EXACT;
+            switch (type) {
+                case PREFIX:
+                    prefix.computeIfAbsent(method, k -> new ArrayList<>()).add(compiled);
+                    break;
+                case REGEX:
+                    regex.computeIfAbsent(method, k -> new ArrayList<>())
+                            .add(new RegexRoute(compiled, patternOf.apply(route.getPath())));
+                    break;
+                case EXACT:
+                default:
+                    exact.computeIfAbsent(method, k -> new HashMap<>())
+                            .computeIfAbsent(route.getPath(), k -> new ArrayList<>(1))
+                            .add(compiled);
+                    break;
+            }
+        }
+
+        exact.forEach((method, byPath) -> {
+            Map<String, CompiledRoute[]> paths = new HashMap<>(byPath.size() * 4 / 3 + 1);
+            byPath.forEach((path, list) -> paths.put(path, list.toArray(NO_ROUTES)));
+            exactIndex.put(method, paths);
+        });
+        prefix.forEach((method, list) -> prefixIndex.put(method, list.toArray(NO_ROUTES)));
+        regex.forEach((method, list) -> regexIndex.put(method, list.toArray(NO_REGEX_ROUTES)));
+    }
+
+    /**
+     * 编译路由断言并预计算加权流量分配器；未变更的路由在上一版本中为同一实例且编译器相同时直接复用
+     */
+    private static CompiledRoute compileRoute(Route route, RouteTable previous, PredicateCompiler compiler) {
+        if (previous != null && previous.compiler == compiler) {
+            CompiledRoute compiled = previous.compiledById.get(route.getId());
+            if (compiled != null && compiled.getRoute() == route) {
+                return compiled;
+            }
+        }
+        return new CompiledRoute(route, compiler.compile(route.getPredicates()), TrafficSplitter.of(route));
+    }
+
+    /**
+     * 复用上一版本中相同表达式的Pattern，避免全量推送时重复编译
+     */
+    private static Pattern compilePattern(String regex, RouteTable previous) {
+        Pattern pattern = previous != null ? previous.patterns.get(regex) : null;
+        return pattern != null ? pattern : Pattern.compile(regex);
+    }
+
+    /**
+     * 匹配路由：精确匹配 -> 前缀匹配 -> 正则匹配
+     * 仅按路径和方法匹配，配置了请求头、Cookie或查询参数断言的路由不会命中
+     *
+     * @param path 请求路径
+     * @param method HTTP方法
+     * @return 匹配的路由，没有匹配时返回null
+     */
+    public Route match(String path, String method) {
+        CompiledRoute compiled = find(RouteRequest.of(path, method));
+        return compiled != null ? compiled.getRoute() : null;
+    }
+
+    /**
+     * 匹配路由并对候选路由的断言求值
+     *
+     * @param request 路由匹配请求
+     * @return 匹配的路由，没有匹配时返回null
+     */
+    public Route match(RouteRequest request) {
+        CompiledRoute compiled = find(request);
+        return compiled != null ? compiled.getRoute() : null;
+    }
+
+    /**
+     * 匹配已编译路由：精确匹配 -> 前缀匹配 -> 正则匹配，同级候选按提交顺序求值断言
+     *
+     * @param request 路由匹配请求
+     * @return 匹配的已编译路由，没有匹配时返回null
+     */
+    public CompiledRoute find(RouteRequest request) {
+        String path = request.getPath();
+        String method = request.getMethod();
+        Map<String, CompiledRoute[]> byPath = exactRoutes.get(method);
+        if (byPath != null) {
+            CompiledRoute[] candidates = byPath.get(path);
+            if (candidates != null) {
+                for (CompiledRoute candidate : candidates) {
+                    if (candidate.test(request)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+
+        CompiledRoute[] prefixCandidates = prefixRoutes.get(method);
+        if (prefixCandidates != null) {
+            for (CompiledRoute candidate : prefixCandidates) {
+                if (path.startsWith(candidate.getRoute().getPath()) && candidate.test(request)) {
+                    return candidate;
+                }
+            }
+        }
+
+        RegexRoute[] regexCandidates = regexRoutes.get(method);
+        if (regexCandidates != null) {
+            for (RegexRoute candidate : regexCandidates) {
+                if (candidate.pattern.matcher(path).matches() && candidate.route.test(request)) {
+                    return candidate.route;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取路由表版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 根据ID获取路由
+     */
+    public Route getRoute(String routeId) {
+        return routesById.get(routeId);
+    }
+
+    /**
+     * 根据ID获取已编译路由
+     */
+    public CompiledRoute getCompiledRoute(String routeId) {
+        return compiledById.get(routeId);
+    }
+
+    /**
+     * 获取构建时使用的断言编译器
+     */
+    public PredicateCompiler getCompiler() {
+        return compiler;
+    }
+
+    /**
+     * 获取全部路由（只读，按提交顺序）
+     */
+    public Collection<Route> getRoutes() {
+        return routesById.values();
+    }
+
+    /**
+     * 路由数量
+     */
+    public int size() {
+        return routesById.size();
+    }
+
+    /**
+     * 已编译的正则表达式数量
+     */
+    public int getPatternCount() {
+        return patterns.size();
+    }
+
+    /**
+     * 统计指定类型的路由数量
+     */
+    public long count(RouteType type) {
+        long count = 0;
+        for (Route route : routesById.values()) {
+            if (route.getType() == type) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteTable{" +
+                "version=" + version +
+                ", routes=" + routesById.size() +
+                '}';
+    }
+
+    /**
+     * 预编译的正则路由
+     */
+    private static final class RegexRoute {
+        private final CompiledRoute route;
+        private final Pattern pattern;
+
+        private RegexRoute(CompiledRoute route, Pattern pattern) {
+            this.route = route;
+            this.pattern = pattern;
+        }
+    }
+}
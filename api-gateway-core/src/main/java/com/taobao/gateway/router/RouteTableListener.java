@@ -0,0 +1,19 @@
+package com.taobao.gateway.router;
+
+/**
+ * 路由表提交监听器
+ * 每次新版本路由表发布后回调，回调在写锁内执行，实现方不应执行耗时操作
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface RouteTableListener {
+
+    /**
+     * 新版本路由表已发布
+     * 
+     * @param table 新路由表快照
+     */
+    void onCommit(RouteTable table);
+}
@@ -0,0 +1,127 @@
+package com.taobao.gateway.router.example;
+
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteTable;
+import com.taobao.gateway.router.predicate.InterpretedPredicateCompiler;
+import com.taobao.gateway.router.predicate.MatchMode;
+import com.taobao.gateway.router.predicate.MethodHandlePredicateCompiler;
+import com.taobao.gateway.router.predicate.PredicateCompiler;
+import com.taobao.gateway.router.predicate.PredicateDefinition;
+import com.taobao.gateway.router.predicate.PredicateType;
+import com.taobao.gateway.router.predicate.RouteRequest;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路由断言编译性能对比示例
+ *
+ * 构建10000条路由的路由表：1000个路径，每个路径10条按租户区分的候选路由，
+ * 每条路由包含请求头、Cookie、查询参数三个断言；请求命中每个路径的最后一条候选，
+ * 即每次匹配需要对10条路由的断言求值。分别使用解释执行和MethodHandle编译两种模式测量单次匹配耗时
+ *
+ * 运行方式：java -cp ... com.taobao.gateway.router.example.RoutePredicateBenchmark
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RoutePredicateBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutePredicateBenchmark.class);
+
+    private static final int PATHS = 1000;
+
+    private static final int TENANTS = 10;
+
+    private static final int WARMUP_ROUNDS = 5;
+
+    private static final int MEASURE_ROUNDS = 5;
+
+    private static final int ITERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        new RoutePredicateBenchmark().run();
+    }
+
+    /**
+     * 运行对比测试
+     */
+    public void run() {
+        List<Route> routes = createRoutes();
+        RouteRequest[] requests = createRequests();
+
+        logger.info("=== 路由断言编译性能对比（{}条路由） ===", routes.size());
+        double interpreted = measure("解释执行", routes, requests, InterpretedPredicateCompiler.INSTANCE);
+        double compiled = measure("MethodHandle编译", routes, requests, MethodHandlePredicateCompiler.INSTANCE);
+        logger.info("MethodHandle编译相对解释执行加速: {}x", String.format("%.2f", interpreted / compiled));
+    }
+
+    private double measure(String name, List<Route> routes, RouteRequest[] requests, PredicateCompiler compiler) {
+        long buildStart = System.nanoTime();
+        RouteTable table = RouteTable.build(1, routes, null, compiler);
+        logger.info("[{}] 路由表构建耗时: {}ms", name, (System.nanoTime() - buildStart) / 1_000_000);
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runRound(table, requests);
+        }
+
+        double best = Double.MAX_VALUE;
+        for (int round = 0; round < MEASURE_ROUNDS; round++) {
+            long start = System.nanoTime();
+            int matched = runRound(table, requests);
+            double nsPerOp = (double) (System.nanoTime() - start) / ITERATIONS;
+            if (matched != ITERATIONS) {
+                throw new IllegalStateException("Unexpected match count: " + matched);
+            }
+            best = Math.min(best, nsPerOp);
+        }
+        logger.info("[{}] 单次匹配耗时: {} ns/op", name, String.format("%.1f", best));
+        return best;
+    }
+
+    private static int runRound(RouteTable table, RouteRequest[] requests) {
+        int matched = 0;
+        int mask = requests.length - 1;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (table.find(requests[i & mask]) != null) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    private static List<Route> createRoutes() {
+        List<Route> routes = new ArrayList<>(PATHS * TENANTS);
+        for (int p = 0; p < PATHS; p++) {
+            for (int t = 0; t < TENANTS; t++) {
+                Route route = new Route("route-" + p + "-" + t, "/api/service-" + p, "http://backend-" + t);
+                route.getPredicates().add(PredicateDefinition.header("X-Tenant", "tenant-" + t));
+                route.getPredicates().add(PredicateDefinition.cookie("region", "cn-" + (t % 3)));
+                route.getPredicates().add(new PredicateDefinition(PredicateType.QUERY, "version",
+                        MatchMode.PREFIX, "v" + (t % 2)));
+                routes.add(route);
+            }
+        }
+        return routes;
+    }
+
+    private static RouteRequest[] createRequests() {
+        // 数组长度为2的幂，便于取模
+        RouteRequest[] requests = new RouteRequest[1024];
+        int tenant = TENANTS - 1;
+        for (int i = 0; i < requests.length; i++) {
+            DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET,
+                    "/api/service-" + (i % PATHS) + "?version=v" + (tenant % 2) + ".3");
+            request.headers().set("X-Tenant", "tenant-" + tenant);
+            request.headers().set("Cookie", "region=cn-" + (tenant % 3) + "; session=abc");
+            requests[i] = RouteRequest.from(request);
+        }
+        return requests;
+    }
+}
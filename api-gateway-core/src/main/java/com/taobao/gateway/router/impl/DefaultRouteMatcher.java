@@ -1,20 +1,35 @@
 package com.taobao.gateway.router.impl;
 
 import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteBatch;
 import com.taobao.gateway.router.RouteMatcher;
+import com.taobao.gateway.router.RouteTable;
+import com.taobao.gateway.router.RouteTableListener;
 import com.taobao.gateway.router.RouteType;
+import com.taobao.gateway.router.predicate.PredicateCompiler;
+import com.taobao.gateway.router.predicate.RoutePredicateConfig;
+import com.taobao.gateway.router.predicate.RouteRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 /**
  * 默认路由匹配器实现
+ * 路由保存在不可变的 {@link RouteTable} 快照中，变更在写锁内构建新快照后原子替换，
+ * 匹配过程无锁且不会观察到中间状态。单条路由变更在上一版本上写时复制，
+ * 批量加载（如启动时）应通过 {@link #addRoutes} 或 {@link #applyBatch} 一次提交
  * 
  * @author taobao
  * @version 1.0.0
@@ -25,182 +40,240 @@ public class DefaultRouteMatcher implements RouteMatcher {
     
     private static final Logger logger = LoggerFactory.getLogger(DefaultRouteMatcher.class);
     
-    /** 路由缓存：路径 -> 路由列表 */
-    private final Map<String, List<Route>> routeCache = new ConcurrentHashMap<>();
+    /** 当前路由表快照 */
+    private volatile RouteTable routeTable = RouteTable.empty();
     
-    /** 所有路由列表 */
-    private final List<Route> allRoutes = new CopyOnWriteArrayList<>();
+    /** 写锁：串行化路由表的构建与发布 */
+    private final Object writeLock = new Object();
     
-    /** 正则表达式缓存 */
-    private final Map<String, Pattern> patternCache = new ConcurrentHashMap<>();
+    /** 路由表提交监听器 */
+    private final List<RouteTableListener> listeners = new CopyOnWriteArrayList<>();
+    
+    /** 路由断言编译器 */
+    private volatile PredicateCompiler predicateCompiler = PredicateCompiler.defaultCompiler();
+    
+    /** 是否已发布过路由表（提交或恢复），由写锁保护 */
+    private boolean published;
     
     @Override
     public Route match(String path, String method) {
-        logger.debug("匹配路由: {} {}", method, path);
-        
-        // 1. 精确匹配
-        Route exactRoute = matchExact(path, method);
-        if (exactRoute != null) {
-            logger.debug("精确匹配成功: {}", exactRoute);
-            return exactRoute;
-        }
-        
-        // 2. 前缀匹配
-        Route prefixRoute = matchPrefix(path, method);
-        if (prefixRoute != null) {
-            logger.debug("前缀匹配成功: {}", prefixRoute);
-            return prefixRoute;
+        Route route = routeTable.match(path, method);
+        if (logger.isDebugEnabled()) {
+            logger.debug("匹配路由: {} {} -> {}", method, path, route);
         }
-        
-        // 3. 正则匹配
-        Route regexRoute = matchRegex(path, method);
-        if (regexRoute != null) {
-            logger.debug("正则匹配成功: {}", regexRoute);
-            return regexRoute;
-        }
-        
-        logger.debug("没有找到匹配的路由: {} {}", method, path);
-        return null;
+        return route;
     }
     
-    /**
-     * 精确匹配
-     */
-    private Route matchExact(String path, String method) {
-        String key = method + ":" + path;
-        List<Route> routes = routeCache.get(key);
-        if (routes != null) {
-            for (Route route : routes) {
-                if (route.getType() == RouteType.EXACT && 
-                    route.getPath().equals(path) && 
-                    route.getMethod().equals(method)) {
-                    return route;
-                }
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * 前缀匹配
-     */
-    private Route matchPrefix(String path, String method) {
-        for (Route route : allRoutes) {
-            if (route.getType() == RouteType.PREFIX && 
-                route.getMethod().equals(method) && 
-                path.startsWith(route.getPath())) {
-                return route;
-            }
+    @Override
+    public Route match(RouteRequest request) {
+        Route route = routeTable.match(request);
+        if (logger.isDebugEnabled()) {
+            logger.debug("匹配路由: {} -> {}", request, route);
         }
-        return null;
+        return route;
     }
     
     /**
-     * 正则匹配
+     * 根据配置设置断言编译器
      */
-    private Route matchRegex(String path, String method) {
-        for (Route route : allRoutes) {
-            if (route.getType() == RouteType.REGEX && 
-                route.getMethod().equals(method)) {
-                Pattern pattern = getPattern(route.getPath());
-                if (pattern.matcher(path).matches()) {
-                    return route;
-                }
-            }
-        }
-        return null;
+    @Autowired(required = false)
+    public void setPredicateConfig(RoutePredicateConfig config) {
+        setPredicateCompiler(PredicateCompiler.of(config.getCompiler()));
     }
     
     /**
-     * 获取正则表达式模式（带缓存）
+     * 设置断言编译器，对之后提交的路由表生效
      */
-    private Pattern getPattern(String regex) {
-        return patternCache.computeIfAbsent(regex, Pattern::compile);
+    public void setPredicateCompiler(PredicateCompiler predicateCompiler) {
+        this.predicateCompiler = predicateCompiler;
+        logger.info("路由断言编译器: {}", predicateCompiler.getClass().getSimpleName());
     }
     
     @Override
     public void addRoute(Route route) {
         logger.info("添加路由: {}", route);
-        
-        // 添加到路由列表
-        allRoutes.add(route);
-        
-        // 更新缓存
-        updateCache(route);
-        
-        logger.info("路由添加成功，当前路由总数: {}", allRoutes.size());
+        checkRoute(route);
+        long version = commitSingle(current -> current.with(current.getVersion() + 1, route));
+        logger.info("路由添加成功，当前路由总数: {}, 版本: {}", routeTable.size(), version);
+    }
+    
+    @Override
+    public long addRoutes(Collection<Route> routes) {
+        logger.info("批量添加路由: {}条", routes.size());
+        return applyBatch(new RouteBatch().addAll(routes));
     }
     
     @Override
     public void removeRoute(String routeId) {
         logger.info("移除路由: {}", routeId);
-        
-        // 从路由列表中移除
-        allRoutes.removeIf(route -> route.getId().equals(routeId));
-        
-        // 清除缓存
-        clearCache();
-        
-        // 重新构建缓存
-        for (Route route : allRoutes) {
-            updateCache(route);
+        if (routeId == null) {
+            throw new IllegalArgumentException("Route id must not be null");
         }
-        
-        logger.info("路由移除成功，当前路由总数: {}", allRoutes.size());
+        long version = commitSingle(current -> current.without(current.getVersion() + 1, routeId));
+        logger.info("路由移除成功，当前路由总数: {}, 版本: {}", routeTable.size(), version);
     }
     
     @Override
     public void updateRoute(Route route) {
         logger.info("更新路由: {}", route);
-        
-        // 移除旧路由
-        removeRoute(route.getId());
-        
-        // 添加新路由
-        addRoute(route);
-        
-        logger.info("路由更新成功");
+        checkRoute(route);
+        long version = commitSingle(current -> current.with(current.getVersion() + 1, route));
+        logger.info("路由更新成功，版本: {}", version);
+    }
+    
+    /**
+     * 提交单条路由变更：在当前版本上写时复制，只编译变更的路由，只重建受影响HTTP方法下的索引；
+     * 仍需复制整张表的ID映射，开销与路由总数成正比
+     * 断言编译器已切换时退回全量构建，使新编译器对所有路由生效
+     */
+    private long commitSingle(Function<RouteTable, RouteTable> change) {
+        synchronized (writeLock) {
+            RouteTable current = routeTable;
+            if (current.getCompiler() != predicateCompiler) {
+                current = RouteTable.build(current.getVersion(), current.getRoutes(), null, predicateCompiler);
+            }
+            RouteTable next = change.apply(current);
+            publish(next);
+            return next.getVersion();
+        }
+    }
+    
+    private static void checkRoute(Route route) {
+        if (route == null || route.getId() == null || route.getPath() == null) {
+            throw new IllegalArgumentException("Route id and path must not be null: " + route);
+        }
     }
     
     @Override
-    public List<Route> getAllRoutes() {
-        return new CopyOnWriteArrayList<>(allRoutes);
+    public long applyBatch(RouteBatch batch) {
+        synchronized (writeLock) {
+            RouteTable current = routeTable;
+            if (batch.isEmpty()) {
+                return current.getVersion();
+            }
+            
+            long startTime = System.nanoTime();
+            Map<String, Route> routes = batch.isReplaceAll()
+                    ? new LinkedHashMap<>(Math.max(16, batch.size() * 4 / 3 + 1))
+                    : toMap(current);
+            Set<String> changed = new HashSet<>();
+            
+            for (RouteBatch.Operation operation : batch.getOperations()) {
+                switch (operation.getType()) {
+                    case ADD:
+                    case UPDATE:
+                        routes.put(operation.getRouteId(), operation.getRoute());
+                        changed.add(operation.getRouteId());
+                        break;
+                    case REMOVE:
+                        if (routes.remove(operation.getRouteId()) == null) {
+                            logger.debug("路由不存在，忽略移除: {}", operation.getRouteId());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            
+            RouteTable next = RouteTable.build(current.getVersion() + 1, routes.values(), current, predicateCompiler, changed);
+            publish(next);
+            
+            logger.info("路由表已提交: 版本 {} -> {}, 变更数: {}, 路由总数: {}, 耗时: {}ms",
+                    current.getVersion(), next.getVersion(), batch.size(), next.size(),
+                    (System.nanoTime() - startTime) / 1_000_000);
+            return next.getVersion();
+        }
     }
     
     /**
-     * 更新路由缓存
+     * 按指定版本号整体恢复路由表（如从本地快照启动）
+     * 版本号只在单个进程内单调递增，不能与上次运行的快照比较新旧，
+     * 因此仅在本进程尚未提交或恢复过路由表时生效，避免旧快照覆盖已从配置源推送的路由
+     * 
+     * @param routes 路由集合
+     * @param version 快照版本号，恢复后的提交从此版本继续递增
+     * @return 是否已恢复
      */
-    private void updateCache(Route route) {
-        String key = route.getMethod() + ":" + route.getPath();
-        routeCache.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(route);
+    public boolean restore(Collection<Route> routes, long version) {
+        synchronized (writeLock) {
+            RouteTable current = routeTable;
+            if (published) {
+                logger.info("忽略路由表恢复: 当前路由表已提交过(版本 {})，快照版本 {}", current.getVersion(), version);
+                return false;
+            }
+            publish(RouteTable.build(version, routes, current, predicateCompiler));
+            logger.info("路由表已恢复: 版本 {}, 路由总数: {}", version, routes.size());
+            return true;
+        }
+    }
+    
+    /**
+     * 发布新路由表并通知监听器（调用方须持有写锁）
+     */
+    private void publish(RouteTable next) {
+        routeTable = next;
+        published = true;
+        for (RouteTableListener listener : listeners) {
+            try {
+                listener.onCommit(next);
+            } catch (Exception e) {
+                logger.error("路由表提交监听器执行异常: {}", listener, e);
+            }
+        }
     }
     
     /**
-     * 清除路由缓存
+     * 注册路由表提交监听器
      */
-    private void clearCache() {
-        routeCache.clear();
-        patternCache.clear();
+    public void addListener(RouteTableListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * 移除路由表提交监听器
+     */
+    public void removeListener(RouteTableListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private static Map<String, Route> toMap(RouteTable table) {
+        Map<String, Route> routes = new LinkedHashMap<>(Math.max(16, table.size() * 4 / 3 + 1));
+        for (Route route : table.getRoutes()) {
+            routes.put(route.getId(), route);
+        }
+        return routes;
+    }
+    
+    @Override
+    public long getVersion() {
+        return routeTable.getVersion();
+    }
+    
+    @Override
+    public RouteTable getRouteTable() {
+        return routeTable;
+    }
+    
+    @Override
+    public List<Route> getAllRoutes() {
+        return new ArrayList<>(routeTable.getRoutes());
     }
     
     /**
      * 获取路由统计信息
      */
     public Map<String, Object> getStats() {
+        RouteTable table = routeTable;
         Map<String, Object> stats = new ConcurrentHashMap<>();
-        stats.put("totalRoutes", allRoutes.size());
-        stats.put("cacheSize", routeCache.size());
-        stats.put("patternCacheSize", patternCache.size());
+        stats.put("version", table.getVersion());
+        stats.put("totalRoutes", table.size());
+        stats.put("patternCacheSize", table.getPatternCount());
         
         // 按类型统计
-        long exactCount = allRoutes.stream().filter(r -> r.getType() == RouteType.EXACT).count();
-        long prefixCount = allRoutes.stream().filter(r -> r.getType() == RouteType.PREFIX).count();
-        long regexCount = allRoutes.stream().filter(r -> r.getType() == RouteType.REGEX).count();
-        
-        stats.put("exactRoutes", exactCount);
-        stats.put("prefixRoutes", prefixCount);
-        stats.put("regexRoutes", regexCount);
+        stats.put("exactRoutes", table.count(RouteType.EXACT));
+        stats.put("prefixRoutes", table.count(RouteType.PREFIX));
+        stats.put("regexRoutes", table.count(RouteType.REGEX));
         
         return stats;
     }
-} 
\ No newline at end of file
+}
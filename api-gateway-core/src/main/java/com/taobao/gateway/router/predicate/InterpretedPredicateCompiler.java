@@ -0,0 +1,97 @@
+package com.taobao.gateway.router.predicate;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 解释执行的断言编译器
+ * 将断言定义展开为并行数组，匹配时逐项分派；作为MethodHandle编译的回退实现
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class InterpretedPredicateCompiler implements PredicateCompiler {
+
+    public static final InterpretedPredicateCompiler INSTANCE = new InterpretedPredicateCompiler();
+
+    private InterpretedPredicateCompiler() {
+    }
+
+    @Override
+    public RequestPredicate compile(List<PredicateDefinition> definitions) {
+        if (definitions == null || definitions.isEmpty()) {
+            return RequestPredicate.ALWAYS;
+        }
+        return new InterpretedPredicate(definitions);
+    }
+
+    /**
+     * 解释执行的断言
+     */
+    private static final class InterpretedPredicate implements RequestPredicate {
+
+        private final PredicateType[] types;
+        private final String[] names;
+        private final MatchMode[] modes;
+        private final String[] values;
+        private final Pattern[] patterns;
+
+        private InterpretedPredicate(List<PredicateDefinition> definitions) {
+            int size = definitions.size();
+            types = new PredicateType[size];
+            names = new String[size];
+            modes = new MatchMode[size];
+            values = new String[size];
+            patterns = new Pattern[size];
+            for (int i = 0; i < size; i++) {
+                PredicateDefinition definition = definitions.get(i);
+                patterns[i] = PredicateOps.validate(definition);
+                types[i] = definition.getType();
+                names[i] = definition.getName();
+                modes[i] = PredicateOps.modeOf(definition);
+                values[i] = definition.getValue();
+            }
+        }
+
+        @Override
+        public boolean test(RouteRequest request) {
+            for (int i = 0; i < types.length; i++) {
+                String actual;
+                switch (types[i]) {
+                    case HEADER:
+                        actual = PredicateOps.header(request, names[i]);
+                        break;
+                    case COOKIE:
+                        actual = PredicateOps.cookie(request, names[i]);
+                        break;
+                    case QUERY:
+                    default:
+                        actual = PredicateOps.query(request, names[i]);
+                        break;
+                }
+
+                boolean matched;
+                switch (modes[i]) {
+                    case EXISTS:
+                        matched = PredicateOps.exists(actual);
+                        break;
+                    case PREFIX:
+                        matched = PredicateOps.startsWith(values[i], actual);
+                        break;
+                    case REGEX:
+                        matched = PredicateOps.matches(patterns[i], actual);
+                        break;
+                    case EQUALS:
+                    default:
+                        matched = PredicateOps.equalsTo(values[i], actual);
+                        break;
+                }
+                if (!matched) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
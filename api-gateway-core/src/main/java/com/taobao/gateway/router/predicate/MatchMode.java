@@ -0,0 +1,41 @@
+package com.taobao.gateway.router.predicate;
+
+/**
+ * 路由断言匹配方式枚举
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum MatchMode {
+
+    /**
+     * 存在即匹配
+     */
+    EXISTS("存在"),
+
+    /**
+     * 值相等
+     */
+    EQUALS("相等"),
+
+    /**
+     * 值前缀匹配
+     */
+    PREFIX("前缀匹配"),
+
+    /**
+     * 值正则匹配
+     */
+    REGEX("正则匹配");
+
+    private final String description;
+
+    MatchMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
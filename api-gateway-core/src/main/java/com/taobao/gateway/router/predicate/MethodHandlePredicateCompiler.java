@@ -0,0 +1,206 @@
+package com.taobao.gateway.router.predicate;
+
+import io.netty.util.AsciiString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 基于MethodHandle树的断言编译器
+ *
+ * 每个断言被组合为取值句柄与比较句柄的串联，多个断言通过 {@link MethodHandles#guardWithTest}
+ * 组成短路的"与"链，按类型、按模式的分派在编译期消除。句柄树按断言"形状"（类型与匹配方式序列）缓存共享，
+ * 参数名与期望值以数组形式作为调用参数传入：若将常量直接绑定进句柄，每条路由都会得到独立的句柄，
+ * JVM会为上万个句柄分别生成定制化的LambdaForm，反而远慢于解释执行；共享后句柄数量等于形状数量，
+ * 热点句柄被定制化编译后JIT可将取值与比较逻辑内联
+ *
+ * 构建句柄树失败时回退到 {@link InterpretedPredicateCompiler}
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class MethodHandlePredicateCompiler implements PredicateCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandlePredicateCompiler.class);
+
+    public static final MethodHandlePredicateCompiler INSTANCE = new MethodHandlePredicateCompiler();
+
+    /**
+     * 句柄树类型：(RouteRequest request, CharSequence[] names, Object[] operands)boolean
+     */
+    private static final MethodType TREE_TYPE =
+            MethodType.methodType(boolean.class, RouteRequest.class, CharSequence[].class, Object[].class);
+
+    private static final MethodHandle HEADER;
+    private static final MethodHandle COOKIE;
+    private static final MethodHandle QUERY;
+    private static final MethodHandle EXISTS;
+    private static final MethodHandle EQUALS;
+    private static final MethodHandle STARTS_WITH;
+    private static final MethodHandle MATCHES;
+    private static final MethodHandle NAME_AT;
+    private static final MethodHandle OPERAND_AT;
+    private static final MethodHandle FALSE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType extractor = MethodType.methodType(String.class, RouteRequest.class, String.class);
+            HEADER = lookup.findStatic(PredicateOps.class, "header",
+                    MethodType.methodType(String.class, RouteRequest.class, CharSequence.class));
+            COOKIE = lookup.findStatic(PredicateOps.class, "cookie", extractor);
+            QUERY = lookup.findStatic(PredicateOps.class, "query", extractor);
+            EXISTS = lookup.findStatic(PredicateOps.class, "exists",
+                    MethodType.methodType(boolean.class, String.class));
+            EQUALS = lookup.findStatic(PredicateOps.class, "equalsTo",
+                    MethodType.methodType(boolean.class, String.class, String.class));
+            STARTS_WITH = lookup.findStatic(PredicateOps.class, "startsWith",
+                    MethodType.methodType(boolean.class, String.class, String.class));
+            MATCHES = lookup.findStatic(PredicateOps.class, "matches",
+                    MethodType.methodType(boolean.class, Pattern.class, String.class));
+            NAME_AT = MethodHandles.arrayElementGetter(CharSequence[].class);
+            OPERAND_AT = MethodHandles.arrayElementGetter(Object[].class);
+            FALSE = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0,
+                    TREE_TYPE.parameterList());
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 断言形状 -> 共享句柄树
+     */
+    private final Map<String, MethodHandle> trees = new ConcurrentHashMap<>();
+
+    private MethodHandlePredicateCompiler() {
+    }
+
+    @Override
+    public RequestPredicate compile(List<PredicateDefinition> definitions) {
+        if (definitions == null || definitions.isEmpty()) {
+            return RequestPredicate.ALWAYS;
+        }
+
+        int size = definitions.size();
+        CharSequence[] names = new CharSequence[size];
+        Object[] operands = new Object[size];
+        StringBuilder shape = new StringBuilder(size * 16);
+        for (int i = 0; i < size; i++) {
+            PredicateDefinition definition = definitions.get(i);
+            Pattern pattern = PredicateOps.validate(definition);
+            MatchMode mode = PredicateOps.modeOf(definition);
+            // 请求头名称预先转换为AsciiString，缓存其大小写无关的哈希值
+            names[i] = definition.getType() == PredicateType.HEADER
+                    ? AsciiString.cached(definition.getName()) : definition.getName();
+            operands[i] = mode == MatchMode.REGEX ? pattern : definition.getValue();
+            shape.append(definition.getType().name()).append(':').append(mode.name()).append('|');
+        }
+
+        try {
+            MethodHandle tree = trees.computeIfAbsent(shape.toString(), key -> buildTree(definitions));
+            return new MethodHandlePredicate(tree, names, operands);
+        } catch (RuntimeException e) {
+            logger.warn("断言编译为MethodHandle失败，回退到解释执行: {}", definitions, e);
+            return InterpretedPredicateCompiler.INSTANCE.compile(definitions);
+        }
+    }
+
+    /**
+     * 已缓存的句柄树数量（即不同断言形状的数量）
+     */
+    public int getTreeCount() {
+        return trees.size();
+    }
+
+    /**
+     * 构建句柄树，自后向前组合，使求值顺序与定义顺序一致
+     */
+    private static MethodHandle buildTree(List<PredicateDefinition> definitions) {
+        MethodHandle tree = null;
+        for (int i = definitions.size() - 1; i >= 0; i--) {
+            MethodHandle leaf = leaf(definitions.get(i), i);
+            tree = tree == null ? leaf : MethodHandles.guardWithTest(leaf, tree, FALSE);
+        }
+        return tree;
+    }
+
+    /**
+     * 构建第index个断言的句柄：(RouteRequest, CharSequence[], Object[])boolean
+     */
+    private static MethodHandle leaf(PredicateDefinition definition, int index) {
+        MethodHandle extractor;
+        switch (definition.getType()) {
+            case HEADER:
+                extractor = HEADER;
+                break;
+            case COOKIE:
+                extractor = COOKIE.asType(COOKIE.type().changeParameterType(1, CharSequence.class));
+                break;
+            case QUERY:
+            default:
+                extractor = QUERY.asType(QUERY.type().changeParameterType(1, CharSequence.class));
+                break;
+        }
+        // (RouteRequest, CharSequence[])String
+        extractor = MethodHandles.filterArguments(extractor, 1, MethodHandles.insertArguments(NAME_AT, 1, index));
+
+        MethodHandle operand = MethodHandles.insertArguments(OPERAND_AT, 1, index);
+        MethodHandle test;
+        switch (PredicateOps.modeOf(definition)) {
+            case EXISTS:
+                test = MethodHandles.dropArguments(EXISTS, 0, Object[].class);
+                break;
+            case PREFIX:
+                test = MethodHandles.filterArguments(STARTS_WITH, 0,
+                        operand.asType(MethodType.methodType(String.class, Object[].class)));
+                break;
+            case REGEX:
+                test = MethodHandles.filterArguments(MATCHES, 0,
+                        operand.asType(MethodType.methodType(Pattern.class, Object[].class)));
+                break;
+            case EQUALS:
+            default:
+                test = MethodHandles.filterArguments(EQUALS, 0,
+                        operand.asType(MethodType.methodType(String.class, Object[].class)));
+                break;
+        }
+        // (Object[], RouteRequest, CharSequence[])boolean -> (RouteRequest, CharSequence[], Object[])boolean
+        MethodHandle combined = MethodHandles.collectArguments(test, 1, extractor);
+        return MethodHandles.permuteArguments(combined, TREE_TYPE, 2, 0, 1);
+    }
+
+    /**
+     * 由共享句柄树执行的断言
+     */
+    private static final class MethodHandlePredicate implements RequestPredicate {
+
+        private final MethodHandle handle;
+        private final CharSequence[] names;
+        private final Object[] operands;
+
+        private MethodHandlePredicate(MethodHandle handle, CharSequence[] names, Object[] operands) {
+            this.handle = handle;
+            this.names = names;
+            this.operands = operands;
+        }
+
+        @Override
+        public boolean test(RouteRequest request) {
+            try {
+                return (boolean) handle.invokeExact(request, names, operands);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Route predicate evaluation failed", t);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.taobao.gateway.router.predicate;
+
+import java.util.List;
+
+/**
+ * 路由断言编译器接口
+ * 在路由表构建时将断言定义编译为可直接执行的 {@link RequestPredicate}
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public interface PredicateCompiler {
+
+    /**
+     * 编译断言定义列表（各断言之间为"与"关系）
+     * 
+     * @param definitions 断言定义，为空时返回 {@link RequestPredicate#ALWAYS}
+     * @return 已编译的断言
+     * @throws IllegalArgumentException 断言定义不合法
+     */
+    RequestPredicate compile(List<PredicateDefinition> definitions);
+
+    /**
+     * 根据类型获取编译器
+     */
+    static PredicateCompiler of(PredicateCompilerType type) {
+        return type == PredicateCompilerType.INTERPRETED
+                ? InterpretedPredicateCompiler.INSTANCE
+                : MethodHandlePredicateCompiler.INSTANCE;
+    }
+
+    /**
+     * 默认编译器（MethodHandle）
+     */
+    static PredicateCompiler defaultCompiler() {
+        return MethodHandlePredicateCompiler.INSTANCE;
+    }
+}
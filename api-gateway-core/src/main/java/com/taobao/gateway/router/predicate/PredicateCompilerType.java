@@ -0,0 +1,31 @@
+package com.taobao.gateway.router.predicate;
+
+/**
+ * 路由断言编译器类型枚举
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum PredicateCompilerType {
+
+    /**
+     * 编译为MethodHandle树，由JIT按路由内联
+     */
+    METHOD_HANDLE("MethodHandle编译"),
+
+    /**
+     * 解释执行断言定义
+     */
+    INTERPRETED("解释执行");
+
+    private final String description;
+
+    PredicateCompilerType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,105 @@
+package com.taobao.gateway.router.predicate;
+
+/**
+ * 路由断言定义
+ * 描述对请求头、Cookie或查询参数的一项匹配条件，同一路由的多个断言之间为"与"关系
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class PredicateDefinition {
+
+    /**
+     * 断言类型
+     */
+    private PredicateType type;
+
+    /**
+     * 请求头、Cookie或查询参数名称
+     */
+    private String name;
+
+    /**
+     * 匹配方式
+     */
+    private MatchMode mode = MatchMode.EQUALS;
+
+    /**
+     * 期望值（EXISTS时忽略）
+     */
+    private String value;
+
+    public PredicateDefinition() {
+    }
+
+    public PredicateDefinition(PredicateType type, String name, MatchMode mode, String value) {
+        this.type = type;
+        this.name = name;
+        this.mode = mode;
+        this.value = value;
+    }
+
+    /**
+     * 请求头等于指定值
+     */
+    public static PredicateDefinition header(String name, String value) {
+        return new PredicateDefinition(PredicateType.HEADER, name, MatchMode.EQUALS, value);
+    }
+
+    /**
+     * Cookie等于指定值
+     */
+    public static PredicateDefinition cookie(String name, String value) {
+        return new PredicateDefinition(PredicateType.COOKIE, name, MatchMode.EQUALS, value);
+    }
+
+    /**
+     * 查询参数等于指定值
+     */
+    public static PredicateDefinition query(String name, String value) {
+        return new PredicateDefinition(PredicateType.QUERY, name, MatchMode.EQUALS, value);
+    }
+
+    public PredicateType getType() {
+        return type;
+    }
+
+    public void setType(PredicateType type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public MatchMode getMode() {
+        return mode;
+    }
+
+    public void setMode(MatchMode mode) {
+        this.mode = mode;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return "PredicateDefinition{" +
+                "type=" + type +
+                ", name='" + name + '\'' +
+                ", mode=" + mode +
+                ", value='" + value + '\'' +
+                '}';
+    }
+}
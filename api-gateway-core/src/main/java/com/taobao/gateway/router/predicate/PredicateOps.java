@@ -0,0 +1,64 @@
+package com.taobao.gateway.router.predicate;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * 断言叶子操作
+ * 解释执行与MethodHandle编译共用同一组取值与比较方法，保证两种模式语义一致
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+final class PredicateOps {
+
+    private PredicateOps() {
+    }
+
+    static String header(RouteRequest request, CharSequence name) {
+        return request.header(name);
+    }
+
+    static String cookie(RouteRequest request, String name) {
+        return request.cookie(name);
+    }
+
+    static String query(RouteRequest request, String name) {
+        return request.query(name);
+    }
+
+    static boolean exists(String actual) {
+        return actual != null;
+    }
+
+    static boolean equalsTo(String expected, String actual) {
+        return expected.equals(actual);
+    }
+
+    static boolean startsWith(String prefix, String actual) {
+        return actual != null && actual.startsWith(prefix);
+    }
+
+    static boolean matches(Pattern pattern, String actual) {
+        return actual != null && pattern.matcher(actual).matches();
+    }
+
+    /**
+     * 校验断言定义，返回REGEX模式下预编译的Pattern（其他模式返回null）
+     */
+    static Pattern validate(PredicateDefinition definition) {
+        if (definition == null || definition.getType() == null || definition.getName() == null) {
+            throw new IllegalArgumentException("Predicate type and name must not be null: " + definition);
+        }
+        MatchMode mode = Objects.requireNonNullElse(definition.getMode(), MatchMode.EQUALS);
+        if (mode != MatchMode.EXISTS && definition.getValue() == null) {
+            throw new IllegalArgumentException("Predicate value must not be null: " + definition);
+        }
+        return mode == MatchMode.REGEX ? Pattern.compile(definition.getValue()) : null;
+    }
+
+    static MatchMode modeOf(PredicateDefinition definition) {
+        return Objects.requireNonNullElse(definition.getMode(), MatchMode.EQUALS);
+    }
+}
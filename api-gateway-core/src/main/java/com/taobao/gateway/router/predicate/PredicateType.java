@@ -0,0 +1,36 @@
+package com.taobao.gateway.router.predicate;
+
+/**
+ * 路由断言类型枚举
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public enum PredicateType {
+
+    /**
+     * 请求头
+     */
+    HEADER("请求头"),
+
+    /**
+     * Cookie
+     */
+    COOKIE("Cookie"),
+
+    /**
+     * 查询参数
+     */
+    QUERY("查询参数");
+
+    private final String description;
+
+    PredicateType(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
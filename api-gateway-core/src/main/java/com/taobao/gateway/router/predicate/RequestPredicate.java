@@ -0,0 +1,25 @@
+package com.taobao.gateway.router.predicate;
+
+/**
+ * 已编译的路由断言
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@FunctionalInterface
+public interface RequestPredicate {
+
+    /**
+     * 恒为真的断言（路由未配置断言时使用）
+     */
+    RequestPredicate ALWAYS = request -> true;
+
+    /**
+     * 判断请求是否满足断言
+     * 
+     * @param request 路由匹配请求
+     * @return 是否满足
+     */
+    boolean test(RouteRequest request);
+}
@@ -0,0 +1,36 @@
+package com.taobao.gateway.router.predicate;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 路由断言配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.routing.predicate")
+public class RoutePredicateConfig {
+
+    /**
+     * 断言编译器类型
+     */
+    private PredicateCompilerType compiler = PredicateCompilerType.METHOD_HANDLE;
+
+    public PredicateCompilerType getCompiler() {
+        return compiler;
+    }
+
+    public void setCompiler(PredicateCompilerType compiler) {
+        this.compiler = compiler;
+    }
+
+    @Override
+    public String toString() {
+        return "RoutePredicateConfig{" +
+                "compiler=" + compiler +
+                '}';
+    }
+}
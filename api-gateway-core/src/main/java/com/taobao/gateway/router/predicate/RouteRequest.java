@@ -0,0 +1,130 @@
+package com.taobao.gateway.router.predicate;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 路由匹配请求视图
+ * 封装路由匹配所需的路径、方法和请求头，查询参数仅在断言首次访问时解析，Cookie按名称在请求头中直接定位
+ * 非线程安全，仅在单个请求的处理线程内使用
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class RouteRequest {
+
+    private final String path;
+
+    private final String method;
+
+    private final HttpHeaders headers;
+
+    private final String rawQuery;
+
+    private Map<String, List<String>> queryParameters;
+
+    private RouteRequest(String path, String method, HttpHeaders headers, String rawQuery) {
+        this.path = path;
+        this.method = method;
+        this.headers = headers;
+        this.rawQuery = rawQuery;
+    }
+
+    /**
+     * 仅包含路径和方法的请求（不满足任何请求头、Cookie或查询参数断言）
+     */
+    public static RouteRequest of(String path, String method) {
+        return new RouteRequest(path, method, null, null);
+    }
+
+    /**
+     * 从HTTP请求构建，路径中的查询串被拆分为查询参数
+     */
+    public static RouteRequest from(HttpRequest request) {
+        String uri = request.uri();
+        int queryIndex = uri.indexOf('?');
+        String path = queryIndex < 0 ? uri : uri.substring(0, queryIndex);
+        String rawQuery = queryIndex < 0 ? null : uri.substring(queryIndex + 1);
+        return new RouteRequest(path, request.method().name(), request.headers(), rawQuery);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取请求头
+     */
+    public String header(CharSequence name) {
+        return headers != null ? headers.get(name) : null;
+    }
+
+    /**
+     * 获取Cookie值，同名时取第一个
+     * 只在Cookie头中定位该名称，不解析其余Cookie，除取出的值外不分配对象
+     */
+    public String cookie(String name) {
+        String header = header(HttpHeaderNames.COOKIE);
+        if (header == null) {
+            return null;
+        }
+        int length = header.length();
+        int i = 0;
+        while (i < length) {
+            char c = header.charAt(i);
+            if (c == ' ' || c == '\t') {
+                i++;
+                continue;
+            }
+            int end = header.indexOf(';', i);
+            if (end < 0) {
+                end = length;
+            }
+            int nameEnd = i + name.length();
+            if (nameEnd < end && header.charAt(nameEnd) == '=' && header.startsWith(name, i)) {
+                int start = nameEnd + 1;
+                int valueEnd = end;
+                while (valueEnd > start && (header.charAt(valueEnd - 1) == ' ' || header.charAt(valueEnd - 1) == '\t')) {
+                    valueEnd--;
+                }
+                // 与Netty的Cookie解码一致，去掉值两侧的引号
+                if (valueEnd - start >= 2 && header.charAt(start) == '"' && header.charAt(valueEnd - 1) == '"') {
+                    start++;
+                    valueEnd--;
+                }
+                return header.substring(start, valueEnd);
+            }
+            i = end + 1;
+        }
+        return null;
+    }
+
+    /**
+     * 获取查询参数（多值时取第一个）
+     */
+    public String query(String name) {
+        if (queryParameters == null) {
+            queryParameters = rawQuery == null || rawQuery.isEmpty()
+                    ? Collections.emptyMap()
+                    : new QueryStringDecoder(rawQuery, false).parameters();
+        }
+        List<String> values = queryParameters.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path + (rawQuery != null ? "?" + rawQuery : "");
+    }
+}
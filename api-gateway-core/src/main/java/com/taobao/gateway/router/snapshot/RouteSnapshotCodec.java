@@ -0,0 +1,353 @@
+package com.taobao.gateway.router.snapshot;
+
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteTable;
+import com.taobao.gateway.router.RouteType;
+import com.taobao.gateway.router.predicate.MatchMode;
+import com.taobao.gateway.router.predicate.PredicateDefinition;
+import com.taobao.gateway.router.predicate.PredicateType;
+import com.taobao.gateway.router.split.StickyKey;
+import com.taobao.gateway.router.split.WeightedTarget;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 路由表快照二进制编解码器
+ *
+ * <pre>
+ * 文件布局（大端序）：
+ *   int   magic          固定为 0x47575254 ("GWRT")
+ *   short formatVersion  格式版本
+ *   long  tableVersion   路由表版本号
+ *   long  createdAt      写入时间戳（毫秒）
+ *   int   routeCount     路由数量
+ *   route[routeCount]    路由记录
+ *   long  checksum       以上全部内容的CRC32
+ *
+ * 路由记录：
+ *   string id, path, method, target   (int长度 + UTF-8字节，null记为-1)
+ *   byte   type                       RouteType序号
+ *   int    weight, timeout
+ *   byte   enabled
+ *   int    parameterCount, string[2 * parameterCount] parameters
+ *   int    predicateCount                  (格式版本2起)
+ *   predicate[predicateCount]: byte type, byte mode, string name, string value
+ *   int    targetCount                     (格式版本3起)
+ *   target[targetCount]: string name, string target, int weight
+ *   byte   stickyType (-1表示无), string stickyName
+ *   string group                           (格式版本4起)
+ *   int    filterCount, string[filterCount] filters
+ * </pre>
+ *
+ * 写入时先写临时文件再原子替换，读取时通过 {@link FileChannel#map} 内存映射整个文件，
+ * 单次顺序扫描完成解码，不经过逐条路由的添加流程
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class RouteSnapshotCodec {
+
+    /**
+     * 文件魔数
+     */
+    static final int MAGIC = 0x47575254;
+
+    /**
+     * 当前格式版本
+     */
+    static final short FORMAT_VERSION = 4;
+
+    /**
+     * 仍可读取的最低格式版本
+     */
+    private static final short MIN_FORMAT_VERSION = 1;
+
+    /**
+     * 文件头长度
+     */
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 + 4;
+
+    /**
+     * 校验和长度
+     */
+    private static final int CHECKSUM_SIZE = 8;
+
+    private static final RouteType[] ROUTE_TYPES = RouteType.values();
+
+    private static final PredicateType[] PREDICATE_TYPES = PredicateType.values();
+
+    private static final MatchMode[] MATCH_MODES = MatchMode.values();
+
+    private RouteSnapshotCodec() {
+    }
+
+    /**
+     * 将路由表写入快照文件
+     *
+     * @param table 路由表
+     * @param file 快照文件
+     * @throws IOException 写入失败
+     */
+    public static void write(RouteTable table, Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = Files.newOutputStream(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(fileOut, 64 * 1024), crc));
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(table.getVersion());
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(table.size());
+            for (Route route : table.getRoutes()) {
+                writeRoute(out, route);
+            }
+            out.flush();
+            // 校验和不参与自身的计算，直接写入底层流
+            DataOutputStream trailer = new DataOutputStream(fileOut);
+            trailer.writeLong(crc.getValue());
+            trailer.flush();
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeRoute(DataOutputStream out, Route route) throws IOException {
+        writeString(out, route.getId());
+        writeString(out, route.getPath());
+        writeString(out, route.getMethod());
+        writeString(out, route.getTarget());
+        out.writeByte(route.getType() != null ? route.getType().ordinal() : RouteType.EXACT.ordinal());
+        out.writeInt(route.getWeight());
+        out.writeInt(route.getTimeout());
+        out.writeBoolean(route.isEnabled());
+
+        Map<String, String> parameters = route.getParameters();
+        if (parameters == null || parameters.isEmpty()) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(parameters.size());
+            for (Map.Entry<String, String> entry : parameters.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+
+        List<PredicateDefinition> predicates = route.getPredicates();
+        if (predicates == null || predicates.isEmpty()) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(predicates.size());
+            for (PredicateDefinition predicate : predicates) {
+                out.writeByte(predicate.getType().ordinal());
+                out.writeByte(predicate.getMode() != null ? predicate.getMode().ordinal() : MatchMode.EQUALS.ordinal());
+                writeString(out, predicate.getName());
+                writeString(out, predicate.getValue());
+            }
+        }
+
+        List<WeightedTarget> targets = route.getTargets();
+        if (targets == null || targets.isEmpty()) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(targets.size());
+            for (WeightedTarget target : targets) {
+                writeString(out, target.getName());
+                writeString(out, target.getTarget());
+                out.writeInt(target.getWeight());
+            }
+        }
+        StickyKey sticky = route.getSticky();
+        if (sticky == null || sticky.getType() == null) {
+            out.writeByte(-1);
+            writeString(out, null);
+        } else {
+            out.writeByte(sticky.getType().ordinal());
+            writeString(out, sticky.getName());
+        }
+
+        writeString(out, route.getGroup());
+        List<String> filters = route.getFilters();
+        if (filters == null || filters.isEmpty()) {
+            out.writeInt(0);
+        } else {
+            out.writeInt(filters.size());
+            for (String filter : filters) {
+                writeString(out, filter);
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 通过内存映射读取快照文件
+     *
+     * @param file 快照文件
+     * @return 快照内容
+     * @throws IOException 文件不存在、格式不兼容或校验失败
+     */
+    public static RouteSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + CHECKSUM_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid route snapshot size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(buffer, (int) size);
+        }
+    }
+
+    private static RouteSnapshot decode(ByteBuffer buffer, int size) throws IOException {
+        int bodySize = size - CHECKSUM_SIZE;
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.limit(bodySize);
+        crc.update(body);
+        if (crc.getValue() != buffer.getLong(bodySize)) {
+            throw new IOException("Route snapshot checksum mismatch");
+        }
+
+        buffer.limit(bodySize);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a route snapshot file");
+        }
+        short formatVersion = buffer.getShort();
+        if (formatVersion < MIN_FORMAT_VERSION || formatVersion > FORMAT_VERSION) {
+            throw new IOException("Unsupported route snapshot format: " + formatVersion);
+        }
+        long tableVersion = buffer.getLong();
+        long createdAt = buffer.getLong();
+        int routeCount = buffer.getInt();
+
+        byte[] scratch = new byte[256];
+        List<Route> routes = new ArrayList<>(routeCount);
+        for (int i = 0; i < routeCount; i++) {
+            Route route = new Route();
+            route.setId(readString(buffer, scratch));
+            route.setPath(readString(buffer, scratch));
+            route.setMethod(readString(buffer, scratch));
+            route.setTarget(readString(buffer, scratch));
+            route.setType(ROUTE_TYPES[buffer.get()]);
+            route.setWeight(buffer.getInt());
+            route.setTimeout(buffer.getInt());
+            route.setEnabled(buffer.get() != 0);
+
+            int parameterCount = buffer.getInt();
+            if (parameterCount > 0) {
+                Map<String, String> parameters = new ConcurrentHashMap<>(parameterCount * 2);
+                for (int j = 0; j < parameterCount; j++) {
+                    String key = readString(buffer, scratch);
+                    String value = readString(buffer, scratch);
+                    if (key != null && value != null) {
+                        parameters.put(key, value);
+                    }
+                }
+                route.setParameters(parameters);
+            }
+
+            if (formatVersion >= 2) {
+                int predicateCount = buffer.getInt();
+                List<PredicateDefinition> predicates = new ArrayList<>(predicateCount);
+                for (int j = 0; j < predicateCount; j++) {
+                    PredicateType type = PREDICATE_TYPES[buffer.get()];
+                    MatchMode mode = MATCH_MODES[buffer.get()];
+                    predicates.add(new PredicateDefinition(type, readString(buffer, scratch), mode,
+                            readString(buffer, scratch)));
+                }
+                route.setPredicates(predicates);
+            }
+
+            if (formatVersion >= 3) {
+                int targetCount = buffer.getInt();
+                List<WeightedTarget> targets = new ArrayList<>(targetCount);
+                for (int j = 0; j < targetCount; j++) {
+                    String name = readString(buffer, scratch);
+                    String target = readString(buffer, scratch);
+                    targets.add(new WeightedTarget(name, target, buffer.getInt()));
+                }
+                route.setTargets(targets);
+                byte stickyType = buffer.get();
+                String stickyName = readString(buffer, scratch);
+                if (stickyType >= 0) {
+                    route.setSticky(new StickyKey(PREDICATE_TYPES[stickyType], stickyName));
+                }
+            }
+
+            if (formatVersion >= 4) {
+                route.setGroup(readString(buffer, scratch));
+                int filterCount = buffer.getInt();
+                List<String> filters = new ArrayList<>(filterCount);
+                for (int j = 0; j < filterCount; j++) {
+                    filters.add(readString(buffer, scratch));
+                }
+                route.setFilters(filters);
+            }
+            routes.add(route);
+        }
+        return new RouteSnapshot(tableVersion, createdAt, routes);
+    }
+
+    private static String readString(ByteBuffer buffer, byte[] scratch) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+        buffer.get(bytes, 0, length);
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 快照内容
+     */
+    public static final class RouteSnapshot {
+        private final long version;
+        private final long createdAt;
+        private final List<Route> routes;
+
+        RouteSnapshot(long version, long createdAt, List<Route> routes) {
+            this.version = version;
+            this.createdAt = createdAt;
+            this.routes = routes;
+        }
+
+        public long getVersion() { return version; }
+        public long getCreatedAt() { return createdAt; }
+        public List<Route> getRoutes() { return routes; }
+    }
+}
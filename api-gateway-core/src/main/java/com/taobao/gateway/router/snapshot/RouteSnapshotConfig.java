@@ -0,0 +1,64 @@
+package com.taobao.gateway.router.snapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 路由表快照配置
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.routing.snapshot")
+public class RouteSnapshotConfig {
+
+    /**
+     * 是否启用路由表快照
+     */
+    private boolean enabled = true;
+
+    /**
+     * 快照文件路径
+     */
+    private String path = "data/route-table.snapshot";
+
+    /**
+     * 启动时是否从快照恢复路由表
+     */
+    private boolean loadOnStartup = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public boolean isLoadOnStartup() {
+        return loadOnStartup;
+    }
+
+    public void setLoadOnStartup(boolean loadOnStartup) {
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteSnapshotConfig{" +
+                "enabled=" + enabled +
+                ", path='" + path + '\'' +
+                ", loadOnStartup=" + loadOnStartup +
+                '}';
+    }
+}
@@ -0,0 +1,160 @@
+package com.taobao.gateway.router.snapshot;
+
+import com.taobao.gateway.router.RouteTable;
+import com.taobao.gateway.router.RouteTableListener;
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 路由表快照管理器
+ * 启动时从本地快照恢复路由表，使网关在配置源可达之前即可提供路由匹配；
+ * 运行期每次提交新版本后异步写入快照，连续提交只落盘最新版本
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class RouteSnapshotManager implements RouteTableListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteSnapshotManager.class);
+
+    @Autowired
+    private DefaultRouteMatcher routeMatcher;
+
+    @Autowired
+    private RouteSnapshotConfig config;
+
+    /** 待写入的最新路由表 */
+    private final AtomicReference<RouteTable> pending = new AtomicReference<>();
+
+    /** 已写入快照的版本 */
+    private volatile long writtenVersion = -1;
+
+    private ExecutorService writer;
+
+    public RouteSnapshotManager() {
+    }
+
+    public RouteSnapshotManager(DefaultRouteMatcher routeMatcher, RouteSnapshotConfig config) {
+        this.routeMatcher = routeMatcher;
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled()) {
+            logger.info("路由表快照未启用");
+            return;
+        }
+        if (config.isLoadOnStartup()) {
+            load();
+        }
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "route-snapshot-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        routeMatcher.addListener(this);
+        logger.info("路由表快照已启用: {}", config);
+    }
+
+    /**
+     * 从快照文件恢复路由表
+     *
+     * @return 是否已恢复
+     */
+    public boolean load() {
+        Path file = Paths.get(config.getPath());
+        if (!Files.exists(file)) {
+            logger.info("路由表快照不存在，跳过恢复: {}", file);
+            return false;
+        }
+        long startTime = System.nanoTime();
+        try {
+            RouteSnapshotCodec.RouteSnapshot snapshot = RouteSnapshotCodec.read(file);
+            boolean restored = routeMatcher.restore(snapshot.getRoutes(), snapshot.getVersion());
+            if (restored) {
+                writtenVersion = snapshot.getVersion();
+            }
+            logger.info("加载路由表快照: 版本 {}, 路由数 {}, 耗时 {}ms", snapshot.getVersion(),
+                    snapshot.getRoutes().size(), (System.nanoTime() - startTime) / 1_000_000);
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            // 快照损坏时不影响启动，等待配置源推送
+            logger.warn("路由表快照不可用，忽略: {}", file, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void onCommit(RouteTable table) {
+        // 仅在没有待写任务时提交，写线程总是取最新版本
+        if (pending.getAndSet(table) == null) {
+            try {
+                writer.execute(this::flush);
+            } catch (RuntimeException e) {
+                logger.warn("路由表快照写入任务提交失败", e);
+            }
+        }
+    }
+
+    /**
+     * 将最新的待写路由表落盘
+     */
+    void flush() {
+        RouteTable table = pending.getAndSet(null);
+        if (table == null || table.getVersion() <= writtenVersion) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            RouteSnapshotCodec.write(table, Paths.get(config.getPath()));
+            writtenVersion = table.getVersion();
+            logger.debug("路由表快照已写入: 版本 {}, 路由数 {}, 耗时 {}ms", table.getVersion(), table.size(),
+                    (System.nanoTime() - startTime) / 1_000_000);
+        } catch (IOException e) {
+            logger.error("路由表快照写入失败: 版本 {}", table.getVersion(), e);
+        }
+    }
+
+    /**
+     * 获取已写入快照的版本
+     */
+    public long getWrittenVersion() {
+        return writtenVersion;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (writer == null) {
+            return;
+        }
+        routeMatcher.removeListener(this);
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // 关闭前确保最新版本已落盘
+        flush();
+    }
+}
@@ -0,0 +1,70 @@
+package com.taobao.gateway.router.split;
+
+import com.taobao.gateway.router.predicate.PredicateType;
+
+/**
+ * 粘性分流键
+ * 指定用于计算哈希的请求头、Cookie或查询参数，同一取值的请求始终分配到同一目标
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class StickyKey {
+
+    /**
+     * 取值来源
+     */
+    private PredicateType type;
+
+    /**
+     * 请求头、Cookie或查询参数名称
+     */
+    private String name;
+
+    public StickyKey() {
+    }
+
+    public StickyKey(PredicateType type, String name) {
+        this.type = type;
+        this.name = name;
+    }
+
+    /**
+     * 按请求头粘性分流
+     */
+    public static StickyKey header(String name) {
+        return new StickyKey(PredicateType.HEADER, name);
+    }
+
+    /**
+     * 按Cookie粘性分流
+     */
+    public static StickyKey cookie(String name) {
+        return new StickyKey(PredicateType.COOKIE, name);
+    }
+
+    public PredicateType getType() {
+        return type;
+    }
+
+    public void setType(PredicateType type) {
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return "StickyKey{" +
+                "type=" + type +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,232 @@
+package com.taobao.gateway.router.split;
+
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.predicate.PredicateType;
+import com.taobao.gateway.router.predicate.RouteRequest;
+import io.netty.util.AsciiString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 加权流量分配器
+ *
+ * 在路由表构建时由路由的加权目标预计算Vose别名表，选择时只需一个64位随机数：
+ * 高32位选列，低32位与该列阈值比较决定取本列还是别名列，时间复杂度O(1)且不分配对象。
+ * 配置粘性分流键时以键值的64位哈希代替随机数，同一取值总是落到同一目标；键值缺失时退化为随机分配。
+ * 分配器不可变，随路由表快照整体发布，权重调整与路由变更原子生效
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class TrafficSplitter {
+
+    private static final double TWO_POW_32 = 4294967296.0;
+
+    private final String[] names;
+
+    private final String[] targets;
+
+    /**
+     * 各列取本列的概率阈值（按2^32缩放）
+     */
+    private final long[] thresholds;
+
+    /**
+     * 各列的别名列
+     */
+    private final int[] aliases;
+
+    /**
+     * 粘性分流键来源，为null时随机分配
+     */
+    private final PredicateType stickyType;
+
+    private final CharSequence stickyName;
+
+    private TrafficSplitter(String[] names, String[] targets, long[] thresholds, int[] aliases,
+                            PredicateType stickyType, CharSequence stickyName) {
+        this.names = names;
+        this.targets = targets;
+        this.thresholds = thresholds;
+        this.aliases = aliases;
+        this.stickyType = stickyType;
+        this.stickyName = stickyName;
+    }
+
+    /**
+     * 根据路由的加权目标构建分配器
+     *
+     * @param route 路由
+     * @return 分配器，路由未配置加权目标时返回null
+     * @throws IllegalArgumentException 加权目标不合法或权重全部为0
+     */
+    public static TrafficSplitter of(Route route) {
+        List<WeightedTarget> configured = route.getTargets();
+        if (configured == null || configured.isEmpty()) {
+            return null;
+        }
+
+        List<WeightedTarget> active = new ArrayList<>(configured.size());
+        long total = 0;
+        for (WeightedTarget target : configured) {
+            if (target == null || target.getTarget() == null) {
+                throw new IllegalArgumentException("Weighted target must not be null: " + route.getId());
+            }
+            if (target.getWeight() > 0) {
+                active.add(target);
+                total += target.getWeight();
+            }
+        }
+        if (active.isEmpty()) {
+            throw new IllegalArgumentException("All weighted targets have zero weight: " + route.getId());
+        }
+
+        int n = active.size();
+        String[] names = new String[n];
+        String[] targets = new String[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = active.get(i).getName();
+            targets[i] = active.get(i).getTarget();
+        }
+        long[] thresholds = new long[n];
+        int[] aliases = new int[n];
+        buildAliasTable(active, total, thresholds, aliases);
+
+        StickyKey sticky = route.getSticky();
+        PredicateType stickyType = null;
+        CharSequence stickyName = null;
+        if (sticky != null && sticky.getType() != null && sticky.getName() != null) {
+            stickyType = sticky.getType();
+            stickyName = stickyType == PredicateType.HEADER ? AsciiString.cached(sticky.getName()) : sticky.getName();
+        }
+        return new TrafficSplitter(names, targets, thresholds, aliases, stickyType, stickyName);
+    }
+
+    /**
+     * Vose别名法：列间转移的概率余量以整数累计，阈值换算为2^32缩放时取double，每列误差不超过2^-32
+     */
+    private static void buildAliasTable(List<WeightedTarget> active, long total, long[] thresholds, int[] aliases) {
+        int n = active.size();
+        // 第i列的缩放概率为 scaled[i] / total
+        long[] scaled = new long[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (long) active.get(i).getWeight() * n;
+            if (scaled[i] < total) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            thresholds[less] = (long) ((double) scaled[less] / total * TWO_POW_32);
+            aliases[less] = more;
+            scaled[more] -= total - scaled[less];
+            if (scaled[more] < total) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        while (largeSize > 0) {
+            int column = large[--largeSize];
+            thresholds[column] = 1L << 32;
+            aliases[column] = column;
+        }
+        while (smallSize > 0) {
+            int column = small[--smallSize];
+            thresholds[column] = 1L << 32;
+            aliases[column] = column;
+        }
+    }
+
+    /**
+     * 为请求选择目标下标
+     *
+     * @param request 路由匹配请求
+     * @return 目标下标
+     */
+    public int select(RouteRequest request) {
+        if (stickyType != null) {
+            String key = stickyValue(request);
+            if (key != null) {
+                return select(hash(key));
+            }
+        }
+        return select(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * 由64位随机数或哈希值选择目标下标
+     */
+    int select(long bits) {
+        int column = (int) (((bits >>> 32) * targets.length) >>> 32);
+        return (bits & 0xFFFFFFFFL) < thresholds[column] ? column : aliases[column];
+    }
+
+    private String stickyValue(RouteRequest request) {
+        switch (stickyType) {
+            case HEADER:
+                return request.header(stickyName);
+            case COOKIE:
+                return request.cookie((String) stickyName);
+            case QUERY:
+            default:
+                return request.query((String) stickyName);
+        }
+    }
+
+    /**
+     * 64位字符串哈希（FNV-1a + 末尾混淆），逐字符计算不产生中间对象
+     */
+    static long hash(CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * 获取目标地址
+     */
+    public String getTarget(int index) {
+        return targets[index];
+    }
+
+    /**
+     * 获取目标名称
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * 目标数量（不含权重为0的目标）
+     */
+    public int size() {
+        return targets.length;
+    }
+
+    /**
+     * 是否启用粘性分流
+     */
+    public boolean isSticky() {
+        return stickyType != null;
+    }
+}
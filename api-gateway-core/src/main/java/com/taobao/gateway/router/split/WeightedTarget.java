@@ -0,0 +1,69 @@
+package com.taobao.gateway.router.split;
+
+/**
+ * 加权目标
+ * 灰度发布时一条路由可携带多个目标（如stable、canary），按权重分配流量
+ * 
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class WeightedTarget {
+
+    /**
+     * 目标名称（如stable、canary）
+     */
+    private String name;
+
+    /**
+     * 目标服务地址
+     */
+    private String target;
+
+    /**
+     * 权重，小于等于0时不分配流量
+     */
+    private int weight;
+
+    public WeightedTarget() {
+    }
+
+    public WeightedTarget(String name, String target, int weight) {
+        this.name = name;
+        this.target = target;
+        this.weight = weight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    public void setTarget(String target) {
+        this.target = target;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String toString() {
+        return "WeightedTarget{" +
+                "name='" + name + '\'' +
+                ", target='" + target + '\'' +
+                ", weight=" + weight +
+                '}';
+    }
+}
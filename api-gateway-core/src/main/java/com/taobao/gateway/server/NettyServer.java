@@ -2,6 +2,7 @@ package com.taobao.gateway.server;
 
 import com.taobao.gateway.config.NettyConfig;
 import com.taobao.gateway.handler.HttpRequestHandler;
+import com.taobao.gateway.ipaccess.IpAccessHandler;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
@@ -39,8 +40,11 @@ public class NettyServer {
     @Autowired
     private HttpRequestHandler httpRequestHandler;
 
+    @Autowired(required = false)
+    private IpAccessHandler ipAccessHandler;
+
     private EventLoopGroup bossGroup;
-    private EventLoopGroup workerGroup;
+    private volatile EventLoopGroup workerGroup;
     private Channel serverChannel;
 
     /**
@@ -66,7 +70,12 @@ public class NettyServer {
                             // 配置Channel管道
                             ch.pipeline()
                                     // HTTP编解码器
-                                    .addLast(new HttpServerCodec())
+                                    .addLast(new HttpServerCodec());
+                            // IP访问控制，在聚合请求体之前拒绝
+                            if (ipAccessHandler != null && ipAccessHandler.isEnabled()) {
+                                ch.pipeline().addLast(ipAccessHandler);
+                            }
+                            ch.pipeline()
                                     // HTTP消息聚合器，限制最大消息大小为1MB
                                     .addLast(new HttpObjectAggregator(1024 * 1024))
                                     // 空闲状态检测
@@ -123,6 +132,13 @@ public class NettyServer {
         }
     }
 
+    /**
+     * 工作线程组，服务器启动前为null
+     */
+    public EventLoopGroup getWorkerGroup() {
+        return workerGroup;
+    }
+
     /**
      * 应用关闭时的清理工作
      */
@@ -0,0 +1,92 @@
+package com.taobao.gateway.transform;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 响应字段投影配置
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.transform.projection")
+public class JsonProjectionConfig {
+
+    /**
+     * 是否启用响应字段投影
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否对全部请求生效，为false时只对引用了 json-projection 过滤器的路由或路由分组生效
+     */
+    private boolean global = false;
+
+    /**
+     * 指定投影字段的查询参数名
+     */
+    private String parameter = "fields";
+
+    /**
+     * 单次请求最多允许的投影字段数
+     */
+    private int maxFields = 64;
+
+    /**
+     * 缓存的投影计划数上限，按不同的字段列表缓存
+     */
+    private long planCacheSize = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public void setParameter(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public int getMaxFields() {
+        return maxFields;
+    }
+
+    public void setMaxFields(int maxFields) {
+        this.maxFields = maxFields;
+    }
+
+    public long getPlanCacheSize() {
+        return planCacheSize;
+    }
+
+    public void setPlanCacheSize(long planCacheSize) {
+        this.planCacheSize = planCacheSize;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonProjectionConfig{" +
+                "enabled=" + enabled +
+                ", global=" + global +
+                ", parameter='" + parameter + '\'' +
+                ", maxFields=" + maxFields +
+                ", planCacheSize=" + planCacheSize +
+                '}';
+    }
+}
@@ -0,0 +1,190 @@
+package com.taobao.gateway.transform;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 响应字段投影过滤器
+ *
+ * 请求带有 fields=id,user.name,items.sku 时，只把列出的字段流式写回客户端，上游服务无需改动。
+ * 字段列表编译为投影计划后按原始参数值缓存，同一列表的后续请求直接复用。
+ * 只处理2xx的JSON响应，错误响应原样返回
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class JsonProjectionFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonProjectionFilter.class);
+
+    public static final String NAME = "json-projection";
+
+    private final JsonProjectionConfig config;
+
+    private final ByteBufAllocator allocator;
+
+    private final Cache<String, JsonTransformSpec> plans;
+
+    @Autowired(required = false)
+    private DefaultFilterChain filterChain;
+
+    private final LongAdder projected = new LongAdder();
+
+    private final LongAdder compiled = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public JsonProjectionFilter(JsonProjectionConfig config) {
+        this(config, PooledByteBufAllocator.DEFAULT);
+    }
+
+    public JsonProjectionFilter(JsonProjectionConfig config, ByteBufAllocator allocator) {
+        this.config = config;
+        this.allocator = allocator;
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(config.getPlanCacheSize())
+                .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled() || filterChain == null) {
+            return;
+        }
+        if (config.isGlobal()) {
+            filterChain.addFilter(this);
+        } else {
+            filterChain.registerFilter(this);
+        }
+        logger.info("响应字段投影已启用: {}", config);
+    }
+
+    @Override
+    public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+        String fields = parameter(request.uri(), config.getParameter());
+        if (fields == null) {
+            return chain.doFilter(request);
+        }
+        JsonTransformSpec plan = plans.getIfPresent(fields);
+        if (plan == null) {
+            try {
+                plan = JsonTransformSpec.projection(fields, config.getMaxFields());
+            } catch (IllegalArgumentException e) {
+                rejected.increment();
+                return badRequest(e.getMessage());
+            }
+            plans.put(fields, plan);
+            compiled.increment();
+        }
+
+        FullHttpResponse response = chain.doFilter(request);
+        if (response == null || response.status().codeClass() != HttpStatusClass.SUCCESS
+                || !JsonTransformFilter.isJson(response.headers()) || !response.content().isReadable()) {
+            return response;
+        }
+        ByteBuf body;
+        try {
+            body = JsonStreamTransformer.forCurrentThread().transform(response.content(), plan, allocator);
+        } catch (IOException e) {
+            logger.debug("响应体不是合法JSON, 不做投影: {} - {}", request.uri(), e.getMessage());
+            return response;
+        }
+        FullHttpResponse projectedResponse = response.replace(body);
+        HttpUtil.setContentLength(projectedResponse, body.readableBytes());
+        response.release();
+        projected.increment();
+        return projectedResponse;
+    }
+
+    /**
+     * 读取查询参数，只解码目标参数的值
+     *
+     * @return 参数值，不存在时返回null
+     */
+    static String parameter(String uri, String name) {
+        int start = uri.indexOf('?');
+        if (start < 0) {
+            return null;
+        }
+        int length = uri.length();
+        int i = start + 1;
+        while (i < length) {
+            int end = uri.indexOf('&', i);
+            if (end < 0) {
+                end = length;
+            }
+            int valueStart = i + name.length();
+            if (valueStart < end && uri.charAt(valueStart) == '=' && uri.startsWith(name, i)) {
+                return QueryStringDecoder.decodeComponent(uri.substring(valueStart + 1, end));
+            }
+            i = end + 1;
+        }
+        return null;
+    }
+
+    private static FullHttpResponse badRequest(String message) {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.BAD_REQUEST, Unpooled.copiedBuffer(message, CharsetUtil.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        return response;
+    }
+
+    public long getProjectedCount() {
+        return projected.sum();
+    }
+
+    /**
+     * 编译过的投影计划数，与请求数之差即为缓存命中数
+     */
+    public long getCompiledPlanCount() {
+        return compiled.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCachedPlanCount() {
+        return plans.estimatedSize();
+    }
+
+    @Override
+    public int getOrder() {
+        // 在 json-transform 外层执行，投影作用于改写后的响应
+        return 240;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
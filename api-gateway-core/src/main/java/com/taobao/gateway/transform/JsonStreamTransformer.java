@@ -0,0 +1,281 @@
+package com.taobao.gateway.transform;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.taobao.gateway.transform.JsonTransformSpec.FieldSpec;
+import com.taobao.gateway.transform.JsonTransformSpec.ObjectSpec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 流式JSON转换器
+ *
+ * 输入的 {@link ByteBuf} 按底层分段依次喂给Jackson非阻塞解析器，不拷贝、不转成字符串、不构建树；
+ * 每个token按规格（改写或字段投影）直接写入从分配器申请的输出缓冲区，被丢弃的值只解析不输出。
+ * 工作内存只与嵌套深度有关，与报文大小无关。
+ * 实例保存解析状态，不是线程安全的，应按线程复用
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class JsonStreamTransformer {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final FastThreadLocal<JsonStreamTransformer> TRANSFORMERS = new FastThreadLocal<JsonStreamTransformer>() {
+        @Override
+        protected JsonStreamTransformer initialValue() {
+            return new JsonStreamTransformer();
+        }
+    };
+
+    /**
+     * 各层对象的规格，为null表示该层不需转换
+     */
+    private ObjectSpec[] specs = new ObjectSpec[16];
+
+    /**
+     * 各层是否为数组
+     */
+    private boolean[] arrays = new boolean[16];
+
+    /**
+     * 各层对象中已出现的被记录字段
+     */
+    private long[] seen = new long[16];
+
+    private int depth;
+
+    /**
+     * 下一个值对应的子对象规格
+     */
+    private ObjectSpec pending;
+
+    /**
+     * 下一个值需要跳过
+     */
+    private boolean skipNext;
+
+    /**
+     * 正在跳过的值的嵌套深度
+     */
+    private int skipDepth;
+
+    private boolean rootDone;
+
+    /**
+     * 当前线程复用的转换器
+     */
+    static JsonStreamTransformer forCurrentThread() {
+        return TRANSFORMERS.get();
+    }
+
+    /**
+     * 转换JSON报文
+     *
+     * @param input 输入报文，读索引不变
+     * @param spec 转换规格
+     * @param allocator 输出缓冲区分配器
+     * @return 转换后的报文，由调用方释放
+     * @throws IOException 输入不是合法的JSON
+     */
+    public ByteBuf transform(ByteBuf input, JsonTransformSpec spec, ByteBufAllocator allocator) throws IOException {
+        ByteBuf output = allocator.buffer(Math.max(256, input.readableBytes()));
+        boolean success = false;
+        depth = 0;
+        pending = null;
+        skipNext = false;
+        skipDepth = 0;
+        rootDone = false;
+        try (JsonParser parser = FACTORY.createNonBlockingByteBufferParser();
+             JsonGenerator generator = FACTORY.createGenerator((OutputStream) new ByteBufOutputStream(output))) {
+            ByteBufferFeeder feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+            if (input.isReadable()) {
+                for (ByteBuffer chunk : input.nioBuffers(input.readerIndex(), input.readableBytes())) {
+                    feeder.feedInput(chunk);
+                    drain(parser, generator, spec.root());
+                }
+            }
+            feeder.endOfInput();
+            drain(parser, generator, spec.root());
+            if (!rootDone) {
+                throw new JsonParseException(parser, "JSON报文不完整");
+            }
+            generator.flush();
+            success = true;
+            return output;
+        } finally {
+            if (!success) {
+                output.release();
+            }
+            Arrays.fill(specs, 0, Math.min(specs.length, depth + 1), null);
+        }
+    }
+
+    private void drain(JsonParser parser, JsonGenerator generator, ObjectSpec root) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (rootDone) {
+                throw new JsonParseException(parser, "JSON报文包含多个根值");
+            }
+            if (skip(token)) {
+                continue;
+            }
+            switch (token) {
+                case START_OBJECT:
+                    push(childSpec(root), false);
+                    generator.writeStartObject();
+                    break;
+                case START_ARRAY:
+                    push(childSpec(root), true);
+                    generator.writeStartArray();
+                    break;
+                case END_OBJECT:
+                    depth--;
+                    if (specs[depth] != null && specs[depth].hasValues) {
+                        writeMissing(generator, specs[depth], seen[depth]);
+                    }
+                    specs[depth] = null;
+                    generator.writeEndObject();
+                    rootDone = depth == 0;
+                    break;
+                case END_ARRAY:
+                    depth--;
+                    specs[depth] = null;
+                    generator.writeEndArray();
+                    rootDone = depth == 0;
+                    break;
+                case FIELD_NAME:
+                    fieldName(parser.getCurrentName(), generator);
+                    break;
+                case VALUE_STRING:
+                    generator.writeString(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    rootDone = depth == 0;
+                    break;
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    // 按原文输出，避免浮点数精度和格式变化
+                    generator.writeNumber(parser.getText());
+                    rootDone = depth == 0;
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    generator.writeBoolean(token == JsonToken.VALUE_TRUE);
+                    rootDone = depth == 0;
+                    break;
+                case VALUE_NULL:
+                    generator.writeNull();
+                    rootDone = depth == 0;
+                    break;
+                default:
+                    throw new JsonParseException(parser, "不支持的JSON token: " + token);
+            }
+        }
+    }
+
+    /**
+     * @return 当前token属于被跳过的值
+     */
+    private boolean skip(JsonToken token) {
+        if (skipNext) {
+            skipNext = false;
+            if (token.isStructStart()) {
+                skipDepth = 1;
+            }
+            return true;
+        }
+        if (skipDepth > 0) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void fieldName(String name, JsonGenerator generator) throws IOException {
+        ObjectSpec spec = specs[depth - 1];
+        FieldSpec field = spec != null ? spec.field(name) : null;
+        pending = null;
+        if (field == null) {
+            if (spec != null && spec.exclusive) {
+                skipNext = true;
+            } else {
+                generator.writeFieldName(name);
+            }
+            return;
+        }
+        if (field.index >= 0) {
+            seen[depth - 1] |= 1L << field.index;
+        }
+        if (field.remove) {
+            skipNext = true;
+        } else if (field.value != null) {
+            generator.writeFieldName(field.outputName());
+            generator.writeRawValue(field.value);
+            skipNext = true;
+        } else {
+            generator.writeFieldName(field.outputName());
+            pending = field.nested;
+        }
+    }
+
+    /**
+     * 数组中的对象沿用数组所属字段的规格
+     */
+    private ObjectSpec childSpec(ObjectSpec root) {
+        if (depth == 0) {
+            return root;
+        }
+        ObjectSpec spec = arrays[depth - 1] ? specs[depth - 1] : pending;
+        pending = null;
+        return spec;
+    }
+
+    private void push(ObjectSpec spec, boolean array) {
+        if (depth == specs.length) {
+            specs = Arrays.copyOf(specs, depth * 2);
+            arrays = Arrays.copyOf(arrays, depth * 2);
+            seen = Arrays.copyOf(seen, depth * 2);
+        }
+        specs[depth] = spec;
+        arrays[depth] = array;
+        seen[depth] = 0;
+        depth++;
+    }
+
+    /**
+     * 追加对象中未出现的写入字段，必要时创建中间对象
+     */
+    private static void writeMissing(JsonGenerator generator, ObjectSpec spec, long present) throws IOException {
+        FieldSpec[] tracked = spec.tracked;
+        for (int i = 0; i < tracked.length; i++) {
+            if ((present & (1L << i)) != 0) {
+                continue;
+            }
+            FieldSpec field = tracked[i];
+            generator.writeFieldName(field.outputName());
+            if (field.value != null) {
+                generator.writeRawValue(field.value);
+            } else {
+                generator.writeStartObject();
+                writeMissing(generator, field.nested, 0);
+                generator.writeEndObject();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.taobao.gateway.transform;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON报文转换配置
+ *
+ * 字段路径以 . 分隔，从根对象开始，经过数组时作用于数组中的每个对象；
+ * 在YAML的map中使用带 . 的路径时需写成 "[user.name]"
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+@ConfigurationProperties(prefix = "gateway.transform.json")
+public class JsonTransformConfig {
+
+    /**
+     * 是否启用JSON报文转换
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否对全部请求生效，为false时只对引用了 json-transform 过滤器的路由或路由分组生效
+     */
+    private boolean global = false;
+
+    /**
+     * 转换规则，按路径前缀匹配，前缀最长的规则生效
+     */
+    private List<Rule> rules = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    public void setGlobal(boolean global) {
+        this.global = global;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonTransformConfig{" +
+                "enabled=" + enabled +
+                ", global=" + global +
+                ", rules=" + rules +
+                '}';
+    }
+
+    /**
+     * 转换规则
+     */
+    public static class Rule {
+
+        /**
+         * 请求路径前缀
+         */
+        private String path;
+
+        /**
+         * 请求方法，为空时匹配所有方法
+         */
+        private String method;
+
+        /**
+         * 请求体转换
+         */
+        private Spec request = new Spec();
+
+        /**
+         * 响应体转换
+         */
+        private Spec response = new Spec();
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public Spec getRequest() {
+            return request;
+        }
+
+        public void setRequest(Spec request) {
+            this.request = request;
+        }
+
+        public Spec getResponse() {
+            return response;
+        }
+
+        public void setResponse(Spec response) {
+            this.response = response;
+        }
+
+        @Override
+        public String toString() {
+            return "Rule{" +
+                    "path='" + path + '\'' +
+                    ", method='" + method + '\'' +
+                    '}';
+        }
+    }
+
+    /**
+     * 一个报文的转换内容
+     */
+    public static class Spec {
+
+        /**
+         * 字段路径 -> 新字段名
+         */
+        private Map<String, String> rename = new LinkedHashMap<>();
+
+        /**
+         * 删除的字段路径
+         */
+        private List<String> remove = new ArrayList<>();
+
+        /**
+         * 字段路径 -> JSON值，字段已存在时覆盖，不存在时追加到所在对象末尾；字符串值需带引号
+         */
+        private Map<String, String> set = new LinkedHashMap<>();
+
+        public boolean isEmpty() {
+            return rename.isEmpty() && remove.isEmpty() && set.isEmpty();
+        }
+
+        public Map<String, String> getRename() {
+            return rename;
+        }
+
+        public void setRename(Map<String, String> rename) {
+            this.rename = rename;
+        }
+
+        public List<String> getRemove() {
+            return remove;
+        }
+
+        public void setRemove(List<String> remove) {
+            this.remove = remove;
+        }
+
+        public Map<String, String> getSet() {
+            return set;
+        }
+
+        public void setSet(Map<String, String> set) {
+            this.set = set;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.taobao.gateway.transform;
+
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.AsciiString;
+import io.netty.util.CharsetUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JSON报文转换过滤器
+ *
+ * 按路径前缀为请求找到转换规则，以 {@link JsonStreamTransformer} 流式改写请求体和响应体，
+ * 输出写入池化缓冲区。请求体不是合法JSON时返回400，响应体不是合法JSON时原样返回
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+@Component
+public class JsonTransformFilter implements Filter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonTransformFilter.class);
+
+    public static final String NAME = "json-transform";
+
+    private static final AsciiString JSON = AsciiString.cached("json");
+
+    private final JsonTransformConfig config;
+
+    private final ByteBufAllocator allocator;
+
+    @Autowired(required = false)
+    private DefaultFilterChain filterChain;
+
+    /**
+     * 按路径前缀长度降序排列的规则
+     */
+    private volatile CompiledRule[] rules = new CompiledRule[0];
+
+    private final LongAdder transformedRequests = new LongAdder();
+
+    private final LongAdder transformedResponses = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    @Autowired
+    public JsonTransformFilter(JsonTransformConfig config) {
+        this(config, PooledByteBufAllocator.DEFAULT);
+    }
+
+    public JsonTransformFilter(JsonTransformConfig config, ByteBufAllocator allocator) {
+        this.config = config;
+        this.allocator = allocator;
+        update(config.getRules());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!config.isEnabled() || filterChain == null) {
+            return;
+        }
+        if (config.isGlobal()) {
+            filterChain.addFilter(this);
+        } else {
+            filterChain.registerFilter(this);
+        }
+        logger.info("JSON报文转换已启用: {}", config);
+    }
+
+    /**
+     * 编译并替换全部转换规则
+     *
+     * @throws IllegalArgumentException 规则配置错误，此时保留原有规则
+     */
+    public void update(List<JsonTransformConfig.Rule> ruleConfigs) {
+        List<CompiledRule> compiled = new ArrayList<>(ruleConfigs.size());
+        for (JsonTransformConfig.Rule rule : ruleConfigs) {
+            if (rule.getPath() == null) {
+                throw new IllegalArgumentException("转换规则缺少路径: " + rule);
+            }
+            compiled.add(new CompiledRule(rule.getPath(), rule.getMethod(),
+                    JsonTransformSpec.compile(rule.getRequest()), JsonTransformSpec.compile(rule.getResponse())));
+        }
+        compiled.sort(Comparator.comparingInt((CompiledRule rule) -> rule.path.length()).reversed());
+        rules = compiled.toArray(new CompiledRule[0]);
+    }
+
+    @Override
+    public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+        CompiledRule rule = match(request);
+        if (rule == null) {
+            return chain.doFilter(request);
+        }
+        FullHttpRequest forwarded = request;
+        if (rule.request != null && isJson(request.headers()) && request.content().isReadable()) {
+            ByteBuf body;
+            try {
+                body = JsonStreamTransformer.forCurrentThread().transform(request.content(), rule.request, allocator);
+            } catch (IOException e) {
+                failures.increment();
+                logger.debug("请求体不是合法JSON: {} - {}", request.uri(), e.getMessage());
+                return badRequest();
+            }
+            forwarded = request.replace(body);
+            HttpUtil.setContentLength(forwarded, body.readableBytes());
+            transformedRequests.increment();
+        }
+
+        FullHttpResponse response;
+        try {
+            response = chain.doFilter(forwarded);
+        } finally {
+            if (forwarded != request) {
+                forwarded.release();
+            }
+        }
+        if (rule.response == null || response == null || !isJson(response.headers()) || !response.content().isReadable()) {
+            return response;
+        }
+        ByteBuf body;
+        try {
+            body = JsonStreamTransformer.forCurrentThread().transform(response.content(), rule.response, allocator);
+        } catch (IOException e) {
+            failures.increment();
+            logger.debug("响应体不是合法JSON, 不做转换: {} - {}", request.uri(), e.getMessage());
+            return response;
+        }
+        FullHttpResponse transformed = response.replace(body);
+        HttpUtil.setContentLength(transformed, body.readableBytes());
+        response.release();
+        transformedResponses.increment();
+        return transformed;
+    }
+
+    private CompiledRule match(FullHttpRequest request) {
+        String uri = request.uri();
+        for (CompiledRule rule : rules) {
+            if (uri.startsWith(rule.path) && (rule.method == null || rule.method.equalsIgnoreCase(request.method().name()))) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    static boolean isJson(HttpHeaders headers) {
+        String contentType = headers.get(HttpHeaderNames.CONTENT_TYPE);
+        return contentType != null && AsciiString.indexOfIgnoreCaseAscii(contentType, JSON, 0) >= 0;
+    }
+
+    private static FullHttpResponse badRequest() {
+        FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.BAD_REQUEST, Unpooled.copiedBuffer("Malformed JSON", CharsetUtil.UTF_8));
+        response.headers().set(HttpHeaderNames.CONTENT_TYPE, "text/plain; charset=UTF-8");
+        response.headers().set(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        return response;
+    }
+
+    public long getTransformedRequestCount() {
+        return transformedRequests.sum();
+    }
+
+    public long getTransformedResponseCount() {
+        return transformedResponses.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    @Override
+    public int getOrder() {
+        return 250;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * 编译后的转换规则
+     */
+    private static final class CompiledRule {
+
+        private final String path;
+
+        private final String method;
+
+        private final JsonTransformSpec request;
+
+        private final JsonTransformSpec response;
+
+        CompiledRule(String path, String method, JsonTransformSpec request, JsonTransformSpec response) {
+            this.path = path;
+            this.method = method == null || method.isEmpty() ? null : method;
+            this.request = request;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.taobao.gateway.transform;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译后的JSON转换规格
+ *
+ * 字段路径按层级编译为对象规格树，流式转换时每遇到一个字段只需一次哈希查找；
+ * 写入的值在编译时校验并序列化为紧凑JSON，转换时原样输出
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public final class JsonTransformSpec {
+
+    /**
+     * 写入值必须是完整的单个JSON值，其后不能有多余内容
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+
+    private final ObjectSpec root;
+
+    private JsonTransformSpec(ObjectSpec root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译转换配置
+     *
+     * @return 转换规格，配置为空时返回null
+     * @throws IllegalArgumentException 路径冲突或写入值不是合法JSON
+     */
+    public static JsonTransformSpec compile(JsonTransformConfig.Spec spec) {
+        if (spec == null || spec.isEmpty()) {
+            return null;
+        }
+        ObjectSpec root = new ObjectSpec();
+        for (Map.Entry<String, String> entry : spec.getRename().entrySet()) {
+            root.resolve(entry.getKey()).rename = entry.getValue();
+        }
+        for (String path : spec.getRemove()) {
+            root.resolve(path).remove = true;
+        }
+        for (Map.Entry<String, String> entry : spec.getSet().entrySet()) {
+            FieldSpec field = root.resolve(entry.getKey());
+            JsonNode value;
+            try {
+                value = entry.getValue() == null ? null : MAPPER.readTree(entry.getValue());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("写入值不是合法JSON: " + entry.getKey() + "=" + entry.getValue(), e);
+            }
+            // 空串解析为MissingNode，序列化为空内容，原样输出会产生非法JSON
+            if (value == null || value.isMissingNode() || value.isPojo()) {
+                throw new IllegalArgumentException("写入值不是合法JSON: " + entry.getKey() + "=" + entry.getValue());
+            }
+            field.value = value.toString();
+        }
+        root.freeze();
+        return new JsonTransformSpec(root);
+    }
+
+    /**
+     * 编译字段投影，如 id,user.name,items.sku，只保留列出的字段
+     *
+     * 列出对象本身（如 user）时保留其全部内容；数组对其中的对象透明
+     *
+     * @param fields 逗号分隔的字段路径
+     * @param maxFields 最多允许的字段数
+     * @throws IllegalArgumentException 字段为空、格式错误或超过数量限制
+     */
+    public static JsonTransformSpec projection(String fields, int maxFields) {
+        ObjectSpec root = new ObjectSpec();
+        root.exclusive = true;
+        int count = 0;
+        for (String path : fields.split(",")) {
+            path = path.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            if (++count > maxFields) {
+                throw new IllegalArgumentException("投影字段数超过限制: " + maxFields);
+            }
+            root.include(path);
+        }
+        if (count == 0) {
+            throw new IllegalArgumentException("投影字段为空");
+        }
+        root.freeze();
+        return new JsonTransformSpec(root);
+    }
+
+    ObjectSpec root() {
+        return root;
+    }
+
+    /**
+     * 一个对象层级的转换规格
+     */
+    static final class ObjectSpec {
+
+        private final Map<String, FieldSpec> fields = new LinkedHashMap<>();
+
+        /**
+         * 需要记录是否出现过的字段（写入值或子对象中有写入值），对象结束时按配置顺序补齐缺失的字段
+         */
+        FieldSpec[] tracked = new FieldSpec[0];
+
+        boolean hasValues;
+
+        /**
+         * 为true时只输出列出的字段
+         */
+        boolean exclusive;
+
+        FieldSpec field(String name) {
+            return fields.get(name);
+        }
+
+        private FieldSpec resolve(String path) {
+            ObjectSpec current = this;
+            String[] names = path.split("\\.");
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].isEmpty()) {
+                    throw new IllegalArgumentException("字段路径格式错误: " + path);
+                }
+                FieldSpec field = current.fields.computeIfAbsent(names[i], FieldSpec::new);
+                if (i == names.length - 1) {
+                    return field;
+                }
+                if (field.nested == null) {
+                    field.nested = new ObjectSpec();
+                }
+                current = field.nested;
+            }
+            throw new IllegalArgumentException("字段路径为空");
+        }
+
+        private void include(String path) {
+            ObjectSpec current = this;
+            String[] names = path.split("\\.");
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].isEmpty()) {
+                    throw new IllegalArgumentException("字段路径格式错误: " + path);
+                }
+                FieldSpec field = current.fields.computeIfAbsent(names[i], FieldSpec::new);
+                if (i == names.length - 1) {
+                    // 保留整个值，覆盖此前列出的子字段
+                    field.nested = null;
+                    field.whole = true;
+                    return;
+                }
+                if (field.whole) {
+                    return;
+                }
+                if (field.nested == null) {
+                    field.nested = new ObjectSpec();
+                    field.nested.exclusive = true;
+                }
+                current = field.nested;
+            }
+        }
+
+        private void freeze() {
+            List<FieldSpec> list = new ArrayList<>();
+            for (FieldSpec field : fields.values()) {
+                if (field.nested != null) {
+                    field.nested.freeze();
+                }
+                if (field.remove && (field.value != null || field.rename != null)) {
+                    throw new IllegalArgumentException("字段同时被删除和修改: " + field.name);
+                }
+                if (!field.remove && (field.value != null || (field.nested != null && field.nested.hasValues))) {
+                    field.index = list.size();
+                    list.add(field);
+                }
+            }
+            if (list.size() > 64) {
+                throw new IllegalArgumentException("同一对象中写入的字段不能超过64个");
+            }
+            tracked = list.toArray(new FieldSpec[0]);
+            hasValues = !list.isEmpty();
+        }
+    }
+
+    /**
+     * 单个字段的转换规格
+     */
+    static final class FieldSpec {
+
+        final String name;
+
+        String rename;
+
+        boolean remove;
+
+        /**
+         * 写入的JSON值
+         */
+        String value;
+
+        ObjectSpec nested;
+
+        /**
+         * 投影时保留整个值
+         */
+        boolean whole;
+
+        /**
+         * 在所属对象 tracked 中的下标，-1表示无需记录
+         */
+        int index = -1;
+
+        FieldSpec(String name) {
+            this.name = name;
+        }
+
+        String outputName() {
+            return rename != null ? rename : name;
+        }
+    }
+}
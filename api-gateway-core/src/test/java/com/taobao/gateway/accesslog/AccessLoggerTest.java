@@ -0,0 +1,150 @@
+package com.taobao.gateway.accesslog;
+
+import io.netty.handler.codec.http.HttpMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步访问日志测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class AccessLoggerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordFormat() throws Exception {
+        AccessLogger accessLogger = new AccessLogger(config(1024, 1 << 20, 3));
+        accessLogger.open();
+        assertTrue(accessLogger.log(HttpMethod.GET, "/api/items?id=1", "curl/8.0", 200,
+                TimeUnit.MICROSECONDS.toNanos(12345), 1024));
+        assertTrue(accessLogger.log(HttpMethod.POST, "/api/中文", null, 503, 0, -1));
+        accessLogger.close();
+
+        List<String> lines = Files.readAllLines(directory.resolve("access.log"), StandardCharsets.US_ASCII);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3} "
+                + "GET /api/items\\?id=1 200 12\\.345ms 1024 \"curl/8\\.0\""), lines.get(0));
+        assertTrue(lines.get(1).endsWith(" POST /api/?? 503 0.000ms - \"\""), lines.get(1));
+        assertEquals(2, accessLogger.getWrittenCount());
+    }
+
+    @Test
+    void testDropWhenFull() throws Exception {
+        AccessLogger accessLogger = new AccessLogger(config(16, 1 << 20, 3));
+        accessLogger.open();
+        int accepted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (accessLogger.log(HttpMethod.GET, "/drop/" + i, null, 200, 1000, 0)) {
+                accepted++;
+            }
+        }
+        assertEquals(16, accepted, "写线程未启动时只能写满缓冲区");
+        assertEquals(4, accessLogger.getDroppedCount());
+        assertEquals(16, accessLogger.getPendingCount());
+        accessLogger.close();
+
+        assertEquals(16, Files.readAllLines(directory.resolve("access.log")).size());
+        assertFalse(accessLogger.log(HttpMethod.GET, "/closed", null, 200, 0, 0), "关闭后不再记录");
+    }
+
+    @Test
+    void testRotation() throws Exception {
+        AccessLogger accessLogger = new AccessLogger(config(1024, 4096, 2));
+        accessLogger.open();
+        for (int i = 0; i < 200; i++) {
+            assertTrue(accessLogger.log(HttpMethod.GET, "/rotate/" + i, "agent", 200, 1000, 10));
+            if (i % 50 == 49) {
+                accessLogger.drain();
+            }
+        }
+        accessLogger.close();
+
+        assertTrue(Files.exists(directory.resolve("access.log.1")));
+        assertTrue(Files.exists(directory.resolve("access.log.2")));
+        assertFalse(Files.exists(directory.resolve("access.log.3")), "超过保留数量的历史文件被删除");
+        for (String name : new String[]{"access.log", "access.log.1", "access.log.2"}) {
+            byte[] content = Files.readAllBytes(directory.resolve(name));
+            assertTrue(content.length <= 4096);
+            assertEquals('\n', content[content.length - 1], "文件截断到最后一条完整记录: " + name);
+        }
+        List<String> last = Files.readAllLines(directory.resolve("access.log"));
+        assertTrue(last.get(last.size() - 1).contains(" /rotate/199 "));
+    }
+
+    @Test
+    void testReopenKeepsExistingLog() throws Exception {
+        AccessLogger first = new AccessLogger(config(64, 1 << 16, 3));
+        first.open();
+        first.log(HttpMethod.GET, "/first", null, 200, 0, 0);
+        first.close();
+
+        AccessLogger second = new AccessLogger(config(64, 1 << 16, 3));
+        second.open();
+        second.log(HttpMethod.GET, "/second", null, 200, 0, 0);
+        second.close();
+
+        assertTrue(Files.readAllLines(directory.resolve("access.log.1")).get(0).contains(" /first "));
+        assertTrue(Files.readAllLines(directory.resolve("access.log")).get(0).contains(" /second "));
+    }
+
+    @Test
+    void testConcurrentProducers() throws Exception {
+        AccessLogConfig config = config(256, 1 << 24, 3);
+        config.setDropPolicy(AccessLogDropPolicy.BLOCK);
+        config.setBlockTimeoutMillis(5_000);
+        AccessLogger accessLogger = new AccessLogger(config);
+        accessLogger.init();
+
+        int threads = 4;
+        int perThread = 10_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    accessLogger.log(HttpMethod.GET, "/t" + id + "/" + i, null, 200, 0, 0);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        accessLogger.close();
+
+        assertEquals(0, accessLogger.getDroppedCount());
+        assertEquals(threads * perThread, accessLogger.getWrittenCount());
+        Set<String> uris = new HashSet<>();
+        for (String line : Files.readAllLines(directory.resolve("access.log"))) {
+            uris.add(line.split(" ")[3]);
+        }
+        assertEquals(threads * perThread, uris.size(), "每条记录恰好写入一次");
+    }
+
+    private AccessLogConfig config(int ringSize, long segmentSize, int maxFiles) {
+        AccessLogConfig config = new AccessLogConfig();
+        config.setDirectory(directory.toString());
+        config.setRingSize(ringSize);
+        config.setBatchSize(64);
+        config.setSegmentSize(segmentSize);
+        config.setMaxFiles(maxFiles);
+        return config;
+    }
+}
@@ -0,0 +1,285 @@
+package com.taobao.gateway.filter;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步过滤器链测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class AsyncFilterChainTest {
+
+    private EventLoop eventLoop;
+
+    private ScheduledExecutorService remote;
+
+    private ExecutorService offload;
+
+    private final List<String> trace = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        eventLoop = new DefaultEventLoop();
+        remote = Executors.newSingleThreadScheduledExecutor();
+        offload = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        remote.shutdownNow();
+        offload.shutdownNow();
+    }
+
+    @Test
+    void testMixedFiltersRunInOrderAndResumeOnEventLoop() throws Exception {
+        DefaultFilterChain chain = newChain();
+        chain.addFilter(new TraceFilter("sync-a", 100));
+        chain.addAsyncFilter(new RemoteFilter("async-b", 200, null));
+        chain.addFilter(new TraceFilter("sync-c", 300));
+        chain.addAsyncFilter(new RemoteFilter("async-d", 400, null));
+
+        FullHttpResponse response = execute(chain);
+
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(List.of(
+                "sync-a:pre", "async-b:pre", "sync-c:pre", "async-d:pre",
+                "async-d:post", "sync-c:post:200", "async-b:post", "sync-a:post:200"), stripThreads());
+        // 异步过滤器的后置阶段均在事件循环上执行
+        for (String entry : trace) {
+            if (entry.startsWith("async-") && entry.contains(":post")) {
+                assertTrue(entry.endsWith("@loop"), entry);
+            }
+            if (entry.startsWith("sync-")) {
+                assertFalse(entry.endsWith("@loop"), "同步过滤器应被卸载: " + entry);
+            }
+        }
+    }
+
+    @Test
+    void testShortCircuit() throws Exception {
+        DefaultFilterChain chain = newChain();
+        chain.addAsyncFilter(new RemoteFilter("auth", 100, HttpResponseStatus.UNAUTHORIZED));
+        chain.addFilter(new TraceFilter("never", 200));
+
+        FullHttpResponse response = execute(chain);
+
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, response.status());
+        assertEquals(List.of("auth:pre", "auth:post"), stripThreads());
+    }
+
+    @Test
+    void testFailedStageBecomesErrorResponse() throws Exception {
+        DefaultFilterChain chain = newChain();
+        chain.addFilter(new TraceFilter("outer", 100));
+        chain.addAsyncFilter(new AsyncFilter() {
+            @Override
+            public CompletionStage<FullHttpResponse> pre(FullHttpRequest request) {
+                CompletableFuture<FullHttpResponse> future = new CompletableFuture<>();
+                remote.schedule(() -> future.completeExceptionally(new IllegalStateException("redis down")),
+                        5, TimeUnit.MILLISECONDS);
+                return future;
+            }
+
+            @Override
+            public int getOrder() {
+                return 200;
+            }
+        });
+
+        FullHttpResponse response = execute(chain);
+
+        assertEquals(HttpResponseStatus.INTERNAL_SERVER_ERROR, response.status());
+        assertEquals(List.of("outer:pre", "outer:post:500"), stripThreads());
+    }
+
+    @Test
+    void testErrorBecomesErrorResponse() throws Exception {
+        // 同步过滤器抛出Error
+        DefaultFilterChain chain = newChain();
+        chain.addFilter(new TraceFilter("outer", 100));
+        chain.addAsyncFilter(new RemoteFilter("async", 200, null));
+        chain.addFilter(new Filter() {
+            @Override
+            public FullHttpResponse doFilter(FullHttpRequest request, FilterChain next) {
+                throw new StackOverflowError("filter recursion");
+            }
+
+            @Override
+            public int getOrder() {
+                return 300;
+            }
+        });
+        assertEquals(HttpResponseStatus.INTERNAL_SERVER_ERROR, execute(chain).status());
+        assertEquals(List.of("outer:pre", "async:pre", "async:post", "outer:post:500"), stripThreads());
+
+        // 异步过滤器的前置阶段抛出Error
+        trace.clear();
+        DefaultFilterChain asyncChain = newChain();
+        asyncChain.addFilter(new TraceFilter("outer", 100));
+        asyncChain.addAsyncFilter(new AsyncFilter() {
+            @Override
+            public CompletionStage<FullHttpResponse> pre(FullHttpRequest request) {
+                throw new NoClassDefFoundError("com/taobao/Missing");
+            }
+
+            @Override
+            public int getOrder() {
+                return 200;
+            }
+        });
+        assertEquals(HttpResponseStatus.INTERNAL_SERVER_ERROR, execute(asyncChain).status());
+        assertEquals(List.of("outer:pre", "outer:post:500"), stripThreads());
+    }
+
+    @Test
+    void testSyncOnlyChainIsOffloadedOnce() throws Exception {
+        DefaultFilterChain chain = newChain();
+        chain.addFilter(new TraceFilter("a", 100));
+        chain.addFilter(new TraceFilter("b", 200));
+
+        FullHttpResponse response = execute(chain);
+
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(List.of("a:pre", "b:pre", "b:post:200", "a:post:200"), stripThreads());
+        assertEquals(1, trace.stream().map(entry -> entry.substring(entry.indexOf('@'))).distinct().count(),
+                "只有同步过滤器时整条链在同一卸载线程执行");
+    }
+
+    @Test
+    void testSyncDoFilterWithAsyncFilters() {
+        DefaultFilterChain chain = newChain();
+        chain.addFilter(new TraceFilter("a", 100));
+        chain.addAsyncFilter(new RemoteFilter("b", 200, null));
+
+        FullHttpResponse response = chain.doFilter(request());
+
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals(List.of("a:pre", "b:pre", "b:post", "a:post:200"), stripThreads());
+    }
+
+    private DefaultFilterChain newChain() {
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.setOffloadExecutor(offload);
+        return chain;
+    }
+
+    private FullHttpResponse execute(DefaultFilterChain chain) throws Exception {
+        CompletableFuture<FullHttpResponse> result = new CompletableFuture<>();
+        eventLoop.execute(() -> chain.doFilterAsync(request(), eventLoop).whenComplete((response, error) -> {
+            if (!eventLoop.inEventLoop()) {
+                result.completeExceptionally(new AssertionError("结果未在事件循环上完成"));
+            } else if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(response);
+            }
+        }));
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private List<String> stripThreads() {
+        return trace.stream().map(entry -> entry.substring(0, entry.indexOf('@'))).collect(Collectors.toList());
+    }
+
+    private String where() {
+        return eventLoop.inEventLoop() ? "@loop" : "@" + Thread.currentThread().getName();
+    }
+
+    private static FullHttpRequest request() {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/test");
+    }
+
+    /**
+     * 记录前后阶段的同步过滤器
+     */
+    private class TraceFilter implements Filter {
+
+        private final String name;
+
+        private final int order;
+
+        TraceFilter(String name, int order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            trace.add(name + ":pre" + where());
+            FullHttpResponse response = chain.doFilter(request);
+            trace.add(name + ":post:" + response.status().code() + where());
+            return response;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+
+    /**
+     * 模拟远程调用的异步过滤器，在其他线程上延迟完成
+     */
+    private class RemoteFilter implements AsyncFilter {
+
+        private final String name;
+
+        private final int order;
+
+        private final HttpResponseStatus reject;
+
+        RemoteFilter(String name, int order, HttpResponseStatus reject) {
+            this.name = name;
+            this.order = order;
+            this.reject = reject;
+        }
+
+        @Override
+        public CompletionStage<FullHttpResponse> pre(FullHttpRequest request) {
+            trace.add(name + ":pre" + where());
+            CompletableFuture<FullHttpResponse> future = new CompletableFuture<>();
+            remote.schedule(() -> future.complete(reject == null ? null
+                    : new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, reject, Unpooled.EMPTY_BUFFER)),
+                    5, TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        @Override
+        public CompletionStage<FullHttpResponse> post(FullHttpRequest request, FullHttpResponse response) {
+            trace.add(name + ":post" + where());
+            return CompletableFuture.completedFuture(response);
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+    }
+}
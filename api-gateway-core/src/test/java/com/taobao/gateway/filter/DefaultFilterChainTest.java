@@ -0,0 +1,189 @@
+package com.taobao.gateway.filter;
+
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 默认过滤器链测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class DefaultFilterChainTest {
+
+    private static final String TRACE = "X-Filter-Trace";
+
+    @Test
+    void testFiltersRunInOrder() {
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.addFilter(new TraceFilter("c", 300, true));
+        chain.addFilter(new TraceFilter("a", 100, true));
+        chain.addFilter(new TraceFilter("disabled", 150, false));
+        chain.addFilter(new TraceFilter("b", 200, true));
+
+        FullHttpRequest request = request();
+        FullHttpResponse response = chain.doFilter(request);
+
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertEquals("a,b,c,", request.headers().get(TRACE));
+        assertEquals(3, chain.getCompiledChain().size(), "禁用的过滤器不进入快照");
+    }
+
+    @Test
+    void testShortCircuitAndError() {
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.addFilter(new TraceFilter("a", 100, true));
+        chain.addFilter(new Filter() {
+            @Override
+            public FullHttpResponse doFilter(FullHttpRequest request, FilterChain next) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public int getOrder() {
+                return 200;
+            }
+        });
+        chain.addFilter(new TraceFilter("never", 300, true));
+
+        FullHttpRequest request = request();
+        FullHttpResponse response = chain.doFilter(request);
+        assertEquals(HttpResponseStatus.INTERNAL_SERVER_ERROR, response.status());
+        assertEquals("a,", request.headers().get(TRACE));
+    }
+
+    @Test
+    void testRefreshAfterDisable() {
+        DefaultFilterChain chain = new DefaultFilterChain();
+        TraceFilter toggled = new TraceFilter("a", 100, true);
+        chain.addFilter(toggled);
+        chain.addFilter(new TraceFilter("b", 200, true));
+
+        toggled.enabled = false;
+        FullHttpRequest before = request();
+        chain.doFilter(before);
+        assertEquals("a,b,", before.headers().get(TRACE), "未刷新前沿用原快照");
+
+        chain.refresh();
+        FullHttpRequest after = request();
+        chain.doFilter(after);
+        assertEquals("b,", after.headers().get(TRACE));
+    }
+
+    @Test
+    void testNestedExecutionRestoresCursor() {
+        DefaultFilterChain inner = new DefaultFilterChain();
+        inner.addFilter(new TraceFilter("inner", 100, true));
+
+        DefaultFilterChain outer = new DefaultFilterChain();
+        outer.addFilter(new TraceFilter("a", 100, true));
+        outer.addFilter(new Filter() {
+            @Override
+            public FullHttpResponse doFilter(FullHttpRequest request, FilterChain next) {
+                inner.doFilter(request);
+                return next.doFilter(request);
+            }
+
+            @Override
+            public int getOrder() {
+                return 200;
+            }
+        });
+        outer.addFilter(new TraceFilter("c", 300, true));
+
+        FullHttpRequest request = request();
+        assertEquals(HttpResponseStatus.OK, outer.doFilter(request).status());
+        assertEquals("a,inner,c,", request.headers().get(TRACE));
+    }
+
+    @Test
+    void testConcurrentRequests() throws Exception {
+        DefaultFilterChain chain = new DefaultFilterChain();
+        for (int i = 0; i < 8; i++) {
+            chain.addFilter(new TraceFilter(String.valueOf(i), i, true));
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int failures = 0;
+                for (int i = 0; i < 5_000; i++) {
+                    FullHttpRequest request = request();
+                    FullHttpResponse response = chain.doFilter(request);
+                    if (!"0,1,2,3,4,5,6,7,".equals(request.headers().get(TRACE))) {
+                        failures++;
+                    }
+                    response.release();
+                }
+                return failures;
+            }));
+        }
+        start.countDown();
+        int failures = 0;
+        for (Future<Integer> future : futures) {
+            failures += future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, failures, "并发请求之间不应互相干扰");
+    }
+
+    private static FullHttpRequest request() {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/test");
+    }
+
+    /**
+     * 在请求头中追加自身名称的过滤器
+     */
+    private static class TraceFilter implements Filter {
+
+        private final String name;
+
+        private final int order;
+
+        private volatile boolean enabled;
+
+        TraceFilter(String name, int order, boolean enabled) {
+            this.name = name;
+            this.order = order;
+            this.enabled = enabled;
+        }
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            String trace = request.headers().get(TRACE);
+            request.headers().set(TRACE, (trace == null ? "" : trace) + name + ",");
+            return chain.doFilter(request);
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return enabled;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.taobao.gateway.filter;
+
+import com.taobao.gateway.router.CompiledRoute;
+import com.taobao.gateway.router.DefaultRouteManager;
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteBatch;
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由过滤器链测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RouteFilterChainTest {
+
+    private static final String TRACE = "X-Filter-Trace";
+
+    private DefaultRouteMatcher matcher;
+
+    private DefaultFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new DefaultRouteMatcher();
+        DefaultRouteManager routeManager = new DefaultRouteManager();
+        ReflectionTestUtils.setField(routeManager, "routeMatcher", matcher);
+
+        chain = new DefaultFilterChain();
+        ReflectionTestUtils.setField(chain, "routeManager", routeManager);
+        chain.addFilter(new TraceFilter("log", 100));
+        chain.registerFilter(new TraceFilter("auth", 200));
+        chain.registerFilter(new TraceFilter("transform", 300));
+        chain.setGroupFilters("public", Arrays.asList("auth"));
+
+        Route internal = new Route("internal", "/internal/health", "http://internal");
+        Route open = new Route("open", "/api/items", "http://items");
+        open.setGroup("public");
+        open.getFilters().add("transform");
+        matcher.applyBatch(new RouteBatch().add(internal).add(open));
+    }
+
+    @Test
+    void testRouteSpecificFilters() {
+        assertEquals("log,", trace("/internal/health"), "内部路由只执行全局过滤器");
+        assertEquals("log,auth,transform,", trace("/api/items"), "分组过滤器与路由过滤器合并");
+        assertEquals("log,", trace("/not-found"), "未匹配路由使用全局链");
+    }
+
+    @Test
+    void testCountersPerRoute() {
+        for (int i = 0; i < 10; i++) {
+            trace("/internal/health");
+            trace("/api/items");
+        }
+        RouteFilterChain internal = chain.getRouteFilterChain(compiled("internal"));
+        RouteFilterChain open = chain.getRouteFilterChain(compiled("open"));
+
+        assertEquals(1, internal.getFilterCount());
+        assertEquals(10, internal.getRequestCount());
+        assertEquals(10, internal.getExecutedFilterCount());
+        assertEquals(3, open.getFilterCount());
+        assertEquals(10, open.getRequestCount());
+        assertEquals(3.0, open.getAverageExecutedFilters(), 0.0001);
+    }
+
+    @Test
+    void testChainCachedOnSnapshotAndInvalidated() {
+        trace("/api/items");
+        RouteFilterChain first = compiled("open").getFilterChain();
+        assertNotNull(first);
+        trace("/api/items");
+        assertSame(first, compiled("open").getFilterChain(), "同一配置下复用已编译的链");
+
+        // 路由表发布新版本时，未变更路由的编译结果（含过滤器链）被复用
+        matcher.applyBatch(new RouteBatch().add(new Route("other", "/other", "http://other")));
+        assertSame(first, compiled("open").getFilterChain());
+
+        // 过滤器配置变化后重新编译
+        chain.setGroupFilters("public", null);
+        assertEquals("log,transform,", trace("/api/items"));
+        assertNotSame(first, compiled("open").getFilterChain());
+    }
+
+    @Test
+    void testUnknownFilterIsSkipped() {
+        Route route = new Route("typo", "/typo", "http://typo");
+        route.getFilters().add("no-such-filter");
+        matcher.applyBatch(new RouteBatch().add(route));
+        assertEquals("log,", trace("/typo"));
+    }
+
+    @Test
+    void testPreMatchedRouteIsNotRoutedAgain() {
+        // 调用方已匹配路由时，过滤器链不再访问路由管理器
+        ReflectionTestUtils.setField(chain, "routeManager", null);
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items");
+        chain.doFilterAsync(request, compiled("open"), null).toCompletableFuture().join().release();
+        assertEquals("log,auth,transform,", request.headers().get(TRACE));
+
+        FullHttpRequest unmatched = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items");
+        chain.doFilterAsync(unmatched, null, null).toCompletableFuture().join().release();
+        assertEquals("log,", unmatched.headers().get(TRACE), "未匹配路由使用全局链");
+    }
+
+    private CompiledRoute compiled(String id) {
+        return matcher.getRouteTable().getCompiledRoute(id);
+    }
+
+    private String trace(String uri) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        FullHttpResponse response = chain.doFilter(request);
+        response.release();
+        return request.headers().get(TRACE);
+    }
+
+    /**
+     * 在请求头中追加自身名称的过滤器
+     */
+    private static class TraceFilter implements Filter {
+
+        private final String name;
+
+        private final int order;
+
+        TraceFilter(String name, int order) {
+            this.name = name;
+            this.order = order;
+        }
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            String trace = request.headers().get(TRACE);
+            request.headers().set(TRACE, (trace == null ? "" : trace) + name + ",");
+            return chain.doFilter(request);
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
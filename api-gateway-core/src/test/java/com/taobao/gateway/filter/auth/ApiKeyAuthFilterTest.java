@@ -0,0 +1,190 @@
+package com.taobao.gateway.filter.auth;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * API密钥与请求签名鉴权过滤器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class ApiKeyAuthFilterTest {
+
+    private ApiKeyStore keyStore;
+
+    private ApiKeyAuthFilter filter;
+
+    private DefaultFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        ApiKeyConfig config = new ApiKeyConfig();
+        config.setExcludePaths(Arrays.asList("/public/", "/healthz"));
+        keyStore = new ApiKeyStore(config);
+        keyStore.update(Arrays.asList(
+                new ApiCredential("key-signed", "app-1", "secret-1"),
+                new ApiCredential("key-plain", "app-2", null)));
+        filter = new ApiKeyAuthFilter(config, keyStore);
+        chain = new DefaultFilterChain();
+        chain.addFilter(filter);
+    }
+
+    @Test
+    void testSignedRequestAccepted() throws Exception {
+        FullHttpRequest request = request(HttpMethod.POST, "/api/orders?id=1", "{\"a\":1}", "key-signed", "app-1");
+        sign(request, "secret-1", System.currentTimeMillis());
+        RequestContext context = new RequestContext(request, null);
+        RequestContext previous = RequestContext.attach(context);
+        try {
+            assertStatus(HttpResponseStatus.OK, chain.doFilter(request));
+        } finally {
+            RequestContext.restore(previous);
+        }
+        assertEquals("app-1", context.getAttribute(ApiKeyAuthFilter.APP_ID));
+
+        // 同一线程连续校验同一凭证，复用已初始化的Mac
+        FullHttpRequest second = request(HttpMethod.GET, "/api/orders", null, "key-signed", "app-1");
+        sign(second, "secret-1", System.currentTimeMillis());
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(second));
+
+        // 未配置签名密钥的应用只校验API密钥
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request(HttpMethod.GET, "/api/orders", null, "key-plain", null)));
+        assertEquals(3, filter.getAcceptedCount());
+    }
+
+    @Test
+    void testUnknownKeyRejectedByBloomFilter() {
+        assertStatus(HttpResponseStatus.UNAUTHORIZED,
+                chain.doFilter(request(HttpMethod.GET, "/api/orders", null, "key-unknown", null)));
+        assertStatus(HttpResponseStatus.UNAUTHORIZED,
+                chain.doFilter(request(HttpMethod.GET, "/api/orders", null, null, null)));
+        assertEquals(1, keyStore.getBloomRejectedCount() + keyStore.getFalsePositiveCount());
+        assertEquals(2, filter.getRejectedCount());
+
+        // 排除路径不鉴权
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request(HttpMethod.GET, "/public/ping", null, null, null)));
+    }
+
+    @Test
+    void testExcludedPathBypass() {
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request(HttpMethod.GET, "/healthz", null, null, null)));
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request(HttpMethod.GET, "/public/a/../ping?x=1", null, null, null)));
+
+        // 与JWT鉴权共用同一匹配规则：只匹配完整分段，先规范化再匹配
+        for (String uri : Arrays.asList("/healthzX", "/public/../admin", "/public/%2E%2E/admin",
+                "/public/..;/admin", "/public//..//admin")) {
+            assertStatus(HttpResponseStatus.UNAUTHORIZED, chain.doFilter(request(HttpMethod.GET, uri, null, null, null)));
+        }
+        assertEquals(5, filter.getRejectedCount());
+    }
+
+    @Test
+    void testInvalidSignatureRejected() throws Exception {
+        FullHttpRequest tampered = request(HttpMethod.POST, "/api/orders", "{\"a\":1}", "key-signed", "app-1");
+        sign(tampered, "secret-1", System.currentTimeMillis());
+        tampered.content().setByte(1, '"' + 1);
+        assertStatus(HttpResponseStatus.UNAUTHORIZED, chain.doFilter(tampered));
+
+        FullHttpRequest wrongSecret = request(HttpMethod.GET, "/api/orders", null, "key-signed", "app-1");
+        sign(wrongSecret, "secret-2", System.currentTimeMillis());
+        assertStatus(HttpResponseStatus.UNAUTHORIZED, chain.doFilter(wrongSecret));
+
+        FullHttpRequest stale = request(HttpMethod.GET, "/api/orders", null, "key-signed", "app-1");
+        sign(stale, "secret-1", System.currentTimeMillis() - 600_000);
+        assertStatus(HttpResponseStatus.UNAUTHORIZED, chain.doFilter(stale));
+
+        FullHttpRequest unsigned = request(HttpMethod.GET, "/api/orders", null, "key-signed", "app-1");
+        assertStatus(HttpResponseStatus.UNAUTHORIZED, chain.doFilter(unsigned));
+        assertEquals(4, filter.getSignatureFailureCount());
+
+        FullHttpRequest wrongApp = request(HttpMethod.GET, "/api/orders", null, "key-signed", "app-2");
+        sign(wrongApp, "secret-1", System.currentTimeMillis());
+        assertStatus(HttpResponseStatus.UNAUTHORIZED, chain.doFilter(wrongApp));
+        assertEquals(5, filter.getRejectedCount());
+    }
+
+    @Test
+    void testUpdateReplacesCredentials() {
+        ApiCredential disabled = new ApiCredential("key-disabled", "app-3", null);
+        disabled.setEnabled(false);
+        assertEquals(1, keyStore.update(Arrays.asList(new ApiCredential("key-new", "app-4", null), disabled)));
+
+        assertNull(keyStore.lookup("key-plain"));
+        assertNull(keyStore.lookup("key-disabled"));
+        assertNotNull(keyStore.lookup("key-new"));
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request(HttpMethod.GET, "/api/orders", null, "key-new", null)));
+    }
+
+    @Test
+    void testBloomFalsePositiveRate() {
+        List<ApiCredential> credentials = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            credentials.add(new ApiCredential("ak-" + i, "app-" + i, null));
+        }
+        keyStore.update(credentials);
+        for (int i = 0; i < 10000; i++) {
+            assertNotNull(keyStore.lookup("ak-" + i));
+        }
+        for (int i = 0; i < 100000; i++) {
+            assertNull(keyStore.lookup("unknown-" + i));
+        }
+        // 配置误判率为0.1%，留出足够余量
+        assertTrue(keyStore.getFalsePositiveCount() < 300, "误判数: " + keyStore.getFalsePositiveCount());
+        assertEquals(100000, keyStore.getBloomRejectedCount() + keyStore.getFalsePositiveCount());
+    }
+
+    private static FullHttpRequest request(HttpMethod method, String uri, String body, String apiKey, String appId) {
+        FullHttpRequest request = body == null
+                ? new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri)
+                : new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri,
+                        Unpooled.copiedBuffer(body, StandardCharsets.UTF_8));
+        if (apiKey != null) {
+            request.headers().set(ApiKeyAuthFilter.API_KEY_HEADER, apiKey);
+        }
+        if (appId != null) {
+            request.headers().set(ApiKeyAuthFilter.APP_ID_HEADER, appId);
+        }
+        return request;
+    }
+
+    /**
+     * 与SDK相同的签名方式
+     */
+    private static void sign(FullHttpRequest request, String secret, long timestamp) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String prefix = request.method().name() + "\n" + request.uri() + "\n" + timestamp + "\n";
+        mac.update(prefix.getBytes(StandardCharsets.UTF_8));
+        byte[] body = new byte[request.content().readableBytes()];
+        request.content().getBytes(request.content().readerIndex(), body);
+        mac.update(body);
+        request.headers().set(ApiKeyAuthFilter.TIMESTAMP_HEADER, String.valueOf(timestamp));
+        request.headers().set(ApiKeyAuthFilter.SIGNATURE_HEADER, Base64.getEncoder().encodeToString(mac.doFinal()));
+    }
+
+    private static void assertStatus(HttpResponseStatus expected, FullHttpResponse response) {
+        assertEquals(expected, response.status());
+        response.release();
+    }
+}
@@ -0,0 +1,366 @@
+package com.taobao.gateway.filter.auth;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.AsyncFilter;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import com.taobao.gateway.handler.HttpRequestHandler;
+import com.taobao.gateway.ratelimit.quota.QuotaConfig;
+import com.taobao.gateway.ratelimit.quota.QuotaFilter;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.EventLoop;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JWT鉴权过滤器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class JwtAuthFilterTest {
+
+    private static KeyPair rsa;
+
+    private static KeyPair ec;
+
+    private JwtVerifier verifier;
+
+    private DefaultFilterChain chain;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (rsa == null) {
+            KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+            rsaGenerator.initialize(2048);
+            rsa = rsaGenerator.generateKeyPair();
+            KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+            ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+            ec = ecGenerator.generateKeyPair();
+        }
+        JwtAuthConfig config = new JwtAuthConfig();
+        config.setIssuer("https://issuer.taobao.com");
+        config.setExcludePaths(Arrays.asList("/public/", "/healthz"));
+        JwksKeyStore keyStore = new JwksKeyStore();
+        assertEquals(2, keyStore.update(jwks()));
+        verifier = new JwtVerifier(config, keyStore);
+
+        chain = new DefaultFilterChain();
+        chain.addFilter(new JwtAuthFilter(config, verifier));
+    }
+
+    @Test
+    void testValidTokensAndCache() throws Exception {
+        String token = rs256(claims("alice", future()));
+        RequestContext context = new RequestContext(request("/api/items", token), null);
+        RequestContext previous = RequestContext.attach(context);
+        try {
+            FullHttpResponse response = chain.doFilter(context.getRequest());
+            assertEquals(HttpResponseStatus.OK, response.status());
+            response.release();
+        } finally {
+            RequestContext.restore(previous);
+        }
+        JwtClaims claims = context.getAttribute(JwtClaims.ATTRIBUTE);
+        assertEquals("alice", claims.getSubject());
+        assertEquals(Arrays.asList("read", "write"), claims.getScopes());
+        assertEquals("alice", context.getRequest().headers().get(JwtAuthFilter.SUBJECT_HEADER));
+
+        assertEquals(HttpResponseStatus.OK, status("/api/items", token));
+        assertEquals(HttpResponseStatus.OK, status("/api/items", es256(claims("bob", future()))));
+        assertEquals(2, verifier.getVerificationCount(), "重复令牌命中缓存，不再校验签名");
+        assertEquals(1, verifier.getCacheHitCount());
+        assertEquals(1.0 / 3, verifier.getCacheHitRate(), 0.0001);
+        assertEquals(2, verifier.getCachedTokenCount());
+    }
+
+    @Test
+    void testClaimsPropagatedThroughHttpRequestHandler() throws Exception {
+        EventLoop eventLoop = new DefaultEventLoop();
+        ExecutorService offload = Executors.newSingleThreadExecutor();
+        try {
+            chain.setOffloadExecutor(offload);
+            AtomicReference<JwtClaims> afterOffload = new AtomicReference<>();
+            AtomicReference<JwtClaims> afterResume = new AtomicReference<>();
+            // 异步前置阶段在其他线程完成，后续过滤器在事件循环和卸载线程上恢复执行
+            chain.addAsyncFilter(new AsyncFilter() {
+                @Override
+                public CompletionStage<FullHttpResponse> pre(FullHttpRequest request) {
+                    return CompletableFuture.supplyAsync(() -> null);
+                }
+
+                @Override
+                public CompletionStage<FullHttpResponse> post(FullHttpRequest request, FullHttpResponse response) {
+                    afterResume.set(claimsOf(RequestContext.current()));
+                    return CompletableFuture.completedFuture(response);
+                }
+
+                @Override
+                public int getOrder() {
+                    return 100;
+                }
+            });
+            chain.addFilter(new Filter() {
+                @Override
+                public FullHttpResponse doFilter(FullHttpRequest request, FilterChain next) {
+                    afterOffload.set(claimsOf(RequestContext.current()));
+                    return next.doFilter(request);
+                }
+
+                @Override
+                public int getOrder() {
+                    return 200;
+                }
+            });
+
+            HttpRequestHandler handler = new HttpRequestHandler();
+            ReflectionTestUtils.setField(handler, "filterChain", chain);
+            ReflectionTestUtils.setField(handler, "routeManager", null);
+            EmbeddedChannel channel = new EmbeddedChannel();
+            channel.pipeline().addLast(eventLoop, handler);
+            channel.writeInbound(request("/api/items", rs256(claims("alice", future()))));
+
+            FullHttpResponse response = null;
+            long deadline = System.currentTimeMillis() + 5000;
+            while (response == null && System.currentTimeMillis() < deadline) {
+                // 响应在事件循环上写出，同样在事件循环上读取
+                response = eventLoop.submit(() -> channel.<FullHttpResponse>readOutbound()).get();
+                if (response == null) {
+                    Thread.sleep(10);
+                }
+            }
+            assertNotNull(response);
+            assertEquals(HttpResponseStatus.OK, response.status());
+            response.release();
+            assertEquals("alice", afterOffload.get().getSubject(), "卸载线程上的过滤器可读取鉴权结果");
+            assertEquals("alice", afterResume.get().getSubject(), "回到事件循环后仍可读取鉴权结果");
+            assertNull(RequestContext.current(), "处理器返回后解除绑定");
+        } finally {
+            offload.shutdownNow();
+            eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testUserQuotaKeyedOnSubject() throws Exception {
+        QuotaConfig quota = new QuotaConfig();
+        quota.getUser().setRate(1);
+        quota.getUser().setBurst(1);
+        chain.addFilter(new QuotaFilter(quota));
+        String alice = rs256(claims("alice", future()));
+
+        assertEquals(HttpResponseStatus.OK, statusInContext(request("/api/items", alice)));
+        assertEquals(HttpResponseStatus.TOO_MANY_REQUESTS, statusInContext(request("/api/items", alice)));
+        assertEquals(HttpResponseStatus.OK, statusInContext(request("/api/items", es256(claims("bob", future())))));
+
+        // 免鉴权路径上的请求共用匿名用户，伪造的主体头不能换取新的配额
+        FullHttpRequest spoofed = request("/public/health", null);
+        spoofed.headers().set(JwtAuthFilter.SUBJECT_HEADER, "carol");
+        assertEquals(HttpResponseStatus.OK, statusInContext(spoofed));
+        spoofed = request("/public/health", null);
+        spoofed.headers().set(JwtAuthFilter.SUBJECT_HEADER, "dave");
+        assertEquals(HttpResponseStatus.TOO_MANY_REQUESTS, statusInContext(spoofed));
+    }
+
+    @Test
+    void testRejectedTokens() throws Exception {
+        String valid = rs256(claims("alice", future()));
+        String[] parts = valid.split("\\.");
+        String tampered = parts[0] + "." + base64(claims("admin", future())) + "." + parts[2];
+        String none = base64("{\"alg\":\"none\"}") + "." + parts[1] + ".";
+        String hmac = base64("{\"alg\":\"HS256\",\"kid\":\"rsa-1\"}") + "." + parts[1] + "." + parts[2];
+        String unknownKid = sign("{\"alg\":\"RS256\",\"kid\":\"other\"}", claims("alice", future()),
+                "SHA256withRSA", rsa.getPrivate());
+
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", null));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", tampered));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", none));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", hmac));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", unknownKid));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", rs256(claims("alice", 1_000_000L))));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items", "not-a-token"));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/api/items",
+                rs256("{\"sub\":\"alice\",\"iss\":\"https://evil.com\",\"exp\":" + future() + "}")));
+        assertEquals(7, verifier.getFailureCount());
+        assertEquals(0, verifier.getCachedTokenCount(), "校验失败的令牌不进入缓存");
+    }
+
+    @Test
+    void testExcludedPathAndSpoofedHeader() {
+        FullHttpRequest request = request("/public/health", null);
+        request.headers().set(JwtAuthFilter.SUBJECT_HEADER, "admin");
+        FullHttpResponse response = chain.doFilter(request);
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertNull(request.headers().get(JwtAuthFilter.SUBJECT_HEADER), "客户端伪造的主体头被移除");
+        response.release();
+    }
+
+    @Test
+    void testExcludedPathBypass() {
+        assertEquals(HttpResponseStatus.OK, status("/healthz", null));
+        assertEquals(HttpResponseStatus.OK, status("/healthz/live?verbose=1", null));
+        assertEquals(HttpResponseStatus.OK, status("/public", null));
+        assertEquals(HttpResponseStatus.OK, status("/public/./a/../health", null));
+
+        // 排除前缀只匹配完整分段
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/healthzX", null));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/publicity/items", null));
+        // 规范化后已离开排除前缀的路径照常鉴权
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/public/../admin", null));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/public/%2e%2e/admin", null));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/public/..;/admin", null));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/public\\..\\admin", null));
+        assertEquals(HttpResponseStatus.UNAUTHORIZED, status("/public/%zz/../../admin", null));
+    }
+
+    @Test
+    void testEcdsaSignatureConversion() throws Exception {
+        byte[] raw = new byte[64];
+        raw[0] = (byte) 0x80;
+        raw[63] = 0x01;
+        byte[] der = JwtAlgorithm.toDer(raw, 32);
+        // r 最高位为1需补零，s 去掉前导零后只剩1字节
+        assertEquals(2 + 2 + 33 + 2 + 1, der.length);
+        assertEquals(0x30, der[0]);
+        assertEquals(33, der[3]);
+        assertEquals(0, der[4]);
+        assertEquals(1, der[der.length - 2]);
+
+        String token = es256(claims("carol", future()));
+        assertEquals("carol", verifier.verify(token).getSubject());
+    }
+
+    private static JwtClaims claimsOf(RequestContext context) {
+        return context != null ? context.getAttribute(JwtClaims.ATTRIBUTE) : null;
+    }
+
+    private HttpResponseStatus statusInContext(FullHttpRequest request) {
+        RequestContext previous = RequestContext.attach(new RequestContext(request, null));
+        try {
+            FullHttpResponse response = chain.doFilter(request);
+            HttpResponseStatus status = response.status();
+            response.release();
+            return status;
+        } finally {
+            RequestContext.restore(previous);
+        }
+    }
+
+    private HttpResponseStatus status(String uri, String token) {
+        FullHttpResponse response = chain.doFilter(request(uri, token));
+        HttpResponseStatus status = response.status();
+        response.release();
+        return status;
+    }
+
+    private static FullHttpRequest request(String uri, String token) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        if (token != null) {
+            request.headers().set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token);
+        }
+        return request;
+    }
+
+    private static long future() {
+        return System.currentTimeMillis() / 1000 + 600;
+    }
+
+    private static String claims(String subject, long exp) {
+        return "{\"sub\":\"" + subject + "\",\"iss\":\"https://issuer.taobao.com\",\"scope\":\"read write\","
+                + "\"exp\":" + exp + "}";
+    }
+
+    private static String rs256(String payload) throws Exception {
+        return sign("{\"alg\":\"RS256\",\"kid\":\"rsa-1\"}", payload, "SHA256withRSA", rsa.getPrivate());
+    }
+
+    private static String es256(String payload) throws Exception {
+        String token = sign("{\"alg\":\"ES256\",\"kid\":\"ec-1\"}", payload, "SHA256withECDSA", ec.getPrivate());
+        // JCA输出DER编码，JWS要求 r||s 定长格式
+        int dot = token.lastIndexOf('.');
+        byte[] der = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        return token.substring(0, dot + 1) + Base64.getUrlEncoder().withoutPadding().encodeToString(derToRaw(der));
+    }
+
+    private static String sign(String header, String payload, String algorithm, PrivateKey key) throws Exception {
+        String input = base64(header) + "." + base64(payload);
+        Signature signature = Signature.getInstance(algorithm);
+        signature.initSign(key);
+        signature.update(input.getBytes(StandardCharsets.US_ASCII));
+        return input + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature.sign());
+    }
+
+    private static byte[] derToRaw(byte[] der) {
+        int offset = 2;
+        int rLength = der[offset + 1];
+        byte[] r = Arrays.copyOfRange(der, offset + 2, offset + 2 + rLength);
+        offset += 2 + rLength;
+        byte[] s = Arrays.copyOfRange(der, offset + 2, offset + 2 + der[offset + 1]);
+        byte[] raw = new byte[64];
+        copyUnsigned(r, raw, 0);
+        copyUnsigned(s, raw, 32);
+        return raw;
+    }
+
+    private static void copyUnsigned(byte[] value, byte[] raw, int offset) {
+        byte[] bytes = new BigInteger(1, value).toByteArray();
+        int start = bytes.length > 32 ? bytes.length - 32 : 0;
+        int length = bytes.length - start;
+        System.arraycopy(bytes, start, raw, offset + 32 - length, length);
+    }
+
+    private static String jwks() {
+        RSAPublicKey rsaKey = (RSAPublicKey) rsa.getPublic();
+        ECPublicKey ecKey = (ECPublicKey) ec.getPublic();
+        return "{\"keys\":["
+                + "{\"kty\":\"RSA\",\"kid\":\"rsa-1\",\"use\":\"sig\",\"alg\":\"RS256\","
+                + "\"n\":\"" + unsigned(rsaKey.getModulus()) + "\",\"e\":\"" + unsigned(rsaKey.getPublicExponent()) + "\"},"
+                + "{\"kty\":\"EC\",\"kid\":\"ec-1\",\"crv\":\"P-256\","
+                + "\"x\":\"" + unsigned(ecKey.getW().getAffineX()) + "\",\"y\":\"" + unsigned(ecKey.getW().getAffineY()) + "\"},"
+                + "{\"kty\":\"RSA\",\"kid\":\"enc-1\",\"use\":\"enc\",\"n\":\"AQAB\",\"e\":\"AQAB\"}"
+                + "]}";
+    }
+
+    private static String unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0 && bytes.length > 1) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String base64(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
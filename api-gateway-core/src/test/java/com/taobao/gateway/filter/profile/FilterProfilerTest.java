@@ -0,0 +1,196 @@
+package com.taobao.gateway.filter.profile;
+
+import com.taobao.gateway.filter.AsyncFilter;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 过滤器耗时采样测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class FilterProfilerTest {
+
+    @Test
+    void testSelfTimeExcludesDownstream() {
+        FilterProfiler profiler = new FilterProfiler();
+        profiler.setEnabled(true);
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.setFilterProfiler(profiler);
+        chain.addFilter(new SpinFilter("outer", 100, 0));
+        chain.addFilter(new SpinFilter("slow", 200, 300));
+
+        // 预热，避免解释执行和编译期间的开销计入统计
+        for (int i = 0; i < 2000; i++) {
+            chain.doFilter(request()).release();
+        }
+        profiler.reset();
+        for (int i = 0; i < 200; i++) {
+            chain.doFilter(request()).release();
+        }
+
+        List<FilterLatencySnapshot> snapshots = profiler.snapshot();
+        assertEquals(2, snapshots.size());
+        FilterLatencySnapshot slow = find(snapshots, "slow");
+        FilterLatencySnapshot outer = find(snapshots, "outer");
+        assertEquals(FilterProfiler.GLOBAL_ROUTE, slow.getRoute());
+        assertEquals(200, slow.getCount());
+        assertTrue(slow.getP50() >= 300, "自耗时应包含自身工作: " + slow);
+        assertTrue(slow.getP999() >= slow.getP99() && slow.getP99() >= slow.getP50());
+        assertTrue(outer.getP50() < slow.getP50() / 2, "外层过滤器的自耗时不应包含下游: " + outer);
+    }
+
+    @Test
+    void testDisabledAndSampling() {
+        FilterProfiler profiler = new FilterProfiler();
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.setFilterProfiler(profiler);
+        chain.addFilter(new SpinFilter("cheap", 100, 0));
+
+        for (int i = 0; i < 100; i++) {
+            chain.doFilter(request()).release();
+        }
+        assertTrue(profiler.snapshot().isEmpty(), "关闭时不记录");
+
+        profiler.setSampleRate(0.25);
+        profiler.setEnabled(true);
+        for (int i = 0; i < 20_000; i++) {
+            chain.doFilter(request()).release();
+        }
+        long count = profiler.snapshot().get(0).getCount();
+        assertEquals(5_000, count, 500);
+
+        profiler.reset();
+        assertTrue(profiler.snapshot().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> profiler.setSampleRate(1.5));
+    }
+
+    @Test
+    void testRecordsFromManyThreadsAreMerged() throws Exception {
+        FilterProfiler profiler = new FilterProfiler();
+        FilterLatency latency = profiler.latency("auth", "route-1");
+        assertSame(latency, profiler.latency("auth", "route-1"));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    latency.record(i * 1000L);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        FilterLatencySnapshot snapshot = latency.snapshot();
+        assertEquals(4000, snapshot.getCount());
+        assertEquals(500, snapshot.getP50(), 10);
+        assertEquals(990, snapshot.getP99(), 15);
+        // 再次读取时累计结果不变
+        assertEquals(4000, latency.snapshot().getCount());
+
+        profiler.latency("cheap", "route-1").record(1000L);
+        List<FilterLatencySnapshot> snapshots = profiler.snapshot();
+        assertEquals("auth", snapshots.get(0).getFilter(), "累计耗时最多的过滤器排在最前");
+        assertEquals("cheap", snapshots.get(1).getFilter());
+    }
+
+    @Test
+    void testAsyncFilterIncludesStageLatency() {
+        FilterProfiler profiler = new FilterProfiler();
+        profiler.setEnabled(true);
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.setFilterProfiler(profiler);
+        chain.addAsyncFilter(new AsyncFilter() {
+            @Override
+            public CompletionStage<FullHttpResponse> pre(FullHttpRequest request) {
+                return CompletableFuture.supplyAsync(() -> null,
+                        CompletableFuture.delayedExecutor(2, TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public int getOrder() {
+                return 100;
+            }
+
+            @Override
+            public String getName() {
+                return "remote-auth";
+            }
+        });
+
+        for (int i = 0; i < 5; i++) {
+            chain.doFilter(request()).release();
+        }
+        FilterLatencySnapshot snapshot = profiler.snapshot().get(0);
+        assertEquals("remote-auth", snapshot.getFilter());
+        assertEquals(5, snapshot.getCount());
+        assertTrue(snapshot.getP50() >= 2000, "异步过滤器耗时包含等待时间: " + snapshot);
+    }
+
+    private static FilterLatencySnapshot find(List<FilterLatencySnapshot> snapshots, String filter) {
+        return snapshots.stream().filter(s -> s.getFilter().equals(filter)).findFirst()
+                .orElseThrow(() -> new AssertionError("缺少过滤器统计: " + filter));
+    }
+
+    private static FullHttpRequest request() {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/test");
+    }
+
+    /**
+     * 在调用下游之前空转指定微秒数的过滤器
+     */
+    private static class SpinFilter implements Filter {
+
+        private final String name;
+
+        private final int order;
+
+        private final long spinNanos;
+
+        SpinFilter(String name, int order, long spinMicros) {
+            this.name = name;
+            this.order = order;
+            this.spinNanos = TimeUnit.MICROSECONDS.toNanos(spinMicros);
+        }
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            long deadline = System.nanoTime() + spinNanos;
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return chain.doFilter(request);
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.taobao.gateway.ipaccess;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IP访问控制测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class IpAccessControlTest {
+
+    private IpAccessConfig config;
+
+    private IpAccessControl accessControl;
+
+    @BeforeEach
+    void setUp() {
+        config = new IpAccessConfig();
+        config.setEnabled(true);
+        config.setDeny(Arrays.asList("10.0.0.0/8", "2001:db8::/32", "203.0.113.7"));
+        config.setAllow(Arrays.asList("10.1.0.0/16", "2001:db8:1::/48"));
+        config.setTrustedProxies(Collections.singletonList("192.168.0.0/16"));
+        accessControl = new IpAccessControl(config);
+        accessControl.init();
+    }
+
+    @Test
+    void testParseAddresses() {
+        long[] key = new long[3];
+        assertTrue(IpAddresses.parse("1.2.3.4", 0, 7, key));
+        assertEquals(0, key[0]);
+        assertEquals(0xFFFF_0102_0304L, key[1]);
+        assertTrue(IpAddresses.parse("::ffff:1.2.3.4", 0, 14, key));
+        assertEquals(0xFFFF_0102_0304L, key[1]);
+        assertTrue(IpAddresses.parse(" 1.2.3.4:8080 ", 0, 14, key));
+        assertEquals(0xFFFF_0102_0304L, key[1]);
+
+        assertTrue(IpAddresses.parse("2001:db8::1", 0, 11, key));
+        assertEquals(0x2001_0db8_0000_0000L, key[0]);
+        assertEquals(1L, key[1]);
+        assertTrue(IpAddresses.parse("[fe80::1:2]", 0, 11, key));
+        assertEquals(0xfe80_0000_0000_0000L, key[0]);
+        assertEquals(0x0001_0002L, key[1]);
+        assertTrue(IpAddresses.parse("::", 0, 2, key));
+        assertEquals(0, key[0] | key[1]);
+        assertTrue(IpAddresses.parse("1:2:3:4:5:6:7:8", 0, 15, key));
+        assertEquals(0x0001_0002_0003_0004L, key[0]);
+        assertEquals(0x0005_0006_0007_0008L, key[1]);
+
+        for (String invalid : new String[]{"", "1.2.3", "1.2.3.256", "1.2.3.4.5", "1::2::3", "1:2:3:4:5:6:7:8:9",
+                "12345::", ":1", "1:", "g::1", "1.2.3.4/33"}) {
+            assertFalse(IpAddresses.parseCidr(invalid, key), invalid);
+        }
+        assertTrue(IpAddresses.parseCidr("10.0.0.0/8", key));
+        assertEquals(104, key[2]);
+        assertTrue(IpAddresses.parseCidr("2001:db8::/32", key));
+        assertEquals(32, key[2]);
+    }
+
+    @Test
+    void testLongestPrefixMatch() throws Exception {
+        assertFalse(accessControl.isAllowed(InetAddress.getByName("10.2.3.4")));
+        assertTrue(accessControl.isAllowed(InetAddress.getByName("10.1.3.4")));
+        assertTrue(accessControl.isAllowed(InetAddress.getByName("11.0.0.1")));
+        assertFalse(accessControl.isAllowed(InetAddress.getByName("203.0.113.7")));
+        assertTrue(accessControl.isAllowed(InetAddress.getByName("203.0.113.8")));
+        assertFalse(accessControl.isAllowed(InetAddress.getByName("2001:db8:2::1")));
+        assertTrue(accessControl.isAllowed(InetAddress.getByName("2001:db8:1:ffff::1")));
+        assertTrue(accessControl.isAllowed(InetAddress.getByName("2001:db9::1")));
+        assertEquals(5, accessControl.size());
+
+        config.setDefaultAction(IpAccessAction.DENY);
+        accessControl.update(Collections.singletonList("0.0.0.0/0"), Collections.emptyList());
+        assertTrue(accessControl.isAllowed(InetAddress.getByName("10.2.3.4")));
+        assertFalse(accessControl.isAllowed(InetAddress.getByName("2001:db8:2::1")));
+    }
+
+    @Test
+    void testTreeMatchesLinearScan() {
+        Random random = new Random(7);
+        IpRadixTree tree = new IpRadixTree();
+        int count = 2000;
+        long[] prefixes = new long[count];
+        int[] lengths = new int[count];
+        IpAccessAction[] actions = new IpAccessAction[count];
+        for (int i = 0; i < count; i++) {
+            // 集中在少量高位上，制造大量嵌套与分叉
+            prefixes[i] = (random.nextLong() & 0x0F0F_FFFF_FFFF_FFFFL);
+            lengths[i] = random.nextInt(65);
+            actions[i] = random.nextBoolean() ? IpAccessAction.ALLOW : IpAccessAction.DENY;
+            tree.put(prefixes[i], 0, lengths[i], actions[i]);
+        }
+        for (int n = 0; n < 20000; n++) {
+            long hi = n % 2 == 0 ? prefixes[random.nextInt(count)] ^ (random.nextLong() >>> random.nextInt(64))
+                    : random.nextLong();
+            IpAccessAction expected = null;
+            int bestLength = -1;
+            for (int i = 0; i < count; i++) {
+                long mask = lengths[i] == 0 ? 0 : -1L << (64 - lengths[i]);
+                if (((prefixes[i] ^ hi) & mask) == 0 && lengths[i] >= bestLength) {
+                    // 相同网段后插入的覆盖先插入的
+                    bestLength = lengths[i];
+                    expected = actions[i];
+                }
+            }
+            assertEquals(expected, tree.lookup(hi, random.nextLong()));
+        }
+    }
+
+    @Test
+    void testForwardedFor() {
+        assertFalse(accessControl.isForwardedAllowed("8.8.8.8, 10.2.3.4, 192.168.1.1"));
+        assertTrue(accessControl.isForwardedAllowed("10.2.3.4, 8.8.8.8, 192.168.1.1"));
+        assertTrue(accessControl.isForwardedAllowed("10.2.3.4, 10.1.0.1"));
+        assertFalse(accessControl.isForwardedAllowed("[2001:db8::5]:443"));
+        assertTrue(accessControl.isForwardedAllowed("unknown"));
+    }
+
+    @Test
+    void testReloadFromBlacklistFile() throws Exception {
+        Path file = Files.createTempFile("ip-blacklist", ".txt");
+        try {
+            Files.write(file, Arrays.asList("# 恶意网段", "198.51.100.0/24", "", "2001:db8:3::/48", "not-an-ip"));
+            config.setBlacklistPath(file.toString());
+            assertEquals(7, accessControl.reload());
+            assertFalse(accessControl.isAllowed(InetAddress.getByName("198.51.100.9")));
+            assertTrue(accessControl.isAllowed(InetAddress.getByName("198.51.101.9")));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testHandlerDropsConnectionsAndForwardedRequests() throws Exception {
+        IpAccessHandler handler = new IpAccessHandler(config, accessControl);
+
+        EmbeddedChannel denied = channel(handler, "10.2.3.4");
+        assertFalse(denied.isOpen());
+        assertEquals(1, accessControl.getConnectionsDenied());
+
+        EmbeddedChannel direct = channel(handler, "8.8.8.8");
+        assertTrue(direct.isActive());
+        HttpRequest spoofed = request("10.2.3.4");
+        direct.writeInbound(spoofed);
+        // 对端不是可信代理时忽略 X-Forwarded-For
+        assertSame(spoofed, direct.readInbound());
+
+        EmbeddedChannel proxy = channel(handler, "192.168.1.1");
+        HttpRequest allowed = request("8.8.8.8");
+        proxy.writeInbound(allowed);
+        assertSame(allowed, proxy.readInbound());
+        proxy.writeInbound(request("10.2.3.4, 192.168.1.2"));
+        assertNull(proxy.readInbound());
+        FullHttpResponse response = proxy.readOutbound();
+        assertEquals(HttpResponseStatus.FORBIDDEN, response.status());
+        response.release();
+        assertFalse(proxy.isOpen());
+        assertEquals(1, accessControl.getRequestsDenied());
+    }
+
+    private static HttpRequest request(String forwardedFor) {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items");
+        request.headers().set("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    private static EmbeddedChannel channel(IpAccessHandler handler, String remote) throws Exception {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getByName(remote), 40000);
+        EmbeddedChannel channel = new EmbeddedChannel(false, false) {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return address;
+            }
+        };
+        channel.pipeline().addLast(handler);
+        channel.register();
+        return channel;
+    }
+}
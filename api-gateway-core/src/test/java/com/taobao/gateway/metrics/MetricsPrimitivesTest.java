@@ -0,0 +1,114 @@
+package com.taobao.gateway.metrics;
+
+import com.taobao.gateway.loadbalancer.ServiceInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 指标基础类型测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class MetricsPrimitivesTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testDoubleGaugeConcurrentAdd() throws Exception {
+        DoubleGauge gauge = new DoubleGauge(1.5);
+        assertEquals(1.5, gauge.getAndSet(0));
+
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    gauge.addAndGet(0.5);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(20000.0, gauge.get());
+    }
+
+    @Test
+    void testEwmaFollowsRecentSamples() {
+        Ewma ewma = new Ewma(1000);
+        assertTrue(ewma.isEmpty());
+        assertEquals(0.0, ewma.get());
+
+        ewma.update(100, 0);
+        assertEquals(100.0, ewma.get());
+
+        // 经过一个时间常数，旧值的权重衰减到 1/e
+        ewma.update(0, SECOND);
+        assertEquals(100 / Math.E, ewma.get(), 1e-6);
+
+        // 很久之后的样本几乎完全取代旧值
+        ewma.update(10, 60 * SECOND);
+        assertEquals(10.0, ewma.get(), 1e-6);
+
+        ewma.reset();
+        assertTrue(ewma.isEmpty());
+    }
+
+    @Test
+    void testWindowedCounterSlides() {
+        WindowedCounter counter = new WindowedCounter(1000, 10);
+        for (int i = 0; i < 10; i++) {
+            counter.add(10, i * SECOND / 10);
+        }
+        assertEquals(100, counter.sum(SECOND - 1));
+        assertEquals(100.0, counter.rate(SECOND - 1), 1e-9);
+
+        // 窗口包含当前时间槽在内的10个槽，滑过了前6个
+        assertEquals(40, counter.sum(SECOND + SECOND / 2));
+        counter.add(7, SECOND + SECOND / 2);
+        assertEquals(47, counter.sum(SECOND + SECOND / 2));
+        assertEquals(0, counter.sum(10 * SECOND));
+
+        counter.reset();
+        assertEquals(0, counter.sum(SECOND + SECOND / 2));
+    }
+
+    @Test
+    void testWindowedHistogramPercentiles() {
+        for (long value : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123456789L, Long.MAX_VALUE}) {
+            int bucket = WindowedHistogram.bucket(value);
+            assertTrue(bucket < WindowedHistogram.BUCKETS);
+            assertTrue(WindowedHistogram.lowerBound(bucket) <= value, "value " + value);
+            if (bucket + 1 < WindowedHistogram.BUCKETS) {
+                assertTrue(WindowedHistogram.lowerBound(bucket + 1) > value, "value " + value);
+            }
+        }
+
+        WindowedHistogram histogram = new WindowedHistogram(1000, 10);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, i * SECOND / 2000);
+        }
+        long now = SECOND / 2;
+        assertEquals(1000, histogram.count(now));
+        assertEquals(500, histogram.percentile(0.5, now), 500 * 0.125);
+        assertEquals(990, histogram.percentile(0.99, now), 990 * 0.125);
+
+        // 样本全部滑出窗口
+        assertEquals(0, histogram.percentile(0.99, 5 * SECOND));
+    }
+
+    @Test
+    void testServiceInstanceRecentResponseTime() {
+        ServiceInstance instance = new ServiceInstance("i-1", "svc", "127.0.0.1", 8080);
+        instance.recordSuccess(100);
+        assertEquals(100, instance.getAverageResponseTime());
+        instance.recordFailure();
+        assertEquals(2, instance.getTotalRequests());
+        assertEquals(0.5, instance.getSuccessRate());
+    }
+}
@@ -0,0 +1,89 @@
+package com.taobao.gateway.ratelimit;
+
+import com.taobao.gateway.ratelimit.impl.FixedWindowRateLimiter;
+import com.taobao.gateway.ratelimit.impl.LeakyBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 限流器工厂测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RateLimiterFactoryTest {
+
+    @Test
+    void testCreateByType() {
+        RateLimiterFactory factory = new RateLimiterFactory();
+        for (RateLimiterType type : RateLimiterType.values()) {
+            RateLimiter limiter = factory.createRateLimiter(new RateLimitConfig("api-" + type.getCode(), type, 10));
+            assertEquals(type, limiter.getType());
+            assertTrue(limiter.tryAcquire("k"));
+        }
+        assertEquals(RateLimiterType.values().length, factory.size());
+
+        // 同一限流键复用实例
+        RateLimiter cached = factory.getRateLimiter("api-gcra");
+        assertSame(cached, factory.createRateLimiter(new RateLimitConfig("api-gcra", RateLimiterType.GCRA, 99)));
+        assertSame(cached, factory.removeRateLimiter("api-gcra"));
+        assertNull(factory.getRateLimiter("api-gcra"));
+    }
+
+    @Test
+    void testFixedWindow() {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.FIXED_WINDOW, 3);
+        config.setWindow(60);
+        FixedWindowRateLimiter limiter = (FixedWindowRateLimiter) RateLimiterFactory.newRateLimiter(config);
+        assertTrue(limiter.tryAcquire("a", 2));
+        assertFalse(limiter.tryAcquire("a", 2));
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b", 3));
+        assertEquals(3, limiter.getCount("a"));
+        assertFalse(limiter.tryAcquire("c", 4));
+    }
+
+    @Test
+    void testLeakyBucketWithoutQueueing() {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.LEAKY_BUCKET, 1);
+        config.setCapacity(3);
+        LeakyBucketRateLimiter limiter = (LeakyBucketRateLimiter) RateLimiterFactory.newRateLimiter(config);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.reserve("a", 1));
+        }
+        assertEquals(-1, limiter.reserve("a", 1));
+        assertFalse(limiter.tryAcquire("a"));
+        assertEquals(3, limiter.getQueuedPermits("a"));
+        assertTrue(limiter.tryAcquire("b", 3));
+        assertFalse(limiter.tryAcquire("c", 4));
+    }
+
+    @Test
+    void testLeakyBucketQueueing() {
+        // 每20ms出水一个，最多等待50ms
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.LEAKY_BUCKET, 50);
+        config.setCapacity(100);
+        config.setMaxWaitMillis(50);
+        LeakyBucketRateLimiter limiter = (LeakyBucketRateLimiter) RateLimiterFactory.newRateLimiter(config);
+        long interval = TimeUnit.MILLISECONDS.toNanos(20);
+
+        assertEquals(0, limiter.reserve("a", 1));
+        long wait = limiter.reserve("a", 1);
+        assertTrue(wait > 0 && wait <= interval, "wait: " + wait);
+        assertTrue(limiter.reserve("a", 1) > interval);
+        // 第四个需要等待约60ms，超过上限被拒绝
+        assertEquals(-1, limiter.reserve("a", 1));
+
+        long begin = System.nanoTime();
+        assertTrue(limiter.tryAcquire("b"));
+        assertTrue(limiter.tryAcquire("b"));
+        assertTrue(limiter.tryAcquire("b"));
+        // 三个请求按出水间隔依次放行
+        assertTrue(System.nanoTime() - begin >= 2 * interval - TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,89 @@
+package com.taobao.gateway.ratelimit;
+
+import com.taobao.gateway.discovery.WarmUpConfig;
+import com.taobao.gateway.discovery.impl.DefaultServiceDiscovery;
+import com.taobao.gateway.loadbalancer.ServiceInstance;
+import com.taobao.gateway.ratelimit.impl.GcraRateLimiter;
+import com.taobao.gateway.ratelimit.impl.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预热爬坡测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class WarmUpTest {
+
+    private static RateLimitConfig config(RateLimiterType type, long warmupPeriodMillis) {
+        RateLimitConfig config = new RateLimitConfig("test", type, 100);
+        config.setCapacity(100);
+        config.setRefillRate(100);
+        config.setWarmupPeriodMillis(warmupPeriodMillis);
+        config.setColdFraction(0.1);
+        return config;
+    }
+
+    private static int drain(RateLimiter limiter) {
+        int acquired = 0;
+        while (acquired < 1000 && limiter.tryAcquire("key")) {
+            acquired++;
+        }
+        return acquired;
+    }
+
+    @Test
+    void testFractionRamp() {
+        assertEquals(0.1, WarmUp.fraction(0, 1000, 0.1), 1e-9);
+        assertEquals(0.55, WarmUp.fraction(500, 1000, 0.1), 1e-9);
+        assertEquals(1.0, WarmUp.fraction(1000, 1000, 0.1), 1e-9);
+        assertEquals(1.0, WarmUp.fraction(5000, 1000, 0.1), 1e-9);
+        assertNull(WarmUp.of(config(RateLimiterType.GCRA, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new WarmUp(1000, 0));
+    }
+
+    @Test
+    void testColdLimitersAdmitFraction() {
+        // 冷启动时突发上限约为容量的10%
+        int gcra = drain(new GcraRateLimiter(config(RateLimiterType.GCRA, 60000)));
+        assertTrue(gcra >= 9 && gcra <= 11, "gcra acquired " + gcra);
+        assertEquals(100, drain(new GcraRateLimiter(config(RateLimiterType.GCRA, 0))));
+
+        assertEquals(10, drain(new TokenBucketRateLimiter(config(RateLimiterType.TOKEN_BUCKET, 60000))));
+        assertEquals(100, drain(new TokenBucketRateLimiter(config(RateLimiterType.TOKEN_BUCKET, 0))));
+
+        // 预热时长很短时很快恢复满速
+        GcraRateLimiter limiter = new GcraRateLimiter(config(RateLimiterType.GCRA, 1));
+        assertTrue(drain(limiter) >= 9);
+    }
+
+    @Test
+    void testNewInstanceWeightRamp() {
+        WarmUpConfig warmUpConfig = new WarmUpConfig();
+        warmUpConfig.setPeriodMillis(60000);
+        warmUpConfig.setColdFraction(0.1);
+        DefaultServiceDiscovery discovery = new DefaultServiceDiscovery();
+        discovery.setWarmUpConfig(warmUpConfig);
+
+        ServiceInstance instance = new ServiceInstance("i-1", "svc", "127.0.0.1", 8080);
+        instance.setWeight(100);
+        assertEquals(100, instance.getEffectiveWeight());
+
+        discovery.register(instance);
+        assertTrue(instance.isWarmingUp());
+        int weight = instance.getEffectiveWeight();
+        assertTrue(weight >= 10 && weight < 20, "effective weight " + weight);
+        assertEquals(1L, discovery.getStats().get("warmingUpInstances"));
+
+        instance.startWarmUp(0, 0.1);
+        assertFalse(instance.isWarmingUp());
+        assertEquals(100, instance.getEffectiveWeight());
+
+        instance.setWeight(1);
+        instance.startWarmUp(60000, 0.1);
+        assertEquals(1, instance.getEffectiveWeight());
+    }
+}
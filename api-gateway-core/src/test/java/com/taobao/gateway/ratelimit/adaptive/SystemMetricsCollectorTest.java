@@ -0,0 +1,173 @@
+package com.taobao.gateway.ratelimit.adaptive;
+
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 系统指标采集器测试类
+ * 
+ * @author taobao
+ * @version 2.0.0
+ * @since 2024-01-01
+ */
+public class SystemMetricsCollectorTest {
+    
+    @Test
+    public void testRequestAndJvmMetrics() throws InterruptedException {
+        SystemMetricsConfig config = new SystemMetricsConfig();
+        config.setMaxInFlight(100);
+        RequestMetrics requestMetrics = new RequestMetrics();
+        SystemMetricsCollector collector = new SystemMetricsCollector(config, requestMetrics);
+        collector.collect();
+        
+        for (int i = 0; i < 4; i++) {
+            long start = requestMetrics.start();
+            Thread.sleep(2);
+            requestMetrics.end(start, i == 0);
+        }
+        requestMetrics.start();
+        
+        SystemMetrics metrics = collector.collect();
+        assertSame(metrics, collector.getLatestMetrics());
+        assertEquals(0.25, metrics.getErrorRate(), 1e-9);
+        assertTrue(metrics.getAvgResponseTime() >= 2);
+        assertTrue(metrics.getQps() > 0);
+        assertEquals(1, metrics.getCurrentConnections());
+        assertEquals(100, metrics.getMaxConnections());
+        assertTrue(metrics.getCpuUsage() >= 0 && metrics.getCpuUsage() <= 100);
+        assertTrue(metrics.getHeapUsage() > 0 && metrics.getHeapUsage() <= 100);
+        assertEquals(Math.max(metrics.getHeapUsage(), metrics.getDirectMemoryUsage()), metrics.getMemoryUsage(), 1e-9);
+        assertTrue(metrics.getGcPauseTime() >= 0);
+        
+        // 请求统计按周期清零
+        metrics = collector.collect();
+        assertEquals(0, metrics.getErrorRate());
+        assertEquals(0, metrics.getQps());
+    }
+    
+    @Test
+    public void testEventLoopLag() throws InterruptedException {
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        try {
+            SystemMetricsCollector collector = new SystemMetricsCollector(new SystemMetricsConfig(), new RequestMetrics());
+            collector.setEventLoopGroup(group);
+            assertEquals(0, collector.collect().getEventLoopLag());
+            
+            // 阻塞事件循环，探测任务排在后面
+            CountDownLatch blocked = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            group.execute(() -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            blocked.await();
+            collector.collect();
+            group.execute(() -> { });
+            Thread.sleep(150);
+            
+            SystemMetrics metrics = collector.collect();
+            assertTrue(metrics.getEventLoopLag() >= 150, "lag: " + metrics.getEventLoopLag());
+            assertTrue(metrics.getQueueLength() >= 2);
+            assertTrue(metrics.isOverloaded());
+            
+            release.countDown();
+            Thread.sleep(50);
+            collector.collect();
+            assertTrue(collector.collect().getEventLoopLag() < 100);
+        } finally {
+            group.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+        }
+    }
+    
+    @Test
+    public void testPublishOnAdjustmentInterval() throws InterruptedException {
+        RecordingRateLimiter rateLimiter = new RecordingRateLimiter(50);
+        SystemMetricsCollector collector = new SystemMetricsCollector(new SystemMetricsConfig(), new RequestMetrics());
+        collector.setRateLimiters(Collections.singletonList(rateLimiter));
+        assertEquals(50, collector.getIntervalMillis());
+        collector.start();
+        try {
+            assertTrue(rateLimiter.published.await(5, TimeUnit.SECONDS));
+            assertNotNull(rateLimiter.metrics.get(0));
+        } finally {
+            collector.stop();
+        }
+        
+        SystemMetricsConfig disabled = new SystemMetricsConfig();
+        disabled.setEnabled(false);
+        collector = new SystemMetricsCollector(disabled, new RequestMetrics());
+        collector.start();
+        assertNull(collector.getLatestMetrics());
+    }
+    
+    /**
+     * 记录收到的指标
+     */
+    private static class RecordingRateLimiter implements AdaptiveRateLimiter {
+        
+        private final AdaptiveRateLimitConfig config = new AdaptiveRateLimitConfig();
+        
+        private final List<SystemMetrics> metrics = new CopyOnWriteArrayList<>();
+        
+        private final CountDownLatch published = new CountDownLatch(2);
+        
+        RecordingRateLimiter(long adjustmentInterval) {
+            config.setAdjustmentInterval(adjustmentInterval);
+        }
+        
+        @Override
+        public void updateMetrics(SystemMetrics metrics) {
+            this.metrics.add(metrics);
+            published.countDown();
+        }
+        
+        @Override
+        public AdaptiveRateLimitConfig getAdaptiveConfig() {
+            return config;
+        }
+        
+        @Override
+        public AdaptiveStrategy getStrategy() {
+            return null;
+        }
+        
+        @Override
+        public AdaptiveRateLimitStats getStats() {
+            return new AdaptiveRateLimitStats();
+        }
+        
+        @Override
+        public boolean tryAcquire(String key) {
+            return true;
+        }
+        
+        @Override
+        public boolean tryAcquire(String key, int permits) {
+            return true;
+        }
+        
+        @Override
+        public RateLimiterType getType() {
+            return RateLimiterType.TOKEN_BUCKET;
+        }
+        
+        @Override
+        public AdaptiveRateLimitConfig getConfig() {
+            return config;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.taobao.gateway.ratelimit.hotkey;
+
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import com.taobao.gateway.handler.HttpRequestHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 热点键检测测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class HotKeyDetectorTest {
+
+    private static HotKeyConfig config() {
+        HotKeyConfig config = new HotKeyConfig();
+        config.setKey("header:X-User-Id");
+        config.setWidth(1024);
+        config.setTopK(8);
+        return config;
+    }
+
+    @Test
+    void testTopKeys() {
+        HotKeyConfig config = config();
+        config.setAutoThrottle(false);
+        HotKeyDetector detector = new HotKeyDetector(config);
+        for (int round = 0; round < 1000; round++) {
+            assertEquals(0, detector.acquire(request("hot-1")));
+            if (round % 2 == 0) {
+                assertEquals(0, detector.acquire(request("hot-2")));
+            }
+            for (int i = 0; i < 3; i++) {
+                detector.acquire(request("cold-" + (round * 3 + i) % 500));
+            }
+        }
+        // 没有键的请求不计数
+        assertEquals(0, detector.acquire(request(null)));
+
+        List<HotKey> top = detector.getTopKeys(2);
+        assertEquals(2, top.size());
+        assertEquals("hot-1", top.get(0).getKey());
+        assertEquals("hot-2", top.get(1).getKey());
+        // 估计值只会高估
+        assertTrue(top.get(0).getCount() >= 1000);
+        assertTrue(top.get(1).getCount() >= 500);
+        assertEquals(1000.0 / 4500, top.get(0).getShare(), 0.01);
+        assertFalse(top.get(0).isThrottled());
+        assertEquals(8, detector.getTopKeys(100).size());
+        assertEquals(4500L, detector.getStats().get("totalRequests"));
+    }
+
+    @Test
+    void testAutoThrottle() {
+        HotKeyConfig config = config();
+        config.setMinRequests(100);
+        config.setShareThreshold(0.3);
+        config.setThrottleRate(1);
+        config.setThrottleBurst(5);
+        HotKeyFilter filter = new HotKeyFilter(config);
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.addFilter(filter);
+        chain.addFilter(new UpstreamFilter());
+
+        int rejected = 0;
+        for (int i = 0; i < 400; i++) {
+            FullHttpResponse response = chain.doFilter(request("abuser"));
+            if (response.status().equals(HttpResponseStatus.TOO_MANY_REQUESTS)) {
+                assertEquals("1", response.headers().get(HttpHeaderNames.RETRY_AFTER));
+                rejected++;
+            }
+            response.release();
+            response = chain.doFilter(request("user-" + i));
+            assertEquals(HttpResponseStatus.OK, response.status());
+            response.release();
+        }
+        HotKeyDetector detector = filter.getDetector();
+        assertEquals(Collections.singletonList("abuser"), detector.getThrottledKeys());
+        assertTrue(detector.getTopKeys(1).get(0).isThrottled());
+        // 安装限流时已超过最少请求数，之后按突发上限放行后全部拒绝
+        assertTrue(rejected > 400 - 100 - 10, "rejected: " + rejected);
+        assertEquals((long) rejected, detector.getStats().get("throttledRequests"));
+
+        detector.clearThrottles();
+        assertEquals(0, detector.acquire(request("abuser")));
+    }
+
+    @Test
+    void testDefaultIpKeyOnServingPath() {
+        HotKeyConfig config = new HotKeyConfig();
+        assertEquals("ip", config.getKey());
+        config.setMinRequests(100);
+        config.setShareThreshold(0.3);
+        config.setThrottleRate(1);
+        config.setThrottleBurst(5);
+        HotKeyFilter filter = new HotKeyFilter(config);
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.setOffloadExecutor(Runnable::run);
+        chain.addFilter(filter);
+        chain.addFilter(new UpstreamFilter());
+
+        // 经由HTTP请求处理器进入过滤器链，客户端地址来自请求上下文中的连接
+        int rejected = 0;
+        for (int i = 0; i < 400; i++) {
+            HttpResponseStatus status = serve(chain, "10.0.0.1");
+            if (status.equals(HttpResponseStatus.TOO_MANY_REQUESTS)) {
+                rejected++;
+            }
+            assertEquals(HttpResponseStatus.OK, serve(chain, "10.0.1." + (i % 200)));
+        }
+        assertEquals(Collections.singletonList("10.0.0.1"), filter.getDetector().getThrottledKeys());
+        assertTrue(rejected > 400 - 100 - 10, "rejected: " + rejected);
+    }
+
+    @Test
+    void testIdentityKeyOnUnauthenticatedTraffic() {
+        HotKeyConfig config = config();
+        config.setKey("subject");
+        config.setMinRequests(100);
+        config.setShareThreshold(0.3);
+        config.setThrottleRate(1);
+        // 过滤器在鉴权之前执行，拒绝取自鉴权结果的键来源
+        assertThrows(IllegalArgumentException.class, () -> new HotKeyFilter(config));
+        config.setKey("app");
+        assertThrows(IllegalArgumentException.class, () -> new HotKeyFilter(config));
+
+        // 未鉴权的请求都落在匿名键上，匿名键既不计数也不限流
+        config.setKey("subject");
+        HotKeyDetector detector = new HotKeyDetector(config);
+        for (int i = 0; i < 400; i++) {
+            assertEquals(0, detector.acquire(request("user-" + (i % 3))));
+        }
+        assertTrue(detector.getThrottledKeys().isEmpty());
+        assertTrue(detector.getTopKeys(8).isEmpty());
+        assertEquals(0L, detector.getStats().get("totalRequests"));
+    }
+
+    @Test
+    void testSketchDecay() {
+        CountMinSketch sketch = new CountMinSketch(4, 1000);
+        assertEquals(1024, sketch.getWidth());
+        assertEquals(4 * 1024 * 8, sketch.memoryBytes());
+        assertEquals(100, sketch.add(42, 100));
+        assertEquals(101, sketch.add(42, 1));
+        sketch.decay();
+        assertEquals(50, sketch.estimate(42));
+        assertEquals(0, sketch.estimate(43));
+    }
+
+    private static HttpResponseStatus serve(DefaultFilterChain chain, String clientIp) {
+        HttpRequestHandler handler = new HttpRequestHandler();
+        ReflectionTestUtils.setField(handler, "filterChain", chain);
+        ReflectionTestUtils.setField(handler, "routeManager", null);
+        EmbeddedChannel channel = new EmbeddedChannel(handler) {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return new InetSocketAddress(clientIp, 40000);
+            }
+        };
+        channel.writeInbound(request(null));
+        FullHttpResponse response = channel.readOutbound();
+        HttpResponseStatus status = response.status();
+        response.release();
+        return status;
+    }
+
+    private static FullHttpRequest request(String user) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items");
+        if (user != null) {
+            request.headers().set("X-User-Id", user);
+        }
+        return request;
+    }
+
+    /**
+     * 模拟上游返回200
+     */
+    private static class UpstreamFilter implements Filter {
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        }
+
+        @Override
+        public int getOrder() {
+            return 300;
+        }
+    }
+}
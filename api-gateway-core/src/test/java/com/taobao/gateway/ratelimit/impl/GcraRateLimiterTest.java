@@ -0,0 +1,111 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import com.taobao.gateway.ratelimit.store.LongStateStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * GCRA限流器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class GcraRateLimiterTest {
+
+    private static GcraRateLimiter limiter(int capacity, int refillRate) {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.GCRA, refillRate);
+        config.setCapacity(capacity);
+        config.setRefillRate(refillRate);
+        return new GcraRateLimiter(config);
+    }
+
+    @Test
+    void testBurstAndRefill() {
+        GcraRateLimiter limiter = limiter(10, 100);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("burst"), "permit " + i);
+        }
+        assertFalse(limiter.tryAcquire("burst"));
+        assertFalse(limiter.tryAcquire("other", 11));
+
+        // 以可控的时钟验证恢复速率
+        long key = LongStateStore.hash("refill");
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.reserve(key, 1, now) >= 0, "permit " + i);
+        }
+        assertTrue(limiter.reserve(key, 1, now) < 0);
+
+        // 每10ms恢复一个许可
+        now += TimeUnit.MILLISECONDS.toNanos(10);
+        assertTrue(limiter.reserve(key, 1, now) >= 0);
+        assertTrue(limiter.reserve(key, 1, now) < 0);
+
+        // 空闲足够久后恢复到完整突发容量，不会超过容量
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertTrue(limiter.reserve(key, 10, now) >= 0);
+        assertTrue(limiter.reserve(key, 1, now) < 0);
+        assertEquals(-Long.MAX_VALUE, limiter.reserve(key, 11, now + TimeUnit.SECONDS.toNanos(100)));
+
+        // 退回的许可可以再次获取
+        limiter.release(key, 1, now);
+        assertTrue(limiter.reserve(key, 1, now) >= 0);
+        assertTrue(limiter.reserve(key, 1, now) < 0);
+
+        assertEquals(RateLimiterType.GCRA, limiter.getType());
+        assertEquals(10, limiter.getAvailablePermits("unknown"));
+    }
+
+    @Test
+    void testPerKeyIsolation() {
+        GcraRateLimiter limiter = limiter(3, 1);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("a"));
+        }
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b", 3));
+        assertFalse(limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void testExactUnderContention() throws Exception {
+        int capacity = 1000;
+        GcraRateLimiter limiter = limiter(capacity, 1);
+        int threads = 8;
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 5000; i++) {
+                    if (limiter.tryAcquire("hot")) {
+                        allowed.increment();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin);
+        // 突发容量全部放出，此外每秒只恢复一个许可
+        assertTrue(allowed.sum() >= capacity, "allowed: " + allowed.sum());
+        assertTrue(allowed.sum() <= capacity + elapsedSeconds + 1, "allowed: " + allowed.sum());
+    }
+}
@@ -0,0 +1,208 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.GossipRateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gossip集群限流器测试类，多个节点在同一JVM内通过回环地址通信
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class GossipRateLimiterTest {
+
+    private final List<GossipRateLimiter> nodes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            nodes.add(start(gossipConfig("node-" + i)));
+        }
+        connect(nodes);
+    }
+
+    private static GossipRateLimitConfig gossipConfig(String nodeId) {
+        GossipRateLimitConfig gossipConfig = new GossipRateLimitConfig();
+        gossipConfig.setNodeId(nodeId);
+        gossipConfig.setIntervalMillis(10);
+        gossipConfig.setMaxPacketSize(512);
+        return gossipConfig;
+    }
+
+    private GossipRateLimiter start(GossipRateLimitConfig gossipConfig) throws IOException {
+        // 窗口取最大值，避免测试跨越窗口边界
+        RateLimitConfig config = new RateLimitConfig("tenant", 300);
+        config.setWindow(Integer.MAX_VALUE);
+        GossipRateLimiter node = new GossipRateLimiter(config, gossipConfig);
+        node.start();
+        return node;
+    }
+
+    private static void connect(List<GossipRateLimiter> group) throws IOException {
+        for (GossipRateLimiter node : group) {
+            for (GossipRateLimiter peer : group) {
+                if (peer != node) {
+                    node.addPeer(peer.getLocalAddress());
+                }
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(GossipRateLimiter::stop);
+    }
+
+    @Test
+    void testGlobalLimitAcrossNodes() throws InterruptedException {
+        GossipRateLimiter a = nodes.get(0);
+        GossipRateLimiter b = nodes.get(1);
+        GossipRateLimiter c = nodes.get(2);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(a.tryAcquire("app-1"));
+        }
+        awaitTrue(() -> b.getGlobalCount("app-1") == 100 && c.getGlobalCount("app-1") == 100);
+
+        int allowed = 0;
+        while (b.tryAcquire("app-1")) {
+            allowed++;
+        }
+        assertEquals(200, allowed);
+        awaitTrue(() -> c.getGlobalCount("app-1") == 300 && a.getGlobalCount("app-1") == 300);
+        assertFalse(c.tryAcquire("app-1"));
+        assertFalse(a.tryAcquire("app-1"));
+        // 其他键不受影响
+        assertTrue(c.tryAcquire("app-2"));
+    }
+
+    @Test
+    void testManyKeysSplitAcrossPackets() throws InterruptedException {
+        GossipRateLimiter a = nodes.get(0);
+        GossipRateLimiter c = nodes.get(2);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(a.tryAcquire("app-" + i, 3));
+        }
+        awaitTrue(() -> {
+            for (int i = 0; i < 500; i++) {
+                if (c.getGlobalCount("app-" + i) != 3) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        assertTrue((long) a.getStats().get("sentPackets") > 2);
+    }
+
+    @Test
+    void testDuplicateAndStaleStateIsIdempotent() throws InterruptedException {
+        GossipRateLimiter a = nodes.get(0);
+        GossipRateLimiter b = nodes.get(1);
+        assertTrue(a.tryAcquire("app-1", 10));
+        // 全量同步会重复发送同一分量，按最大值合并后不重复计数
+        Thread.sleep(300);
+        assertEquals(10, b.getGlobalCount("app-1"));
+        assertTrue(a.tryAcquire("app-1", 5));
+        awaitTrue(() -> b.getGlobalCount("app-1") == 15);
+        Thread.sleep(150);
+        assertEquals(15, b.getGlobalCount("app-1"));
+    }
+
+    @Test
+    void testFutureWindowAndKeyLimitFromRemote() throws Exception {
+        GossipRateLimitConfig limited = gossipConfig("limited");
+        limited.setMaxKeys(2);
+        GossipRateLimiter node = start(limited);
+        nodes.add(node);
+
+        // 远在未来的窗口被丢弃，否则该键在那之前都无法计数
+        sendRaw(node, null, 1000, 1000, "app-1");
+        awaitTrue(() -> (long) node.getStats().get("droppedEntries") == 1);
+        assertTrue(node.tryAcquire("app-1"));
+        assertEquals(1, node.getGlobalCount("app-1"));
+
+        // 对端报文只能创建有限个键：app-1 之外只再创建一个
+        sendRaw(node, null, 0, 1, "k-1", "k-2", "k-3", "k-4");
+        awaitTrue(() -> (long) node.getStats().get("droppedEntries") == 4);
+        assertEquals(2, node.getStats().get("totalWindows"));
+        assertEquals(1, node.getGlobalCount("k-1"));
+        assertEquals(0, node.getGlobalCount("k-2"));
+    }
+
+    @Test
+    void testSharedSecretRejectsForgedPackets() throws Exception {
+        List<GossipRateLimiter> group = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            GossipRateLimitConfig gossipConfig = gossipConfig("signed-" + i);
+            gossipConfig.setSecret("s3cret");
+            group.add(start(gossipConfig));
+        }
+        nodes.addAll(group);
+        connect(group);
+        GossipRateLimiter a = group.get(0);
+        GossipRateLimiter b = group.get(1);
+
+        assertTrue(a.tryAcquire("app-1", 7));
+        awaitTrue(() -> b.getGlobalCount("app-1") == 7);
+
+        sendRaw(b, null, 0, 300, "app-1");
+        sendRaw(b, "wrong", 0, 300, "app-1");
+        awaitTrue(() -> (long) b.getStats().get("droppedPackets") == 2);
+        assertEquals(7, b.getGlobalCount("app-1"));
+
+        // 监听非回环地址时必须配置共享密钥
+        GossipRateLimitConfig open = gossipConfig("open");
+        open.setBindHost("0.0.0.0");
+        assertThrows(IllegalArgumentException.class,
+                () -> new GossipRateLimiter(new RateLimitConfig("tenant", 300), open));
+    }
+
+    /**
+     * 以伪造的节点向目标发送一个报文
+     *
+     * @param secret 签名密钥，为null时不签名
+     */
+    private static void sendRaw(GossipRateLimiter target, String secret, long windowIndex, long count,
+                                String... keys) throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        byte[] node = "forger".getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(0x47535031).putShort((short) node.length).put(node).putShort((short) keys.length);
+        for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length).put(bytes).putLong(windowIndex).putLong(count);
+        }
+        if (secret != null) {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            mac.update(buffer.array(), 0, buffer.position());
+            buffer.put(mac.doFinal());
+        }
+        buffer.flip();
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.send(buffer, target.getLocalAddress());
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待Gossip收敛超时");
+            Thread.sleep(10);
+        }
+    }
+}
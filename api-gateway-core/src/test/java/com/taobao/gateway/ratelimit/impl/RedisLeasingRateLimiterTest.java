@@ -0,0 +1,269 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.cache.impl.RedisConnectionFactory;
+import com.taobao.gateway.ratelimit.DistributedRateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis分布式限流器测试类，以进程内的RESP桩服务代替Redis
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RedisLeasingRateLimiterTest {
+
+    private RespStub redis;
+
+    private final List<RedisConnectionFactory> factories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redis = new RespStub();
+    }
+
+    @AfterEach
+    void tearDown() {
+        factories.forEach(RedisConnectionFactory::close);
+        redis.close();
+    }
+
+    private RedisLeasingRateLimiter limiter(int capacity, boolean failOpen) {
+        return limiter(capacity, failOpen, redis.getPort());
+    }
+
+    private RedisLeasingRateLimiter limiter(int capacity, boolean failOpen, int port) {
+        RateLimitConfig config = new RateLimitConfig("orders", capacity);
+        config.setCapacity(capacity);
+        config.setRefillRate(1);
+        DistributedRateLimitConfig distributed = new DistributedRateLimitConfig();
+        distributed.setMinLease(10);
+        distributed.setMaxLease(100);
+        distributed.setLeaseTtlMillis(60_000);
+        distributed.setFailOpen(failOpen);
+        RedisConnectionFactory factory = new RedisConnectionFactory("127.0.0.1", port);
+        factories.add(factory);
+        return new RedisLeasingRateLimiter(config, distributed, factory);
+    }
+
+    @Test
+    void testLeasingReducesRoundTrips() {
+        RedisLeasingRateLimiter limiter = limiter(100_000, true);
+        for (int i = 0; i < 2000; i++) {
+            assertTrue(limiter.tryAcquire("api"));
+        }
+        long calls = (long) limiter.getStats().get("redisCalls");
+        // 观测速率很高时租约增长到上限
+        assertTrue(calls < 2000 / 10, "redisCalls: " + calls);
+        assertEquals(calls, redis.scriptCalls.get());
+        // 首次以 EVALSHA 未命中后改用 EVAL，之后都命中缓存
+        assertEquals(1, redis.evalCalls.get());
+        assertEquals(2000 - calls, (long) limiter.getStats().get("localAcquires"));
+    }
+
+    @Test
+    void testClusterWideLimit() {
+        RedisLeasingRateLimiter nodeA = limiter(100, true);
+        RedisLeasingRateLimiter nodeB = limiter(100, true);
+        int allowed = 0;
+        for (int i = 0; i < 300; i++) {
+            if ((i % 2 == 0 ? nodeA : nodeB).tryAcquire("api")) {
+                allowed++;
+            }
+        }
+        // 两个节点共享Redis中的令牌桶，测试期间最多补充一两个许可
+        assertTrue(allowed >= 100 && allowed <= 102, "allowed: " + allowed);
+        assertTrue(nodeA.tryAcquire("other"));
+    }
+
+    @Test
+    void testFailOpenAndClosed() throws IOException {
+        // 绑定后立即关闭的端口上没有监听者，连接必然被拒绝
+        int deadPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            deadPort = socket.getLocalPort();
+        }
+        RedisLeasingRateLimiter open = limiter(100, true, deadPort);
+        RedisLeasingRateLimiter closed = limiter(100, false, deadPort);
+
+        assertTrue(open.tryAcquire("api"));
+        assertFalse(closed.tryAcquire("api"));
+        // 暂停期间不再访问Redis
+        assertTrue(open.tryAcquire("api"));
+        assertFalse(closed.tryAcquire("api"));
+        assertEquals(1L, open.getStats().get("failures"));
+        assertEquals(1L, closed.getStats().get("failures"));
+        assertEquals(false, closed.getStats().get("redisAvailable"));
+    }
+
+    /**
+     * 进程内RESP桩服务：以Java实现租用脚本的语义，支持 PING、EVAL、EVALSHA
+     */
+    private static final class RespStub implements AutoCloseable {
+
+        private final ServerSocket server;
+
+        private final List<Socket> clients = new CopyOnWriteArrayList<>();
+
+        private final Set<String> scripts = ConcurrentHashMap.newKeySet();
+
+        private final Map<String, double[]> buckets = new HashMap<>();
+
+        final AtomicInteger scriptCalls = new AtomicInteger();
+
+        final AtomicInteger evalCalls = new AtomicInteger();
+
+        RespStub() throws IOException {
+            server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::accept, "resp-stub");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    clients.add(socket);
+                    Thread handler = new Thread(() -> serve(socket), "resp-stub-client");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                InputStream in = new BufferedInputStream(s.getInputStream());
+                OutputStream out = s.getOutputStream();
+                List<String> command;
+                while ((command = readCommand(in)) != null) {
+                    out.write(execute(command).getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // 连接关闭
+            }
+        }
+
+        private String execute(List<String> command) {
+            String name = command.get(0).toUpperCase();
+            switch (name) {
+                case "PING":
+                    return "+PONG\r\n";
+                case "EVAL":
+                    evalCalls.incrementAndGet();
+                    scripts.add(RedisLeasingRateLimiter.LEASE_SCRIPT_SHA);
+                    return lease(command);
+                case "EVALSHA":
+                    if (!scripts.contains(command.get(1))) {
+                        return "-NOSCRIPT No matching script. Please use EVAL.\r\n";
+                    }
+                    return lease(command);
+                default:
+                    return "+OK\r\n";
+            }
+        }
+
+        /**
+         * 与租用脚本相同的令牌桶逻辑
+         */
+        private synchronized String lease(List<String> command) {
+            scriptCalls.incrementAndGet();
+            String key = command.get(3);
+            double rate = Double.parseDouble(command.get(4));
+            double capacity = Double.parseDouble(command.get(5));
+            long requested = Long.parseLong(command.get(6));
+            long minimum = Long.parseLong(command.get(7));
+            long now = System.currentTimeMillis();
+            double[] bucket = buckets.computeIfAbsent(key, k -> new double[]{capacity, now});
+            if (now > bucket[1]) {
+                bucket[0] = Math.min(capacity, bucket[0] + (now - bucket[1]) * rate / 1000);
+                bucket[1] = now;
+            }
+            long granted = 0;
+            if (bucket[0] >= minimum) {
+                granted = Math.min(requested, (long) Math.floor(bucket[0]));
+                bucket[0] -= granted;
+            }
+            return ":" + granted + "\r\n";
+        }
+
+        private static List<String> readCommand(InputStream in) throws IOException {
+            String header = readLine(in);
+            if (header == null) {
+                return null;
+            }
+            int count = Integer.parseInt(header.substring(1));
+            List<String> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = Integer.parseInt(readLine(in).substring(1));
+                byte[] data = new byte[length];
+                int read = 0;
+                while (read < length) {
+                    int n = in.read(data, read, length - read);
+                    if (n < 0) {
+                        return null;
+                    }
+                    read += n;
+                }
+                readLine(in);
+                command.add(new String(data, StandardCharsets.UTF_8));
+            }
+            return command;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '\r') {
+                    in.read();
+                    return line.toString();
+                }
+                line.append((char) c);
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            try {
+                server.close();
+                for (Socket client : clients) {
+                    client.close();
+                }
+            } catch (IOException e) {
+                // 忽略
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 滑动窗口限流器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class SlidingWindowRateLimiterTest {
+
+    @Test
+    void testWindowSlides() {
+        // 4个子窗口组成的窗口，上限10
+        SlidingWindowRateLimiter.Window window = new SlidingWindowRateLimiter.Window(4, -2);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(window.tryAcquire(1, -2, 10));
+        }
+        assertTrue(window.tryAcquire(4, -1, 10));
+        assertFalse(window.tryAcquire(1, 0, 10));
+        assertFalse(window.tryAcquire(1, 1, 10));
+        assertEquals(10, window.count());
+
+        // 第一个子窗口滑出后释放其中的6个
+        assertTrue(window.tryAcquire(6, 2, 10));
+        assertFalse(window.tryAcquire(1, 2, 10));
+        assertEquals(10, window.count());
+
+        // 落后的时间戳计入当前子窗口
+        assertFalse(window.tryAcquire(1, 1, 10));
+
+        // 空闲超过一个完整窗口后全部清空
+        assertTrue(window.tryAcquire(10, 100, 10));
+        assertTrue(window.tryAcquire(10, 200, 10));
+        assertFalse(window.tryAcquire(11, 300, 10));
+    }
+
+    @Test
+    void testPerKeyLimit() {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.SLIDING_WINDOW, 5);
+        config.setWindow(60);
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(config);
+        assertTrue(limiter.tryAcquire("a", 5));
+        assertFalse(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("b"));
+        assertEquals(5, limiter.getCount("a"));
+        assertEquals(0, limiter.getCount("unknown"));
+        assertEquals(RateLimiterType.SLIDING_WINDOW, limiter.getType());
+        assertThrows(IllegalArgumentException.class, () -> {
+            RateLimitConfig invalid = new RateLimitConfig("test", 10);
+            invalid.setSubWindows(0);
+            new SlidingWindowRateLimiter(invalid);
+        });
+    }
+
+    @Test
+    void testContention() throws Exception {
+        int limit = 1000;
+        SlidingWindowRateLimiter.Window window = new SlidingWindowRateLimiter.Window(10, 0);
+        int threads = 8;
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 5000; i++) {
+                    if (window.tryAcquire(1, 0, limit)) {
+                        allowed.increment();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // 超限回退后计数与放行数一致，误差不超过并发线程数
+        assertEquals(allowed.sum(), window.count());
+        assertTrue(allowed.sum() <= limit + threads, "allowed: " + allowed.sum());
+        assertTrue(allowed.sum() >= limit - threads, "allowed: " + allowed.sum());
+    }
+}
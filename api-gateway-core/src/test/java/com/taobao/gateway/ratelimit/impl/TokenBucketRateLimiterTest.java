@@ -0,0 +1,127 @@
+package com.taobao.gateway.ratelimit.impl;
+
+import com.taobao.gateway.ratelimit.RateLimitConfig;
+import com.taobao.gateway.ratelimit.RateLimiterType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌桶限流器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class TokenBucketRateLimiterTest {
+
+    private static TokenBucketRateLimiter limiter(int capacity, int refillRate) {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.TOKEN_BUCKET, refillRate);
+        config.setCapacity(capacity);
+        config.setRefillRate(refillRate);
+        return new TokenBucketRateLimiter(config);
+    }
+
+    @Test
+    void testBurstAndRefill() throws Exception {
+        TokenBucketRateLimiter limiter = limiter(10, 100);
+        assertEquals(10, limiter.getAvailablePermits("a"));
+        assertTrue(limiter.tryAcquire("a", 4));
+        assertEquals(6, limiter.getAvailablePermits("a"));
+        for (int i = 0; i < 6; i++) {
+            assertTrue(limiter.tryAcquire("a"), "permit " + i);
+        }
+        assertFalse(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("b", 11), "超过容量的请求永远无法满足");
+        assertTrue(limiter.tryAcquire("b", 10));
+
+        // 每10ms填充一个令牌
+        Thread.sleep(50);
+        long available = limiter.getAvailablePermits("a");
+        assertTrue(available >= 4 && available <= 10, "available: " + available);
+        assertTrue(limiter.tryAcquire("a", 4));
+    }
+
+    @Test
+    void testKeyStateIsBounded() {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.TOKEN_BUCKET, 1);
+        config.setCapacity(5);
+        config.setRefillRate(1);
+        config.setMaxKeys(1000);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(config);
+        long maxMemory = (long) ((Map<?, ?>) limiter.getStats().get("store")).get("maxMemoryBytes");
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(limiter.tryAcquire("ip-" + i));
+        }
+        // 高基数的键不会让状态无限增长
+        Map<?, ?> store = (Map<?, ?>) limiter.getStats().get("store");
+        assertEquals(maxMemory, store.get("memoryBytes"));
+        assertTrue((long) limiter.getStats().get("totalBuckets") <= maxMemory / 16);
+        assertTrue((long) store.get("evictions") > 0);
+
+        // 最近的键仍保留扣减后的令牌数
+        assertEquals(4, limiter.getAvailablePermits("ip-99999"));
+    }
+
+    @Test
+    void testExactUnderContention() throws Exception {
+        int capacity = 1000;
+        TokenBucketRateLimiter limiter = limiter(capacity, 1);
+        int threads = 8;
+        LongAdder allowed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 5000; i++) {
+                    if (limiter.tryAcquire("hot")) {
+                        allowed.increment();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin);
+        // 初始令牌全部放出，此外每秒只填充一个令牌
+        assertTrue(allowed.sum() >= capacity, "allowed: " + allowed.sum());
+        assertTrue(allowed.sum() <= capacity + elapsedSeconds + 1, "allowed: " + allowed.sum());
+    }
+
+    @Test
+    void testRestartWarmUp() {
+        RateLimitConfig config = new RateLimitConfig("test", RateLimiterType.TOKEN_BUCKET, 100);
+        config.setCapacity(100);
+        config.setRefillRate(100);
+        config.setWarmupPeriodMillis(200);
+        config.setColdFraction(0.1);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(config);
+        long cold = limiter.getAvailablePermits("a");
+        assertTrue(cold >= 10 && cold < 20, "cold: " + cold);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.getAvailablePermits("a") < 100 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(100, limiter.getAvailablePermits("a"));
+
+        // 重新预热后容量立即回到冷启动比例，已有的令牌随之截断
+        limiter.restartWarmUp();
+        long restarted = limiter.getAvailablePermits("a");
+        assertTrue(restarted >= 10 && restarted < 20, "restarted: " + restarted);
+    }
+}
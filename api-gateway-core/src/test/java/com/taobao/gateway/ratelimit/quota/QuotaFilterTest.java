@@ -0,0 +1,206 @@
+package com.taobao.gateway.ratelimit.quota;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import com.taobao.gateway.filter.auth.ApiKeyAuthFilter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多级配额过滤器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class QuotaFilterTest {
+
+    private DefaultFilterChain chain(QuotaFilter filter) {
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.addFilter(filter);
+        chain.addFilter(new UpstreamFilter());
+        return chain;
+    }
+
+    @Test
+    void testDeeperRejectionRollsBack() {
+        QuotaConfig config = new QuotaConfig();
+        QuotaConfig.Route route = new QuotaConfig.Route();
+        route.setPath("/api/orders");
+        route.setRate(1);
+        route.setBurst(2);
+        route.setUser(new QuotaConfig.Limit(1, 1, "header:X-User-Id"));
+        config.setRoutes(Collections.singletonList(route));
+        QuotaFilter filter = new QuotaFilter(config);
+        DefaultFilterChain chain = chain(filter);
+
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request("/api/orders/1", "alice", null)), "user");
+        // 用户级拒绝时退回路由级已扣减的许可
+        assertStatus(HttpResponseStatus.TOO_MANY_REQUESTS, chain.doFilter(request("/api/orders/1", "alice", null)), "user");
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request("/api/orders/2", "bob", null)), "route");
+        assertStatus(HttpResponseStatus.TOO_MANY_REQUESTS, chain.doFilter(request("/api/orders/3", "carol", null)), "route");
+
+        QuotaEvaluator evaluator = filter.getEvaluator();
+        assertEquals(1, evaluator.getRejectedCount(QuotaLevel.USER));
+        assertEquals(1, evaluator.getRejectedCount(QuotaLevel.ROUTE));
+
+        // 未匹配路由规则的请求不受路由级和路由用户级限制
+        FullHttpResponse response = chain.doFilter(request("/api/items", "alice", null));
+        assertEquals(HttpResponseStatus.OK, response.status());
+        assertNull(response.headers().get(QuotaFilter.X_RATE_LIMIT_SCOPE));
+    }
+
+    @Test
+    void testTenantAndGlobalLevels() {
+        QuotaConfig config = new QuotaConfig();
+        config.setGlobalLimit(new QuotaConfig.Limit(1, 5, null));
+        config.getTenant().setRate(1);
+        config.getTenant().setBurst(2);
+        QuotaFilter filter = new QuotaFilter(config);
+        DefaultFilterChain chain = chain(filter);
+
+        FullHttpResponse response = serve(chain, request("/api/a", null, null), "app-1");
+        assertStatus(HttpResponseStatus.OK, response, "tenant");
+        assertEquals("2", response.headers().get(QuotaFilter.X_RATE_LIMIT_LIMIT));
+        assertEquals("1", response.headers().get(QuotaFilter.X_RATE_LIMIT_REMAINING));
+        assertEquals("1", response.headers().get(QuotaFilter.X_RATE_LIMIT_RESET));
+
+        assertStatus(HttpResponseStatus.OK, serve(chain, request("/api/a", null, null), "app-1"), "tenant");
+        response = serve(chain, request("/api/a", null, null), "app-1");
+        assertStatus(HttpResponseStatus.TOO_MANY_REQUESTS, response, "tenant");
+        assertEquals("1", response.headers().get(HttpHeaderNames.RETRY_AFTER));
+
+        // 租户按鉴权得到的应用ID区分，客户端自报的应用ID头不起作用；未鉴权的请求共用匿名租户
+        assertStatus(HttpResponseStatus.OK, serve(chain, request("/api/a", null, "app-9"), null), "tenant");
+        assertStatus(HttpResponseStatus.OK, serve(chain, request("/api/a", null, "app-8"), null), "tenant");
+        assertStatus(HttpResponseStatus.TOO_MANY_REQUESTS, serve(chain, request("/api/a", null, "app-7"), null),
+                "tenant");
+
+        assertStatus(HttpResponseStatus.OK, serve(chain, request("/api/a", null, null), "app-2"), "global");
+        assertStatus(HttpResponseStatus.TOO_MANY_REQUESTS, serve(chain, request("/api/a", null, null), "app-3"),
+                "global");
+        assertEquals(2, filter.getEvaluator().getRejectedCount(QuotaLevel.TENANT));
+        assertEquals(1, filter.getEvaluator().getRejectedCount(QuotaLevel.GLOBAL));
+    }
+
+    @Test
+    void testKeySources() {
+        QuotaConfig config = new QuotaConfig();
+        config.setUser(new QuotaConfig.Limit(1, 1, "query:uid"));
+        DefaultFilterChain chain = chain(new QuotaFilter(config));
+
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request("/a?x=1&uid=7", null, null)), "user");
+        assertStatus(HttpResponseStatus.TOO_MANY_REQUESTS, chain.doFilter(request("/b?uid=7", null, null)), "user");
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request("/b?uid=70", null, null)), "user");
+        assertStatus(HttpResponseStatus.OK, chain.doFilter(request("/b?xuid=7", null, null)), null);
+
+        config.setUser(new QuotaConfig.Limit(1, 1, "cookie:uid"));
+        assertThrows(IllegalArgumentException.class, () -> new QuotaFilter(config));
+    }
+
+    @Test
+    void testIpKeyUsesFullAddress() {
+        QuotaKey ip = QuotaKey.parse("ip");
+        // 两个地址的32位分组相同、顺序不同，InetAddress.hashCode 对二者返回同一个值
+        long first = ipHash(ip, "2001:db8:0:1::");
+        long second = ipHash(ip, "0:1:2001:db8::");
+        assertNotEquals(0, first);
+        assertNotEquals(first, second);
+        assertEquals(first, ipHash(ip, "2001:db8:0:1::"));
+        assertEquals("10.0.0.1", ipValue(ip, "10.0.0.1"));
+    }
+
+    private static long ipHash(QuotaKey key, String clientIp) {
+        FullHttpRequest request = request("/a", null, null);
+        RequestContext previous = RequestContext.attach(new RequestContext(request, client(clientIp)));
+        try {
+            return key.hash(request);
+        } finally {
+            RequestContext.restore(previous);
+        }
+    }
+
+    private static String ipValue(QuotaKey key, String clientIp) {
+        FullHttpRequest request = request("/a", null, null);
+        RequestContext previous = RequestContext.attach(new RequestContext(request, client(clientIp)));
+        try {
+            return key.value(request);
+        } finally {
+            RequestContext.restore(previous);
+        }
+    }
+
+    private static EmbeddedChannel client(String clientIp) {
+        return new EmbeddedChannel() {
+            @Override
+            protected SocketAddress remoteAddress0() {
+                return new InetSocketAddress(clientIp, 40000);
+            }
+        };
+    }
+
+    /**
+     * 以鉴权得到的应用ID（为null表示未鉴权）执行过滤器链
+     */
+    private static FullHttpResponse serve(DefaultFilterChain chain, FullHttpRequest request, String appId) {
+        RequestContext context = new RequestContext(request, null);
+        if (appId != null) {
+            context.setAttribute(ApiKeyAuthFilter.APP_ID, appId);
+        }
+        RequestContext previous = RequestContext.attach(context);
+        try {
+            return chain.doFilter(request);
+        } finally {
+            RequestContext.restore(previous);
+        }
+    }
+
+    private static void assertStatus(HttpResponseStatus status, FullHttpResponse response, String scope) {
+        assertEquals(status, response.status());
+        assertEquals(scope, response.headers().get(QuotaFilter.X_RATE_LIMIT_SCOPE));
+        response.release();
+    }
+
+    private static FullHttpRequest request(String uri, String user, String app) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        if (user != null) {
+            request.headers().set("X-User-Id", user);
+        }
+        if (app != null) {
+            request.headers().set("X-App-Id", app);
+        }
+        return request;
+    }
+
+    /**
+     * 模拟上游返回200
+     */
+    private static class UpstreamFilter implements Filter {
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        }
+
+        @Override
+        public int getOrder() {
+            return 300;
+        }
+    }
+}
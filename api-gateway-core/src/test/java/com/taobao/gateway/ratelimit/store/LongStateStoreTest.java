@@ -0,0 +1,134 @@
+package com.taobao.gateway.ratelimit.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 键状态紧凑存储测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class LongStateStoreTest {
+
+    private static final LongStateStore.StateFunction ADD = (state, now, arg) ->
+            (state == LongStateStore.ABSENT ? now : state) + arg;
+
+    @Test
+    void testGetAndUpdate() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            LongStateStore store = new LongStateStore(1000, 0, offHeap);
+            long key = LongStateStore.hash("client-1");
+            assertEquals(LongStateStore.ABSENT, store.getAndUpdate(key, 100, 50, ADD));
+            assertEquals(150, store.getAndUpdate(key, 100, 50, ADD));
+            assertEquals(200, store.get(key, 120));
+            assertEquals(LongStateStore.ABSENT, store.get(LongStateStore.hash("client-2"), 120));
+
+            // 状态不晚于当前时间即视为空闲，与新键等价
+            assertEquals(LongStateStore.ABSENT, store.get(key, 200));
+            assertEquals(LongStateStore.ABSENT, store.getAndUpdate(key, 300, 10, ADD));
+            assertEquals(310, store.get(key, 300));
+
+            // 返回ABSENT时不创建键
+            store.getAndUpdate(LongStateStore.hash("client-3"), 0, 0, (state, now, arg) -> LongStateStore.ABSENT);
+            assertEquals(1, store.size());
+            assertNotEquals(LongStateStore.hash("client-1"), LongStateStore.hash("client-2"));
+        }
+    }
+
+    @Test
+    void testGrowsWithoutLosingKeys() {
+        LongStateStore store = new LongStateStore(100_000, 0, false);
+        long initial = store.memoryBytes();
+        for (int i = 0; i < 50_000; i++) {
+            store.getAndUpdate(LongStateStore.hash("k" + i), 0, i + 1, ADD);
+        }
+        assertTrue(store.memoryBytes() > initial);
+        int found = 0;
+        for (int i = 0; i < 50_000; i++) {
+            if (store.get(LongStateStore.hash("k" + i), 0) == i + 1) {
+                found++;
+            }
+        }
+        // 扩容期间只在探测范围溢出时淘汰，远未到上限时几乎不发生
+        Map<String, Object> stats = store.getStats();
+        assertEquals(50_000, found + (long) stats.get("evictions"));
+        assertTrue(found > 49_900, "found: " + found);
+        assertEquals(store.memoryBytes(), stats.get("memoryBytes"));
+    }
+
+    @Test
+    void testMemoryCap() {
+        LongStateStore store = new LongStateStore(10_000, 0, true);
+        long maxMemory = (long) store.getStats().get("maxMemoryBytes");
+        for (int i = 0; i < 200_000; i++) {
+            store.getAndUpdate(LongStateStore.hash("ip-" + i), 0, 1_000_000 + i, ADD);
+        }
+        Map<String, Object> stats = store.getStats();
+        assertEquals(maxMemory, stats.get("memoryBytes"));
+        assertTrue(store.size() <= maxMemory / 16);
+        assertTrue((long) stats.get("evictions") > 0);
+        // 淘汰最久不活跃（状态最小）的键，最近的键仍在
+        assertEquals(1_000_000 + 199_999, store.get(LongStateStore.hash("ip-199999"), 0));
+
+        // 全部空闲后新键复用槽位，只有探测范围恰好被新键占满时才淘汰
+        long evictions = (long) stats.get("evictions");
+        for (int i = 0; i < 10_000; i++) {
+            store.getAndUpdate(LongStateStore.hash("user-" + i), 10_000_000, 1, ADD);
+        }
+        stats = store.getStats();
+        assertTrue((long) stats.get("evictions") - evictions < 100, "evictions: " + stats.get("evictions"));
+        assertTrue((long) stats.get("reclaimed") > 0);
+        assertEquals(maxMemory, stats.get("memoryBytes"));
+    }
+
+    @Test
+    void testConcurrentUpdatesDuringResize() throws Exception {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            LongStateStore store = new LongStateStore(200_000, 0, offHeap);
+            long hot = LongStateStore.hash("hot");
+            int threads = 4;
+            int updates = 20_000;
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] workers = new Thread[threads * 2];
+            for (int t = 0; t < threads; t++) {
+                workers[t] = new Thread(() -> {
+                    await(start);
+                    for (int i = 0; i < updates; i++) {
+                        store.getAndUpdate(hot, 0, 1, ADD);
+                    }
+                });
+                // 同时插入新键，使各分段反复扩容和迁移
+                int base = t * 25_000;
+                workers[threads + t] = new Thread(() -> {
+                    await(start);
+                    for (int i = 0; i < 25_000; i++) {
+                        store.getAndUpdate(LongStateStore.hash("k" + (base + i)), 0, 1, ADD);
+                    }
+                });
+            }
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            // 无锁更新与扩容交错时不丢失任何一次更新
+            assertEquals(threads * updates, store.get(hot, 0));
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.taobao.gateway.router;
+
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import com.taobao.gateway.router.predicate.PredicateDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由匹配器与批量版本化更新测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class DefaultRouteMatcherTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultRouteMatcherTest.class);
+
+    private DefaultRouteMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new DefaultRouteMatcher();
+    }
+
+    @Test
+    void testMatchOrder() {
+        Route exact = new Route("exact", "/api/users", "GET", "http://users");
+        Route prefix = new Route("prefix", "/api/", "GET", "http://api");
+        prefix.setType(RouteType.PREFIX);
+        Route regex = new Route("regex", "/item/\\d+", "GET", "http://items");
+        regex.setType(RouteType.REGEX);
+
+        matcher.applyBatch(new RouteBatch().add(exact).add(prefix).add(regex));
+
+        assertSame(exact, matcher.match("/api/users", "GET"));
+        assertSame(prefix, matcher.match("/api/orders", "GET"));
+        assertSame(regex, matcher.match("/item/42", "GET"));
+        assertNull(matcher.match("/item/abc", "GET"));
+        assertNull(matcher.match("/api/users", "POST"));
+    }
+
+    @Test
+    void testVersionIsMonotonic() {
+        assertEquals(0, matcher.getVersion());
+
+        long v1 = matcher.applyBatch(new RouteBatch().add(new Route("r1", "/a", "http://a")));
+        long v2 = matcher.applyBatch(new RouteBatch().add(new Route("r2", "/b", "http://b")));
+        long v3 = matcher.applyBatch(new RouteBatch());
+
+        assertEquals(1, v1);
+        assertEquals(2, v2);
+        assertEquals(2, v3, "空批次不应产生新版本");
+        assertEquals(2, matcher.getAllRoutes().size());
+    }
+
+    @Test
+    void testBatchAppliesAtomically() {
+        matcher.applyBatch(new RouteBatch()
+                .add(new Route("r1", "/a", "http://a"))
+                .add(new Route("r2", "/b", "http://b")));
+        RouteTable before = matcher.getRouteTable();
+
+        Route updated = new Route("r1", "/a", "http://a-v2");
+        long version = matcher.applyBatch(new RouteBatch()
+                .update(updated)
+                .remove("r2")
+                .add(new Route("r3", "/c", "http://c")));
+
+        // 旧快照不受影响
+        assertEquals("http://a", before.match("/a", "GET").getTarget());
+        assertNotNull(before.match("/b", "GET"));
+
+        RouteTable after = matcher.getRouteTable();
+        assertEquals(version, after.getVersion());
+        assertSame(updated, after.match("/a", "GET"));
+        assertNull(after.match("/b", "GET"));
+        assertNotNull(after.match("/c", "GET"));
+    }
+
+    @Test
+    void testUpdateHasNoGap() {
+        matcher.addRoute(new Route("r1", "/a", "http://a"));
+        matcher.updateRoute(new Route("r1", "/a", "http://a-v2"));
+
+        assertEquals(1, matcher.getAllRoutes().size());
+        assertEquals("http://a-v2", matcher.match("/a", "GET").getTarget());
+    }
+
+    @Test
+    void testSingleRouteChangesAreIncremental() {
+        Route first = new Route("r1", "/a", "http://a");
+        Route prefix = new Route("p1", "/api/", "GET", "http://api");
+        prefix.setType(RouteType.PREFIX);
+        Route post = new Route("r2", "/a", "POST", "http://a-post");
+        matcher.addRoute(first);
+        matcher.addRoute(prefix);
+        matcher.addRoute(post);
+        RouteTable before = matcher.getRouteTable();
+        assertEquals(3, before.getVersion());
+
+        // 更新只重建该路由所在方法的索引，其他方法的已编译路由共享
+        Route moved = new Route("r1", "/b", "PUT", "http://b");
+        matcher.updateRoute(moved);
+        RouteTable after = matcher.getRouteTable();
+        assertNull(after.match("/a", "GET"));
+        assertSame(moved, after.match("/b", "PUT"));
+        assertSame(prefix, after.match("/api/x", "GET"));
+        assertSame(before.getCompiledRoute("r2"), after.getCompiledRoute("r2"));
+        assertEquals("r1", after.getRoutes().iterator().next().getId(), "替换时保持原有顺序");
+
+        matcher.removeRoute("p1");
+        matcher.removeRoute("missing");
+        assertNull(matcher.match("/api/x", "GET"));
+        assertSame(post, matcher.match("/a", "POST"));
+        assertEquals(6, matcher.getVersion());
+    }
+
+    @Test
+    void testMutatedRouteIsRecompiled() {
+        Route route = new Route("r1", "/a", "http://a");
+        Route other = new Route("r2", "/b", "http://b");
+        matcher.applyBatch(new RouteBatch().add(route).add(other));
+        CompiledRoute otherCompiled = matcher.getRouteTable().getCompiledRoute("r2");
+        assertSame(route, matcher.match("/a", "GET"));
+
+        // 原地修改同一实例后重新提交，断言必须重新编译
+        route.setPredicates(Collections.singletonList(PredicateDefinition.header("X-Tenant", "tmall")));
+        matcher.applyBatch(new RouteBatch().update(route));
+        assertNull(matcher.match("/a", "GET"));
+        assertSame(otherCompiled, matcher.getRouteTable().getCompiledRoute("r2"), "未变更的路由复用已编译结果");
+
+        route.setPredicates(null);
+        matcher.updateRoute(route);
+        assertSame(route, matcher.match("/a", "GET"));
+    }
+
+    @Test
+    void testAddRoutesCommitsOnce() {
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            routes.add(new Route("route-" + i, "/api/service-" + i, "http://backend"));
+        }
+        assertEquals(1, matcher.addRoutes(routes));
+        assertEquals(1000, matcher.getRouteTable().size());
+        assertEquals("route-999", matcher.match("/api/service-999", "GET").getId());
+    }
+
+    @Test
+    void testReplaceAll() {
+        matcher.applyBatch(new RouteBatch().add(new Route("r1", "/a", "http://a")));
+        matcher.applyBatch(new RouteBatch().replaceAll(Collections.singletonList(new Route("r2", "/b", "http://b"))));
+
+        assertNull(matcher.match("/a", "GET"));
+        assertNotNull(matcher.match("/b", "GET"));
+
+        matcher.applyBatch(new RouteBatch().replaceAll(Collections.emptyList()));
+        assertTrue(matcher.getAllRoutes().isEmpty());
+    }
+
+    @Test
+    void testLargeBatch() {
+        int count = 100_000;
+        List<Route> routes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            routes.add(new Route("route-" + i, "/api/service-" + i, "http://backend-" + (i % 100)));
+        }
+
+        long startTime = System.nanoTime();
+        matcher.applyBatch(new RouteBatch().replaceAll(routes));
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        logger.info("提交{}条路由耗时: {}ms", count, elapsedMillis);
+
+        assertEquals(count, matcher.getRouteTable().size());
+        assertEquals("route-99999", matcher.match("/api/service-99999", "GET").getId());
+
+        startTime = System.nanoTime();
+        matcher.removeRoute("route-500");
+        elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        logger.info("在{}条路由中移除单条路由耗时: {}ms", count, elapsedMillis);
+
+        assertNull(matcher.match("/api/service-500", "GET"));
+        assertEquals(count - 1, matcher.getRouteTable().size());
+    }
+}
@@ -0,0 +1,100 @@
+package com.taobao.gateway.router.predicate;
+
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteBatch;
+import com.taobao.gateway.router.RouteTable;
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由断言编译测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class PredicateCompilerTest {
+
+    private static final List<PredicateCompiler> COMPILERS = Arrays.asList(
+            InterpretedPredicateCompiler.INSTANCE, MethodHandlePredicateCompiler.INSTANCE);
+
+    @Test
+    void testCompilersAgree() {
+        List<PredicateDefinition> definitions = Arrays.asList(
+                PredicateDefinition.header("X-Tenant", "tmall"),
+                new PredicateDefinition(PredicateType.COOKIE, "session", MatchMode.EXISTS, null),
+                new PredicateDefinition(PredicateType.QUERY, "version", MatchMode.PREFIX, "v2"),
+                new PredicateDefinition(PredicateType.HEADER, "User-Agent", MatchMode.REGEX, ".*Mobile.*"));
+
+        RouteRequest matching = request("/a?version=v2.1", "tmall", "session=1", "Foo Mobile Bar");
+        RouteRequest[] mismatching = {
+                request("/a?version=v2.1", "taobao", "session=1", "Foo Mobile Bar"),
+                request("/a?version=v2.1", "tmall", "other=1", "Foo Mobile Bar"),
+                request("/a?version=v1", "tmall", "session=1", "Foo Mobile Bar"),
+                request("/a", "tmall", "session=1", "Foo Mobile Bar"),
+                request("/a?version=v2.1", "tmall", "session=1", "Desktop"),
+                RouteRequest.of("/a", "GET")
+        };
+
+        for (PredicateCompiler compiler : COMPILERS) {
+            RequestPredicate predicate = compiler.compile(definitions);
+            assertTrue(predicate.test(matching), compiler.getClass().getSimpleName());
+            for (RouteRequest request : mismatching) {
+                assertFalse(predicate.test(request), compiler.getClass().getSimpleName() + " " + request);
+            }
+            assertSame(RequestPredicate.ALWAYS, compiler.compile(null));
+        }
+    }
+
+    @Test
+    void testInvalidDefinitionRejected() {
+        for (PredicateCompiler compiler : COMPILERS) {
+            assertThrows(IllegalArgumentException.class, () -> compiler.compile(Arrays.asList(
+                    new PredicateDefinition(PredicateType.HEADER, "X-Tenant", MatchMode.EQUALS, null))));
+            assertThrows(IllegalArgumentException.class, () -> compiler.compile(Arrays.asList(
+                    new PredicateDefinition(PredicateType.HEADER, "X-Tenant", MatchMode.REGEX, "("))));
+        }
+    }
+
+    @Test
+    void testRouteTableEvaluatesPredicates() {
+        Route tmall = new Route("tmall", "/api/items", "http://tmall");
+        tmall.getPredicates().add(PredicateDefinition.header("X-Tenant", "tmall"));
+        Route fallback = new Route("default", "/api/items", "http://default");
+
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        matcher.applyBatch(new RouteBatch().add(tmall).add(fallback));
+
+        assertSame(tmall, matcher.match(request("/api/items?x=1", "tmall", null, null)));
+        assertSame(fallback, matcher.match(request("/api/items", "taobao", null, null)));
+        // 仅按路径匹配时跳过带断言的路由
+        assertSame(fallback, matcher.match("/api/items", "GET"));
+
+        // 未变更的路由在新版本中复用编译结果
+        RouteTable before = matcher.getRouteTable();
+        matcher.applyBatch(new RouteBatch().add(new Route("other", "/other", "http://other")));
+        assertSame(before.getCompiledRoute("tmall"), matcher.getRouteTable().getCompiledRoute("tmall"));
+    }
+
+    private static RouteRequest request(String uri, String tenant, String cookie, String userAgent) {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+        if (tenant != null) {
+            request.headers().set("X-Tenant", tenant);
+        }
+        if (cookie != null) {
+            request.headers().set("Cookie", cookie);
+        }
+        if (userAgent != null) {
+            request.headers().set("User-Agent", userAgent);
+        }
+        return RouteRequest.from(request);
+    }
+}
@@ -0,0 +1,153 @@
+package com.taobao.gateway.router.snapshot;
+
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteBatch;
+import com.taobao.gateway.router.RouteTable;
+import com.taobao.gateway.router.RouteType;
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import com.taobao.gateway.router.predicate.PredicateDefinition;
+import com.taobao.gateway.router.predicate.PredicateType;
+import com.taobao.gateway.router.split.StickyKey;
+import com.taobao.gateway.router.split.WeightedTarget;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由表快照编解码与恢复测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class RouteSnapshotCodecTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteSnapshotCodecTest.class);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        Route exact = new Route("exact", "/api/用户", "POST", "http://users");
+        exact.setWeight(30);
+        exact.setTimeout(1500);
+        exact.getParameters().put("tenant", "tmall");
+        exact.getPredicates().add(PredicateDefinition.header("X-Tenant", "tmall"));
+        exact.getTargets().add(new WeightedTarget("canary", "http://canary", 5));
+        exact.setSticky(StickyKey.cookie("uid"));
+        exact.setGroup("public");
+        exact.getFilters().add("auth");
+        Route regex = new Route("regex", "/item/\\d+", "GET", "http://items");
+        regex.setType(RouteType.REGEX);
+        regex.setEnabled(false);
+        RouteTable table = RouteTable.build(7, List.of(exact, regex), null);
+
+        Path file = tempDir.resolve("routes.snapshot");
+        RouteSnapshotCodec.write(table, file);
+        RouteSnapshotCodec.RouteSnapshot snapshot = RouteSnapshotCodec.read(file);
+
+        assertEquals(7, snapshot.getVersion());
+        assertEquals(2, snapshot.getRoutes().size());
+        Route decoded = snapshot.getRoutes().get(0);
+        assertEquals("exact", decoded.getId());
+        assertEquals("/api/用户", decoded.getPath());
+        assertEquals("POST", decoded.getMethod());
+        assertEquals(30, decoded.getWeight());
+        assertEquals(1500, decoded.getTimeout());
+        assertEquals("tmall", decoded.getParameters().get("tenant"));
+        assertEquals("X-Tenant", decoded.getPredicates().get(0).getName());
+        assertEquals(PredicateType.HEADER, decoded.getPredicates().get(0).getType());
+        assertEquals("http://canary", decoded.getTargets().get(0).getTarget());
+        assertEquals(5, decoded.getTargets().get(0).getWeight());
+        assertEquals(PredicateType.COOKIE, decoded.getSticky().getType());
+        assertNull(snapshot.getRoutes().get(1).getSticky());
+        assertEquals("public", decoded.getGroup());
+        assertEquals(Collections.singletonList("auth"), decoded.getFilters());
+        assertNull(snapshot.getRoutes().get(1).getGroup());
+        assertEquals(RouteType.REGEX, snapshot.getRoutes().get(1).getType());
+        assertFalse(snapshot.getRoutes().get(1).isEnabled());
+    }
+
+    @Test
+    void testCorruptedSnapshotIsRejected() throws IOException {
+        Path file = tempDir.resolve("routes.snapshot");
+        RouteSnapshotCodec.write(RouteTable.build(1, List.of(new Route("r1", "/a", "http://a")), null), file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), 30);
+        }
+        assertThrows(IOException.class, () -> RouteSnapshotCodec.read(file));
+
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        RouteSnapshotManager manager = new RouteSnapshotManager(matcher, config(file));
+        assertFalse(manager.load());
+        assertEquals(0, matcher.getVersion());
+    }
+
+    @Test
+    void testStartupFromSnapshot() throws IOException {
+        int count = 100_000;
+        List<Route> routes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            routes.add(new Route("route-" + i, "/api/service-" + i, "http://backend-" + (i % 100)));
+        }
+        DefaultRouteMatcher source = new DefaultRouteMatcher();
+        source.applyBatch(new RouteBatch().replaceAll(routes));
+
+        Path file = tempDir.resolve("routes.snapshot");
+        RouteSnapshotCodec.write(source.getRouteTable(), file);
+        logger.info("快照文件大小: {}KB", Files.size(file) / 1024);
+
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        RouteSnapshotManager manager = new RouteSnapshotManager(matcher, config(file));
+        long startTime = System.nanoTime();
+        assertTrue(manager.load());
+        logger.info("从快照恢复{}条路由耗时: {}ms", count, (System.nanoTime() - startTime) / 1_000_000);
+
+        assertEquals(source.getVersion(), matcher.getVersion());
+        assertEquals(count, matcher.getRouteTable().size());
+        assertEquals("route-99999", matcher.match("/api/service-99999", "GET").getId());
+
+        // 已恢复过时不重复恢复
+        assertFalse(manager.load());
+    }
+
+    @Test
+    void testStaleSnapshotDoesNotOverrideCommittedRoutes() throws IOException {
+        // 上次运行留下的快照版本号高于本进程的版本计数
+        DefaultRouteMatcher previousRun = new DefaultRouteMatcher();
+        for (int i = 0; i < 5; i++) {
+            previousRun.addRoute(new Route("old-" + i, "/old/" + i, "http://old"));
+        }
+        Path file = tempDir.resolve("stale.snapshot");
+        RouteSnapshotCodec.write(previousRun.getRouteTable(), file);
+
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        matcher.addRoute(new Route("new", "/new", "http://new"));
+        RouteSnapshotManager manager = new RouteSnapshotManager(matcher, config(file));
+        assertFalse(manager.load());
+        assertNotNull(matcher.match("/new", "GET"));
+        assertNull(matcher.match("/old/0", "GET"));
+        assertEquals(1, matcher.getVersion());
+    }
+
+    private static RouteSnapshotConfig config(Path file) {
+        RouteSnapshotConfig config = new RouteSnapshotConfig();
+        config.setPath(file.toString());
+        return config;
+    }
+}
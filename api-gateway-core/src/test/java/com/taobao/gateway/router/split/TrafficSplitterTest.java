@@ -0,0 +1,245 @@
+package com.taobao.gateway.router.split;
+
+import com.taobao.gateway.dispatcher.RequestContext;
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import com.taobao.gateway.handler.HttpRequestHandler;
+import com.taobao.gateway.router.CompiledRoute;
+import com.taobao.gateway.router.DefaultRouteManager;
+import com.taobao.gateway.router.Route;
+import com.taobao.gateway.router.RouteBatch;
+import com.taobao.gateway.router.impl.DefaultRouteMatcher;
+import com.taobao.gateway.router.predicate.RouteRequest;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 加权流量分配测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class TrafficSplitterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrafficSplitterTest.class);
+
+    @Test
+    void testWeightedDistribution() {
+        Route route = grayRoute(90, 9, 1);
+        TrafficSplitter splitter = TrafficSplitter.of(route);
+        RouteRequest request = RouteRequest.of("/api/items", "GET");
+
+        int total = 1_000_000;
+        int[] counts = new int[splitter.size()];
+        for (int i = 0; i < total; i++) {
+            counts[splitter.select(request)]++;
+        }
+        logger.info("分流结果: {}", Arrays.toString(counts));
+        assertEquals(0.90, counts[0] / (double) total, 0.005);
+        assertEquals(0.09, counts[1] / (double) total, 0.005);
+        assertEquals(0.01, counts[2] / (double) total, 0.002);
+    }
+
+    @Test
+    void testAliasTableIsExact() {
+        // 对高32位均匀取值时，各目标命中比例应与权重一致
+        TrafficSplitter splitter = TrafficSplitter.of(grayRoute(5, 3, 2));
+        int steps = 1 << 16;
+        int[] counts = new int[splitter.size()];
+        for (int column = 0; column < splitter.size(); column++) {
+            for (int step = 0; step < steps; step++) {
+                long bits = ((long) Integer.divideUnsigned(-1, splitter.size()) * column + 1) << 32
+                        | ((long) step << 16);
+                counts[splitter.select(bits)]++;
+            }
+        }
+        int sum = steps * splitter.size();
+        assertEquals(0.5, counts[0] / (double) sum, 0.001);
+        assertEquals(0.3, counts[1] / (double) sum, 0.001);
+        assertEquals(0.2, counts[2] / (double) sum, 0.001);
+    }
+
+    @Test
+    void testStickyAssignment() {
+        Route route = grayRoute(50, 50, 0);
+        route.setSticky(StickyKey.header("X-User-Id"));
+        TrafficSplitter splitter = TrafficSplitter.of(route);
+        assertEquals(2, splitter.size(), "权重为0的目标不参与分配");
+
+        int[] counts = new int[splitter.size()];
+        for (int user = 0; user < 10_000; user++) {
+            RouteRequest request = request("user-" + user);
+            int first = splitter.select(request);
+            for (int i = 0; i < 5; i++) {
+                assertEquals(first, splitter.select(request));
+            }
+            counts[first]++;
+        }
+        assertEquals(0.5, counts[0] / 10_000.0, 0.03);
+    }
+
+    @Test
+    void testStickyCookie() {
+        Route route = grayRoute(50, 50, 0);
+        route.setSticky(StickyKey.cookie("uid"));
+        TrafficSplitter splitter = TrafficSplitter.of(route);
+
+        for (int user = 0; user < 1000; user++) {
+            int expected = splitter.select(TrafficSplitter.hash("user-" + user));
+            assertEquals(expected, splitter.select(cookieRequest("uid=user-" + user)));
+            // 只取指定名称的Cookie，忽略名称前缀相同的其他Cookie
+            assertEquals(expected, splitter.select(cookieRequest("uidx=1; session=abc;  uid=\"user-" + user + "\"; uid=other")));
+        }
+        assertNull(cookieRequest("uidx=1; session=abc").cookie("uid"));
+        assertEquals("", cookieRequest("uid=").cookie("uid"));
+    }
+
+    @Test
+    void testSelectedTargetReachesServingPath() {
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        matcher.applyBatch(new RouteBatch().add(grayRoute(0, 100, 0)));
+        DefaultRouteManager routeManager = new DefaultRouteManager();
+        ReflectionTestUtils.setField(routeManager, "routeMatcher", matcher);
+
+        List<String> targets = new ArrayList<>();
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.setOffloadExecutor(Runnable::run);
+        chain.addFilter(new TargetCaptureFilter(targets));
+
+        HttpRequestHandler handler = new HttpRequestHandler();
+        ReflectionTestUtils.setField(handler, "filterChain", chain);
+        ReflectionTestUtils.setField(handler, "routeManager", routeManager);
+        EmbeddedChannel channel = new EmbeddedChannel(handler);
+        channel.writeInbound(new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items"));
+        FullHttpResponse response = channel.readOutbound();
+        assertEquals(HttpResponseStatus.OK, response.status());
+        response.release();
+
+        // 过滤器从请求上下文读到分流选中的目标，而不是路由的默认目标
+        assertEquals(Arrays.asList("canary", "http://canary"), targets);
+    }
+
+    @Test
+    void testInvalidTargets() {
+        Route route = grayRoute(0, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> TrafficSplitter.of(route));
+        assertNull(TrafficSplitter.of(new Route("r", "/a", "http://a")));
+
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        assertThrows(IllegalArgumentException.class, () -> matcher.applyBatch(new RouteBatch().add(route)));
+        assertEquals(0, matcher.getVersion(), "非法权重不应发布新版本");
+    }
+
+    @Test
+    void testWeightChangeIsPublishedWithTable() {
+        DefaultRouteMatcher matcher = new DefaultRouteMatcher();
+        matcher.applyBatch(new RouteBatch().add(grayRoute(100, 0, 0)));
+        CompiledRoute before = matcher.getRouteTable().getCompiledRoute("gray");
+
+        matcher.applyBatch(new RouteBatch().update(grayRoute(0, 100, 0)));
+        CompiledRoute after = matcher.getRouteTable().getCompiledRoute("gray");
+
+        RouteRequest request = RouteRequest.of("/api/items", "GET");
+        assertEquals("http://stable", before.getTarget(before.selectTarget(request)));
+        assertEquals("http://canary", after.getTarget(after.selectTarget(request)));
+        assertEquals("canary", after.getTargetName(after.selectTarget(request)));
+    }
+
+    @Test
+    void testSelectionDoesNotAllocate() {
+        Route route = grayRoute(90, 10, 0);
+        route.setSticky(StickyKey.header("X-User-Id"));
+        TrafficSplitter splitter = TrafficSplitter.of(route);
+        TrafficSplitter random = TrafficSplitter.of(grayRoute(90, 10, 0));
+        RouteRequest sticky = request("user-42");
+        RouteRequest plain = RouteRequest.of("/api/items", "GET");
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().getId();
+
+        int sink = 0;
+        for (int i = 0; i < 100_000; i++) {
+            sink += random.select(plain) + splitter.select(sticky);
+        }
+        long before = threadBean.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 100_000; i++) {
+            sink += random.select(plain);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(id) - before;
+        logger.info("随机分流10万次分配字节数: {} (sink={})", allocated, sink);
+        assertTrue(allocated < 1024, "随机分流不应分配对象: " + allocated);
+    }
+
+    private static Route grayRoute(int stable, int canary, int experiment) {
+        Route route = new Route("gray", "/api/items", "http://default");
+        route.getTargets().add(new WeightedTarget("stable", "http://stable", stable));
+        route.getTargets().add(new WeightedTarget("canary", "http://canary", canary));
+        route.getTargets().add(new WeightedTarget("experiment", "http://experiment", experiment));
+        return route;
+    }
+
+    private static RouteRequest request(String userId) {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items");
+        request.headers().set("X-User-Id", userId);
+        return RouteRequest.from(request);
+    }
+
+    private static RouteRequest cookieRequest(String cookie) {
+        DefaultFullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/api/items");
+        request.headers().set("Cookie", cookie);
+        return RouteRequest.from(request);
+    }
+
+    /**
+     * 记录请求上下文中的目标并返回200
+     */
+    private static class TargetCaptureFilter implements Filter {
+
+        private final List<String> targets;
+
+        TargetCaptureFilter(List<String> targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            RequestContext.RouteInfo routeInfo = RequestContext.current().getRouteInfo();
+            targets.add(routeInfo.getTargetService());
+            targets.add(routeInfo.getTargetUrl());
+            return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        }
+
+        @Override
+        public int getOrder() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return "target-capture";
+        }
+    }
+}
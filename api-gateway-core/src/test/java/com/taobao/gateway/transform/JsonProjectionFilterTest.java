@@ -0,0 +1,143 @@
+package com.taobao.gateway.transform;
+
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 响应字段投影过滤器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class JsonProjectionFilterTest {
+
+    private static final String BODY = "{\"id\":7,\"user\":{\"name\":\"alice\",\"email\":\"a@taobao.com\",\"tags\":[\"x\"]},"
+            + "\"items\":[{\"sku\":\"a\",\"price\":1.5,\"extra\":{\"k\":1}},{\"sku\":\"b\",\"price\":2}],\"debug\":null}";
+
+    private JsonProjectionFilter filter;
+
+    private DefaultFilterChain chain;
+
+    private HttpResponseStatus upstreamStatus;
+
+    @BeforeEach
+    void setUp() {
+        JsonProjectionConfig config = new JsonProjectionConfig();
+        config.setMaxFields(4);
+        filter = new JsonProjectionFilter(config);
+        chain = new DefaultFilterChain();
+        chain.addFilter(filter);
+        chain.addFilter(new UpstreamFilter());
+        upstreamStatus = HttpResponseStatus.OK;
+    }
+
+    @Test
+    void testProjection() throws IOException {
+        assertEquals("{\"id\":7,\"user\":{\"name\":\"alice\"},\"items\":[{\"sku\":\"a\"},{\"sku\":\"b\"}]}",
+                project("id,user.name,items.sku"));
+        // 列出对象本身时保留全部内容
+        assertEquals("{\"user\":{\"name\":\"alice\",\"email\":\"a@taobao.com\",\"tags\":[\"x\"]}}",
+                project("user.name,user"));
+        assertEquals("{\"items\":[{\"price\":1.5,\"extra\":{\"k\":1}},{\"price\":2}]}",
+                project("items.price,items.extra"));
+        assertEquals("{}", project("missing"));
+        assertEquals("[{\"id\":1},{\"id\":2}]", projectBody("id", "[{\"id\":1,\"n\":2},{\"id\":2}]"));
+    }
+
+    @Test
+    void testFilterCachesPlans() {
+        for (int i = 0; i < 3; i++) {
+            FullHttpResponse response = chain.doFilter(request("/api/orders?page=1&fields=id%2Cuser.name"));
+            assertEquals("{\"id\":7,\"user\":{\"name\":\"alice\"}}", response.content().toString(StandardCharsets.UTF_8));
+            assertEquals(String.valueOf(response.content().readableBytes()),
+                    response.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+            response.release();
+        }
+        assertEquals(3, filter.getProjectedCount());
+        assertEquals(1, filter.getCompiledPlanCount());
+
+        // 无投影参数或参数名仅前缀相同时原样返回
+        for (String uri : new String[]{"/api/orders", "/api/orders?xfields=id"}) {
+            FullHttpResponse response = chain.doFilter(request(uri));
+            assertEquals(BODY, response.content().toString(StandardCharsets.UTF_8));
+            response.release();
+        }
+
+        // 错误响应不做投影
+        upstreamStatus = HttpResponseStatus.NOT_FOUND;
+        FullHttpResponse response = chain.doFilter(request("/api/orders?fields=id"));
+        assertEquals(BODY, response.content().toString(StandardCharsets.UTF_8));
+        response.release();
+    }
+
+    @Test
+    void testInvalidFieldsRejected() {
+        for (String uri : new String[]{"/api/orders?fields=a,b,c,d,e", "/api/orders?fields=", "/api/orders?fields=a..b"}) {
+            FullHttpResponse response = chain.doFilter(request(uri));
+            assertEquals(HttpResponseStatus.BAD_REQUEST, response.status(), uri);
+            response.release();
+        }
+        assertEquals(3, filter.getRejectedCount());
+        assertNull(JsonProjectionFilter.parameter("/a?b=1", "fields"));
+        assertEquals("x,y", JsonProjectionFilter.parameter("/a?b=1&fields=x,y&c", "fields"));
+    }
+
+    private String project(String fields) throws IOException {
+        return projectBody(fields, BODY);
+    }
+
+    private static String projectBody(String fields, String body) throws IOException {
+        ByteBuf input = Unpooled.copiedBuffer(body, StandardCharsets.UTF_8);
+        ByteBuf output = new JsonStreamTransformer().transform(input, JsonTransformSpec.projection(fields, 64),
+                PooledByteBufAllocator.DEFAULT);
+        try {
+            return output.toString(StandardCharsets.UTF_8);
+        } finally {
+            output.release();
+            input.release();
+        }
+    }
+
+    private static FullHttpRequest request(String uri) {
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, uri);
+    }
+
+    /**
+     * 模拟上游返回固定JSON
+     */
+    private class UpstreamFilter implements Filter {
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, upstreamStatus,
+                    Unpooled.copiedBuffer(BODY, StandardCharsets.UTF_8));
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json;charset=UTF-8");
+            return response;
+        }
+
+        @Override
+        public int getOrder() {
+            return 300;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.taobao.gateway.transform;
+
+import com.taobao.gateway.filter.DefaultFilterChain;
+import com.taobao.gateway.filter.Filter;
+import com.taobao.gateway.filter.FilterChain;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JSON报文转换过滤器测试类
+ *
+ * @author taobao
+ * @version 1.0.0
+ * @since 2024-01-01
+ */
+public class JsonTransformFilterTest {
+
+    private final JsonStreamTransformer transformer = new JsonStreamTransformer();
+
+    @Test
+    void testRenameRemoveAndSet() throws IOException {
+        JsonTransformConfig.Spec spec = new JsonTransformConfig.Spec();
+        spec.getRename().put("user.name", "login");
+        spec.getRename().put("items.sku", "skuId");
+        spec.getRemove().add("user.password");
+        spec.getRemove().add("debug");
+        spec.getSet().put("user.source", "\"gateway\"");
+        spec.getSet().put("meta.version", "2");
+        spec.getSet().put("items.checked", "true");
+
+        String input = "{\"user\":{\"name\":\"alice\",\"password\":{\"hash\":[1,2,{\"x\":null}]},\"source\":\"app\"},"
+                + "\"debug\":[true,false],\"price\":1.10,\"big\":12345678901234567890,"
+                + "\"items\":[{\"sku\":\"a\\\"b\",\"n\":1},{\"sku\":\"c\",\"checked\":false}],\"text\":\"中文\"}";
+        String expected = "{\"user\":{\"login\":\"alice\",\"source\":\"gateway\"},"
+                + "\"price\":1.10,\"big\":12345678901234567890,"
+                + "\"items\":[{\"skuId\":\"a\\\"b\",\"n\":1,\"checked\":true},{\"skuId\":\"c\",\"checked\":true}],"
+                + "\"text\":\"中文\",\"meta\":{\"version\":2}}";
+        assertEquals(expected, transform(input, JsonTransformSpec.compile(spec)));
+
+        // 根为数组时规格作用于每个元素，缺失的中间对象按需创建
+        JsonTransformConfig.Spec arraySpec = new JsonTransformConfig.Spec();
+        arraySpec.getRename().put("user.name", "login");
+        arraySpec.getSet().put("user.source", "\"gateway\"");
+        assertEquals("[{\"user\":{\"login\":\"bob\",\"source\":\"gateway\"}},{\"user\":{\"source\":\"gateway\"}},3]",
+                transform("[{\"user\":{\"name\":\"bob\"}},{},3]", JsonTransformSpec.compile(arraySpec)));
+    }
+
+    @Test
+    void testChunkedInputAndLargeBody() throws IOException {
+        JsonTransformConfig.Spec spec = new JsonTransformConfig.Spec();
+        spec.getRemove().add("rows.secret");
+        spec.getRename().put("rows.id", "rowId");
+        JsonTransformSpec compiled = JsonTransformSpec.compile(spec);
+
+        StringBuilder input = new StringBuilder("{\"rows\":[");
+        StringBuilder expected = new StringBuilder("{\"rows\":[");
+        for (int i = 0; i < 20000; i++) {
+            String separator = i == 0 ? "" : ",";
+            input.append(separator).append("{\"id\":").append(i).append(",\"secret\":\"s").append(i)
+                    .append("\",\"v\":[").append(i).append(".5]}");
+            expected.append(separator).append("{\"rowId\":").append(i).append(",\"v\":[").append(i).append(".5]}");
+        }
+        input.append("]}");
+        expected.append("]}");
+
+        // 以很小的分段拼成复合缓冲区，token会跨越分段边界
+        byte[] bytes = input.toString().getBytes(StandardCharsets.UTF_8);
+        CompositeByteBuf composite = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+        for (int offset = 0; offset < bytes.length; offset += 7) {
+            ByteBuf chunk = PooledByteBufAllocator.DEFAULT.directBuffer(7);
+            chunk.writeBytes(bytes, offset, Math.min(7, bytes.length - offset));
+            composite.addComponent(true, chunk);
+        }
+        try {
+            ByteBuf output = transformer.transform(composite, compiled, PooledByteBufAllocator.DEFAULT);
+            assertEquals(expected.toString(), output.toString(StandardCharsets.UTF_8));
+            output.release();
+            assertEquals(0, composite.readerIndex());
+        } finally {
+            composite.release();
+        }
+    }
+
+    @Test
+    void testMalformedInput() throws IOException {
+        JsonTransformConfig.Spec spec = new JsonTransformConfig.Spec();
+        spec.getRemove().add("a");
+        JsonTransformSpec compiled = JsonTransformSpec.compile(spec);
+        for (String invalid : new String[]{"{\"a\":", "{\"a\":1}}", "{\"a\" 1}", "{} {}", ""}) {
+            ByteBuf input = Unpooled.copiedBuffer(invalid, StandardCharsets.UTF_8);
+            assertThrows(IOException.class, () -> transformer.transform(input, compiled, PooledByteBufAllocator.DEFAULT), invalid);
+            input.release();
+        }
+        // 出错后实例可继续使用
+        assertEquals("{\"b\":2}", transform("{\"a\":{\"x\":[1]},\"b\":2}", compiled));
+
+        JsonTransformConfig.Spec conflict = new JsonTransformConfig.Spec();
+        conflict.getRemove().add("a");
+        conflict.getSet().put("a", "1");
+        assertThrows(IllegalArgumentException.class, () -> JsonTransformSpec.compile(conflict));
+        JsonTransformConfig.Spec invalidValue = new JsonTransformConfig.Spec();
+        invalidValue.getSet().put("a", "not json");
+        assertThrows(IllegalArgumentException.class, () -> JsonTransformSpec.compile(invalidValue));
+        // 空值与多个值都不是单个合法JSON值
+        for (String value : new String[]{"", "   ", "1 2", "{} []"}) {
+            invalidValue.getSet().put("a", value);
+            assertThrows(IllegalArgumentException.class, () -> JsonTransformSpec.compile(invalidValue), value);
+        }
+        invalidValue.getSet().put("a", " null ");
+        assertEquals("{\"a\":null,\"b\":2}", transform("{\"a\":1,\"b\":2}", JsonTransformSpec.compile(invalidValue)));
+    }
+
+    @Test
+    void testFilterTransformsRequestAndResponse() {
+        JsonTransformConfig.Rule rule = new JsonTransformConfig.Rule();
+        rule.setPath("/api/users");
+        rule.setMethod("POST");
+        rule.getRequest().getRename().put("name", "userName");
+        rule.getResponse().getRemove().add("userName");
+        rule.getResponse().getSet().put("ok", "true");
+        JsonTransformConfig config = new JsonTransformConfig();
+        config.setRules(Collections.singletonList(rule));
+        JsonTransformFilter filter = new JsonTransformFilter(config);
+
+        DefaultFilterChain chain = new DefaultFilterChain();
+        chain.addFilter(filter);
+        chain.addFilter(new EchoFilter());
+
+        FullHttpResponse response = chain.doFilter(request(HttpMethod.POST, "/api/users/1", "{\"name\":\"alice\",\"age\":3}"));
+        assertEquals("{\"age\":3,\"ok\":true}", response.content().toString(StandardCharsets.UTF_8));
+        assertEquals(String.valueOf(response.content().readableBytes()), response.headers().get(HttpHeaderNames.CONTENT_LENGTH));
+        response.release();
+        assertEquals(1, filter.getTransformedRequestCount());
+        assertEquals(1, filter.getTransformedResponseCount());
+
+        // 方法不匹配时不转换
+        response = chain.doFilter(request(HttpMethod.PUT, "/api/users/1", "{\"name\":\"alice\"}"));
+        assertEquals("{\"name\":\"alice\"}", response.content().toString(StandardCharsets.UTF_8));
+        response.release();
+
+        response = chain.doFilter(request(HttpMethod.POST, "/api/users/1", "{\"name\":"));
+        assertEquals(HttpResponseStatus.BAD_REQUEST, response.status());
+        response.release();
+        assertEquals(1, filter.getFailureCount());
+    }
+
+    private String transform(String input, JsonTransformSpec spec) throws IOException {
+        ByteBuf buffer = Unpooled.copiedBuffer(input, StandardCharsets.UTF_8);
+        ByteBuf output = transformer.transform(buffer, spec, PooledByteBufAllocator.DEFAULT);
+        try {
+            return output.toString(StandardCharsets.UTF_8);
+        } finally {
+            output.release();
+            buffer.release();
+        }
+    }
+
+    private static FullHttpRequest request(HttpMethod method, String uri, String body) {
+        FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, method, uri,
+                Unpooled.copiedBuffer(body, StandardCharsets.UTF_8));
+        request.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=UTF-8");
+        return request;
+    }
+
+    /**
+     * 将请求体原样作为响应返回
+     */
+    private static class EchoFilter implements Filter {
+
+        @Override
+        public FullHttpResponse doFilter(FullHttpRequest request, FilterChain chain) {
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                    request.content().retainedDuplicate());
+            response.headers().set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            return response;
+        }
+
+        @Override
+        public int getOrder() {
+            return 300;
+        }
+    }
+}
@@ -76,6 +76,11 @@ public class GatewayClientConfig {
      */
     private String appId;
     
+    /**
+     * 请求签名密钥，设置后对每个请求计算 X-Signature
+     */
+    private String appSecret;
+    
     /**
      * 默认构造函数
      */
@@ -197,6 +202,14 @@ public class GatewayClientConfig {
         this.appId = appId;
     }
     
+    public String getAppSecret() {
+        return appSecret;
+    }
+    
+    public void setAppSecret(String appSecret) {
+        this.appSecret = appSecret;
+    }
+    
     @Override
     public String toString() {
         return "GatewayClientConfig{" +
@@ -213,6 +226,7 @@ public class GatewayClientConfig {
                 ", enableSsl=" + enableSsl +
                 ", apiKey='" + (apiKey != null ? "***" : null) + '\'' +
                 ", appId='" + appId + '\'' +
+                ", appSecret='" + (appSecret != null ? "***" : null) + '\'' +
                 '}';
     }
 } 
\ No newline at end of file
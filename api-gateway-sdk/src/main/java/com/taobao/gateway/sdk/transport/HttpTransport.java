@@ -16,8 +16,12 @@ import io.netty.handler.timeout.IdleStateHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -120,8 +124,9 @@ public class HttpTransport {
      * @param request 网关请求
      * @param uri URI
      * @return HTTP请求
+     * @throws GeneralSecurityException 请求签名失败
      */
-    private FullHttpRequest createHttpRequest(GatewayRequest request, URI uri) {
+    private FullHttpRequest createHttpRequest(GatewayRequest request, URI uri) throws GeneralSecurityException {
         // 构建查询字符串
         StringBuilder queryString = new StringBuilder();
         if (request.getQueryParams() != null && !request.getQueryParams().isEmpty()) {
@@ -169,10 +174,31 @@ public class HttpTransport {
         if (config.getAppId() != null) {
             httpRequest.headers().set("X-App-Id", config.getAppId());
         }
+        if (config.getAppSecret() != null) {
+            sign(httpRequest);
+        }
         
         return httpRequest;
     }
     
+    /**
+     * 计算请求签名：Base64(HMAC-SHA256(appSecret, METHOD + "\n" + URI + "\n" + TIMESTAMP + "\n" + BODY))
+     * 
+     * @param httpRequest HTTP请求
+     * @throws GeneralSecurityException HmacSHA256不可用或密钥无效
+     */
+    private void sign(FullHttpRequest httpRequest) throws GeneralSecurityException {
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(config.getAppSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String prefix = httpRequest.method().name() + "\n" + httpRequest.uri() + "\n" + timestamp + "\n";
+        mac.update(prefix.getBytes(StandardCharsets.UTF_8));
+        ByteBuf content = httpRequest.content();
+        mac.update(content.nioBuffer(content.readerIndex(), content.readableBytes()));
+        httpRequest.headers().set("X-Timestamp", timestamp);
+        httpRequest.headers().set("X-Signature", Base64.getEncoder().encodeToString(mac.doFinal()));
+    }
+    
     /**
      * 关闭传输层
      */